@@ -0,0 +1,85 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.event.EventBus;
+import com.ismail.fleetShare.infrastructure.event.WaitStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost to a publisher of putting a vehicle state change on the {@link EventBus}, with
+ * one consumer using each wait strategy, or none at all.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventBusBenchmark {
+
+    @Param({"none", "busy-spin", "yielding", "sleeping", "blocking"})
+    public String consumer;
+
+    private EventBus bus;
+    private Vehicle vehicle;
+
+    @Setup
+    public void setUp() {
+        bus = new EventBus();
+        vehicle = new Scooter("s1", "Xiaomi", "150 KG", Money.of(0.3));
+        WaitStrategy strategy;
+        switch (consumer) {
+            case "none":
+                return;
+            case "busy-spin":
+                strategy = WaitStrategy.busySpin();
+                break;
+            case "yielding":
+                strategy = WaitStrategy.yielding();
+                break;
+            case "sleeping":
+                strategy = WaitStrategy.sleeping(100, TimeUnit.MICROSECONDS);
+                break;
+            case "blocking":
+                strategy = WaitStrategy.blocking();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown wait strategy: " + consumer);
+        }
+        bus.addConsumer("benchmark", (event, sequence, endOfBatch) -> Blackhole.consumeCPU(1), strategy);
+    }
+
+    @TearDown
+    public void tearDown() {
+        bus.close();
+    }
+
+    @Benchmark
+    public void publish() {
+        bus.publishVehicleState(vehicle, VehicleState.AVAILABLE, VehicleState.IN_USE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void publishFourThreads() {
+        bus.publishVehicleState(vehicle, VehicleState.AVAILABLE, VehicleState.IN_USE);
+    }
+}
@@ -0,0 +1,143 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.columnar.ColumnarVehicleStore;
+import com.ismail.fleetShare.infrastructure.columnar.VehicleView;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * Heap footprint and GC pauses of a large fleet in the heap layout of
+ * {@link InMemoryVehicleRepository} or the columns of {@link ColumnarVehicleStore}.
+ *
+ * Builds the fleet (cars, e-bikes and scooters in equal numbers, each with a price
+ * and a location), reports the live heap after a full collection and how long an
+ * explicit full collection takes, then claims or releases random vehicles by id and
+ * reports every collection that ran meanwhile. Run each layout in its own
+ * JVM with the same flags, e.g.
+ *
+ *   java -Xmx3g -cp benchmarks.jar com.ismail.fleetShare.benchmarks.FleetFootprint heap 5000000 2000000
+ *   java -Xmx3g -cp benchmarks.jar com.ismail.fleetShare.benchmarks.FleetFootprint columnar 5000000 2000000
+ *
+ * Arguments are the layout, the number of vehicles (default 5,000,000) and the number
+ * of claims (default 2,000,000).
+ */
+public final class FleetFootprint {
+
+    private FleetFootprint() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !(args[0].equals("heap") || args[0].equals("columnar"))) {
+            System.err.println("Usage: FleetFootprint heap|columnar [vehicles] [claims]");
+            System.exit(2);
+        }
+        boolean columnar = args[0].equals("columnar");
+        int vehicles = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        int claims = args.length > 2 ? Integer.parseInt(args[2]) : 2_000_000;
+
+        long before = liveHeap();
+        long start = System.nanoTime();
+        IntPredicate claim;
+        if (columnar) {
+            ColumnarVehicleStore store = new ColumnarVehicleStore(vehicles);
+            for (int i = 0; i < vehicles; i++) {
+                store.save(vehicle(i));
+            }
+            claim = i -> {
+                VehicleView view = store.findById(id(i));
+                return view.compareAndSetState(VehicleState.AVAILABLE, VehicleState.IN_USE)
+                        || view.compareAndSetState(VehicleState.IN_USE, VehicleState.AVAILABLE);
+            };
+        } else {
+            InMemoryVehicleRepository repository = new InMemoryVehicleRepository();
+            for (int i = 0; i < vehicles; i++) {
+                repository.save(vehicle(i));
+            }
+            claim = i -> {
+                Vehicle vehicle = repository.findById(id(i));
+                return vehicle.compareAndSetState(VehicleState.AVAILABLE, VehicleState.IN_USE)
+                        || vehicle.compareAndSetState(VehicleState.IN_USE, VehicleState.AVAILABLE);
+            };
+        }
+        long built = System.nanoTime() - start;
+        long live = liveHeap() - before;
+        long fullStart = System.nanoTime();
+        System.gc();
+        long fullGc = System.nanoTime() - fullStart;
+
+        System.out.printf("%s layout, %,d vehicles, built in %.1f s%n", args[0], vehicles, built / 1e9);
+        System.out.printf("  live heap        %,d MB (%d bytes per vehicle)%n", live >> 20, live / vehicles);
+        System.out.printf("  full GC          %.1f ms%n", fullGc / 1e6);
+
+        AtomicLong collections = new AtomicLong();
+        AtomicLong totalMillis = new AtomicLong();
+        AtomicLong maxMillis = new AtomicLong();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (notification.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) {
+                    long millis = GarbageCollectionNotificationInfo
+                            .from((CompositeData) notification.getUserData()).getGcInfo().getDuration();
+                    collections.incrementAndGet();
+                    totalMillis.addAndGet(millis);
+                    maxMillis.accumulateAndGet(millis, Math::max);
+                }
+            }, null, null);
+        }
+        SplittableRandom random = new SplittableRandom(3);
+        int changed = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < claims; i++) {
+            if (claim.test(random.nextInt(vehicles))) {
+                changed++;
+            }
+        }
+        long claimed = System.nanoTime() - start;
+        System.out.printf("  claims           %,d in %.1f s (%.0f ns each, %,d changed)%n",
+                claims, claimed / 1e9, (double) claimed / claims, changed);
+        System.out.printf("  collections      %d, %d ms in total, %d ms longest%n",
+                collections.get(), totalMillis.get(), maxMillis.get());
+    }
+
+    private static Vehicle vehicle(int i) {
+        Vehicle vehicle;
+        switch (i % 3) {
+            case 0:
+                vehicle = new Car(id(i), "Tesla", "Electric", Money.of(1.0));
+                break;
+            case 1:
+                vehicle = new EBike(id(i), "Cowboy", "80%", Money.of(0.2));
+                break;
+            default:
+                vehicle = new Scooter(id(i), "Xiaomi", "150 KG", Money.of(0.3));
+                break;
+        }
+        vehicle.setLocation(GeoPoint.of(48 + (i % 4000) * 0.001, 2 + (i / 4000 % 4000) * 0.001));
+        return vehicle;
+    }
+
+    private static String id(int i) {
+        return "vehicle-" + i;
+    }
+
+    private static long liveHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
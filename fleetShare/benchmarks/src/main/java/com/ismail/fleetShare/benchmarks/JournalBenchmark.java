@@ -0,0 +1,158 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.journal.JournalRecovery;
+import com.ismail.fleetShare.infrastructure.journal.TripJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Journaling trips through {@link TripService} and recovering from the journal, with
+ * 100,000 riders and 100,000 scooters.
+ *
+ * {@code append} starts and ends one trip per operation, which writes four records:
+ * the vehicle going IN_USE, the trip start, the vehicle going AVAILABLE and the trip
+ * end. Its score times four is the sustained event rate. {@code recover} replays a
+ * journal of {@code events} records into empty repositories, in seconds.
+ *
+ *   java -jar benchmarks.jar JournalBenchmark.recover -p events=50000000
+ */
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class JournalBenchmark {
+
+    private static final int FLEET = 100_000;
+
+    @State(Scope.Benchmark)
+    public static class Appending {
+
+        private Path directory;
+        private TripJournal journal;
+        private TripService tripService;
+        private User[] users;
+        private Vehicle[] vehicles;
+        private int next;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("journal-append");
+            journal = new TripJournal(directory);
+            InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+            InMemoryUserRepository userRepo = new InMemoryUserRepository();
+            tripService = new TripService(vehicleRepo, userRepo, new TimeBasedPricing(Money.of(0.5)));
+            users = new User[FLEET];
+            vehicles = new Vehicle[FLEET];
+            fill(vehicleRepo, userRepo, journal, users, vehicles);
+            tripService.setJournal(journal);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            journal.close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Written {
+
+        @Param({"1000000", "50000000"})
+        public long events;
+
+        private Path directory;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("journal-recover");
+            try (TripJournal journal = new TripJournal(directory)) {
+                InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+                InMemoryUserRepository userRepo = new InMemoryUserRepository();
+                TripService tripService = new TripService(vehicleRepo, userRepo, new TimeBasedPricing(Money.of(0.5)));
+                User[] users = new User[FLEET];
+                Vehicle[] vehicles = new Vehicle[FLEET];
+                fill(vehicleRepo, userRepo, journal, users, vehicles);
+                tripService.setJournal(journal);
+                for (int i = 0; journal.getAppendedCount() < events; i++) {
+                    int at = i % FLEET;
+                    Trip trip = tripService.startTrip(users[at], vehicles[at]);
+                    tripService.endTrip(trip.getId().getValue());
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public Trip append(Appending state) {
+        int at = state.next++ % FLEET;
+        Trip trip = state.tripService.startTrip(state.users[at], state.vehicles[at]);
+        state.tripService.endTrip(trip.getId().getValue());
+        return trip;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public long recover(Written state) throws IOException {
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        InMemoryUserRepository userRepo = new InMemoryUserRepository();
+        return JournalRecovery.recover(state.directory, vehicleRepo, userRepo,
+                new TripService(vehicleRepo, userRepo, new TimeBasedPricing(Money.of(0.5))));
+    }
+
+    private static void fill(InMemoryVehicleRepository vehicleRepo, InMemoryUserRepository userRepo,
+                             TripJournal journal, User[] users, Vehicle[] vehicles) {
+        vehicleRepo.setJournal(journal);
+        userRepo.setJournal(journal);
+        for (int i = 0; i < FLEET; i++) {
+            users[i] = new User("user-" + i, "Rider " + i, MembershipTier.values()[i % 3]);
+            userRepo.save(users[i]);
+            vehicles[i] = new Scooter("scooter-" + i, "Xiaomi", "150 KG", Money.of(0.3));
+            vehicleRepo.save(vehicles[i]);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.infrastructure.mapped.MappedUserRepository;
+import com.ismail.fleetShare.infrastructure.mapped.UserCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency of the memory-mapped user repository at 50 million users, sampled so
+ * that percentiles are reported.
+ *
+ * The files are built once under {@code java.io.tmpdir} (about 2.6 GB, a few minutes)
+ * and reused by later runs. {@code uniform} looks up random users with the cache off,
+ * so every lookup probes the table and reads a record; {@code skewed} looks up users
+ * with a Zipf-like popularity, the chance of the k most popular users being ln(k)/ln(n),
+ * through a 65,536-user cache that about 60% of the lookups hit. {@code scan} streams the
+ * tiers of the first million slots through a cursor.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class MappedUserRepositoryBenchmark {
+
+    private static final int KEYS = 1 << 20;
+
+    @Param({"50000000"})
+    int users;
+
+    private MappedUserRepository uniformRepo;
+    private MappedUserRepository skewedRepo;
+    private final String[] uniform = new String[KEYS];
+    private final String[] skewed = new String[KEYS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path directory = Path.of(System.getProperty("java.io.tmpdir"), "fleetshare-users-" + users);
+        if (!Files.exists(directory.resolve("users.idx"))) {
+            try (MappedUserRepository repository = new MappedUserRepository(directory, users, 0)) {
+                MembershipTier[] tiers = MembershipTier.values();
+                for (int i = 0; i < users; i++) {
+                    repository.save(new User("user-" + i, "Rider " + i, tiers[i % tiers.length]));
+                }
+            }
+        }
+        uniformRepo = new MappedUserRepository(directory, users, 0);
+        skewedRepo = new MappedUserRepository(directory, users, MappedUserRepository.DEFAULT_CACHE_SIZE);
+        if (uniformRepo.size() != users) {
+            throw new IllegalStateException(directory + " holds " + uniformRepo.size() + " users, delete it");
+        }
+        Random random = new Random(9);
+        for (int i = 0; i < KEYS; i++) {
+            uniform[i] = "user-" + random.nextInt(users);
+            skewed[i] = "user-" + ((int) Math.exp(random.nextDouble() * Math.log(users)) - 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        uniformRepo.close();
+        skewedRepo.close();
+    }
+
+    @Benchmark
+    public User uniform() {
+        return uniformRepo.findById(uniform[next++ & (KEYS - 1)]);
+    }
+
+    @Benchmark
+    public User skewed() {
+        return skewedRepo.findById(skewed[next++ & (KEYS - 1)]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int scan() {
+        UserCursor cursor = uniformRepo.findAll();
+        int vip = 0;
+        for (int i = 0; i < 1_000_000 && cursor.next(); i++) {
+            if (cursor.getMembershipTier() == MembershipTier.VIP) {
+                vip++;
+            }
+        }
+        return vip;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.infrastructure.metrics.Counter;
+import com.ismail.fleetShare.infrastructure.metrics.LatencyTimer;
+import com.ismail.fleetShare.infrastructure.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of one recorded operation. {@code timed} is what an instrumented method
+ * adds with the default sampling, {@code timedEveryCall} with every call timed, and
+ * {@code clockReads} is the two clock reads alone, so the difference between the last
+ * two is the histogram update.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    private final LatencyTimer sampled = new MetricsRegistry().timer("trips.start");
+    private final LatencyTimer everyCall = new MetricsRegistry(1).timer("trips.start");
+    private final Counter counter = new MetricsRegistry().counter("trips.start.rejected");
+
+    @Benchmark
+    public long clockReads() {
+        long start = System.nanoTime();
+        return System.nanoTime() - start;
+    }
+
+    @Benchmark
+    public void timed() {
+        sampled.end(sampled.begin());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void timedFourThreads() {
+        sampled.end(sampled.begin());
+    }
+
+    @Benchmark
+    public void timedEveryCall() {
+        everyCall.end(everyCall.begin());
+    }
+
+    @Benchmark
+    public void increment() {
+        counter.increment();
+    }
+}
@@ -0,0 +1,166 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.domain.common.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Money} arithmetic, and folding 10M trip prices into revenue with
+ * {@link Money#sum} and with a stream reduce over {@link Money#add}.
+ *
+ * The {@code legacy} benchmarks run the same work on {@link LegacyMoney}, a copy of the
+ * {@code BigDecimal}-backed representation {@link Money} had before it kept amounts as
+ * a {@code long}, as the baseline for the new one.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private static final int PRICES = 10_000_000;
+
+    private Money price;
+    private Money fee;
+    private double factor;
+    private LegacyMoney legacyPrice;
+    private LegacyMoney legacyFee;
+
+    @Setup
+    public void setUp() {
+        price = Money.of(12.35);
+        fee = Money.of(0.99);
+        factor = 1.37;
+        legacyPrice = LegacyMoney.of(12.35);
+        legacyFee = LegacyMoney.of(0.99);
+    }
+
+    /**
+     * The same prices in both representations, built once per fork.
+     */
+    @State(Scope.Benchmark)
+    public static class Revenue {
+        List<Money> prices;
+        List<LegacyMoney> legacyPrices;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(42);
+            prices = new ArrayList<>(PRICES);
+            legacyPrices = new ArrayList<>(PRICES);
+            for (int i = 0; i < PRICES; i++) {
+                long units = 100 + random.nextInt(5_000_000);
+                prices.add(Money.ofMinor(units, "USD"));
+                legacyPrices.add(new LegacyMoney(BigDecimal.valueOf(units, Money.SCALE), "USD"));
+            }
+        }
+    }
+
+    @Benchmark
+    public Money add() {
+        return price.add(fee);
+    }
+
+    @Benchmark
+    public Money subtract() {
+        return price.subtract(fee);
+    }
+
+    @Benchmark
+    public Money multiplyByDouble() {
+        return price.multiply(factor);
+    }
+
+    @Benchmark
+    public Money multiplyByLong() {
+        return price.multiply(3L);
+    }
+
+    @Benchmark
+    public Money ofDouble() {
+        return Money.of(factor);
+    }
+
+    @Benchmark
+    public LegacyMoney legacyAdd() {
+        return legacyPrice.add(legacyFee);
+    }
+
+    @Benchmark
+    public LegacyMoney legacyMultiplyByDouble() {
+        return legacyPrice.multiply(factor);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Money revenueSum(Revenue revenue) {
+        return Money.sum(revenue.prices.iterator());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Money revenueReduce(Revenue revenue) {
+        return revenue.prices.stream().reduce(Money.zero(), Money::add);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public LegacyMoney legacyRevenueReduce(Revenue revenue) {
+        return revenue.legacyPrices.stream().reduce(LegacyMoney.zero(), LegacyMoney::add);
+    }
+
+    /**
+     * Money as it was: a {@code BigDecimal} and a currency compared with equals.
+     */
+    public static final class LegacyMoney {
+        private final BigDecimal amount;
+        private final String currency;
+
+        LegacyMoney(BigDecimal amount, String currency) {
+            this.amount = amount;
+            this.currency = currency;
+        }
+
+        static LegacyMoney of(double value) {
+            return new LegacyMoney(BigDecimal.valueOf(value), "USD");
+        }
+
+        static LegacyMoney zero() {
+            return new LegacyMoney(BigDecimal.ZERO, "USD");
+        }
+
+        LegacyMoney add(LegacyMoney other) {
+            checkCurrency(other);
+            return new LegacyMoney(amount.add(other.amount), currency);
+        }
+
+        LegacyMoney multiply(double factor) {
+            return new LegacyMoney(amount.multiply(BigDecimal.valueOf(factor)), currency);
+        }
+
+        private void checkCurrency(LegacyMoney other) {
+            if (!currency.equals(other.currency)) {
+                throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+            }
+        }
+    }
+}
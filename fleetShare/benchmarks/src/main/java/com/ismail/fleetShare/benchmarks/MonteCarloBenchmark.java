@@ -0,0 +1,64 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.simulation.MonteCarloRunner;
+import com.ismail.fleetShare.simulation.Scenario;
+import com.ismail.fleetShare.simulation.ScenarioSummary;
+import com.ismail.fleetShare.simulation.SimulationConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to run 32 replicas of two three-hour scenarios with {@link MonteCarloRunner} at
+ * several worker counts. Replicas share nothing, so on a host with at least
+ * {@code parallelism} cores the time should fall close to 1/parallelism of the
+ * single-threaded time; on fewer cores the extra workers only add scheduling.
+ *
+ *   java -jar benchmarks.jar MonteCarloBenchmark -p parallelism=1,2,4,8
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MonteCarloBenchmark {
+
+    private static final int REPLICAS = 16;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private List<Scenario> scenarios;
+    private MonteCarloRunner runner;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        scenarios = List.of(
+                new Scenario("scooters", new SimulationConfig()
+                        .setDuration(Duration.ofHours(3)).setVehicles(100).setUsers(300)
+                        .setCarShare(0).setEbikeShare(0)),
+                new Scenario("vip-heavy", new SimulationConfig()
+                        .setDuration(Duration.ofHours(3)).setVehicles(100).setUsers(300)
+                        .setVipShare(0.5)));
+        runner = new MonteCarloRunner(parallelism);
+    }
+
+    @Benchmark
+    public List<ScenarioSummary> run() {
+        return runner.run(scenarios, REPLICAS, seed++);
+    }
+}
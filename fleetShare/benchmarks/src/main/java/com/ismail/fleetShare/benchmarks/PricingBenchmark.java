@@ -0,0 +1,101 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.domain.common.Distance;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.DistanceBasedPricing;
+import com.ismail.fleetShare.domain.price.HybridPricing;
+import com.ismail.fleetShare.domain.price.PricingCompiler;
+import com.ismail.fleetShare.domain.price.PricingStrategy;
+import com.ismail.fleetShare.domain.price.SurgeDecorator;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripId;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price of one trip for each {@link PricingStrategy} and for surge decorator chains of
+ * every depth from 1 ({@code surge}) to 8 ({@code surge-x8}) over a hybrid price,
+ * interpreted and compiled by {@link PricingCompiler}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingBenchmark {
+
+    @Param({"time", "distance", "hybrid", "surge", "surge-x2", "surge-x3", "surge-x4",
+            "surge-x5", "surge-x6", "surge-x7", "surge-x8"})
+    public String strategy;
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    private PricingStrategy pricing;
+    private Trip trip;
+
+    @Setup
+    public void setUp() {
+        PricingStrategy hybrid = new HybridPricing(new TimeBasedPricing(Money.of(0.5)),
+                new DistanceBasedPricing(Money.of(0.2)));
+        switch (strategy) {
+            case "time":
+                pricing = new TimeBasedPricing(Money.of(0.5));
+                break;
+            case "distance":
+                pricing = new DistanceBasedPricing(Money.of(0.2));
+                break;
+            case "hybrid":
+                pricing = hybrid;
+                break;
+            case "surge":
+                pricing = new SurgeDecorator(hybrid, 1.5);
+                break;
+            default:
+                if (!strategy.startsWith("surge-x")) {
+                    throw new IllegalArgumentException("Unknown strategy: " + strategy);
+                }
+                pricing = surges(hybrid, Integer.parseInt(strategy.substring("surge-x".length())));
+        }
+        if (compiled) {
+            pricing = PricingCompiler.compile(pricing);
+        }
+
+        trip = new Trip(new TripId(1), new User("u1", "Rider", MembershipTier.PREMIUM),
+                new Scooter("s1", "Xiaomi", "150 KG", Money.of(0.3)));
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 8, 0);
+        trip.setStartTime(start);
+        trip.setEndTime(start.plusMinutes(23).plusSeconds(17));
+        trip.setDistance(Distance.of(6.4));
+    }
+
+    @Benchmark
+    public Money price() {
+        return pricing.calculatePrice(trip);
+    }
+
+    private static PricingStrategy surges(PricingStrategy base, int depth) {
+        PricingStrategy pricing = base;
+        for (int i = 0; i < depth; i++) {
+            pricing = new SurgeDecorator(pricing, 1.0 + 0.05 * (i + 1));
+        }
+        return pricing;
+    }
+}
@@ -0,0 +1,226 @@
+package com.ismail.fleetShare.benchmarks;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the benchmarks named in a thresholds file with the GC profiler and fails when a
+ * score or an allocation rate crosses its threshold.
+ *
+ * Each line of the file holds a benchmark, optionally narrowed to some parameter values,
+ * a metric, a comparison and a bound:
+ *
+ *   PricingBenchmark.price{strategy=hybrid,compiled=true}  score               >=  5
+ *   PricingBenchmark.price{strategy=hybrid,compiled=true}  gc.alloc.rate.norm  <=  120
+ *
+ * {@code score} is the primary result in the benchmark's own unit; any other metric is a
+ * secondary result, e.g. {@code gc.alloc.rate.norm} in bytes per operation. Blank lines
+ * and lines starting with # are ignored. Arguments after the file are passed to JMH, e.g.
+ * {@code -f 1 -wi 2 -i 3}; without an include pattern only the benchmarks in the file run.
+ * The exit status is 1 when a threshold is crossed and 2 on a usage error.
+ */
+public final class RegressionCheck {
+
+    private RegressionCheck() {
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        if (args.length == 0) {
+            System.err.println("Usage: RegressionCheck <thresholds file> [JMH options]");
+            System.exit(2);
+        }
+        List<Threshold> thresholds = Threshold.parseAll(Path.of(args[0]));
+        CommandLineOptions jmhOptions;
+        try {
+            jmhOptions = new CommandLineOptions(Arrays.copyOfRange(args, 1, args.length));
+        } catch (CommandLineOptionException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(jmhOptions).addProfiler(GCProfiler.class);
+        if (jmhOptions.getIncludes().isEmpty()) {
+            Set<String> benchmarks = new LinkedHashSet<>();
+            for (Threshold threshold : thresholds) {
+                benchmarks.add(threshold.benchmark);
+            }
+            for (String benchmark : benchmarks) {
+                options.include("\\." + Pattern.quote(benchmark) + "$");
+            }
+        }
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        List<String> failures = check(thresholds, results);
+        System.out.println();
+        System.out.printf("Checked %d thresholds against %d results: %d failed%n",
+                thresholds.size(), results.size(), failures.size());
+        for (String failure : failures) {
+            System.out.println("  FAIL " + failure);
+        }
+        System.exit(failures.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * Returns a description of every threshold crossed, or of a threshold no result
+     * matched.
+     */
+    static List<String> check(List<Threshold> thresholds, Collection<RunResult> results) {
+        List<String> failures = new ArrayList<>();
+        for (Threshold threshold : thresholds) {
+            int matched = 0;
+            for (RunResult result : results) {
+                if (!threshold.matches(result.getParams())) {
+                    continue;
+                }
+                matched++;
+                Result<?> metric = threshold.metric(result);
+                String name = shortName(result.getParams()) + " " + threshold.metric;
+                if (metric == null) {
+                    failures.add(name + ": not measured");
+                } else if (!threshold.accepts(metric.getScore())) {
+                    failures.add(String.format("%s = %.3f %s, expected %s %s",
+                            name, metric.getScore(), metric.getScoreUnit(), threshold.comparison, threshold.bound));
+                }
+            }
+            if (matched == 0) {
+                failures.add(threshold.line + ": no benchmark result matches");
+            }
+        }
+        return failures;
+    }
+
+    private static String shortName(BenchmarkParams params) {
+        String benchmark = params.getBenchmark();
+        int method = benchmark.lastIndexOf('.');
+        String name = benchmark.substring(benchmark.lastIndexOf('.', method - 1) + 1);
+        if (params.getParamsKeys().isEmpty()) {
+            return name;
+        }
+        StringBuilder out = new StringBuilder(name).append('{');
+        for (String key : params.getParamsKeys()) {
+            if (out.charAt(out.length() - 1) != '{') {
+                out.append(',');
+            }
+            out.append(key).append('=').append(params.getParam(key));
+        }
+        return out.append('}').toString();
+    }
+
+    /**
+     * One line of the thresholds file.
+     */
+    static final class Threshold {
+
+        final String line;
+        final String benchmark;
+        final Map<String, String> params;
+        final String metric;
+        final String comparison;
+        final double bound;
+
+        private Threshold(String line, String benchmark, Map<String, String> params,
+                          String metric, String comparison, double bound) {
+            this.line = line;
+            this.benchmark = benchmark;
+            this.params = params;
+            this.metric = metric;
+            this.comparison = comparison;
+            this.bound = bound;
+        }
+
+        static List<Threshold> parseAll(Path file) throws IOException {
+            List<Threshold> thresholds = new ArrayList<>();
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String trimmed = line.trim();
+                if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                    thresholds.add(parse(trimmed));
+                }
+            }
+            return thresholds;
+        }
+
+        /**
+         * Parses {@code Class.method{key=value,...} metric op bound}.
+         *
+         * @throws IllegalArgumentException if the line is malformed
+         */
+        static Threshold parse(String line) {
+            String[] fields = line.split("\\s+");
+            if (fields.length != 4 || !(fields[2].equals(">=") || fields[2].equals("<="))) {
+                throw new IllegalArgumentException("Expected 'benchmark metric >=|<= bound': " + line);
+            }
+            String benchmark = fields[0];
+            Map<String, String> params = new LinkedHashMap<>();
+            int brace = benchmark.indexOf('{');
+            if (brace >= 0) {
+                if (!benchmark.endsWith("}")) {
+                    throw new IllegalArgumentException("Unclosed parameter list: " + line);
+                }
+                for (String pair : benchmark.substring(brace + 1, benchmark.length() - 1).split(",")) {
+                    int eq = pair.indexOf('=');
+                    if (eq <= 0) {
+                        throw new IllegalArgumentException("Expected key=value: " + line);
+                    }
+                    params.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+                }
+                benchmark = benchmark.substring(0, brace);
+            }
+            try {
+                return new Threshold(line, benchmark, params, fields[1], fields[2], Double.parseDouble(fields[3]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid bound: " + line);
+            }
+        }
+
+        boolean matches(BenchmarkParams result) {
+            if (!result.getBenchmark().endsWith("." + benchmark)) {
+                return false;
+            }
+            for (Map.Entry<String, String> param : params.entrySet()) {
+                if (!param.getValue().equals(result.getParam(param.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Finds the metric; older JMH versions prefix secondary results with a dot.
+         */
+        Result<?> metric(RunResult result) {
+            if (metric.equals("score")) {
+                return result.getPrimaryResult();
+            }
+            // JMH declares the map with the raw Result type
+            Result<?> found = result.getSecondaryResults().get(metric);
+            return found != null ? found : result.getSecondaryResults().get("·" + metric);
+        }
+
+        boolean accepts(double score) {
+            return comparison.equals(">=") ? score >= bound : score <= bound;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.infrastructure.timer.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link TimingWheel} behind reservation holds, with a million reservations of
+ * 10 to 15 minutes pending: placing and releasing one hold, and expiring a whole
+ * quarter of an hour of them second by second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReservationBenchmark {
+
+    private static final int PENDING = 1_000_000;
+    private static final long SECOND = 1_000;
+    private static final long MIN_HOLD = 10 * 60 * SECOND;
+    private static final long MAX_HOLD = 15 * 60 * SECOND;
+
+    @State(Scope.Thread)
+    public static class Pending {
+        TimingWheel<Object> wheel;
+        Random random;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            wheel = filledWheel();
+            random = new Random(7);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Full {
+        TimingWheel<Object> wheel;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            wheel = filledWheel();
+        }
+    }
+
+    /**
+     * A rider reserves and later unlocks, which cancels the hold.
+     */
+    @Benchmark
+    public boolean reserveAndRelease(Pending pending) {
+        long deadline = MIN_HOLD + pending.random.nextInt((int) (MAX_HOLD - MIN_HOLD));
+        return pending.wheel.schedule(pending, deadline).cancel();
+    }
+
+    /**
+     * Every hold runs out; reported per expired reservation.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 5, batchSize = 1)
+    @OperationsPerInvocation(PENDING)
+    public int expireAll(Full full) {
+        int expired = 0;
+        for (long now = 0; now <= MAX_HOLD; now += SECOND) {
+            expired += full.wheel.advance(now, task -> {
+            });
+        }
+        return expired;
+    }
+
+    private static TimingWheel<Object> filledWheel() {
+        TimingWheel<Object> wheel = new TimingWheel<>(SECOND, 0);
+        Random random = new Random(42);
+        Object task = new Object();
+        for (int i = 0; i < PENDING; i++) {
+            wheel.schedule(task, MIN_HOLD + random.nextInt((int) (MAX_HOLD - MIN_HOLD)));
+        }
+        return wheel;
+    }
+}
@@ -0,0 +1,98 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.snapshot.SnapshotReader;
+import com.ismail.fleetShare.infrastructure.snapshot.SnapshotWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and loading a snapshot of a fleet with four users per vehicle and one
+ * vehicle in ten on a trip. The largest case is the restore target of 5M vehicles and
+ * 20M users; it holds the fleet twice, written and loaded, and needs a host with
+ * about 16 GB of memory.
+ *
+ *   java -jar benchmarks.jar SnapshotBenchmark -p vehicles=5000000
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx14g")
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    @Param({"100000", "1000000", "5000000"})
+    public int vehicles;
+
+    private InMemoryVehicleRepository vehicleRepo;
+    private InMemoryUserRepository userRepo;
+    private TripService tripService;
+    private Path directory;
+    private Path written;
+    private Path loaded;
+
+    @Setup
+    public void setUp() throws IOException {
+        vehicleRepo = new InMemoryVehicleRepository();
+        userRepo = new InMemoryUserRepository();
+        tripService = new TripService(vehicleRepo, userRepo, new TimeBasedPricing(Money.of(0.5)));
+        for (int i = 0; i < vehicles * 4; i++) {
+            userRepo.save(new User("user-" + i, "Rider " + i, MembershipTier.values()[i % 3]));
+        }
+        for (int i = 0; i < vehicles; i++) {
+            Vehicle vehicle = new Scooter("scooter-" + i, "Xiaomi", "150 KG", Money.of(0.3));
+            vehicleRepo.save(vehicle);
+            if (i % 10 == 0) {
+                tripService.startTrip(userRepo.findById("user-" + i), vehicle);
+            }
+        }
+        directory = Files.createTempDirectory("fleet-snapshot");
+        written = directory.resolve("written.snapshot");
+        loaded = directory.resolve("loaded.snapshot");
+        SnapshotWriter.write(loaded, vehicleRepo, userRepo, tripService);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(written);
+        Files.deleteIfExists(loaded);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        return SnapshotWriter.write(written, vehicleRepo, userRepo, tripService);
+    }
+
+    @Benchmark
+    public long load() throws IOException {
+        InMemoryVehicleRepository vehicles = new InMemoryVehicleRepository();
+        InMemoryUserRepository users = new InMemoryUserRepository();
+        return SnapshotReader.load(loaded, vehicles, users,
+                new TripService(vehicles, users, new TimeBasedPricing(Money.of(0.5))));
+    }
+}
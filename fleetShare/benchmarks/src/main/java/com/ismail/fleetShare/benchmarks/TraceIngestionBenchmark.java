@@ -0,0 +1,118 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.application.telemetry.PositionBatch;
+import com.ismail.fleetShare.application.telemetry.TraceIngestor;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.DistanceBasedPricing;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GPS fixes ingested per microsecond for 10,000 trips in progress, in batches of
+ * 10,000 fixes; 1.0 is a million fixes a second. Vehicles move about 20 m between
+ * fixes with one fix in eight standing still, so both the distance and the jitter
+ * paths are taken. {@code interleaved} batches hold one fix of every trip, as a
+ * gateway forwarding fixes as they arrive would send them; {@code grouped} batches
+ * hold 16 consecutive fixes of each of 625 trips. The long warm-up lets every path
+ * reach its point limit, after which ingesting allocates nothing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 8, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TraceIngestionBenchmark {
+
+    private static final int TRIPS = 10_000;
+    private static final int BATCH = 10_000;
+    private static final int FIXES_PER_TRIP = 16;
+    private static final long INTERVAL_MILLIS = 2_000;
+    // about 20 m of latitude
+    private static final double STEP = 0.00018;
+
+    @Param({"interleaved", "grouped"})
+    String layout;
+
+    private TraceIngestor ingestor;
+    private final PositionBatch batch = new PositionBatch(BATCH);
+    private final long[] tripIds = new long[TRIPS];
+    private final double[] latitudes = new double[TRIPS];
+    private final double[] longitudes = new double[TRIPS];
+    private final long[] times = new long[TRIPS];
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        TripService tripService = new TripService(vehicleRepo, new InMemoryUserRepository(),
+                new DistanceBasedPricing(Money.of(0.2)));
+        ingestor = new TraceIngestor(tripService);
+        tripService.setTraceIngestor(ingestor);
+        Random random = new Random(11);
+        for (int i = 0; i < TRIPS; i++) {
+            Vehicle scooter = new Scooter("scooter-" + i, "Xiaomi", "150 KG", Money.of(0.3));
+            vehicleRepo.save(scooter);
+            User rider = new User("rider-" + i, "Rider " + i, MembershipTier.STANDARD);
+            tripIds[i] = tripService.startTrip(rider, scooter).getId().asLong();
+            latitudes[i] = 48 + random.nextDouble() * 4;
+            longitudes[i] = 2 + random.nextDouble() * 10;
+            times[i] = 1_700_000_000_000L;
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fillBatch() {
+        batch.clear();
+        if (layout.equals("interleaved")) {
+            for (int trip = 0; trip < TRIPS; trip++) {
+                addFix(trip);
+            }
+        } else {
+            int tripsPerBatch = BATCH / FIXES_PER_TRIP;
+            int first = (round % (TRIPS / tripsPerBatch)) * tripsPerBatch;
+            for (int trip = first; trip < first + tripsPerBatch; trip++) {
+                for (int fix = 0; fix < FIXES_PER_TRIP; fix++) {
+                    addFix(trip);
+                }
+            }
+        }
+        round++;
+    }
+
+    private void addFix(int trip) {
+        times[trip] += INTERVAL_MILLIS;
+        if ((times[trip] / INTERVAL_MILLIS + trip) % 8 != 0) {
+            latitudes[trip] += STEP;
+            longitudes[trip] += STEP * Math.sin(times[trip] * 1e-5);
+        }
+        batch.add(tripIds[trip], latitudes[trip], longitudes[trip], times[trip]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int ingest() {
+        return ingestor.ingest(batch);
+    }
+}
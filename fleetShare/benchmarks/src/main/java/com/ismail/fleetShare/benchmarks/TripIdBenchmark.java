@@ -0,0 +1,75 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.domain.trip.TripId;
+import com.ismail.fleetShare.domain.trip.TripIdGenerator;
+import com.ismail.fleetShare.infrastructure.collection.ConcurrentLongMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Issuing trip ids with {@link TripIdGenerator} against random UUID strings, and looking
+ * up one of a million active trips by its primitive id against a string-keyed map.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class TripIdBenchmark {
+
+    private static final int ACTIVE_TRIPS = 1 << 20;
+
+    private final TripIdGenerator generator = new TripIdGenerator(1);
+    private final ConcurrentLongMap<Object> byLong = new ConcurrentLongMap<>();
+    private final Map<String, Object> byString = new ConcurrentHashMap<>();
+    private long[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        ids = new long[ACTIVE_TRIPS];
+        Object trip = new Object();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = generator.nextId();
+            byLong.put(ids[i], trip);
+            byString.put(Long.toString(ids[i]), trip);
+        }
+    }
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public Object lookupByLong() {
+        return byLong.get(ids[next++ & (ACTIVE_TRIPS - 1)]);
+    }
+
+    /**
+     * The key is parsed from the API string, as before trip ids became longs.
+     */
+    @Benchmark
+    public Object lookupByString() {
+        return byString.get(new TripId(ids[next++ & (ACTIVE_TRIPS - 1)]).getValue());
+    }
+}
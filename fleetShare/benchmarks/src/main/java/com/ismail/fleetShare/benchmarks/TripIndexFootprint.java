@@ -0,0 +1,91 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Heap cost per rider of the rider indexes of {@link TripService}, and the time of a
+ * lookup in them.
+ *
+ * Every rider gets a scooter of their own. The riders then take trips in rounds, one
+ * trip each per round, and after selected rounds the live heap after a full collection
+ * is compared with the heap before the first trip. Finished trips are not kept by the
+ * service, so what remains is the history ring and its map entry. Last, every rider
+ * starts one more trip, which gives the cost of an active trip including the
+ * {@code Trip} itself and all three maps it is in, and random riders are looked up.
+ *
+ *   java -Xmx3g -cp benchmarks.jar com.ismail.fleetShare.benchmarks.TripIndexFootprint 1000000
+ *
+ * The argument is the number of riders (default 1,000,000).
+ */
+public final class TripIndexFootprint {
+
+    private static final int[] CHECKPOINTS = {1, 4, 5, 8, 16, TripService.HISTORY_SIZE, 40};
+    private static final int LOOKUPS = 10_000_000;
+
+    private TripIndexFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int riders = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        TripService tripService = new TripService(vehicleRepo, new InMemoryUserRepository(),
+                new TimeBasedPricing(Money.of(0.5)));
+        User[] users = new User[riders];
+        Vehicle[] vehicles = new Vehicle[riders];
+        for (int i = 0; i < riders; i++) {
+            users[i] = new User("rider-" + i, "Rider " + i, MembershipTier.STANDARD);
+            vehicles[i] = new Scooter("scooter-" + i, "Xiaomi", "150 KG", Money.of(0.3));
+            vehicleRepo.save(vehicles[i]);
+        }
+
+        long before = liveHeap();
+        System.out.printf("%,d riders, history of %d trips%n", riders, TripService.HISTORY_SIZE);
+        int round = 0;
+        for (int checkpoint : CHECKPOINTS) {
+            for (; round < checkpoint; round++) {
+                for (int i = 0; i < riders; i++) {
+                    tripService.endTrip(tripService.startTrip(users[i], vehicles[i]).getId().asLong());
+                }
+            }
+            long live = liveHeap() - before;
+            System.out.printf("  %2d trips each    %4d bytes per rider%n", checkpoint, live / riders);
+        }
+
+        long finished = liveHeap();
+        for (int i = 0; i < riders; i++) {
+            tripService.startTrip(users[i], vehicles[i]);
+        }
+        long active = liveHeap() - finished;
+        System.out.printf("  active trip      %4d bytes per rider%n", active / riders);
+
+        SplittableRandom random = new SplittableRandom(5);
+        long found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            String id = users[random.nextInt(riders)].getId();
+            found += tripService.getActiveTrip(id) == null ? 0 : 1;
+            found += tripService.getRecentTripIds(id).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("  lookup           %.0f ns for the active trip and history (%,d found)%n",
+                (double) elapsed / LOOKUPS, found);
+    }
+
+    private static long liveHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
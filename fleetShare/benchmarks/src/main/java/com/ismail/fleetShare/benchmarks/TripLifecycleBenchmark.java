@@ -0,0 +1,131 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.DistanceBasedPricing;
+import com.ismail.fleetShare.domain.price.HybridPricing;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.metrics.MetricsRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A full trip through {@link TripService}: start, then end and price it. Each thread
+ * rides its own vehicles, so the multi-threaded runs measure how the service scales
+ * rather than how riders collide; {@code hotVehicle} measures the collision instead.
+ * With {@code metrics=true} the service and repository record into a
+ * {@link MetricsRegistry}, which shows what leaving instrumentation on costs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TripLifecycleBenchmark {
+
+    private static final int VEHICLES_PER_THREAD = 1024;
+
+    @State(Scope.Benchmark)
+    public static class Fleet {
+        final InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        final TripService tripService = new TripService(vehicleRepo, new InMemoryUserRepository(),
+                new HybridPricing(new TimeBasedPricing(Money.of(0.5)), new DistanceBasedPricing(Money.of(0.2))));
+        final AtomicInteger riders = new AtomicInteger();
+        final Vehicle hot = new Scooter("hot", "Xiaomi", "150 KG", Money.of(0.3));
+
+        @Param({"false", "true"})
+        boolean metrics;
+
+        @Setup
+        public void setUp() {
+            if (metrics) {
+                MetricsRegistry registry = new MetricsRegistry();
+                tripService.setMetrics(registry);
+                vehicleRepo.setMetrics(registry);
+            }
+            vehicleRepo.save(hot);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Rider {
+        User user;
+        Vehicle[] vehicles;
+        int next;
+
+        @Setup
+        public void setUp(Fleet fleet) {
+            int rider = fleet.riders.getAndIncrement();
+            user = new User("rider-" + rider, "Rider " + rider, MembershipTier.STANDARD);
+            vehicles = new Vehicle[VEHICLES_PER_THREAD];
+            for (int i = 0; i < vehicles.length; i++) {
+                vehicles[i] = new Scooter("scooter-" + rider + "-" + i, "Xiaomi", "150 KG", Money.of(0.3));
+                fleet.vehicleRepo.save(vehicles[i]);
+            }
+        }
+
+        Vehicle nextVehicle() {
+            Vehicle vehicle = vehicles[next];
+            next = (next + 1) & (VEHICLES_PER_THREAD - 1);
+            return vehicle;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Money singleThreaded(Fleet fleet, Rider rider) {
+        return ride(fleet, rider);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Money fourThreads(Fleet fleet, Rider rider) {
+        return ride(fleet, rider);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Money allCores(Fleet fleet, Rider rider) {
+        return ride(fleet, rider);
+    }
+
+    /**
+     * Every thread races for the same scooter; only started trips count as work done.
+     */
+    @Benchmark
+    @Threads(4)
+    public Money hotVehicle(Fleet fleet, Rider rider) {
+        Trip trip;
+        try {
+            trip = fleet.tripService.startTrip(rider.user, fleet.hot);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+        return fleet.tripService.endTrip(trip.getId().asLong());
+    }
+
+    private static Money ride(Fleet fleet, Rider rider) {
+        Trip trip = fleet.tripService.startTrip(rider.user, rider.nextVehicle());
+        return fleet.tripService.endTrip(trip.getId().asLong());
+    }
+}
@@ -0,0 +1,130 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Queries on {@link InMemoryVehicleRepository} at several fleet sizes. A tenth of the
+ * fleet is in use and one in fifty vehicles is in maintenance; vehicles are spread over
+ * 30 x 30 km for the nearest-vehicle search.
+ *
+ * The {@code scan} benchmarks answer the same queries the way the repository did before
+ * it kept indexes, by filtering a copy of every vehicle, as the baseline for the indexed
+ * lookups.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class VehicleRepositoryBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int fleetSize;
+
+    private InMemoryVehicleRepository repository;
+    private GeoPoint rider;
+
+    @Setup
+    public void setUp() {
+        repository = new InMemoryVehicleRepository();
+        Random random = new Random(42);
+        for (int i = 0; i < fleetSize; i++) {
+            Vehicle vehicle;
+            switch (i % 3) {
+                case 0:
+                    vehicle = new Scooter("scooter-" + i, "Xiaomi", "150 KG", Money.of(0.3));
+                    break;
+                case 1:
+                    vehicle = new EBike("ebike-" + i, "VanMoof", "100%", Money.of(0.5));
+                    break;
+                default:
+                    vehicle = new Car("car-" + i, "Tesla", "Electric", Money.of(1.0));
+            }
+            vehicle.setLocation(randomPoint(random));
+            repository.save(vehicle);
+            int roll = random.nextInt(50);
+            if (roll < 5) {
+                vehicle.setState(VehicleState.IN_USE);
+            } else if (roll == 5) {
+                vehicle.setState(VehicleState.MAINTENANCE);
+            }
+        }
+        rider = randomPoint(random);
+    }
+
+    @Benchmark
+    public List<Vehicle> findAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<Vehicle> findAvailable() {
+        return repository.findAvailable();
+    }
+
+    @Benchmark
+    public List<Scooter> findAvailableScooters() {
+        return repository.findAvailable(Scooter.class);
+    }
+
+    @Benchmark
+    public int countInUse() {
+        return repository.countByState(VehicleState.IN_USE);
+    }
+
+    @Benchmark
+    public List<Vehicle> scanAvailable() {
+        return repository.findAll().stream()
+                .filter(v -> v.getState() == VehicleState.AVAILABLE)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Scooter> scanAvailableScooters() {
+        return repository.findAll().stream()
+                .filter(v -> v instanceof Scooter && v.getState() == VehicleState.AVAILABLE)
+                .map(Scooter.class::cast)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public long scanCountInUse() {
+        return repository.findAll().stream()
+                .filter(v -> v.getState() == VehicleState.IN_USE)
+                .count();
+    }
+
+    @Benchmark
+    public List<Scooter> findNearestScooters() {
+        return repository.findNearestAvailable(Scooter.class, rider, 5, 500);
+    }
+
+    private static GeoPoint randomPoint(Random random) {
+        // about 30 km north to south and east to west around Berlin
+        return GeoPoint.of(52.38 + random.nextDouble() * 0.27, 13.20 + random.nextDouble() * 0.44);
+    }
+}
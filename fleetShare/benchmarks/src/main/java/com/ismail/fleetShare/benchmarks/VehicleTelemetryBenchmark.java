@@ -0,0 +1,138 @@
+package com.ismail.fleetShare.benchmarks;
+
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.telemetry.TelemetryBatch;
+import com.ismail.fleetShare.infrastructure.telemetry.VehicleTelemetryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Battery telemetry for a fleet of a million vehicles, three e-bikes to every car,
+ * with levels spread evenly from 0 to 100% and one vehicle in ten in use.
+ *
+ * {@code ingest} applies batches of 10,000 readings of random vehicles, each a small
+ * drift from the vehicle's last level, and is scored in readings per microsecond.
+ * {@code lowestAvailable} asks the store for the 100 available e-bikes with the least
+ * charge below 20%; {@code scanRepository} answers the same question the way it had to
+ * be answered before the store, by walking every available e-bike and parsing its
+ * battery text. {@code countLow} counts every e-bike below 20% from the index counts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Thread)
+public class VehicleTelemetryBenchmark {
+
+    private static final int VEHICLES = 1_000_000;
+    private static final int BATCH = 10_000;
+    private static final double LOW = 20;
+    private static final int LIMIT = 100;
+
+    private InMemoryVehicleRepository vehicleRepo;
+    private VehicleTelemetryStore store;
+    private final String[] ids = new String[VEHICLES];
+    private final float[] levels = new float[VEHICLES];
+    private final Random random = new Random(5);
+    private long time = 1_700_000_000_000L;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        vehicleRepo = new InMemoryVehicleRepository();
+        store = new VehicleTelemetryStore(vehicleRepo);
+        for (int i = 0; i < VEHICLES; i++) {
+            levels[i] = random.nextFloat() * 100;
+            Vehicle vehicle = i % 4 == 3
+                    ? new Car("car-" + i, "Tesla", "Electric", Money.of(1.0))
+                    : new EBike("ebike-" + i, "Cowboy", Math.round(levels[i]) + "%", Money.of(0.2));
+            if (i % 10 == 0) {
+                vehicle.setState(VehicleState.IN_USE);
+            }
+            vehicleRepo.save(vehicle);
+            ids[i] = vehicle.getId();
+        }
+        TelemetryBatch initial = new TelemetryBatch(BATCH);
+        for (int i = 0; i < VEHICLES; i++) {
+            initial.add(ids[i], levels[i], time);
+            if (initial.size() == BATCH) {
+                store.apply(initial);
+                initial.clear();
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OperationsPerInvocation(BATCH)
+    public int ingest(Feed feed) {
+        return store.apply(feed.batch);
+    }
+
+    @Benchmark
+    public List<EBike> lowestAvailable() {
+        return store.findBelow(EBike.class, LOW, VehicleState.AVAILABLE, LIMIT);
+    }
+
+    @Benchmark
+    public int countLow() {
+        return store.countBelow(EBike.class, LOW);
+    }
+
+    @Benchmark
+    public List<EBike> scanRepository() {
+        List<EBike> low = new ArrayList<>();
+        for (EBike bike : vehicleRepo.findAvailable(EBike.class)) {
+            String text = bike.getBatteryLevel();
+            if (Float.parseFloat(text.substring(0, text.length() - 1)) < LOW) {
+                low.add(bike);
+            }
+        }
+        low.sort(Comparator.comparing(bike -> Float.parseFloat(
+                bike.getBatteryLevel().substring(0, bike.getBatteryLevel().length() - 1))));
+        return low.subList(0, Math.min(LIMIT, low.size()));
+    }
+
+    /**
+     * The next batch of readings, refilled before every call of {@code ingest} only, so
+     * that the queries are not timed around an invocation-level setup.
+     */
+    @State(Scope.Thread)
+    public static class Feed {
+
+        final TelemetryBatch batch = new TelemetryBatch(BATCH);
+
+        @Setup(Level.Invocation)
+        public void fill(VehicleTelemetryBenchmark fleet) {
+            batch.clear();
+            fleet.time += 1_000;
+            for (int i = 0; i < BATCH; i++) {
+                int vehicle = fleet.random.nextInt(VEHICLES);
+                float level = fleet.levels[vehicle] + (fleet.random.nextFloat() - 0.6f);
+                fleet.levels[vehicle] = level < 0 ? 100 : level;
+                batch.add(fleet.ids[vehicle], fleet.levels[vehicle], fleet.time);
+            }
+        }
+    }
+}
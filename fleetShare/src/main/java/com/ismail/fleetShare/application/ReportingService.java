@@ -1,16 +1,35 @@
 package com.ismail.fleetShare.application;
 
+import com.ismail.fleetShare.application.analytics.TripSketches;
 import com.ismail.fleetShare.domain.common.Money;
 import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripListener;
+import com.ismail.fleetShare.domain.trip.TripState;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
 
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service responsible for generating reports related to trips,
  * such as completed trips and total revenue.
+ *
+ * Works in one of two modes. In batch mode it reports over a list of trips and
+ * recomputes each figure on request. In streaming mode it subscribes to a
+ * {@link TripService} and updates counters as each trip completes or is canceled,
+ * so every figure is read in constant time without rescanning history; the trips
+ * themselves are not kept. Both modes return the same figures for the same trips.
+ *
+ * Approximate figures that exact counters cannot give in fixed memory, such as distinct
+ * riders, most used vehicles and price quantiles per window, come from
+ * {@link TripSketches} once enabled with {@link #enableSketches(ZoneId, String)}.
  */
-public class ReportingService {
+public class ReportingService implements TripListener {
     private final List<Trip> trips;
+    private final TripAggregates live;
+    private volatile TripSketches sketches;
 
     /**
      * Creates a new ReportingService with the given list of trips.
@@ -19,16 +38,33 @@ public class ReportingService {
      */
     public ReportingService(List<Trip> trips) {
         this.trips = trips;
+        this.live = null;
+    }
+
+    /**
+     * Creates a streaming ReportingService fed by the trips the service completes
+     * or cancels from now on.
+     *
+     * @param tripService the service whose trips are reported
+     */
+    public ReportingService(TripService tripService) {
+        this.trips = null;
+        this.live = new TripAggregates();
+        tripService.addTripListener(this);
     }
 
     /**
      * Retrieves all trips that have been completed.
      *
      * @return a list of completed trips
+     * @throws IllegalStateException in streaming mode, where trips are not kept
      */
     public List<Trip> getCompletedTrips() {
+        if (trips == null) {
+            throw new IllegalStateException("Trips are not kept in streaming mode");
+        }
         return trips.stream()
-                .filter(t -> t.getState().name().equals("COMPLETED"))
+                .filter(t -> t.getState() == TripState.COMPLETED)
                 .toList();
     }
 
@@ -36,11 +72,163 @@ public class ReportingService {
      * Calculates the total revenue earned from all completed trips.
      *
      * @return the total revenue as a {@link Money} object
+     * @throws IllegalArgumentException if trips were paid in several currencies
      */
     public Money getTotalRevenue() {
-        return trips.stream()
-                .filter(t -> t.getState().name().equals("COMPLETED"))
-                .map(Trip::getPrice) // assumes Trip has a getPrice() method
-                .reduce(Money.of(0), Money::add);
+        if (trips != null) {
+            // summed in minor units, without a Money object per trip
+            return Money.sum(trips.stream()
+                    .filter(t -> t.getState() == TripState.COMPLETED)
+                    .map(Trip::getPrice)
+                    .iterator());
+        }
+        Map<String, Money> revenue = live.total().revenueByCurrency();
+        if (revenue.isEmpty()) {
+            return Money.zero();
+        }
+        if (revenue.size() > 1) {
+            throw new IllegalArgumentException("Currency mismatch: " + revenue.keySet());
+        }
+        return revenue.values().iterator().next();
+    }
+
+    /**
+     * Returns the revenue from completed trips per currency.
+     *
+     * @return the revenue keyed by currency code
+     */
+    public Map<String, Money> getRevenueByCurrency() {
+        return aggregates().total().revenueByCurrency();
+    }
+
+    /**
+     * Returns the revenue in one currency from completed trips with vehicles of the given type.
+     *
+     * @param type     the vehicle type, e.g. {@code Scooter.class}
+     * @param currency the currency code
+     * @return the revenue, zero if there is none
+     */
+    public Money getRevenue(Class<? extends Vehicle> type, String currency) {
+        return aggregates().of(type).revenue(currency);
+    }
+
+    /**
+     * Returns the revenue in one currency from completed trips of users with the given tier.
+     *
+     * @param tier     the membership tier
+     * @param currency the currency code
+     * @return the revenue, zero if there is none
+     */
+    public Money getRevenue(MembershipTier tier, String currency) {
+        return aggregates().of(tier).revenue(currency);
+    }
+
+    /**
+     * Returns the number of completed trips.
+     *
+     * @return the completed trip count
+     */
+    public long getCompletedTripCount() {
+        return aggregates().total().completed();
+    }
+
+    /**
+     * Returns the number of completed trips with vehicles of the given type.
+     *
+     * @param type the vehicle type
+     * @return the completed trip count
+     */
+    public long getCompletedTripCount(Class<? extends Vehicle> type) {
+        return aggregates().of(type).completed();
+    }
+
+    /**
+     * Returns the number of completed trips of users with the given tier.
+     *
+     * @param tier the membership tier
+     * @return the completed trip count
+     */
+    public long getCompletedTripCount(MembershipTier tier) {
+        return aggregates().of(tier).completed();
+    }
+
+    /**
+     * Returns the number of canceled trips.
+     *
+     * @return the canceled trip count
+     */
+    public long getCanceledTripCount() {
+        return aggregates().total().canceled();
+    }
+
+    /**
+     * Enables approximate analytics. In batch mode the sketches are filled from the
+     * trips at once; in streaming mode they are fed every trip completed from now on.
+     * Calling it again replaces the sketches.
+     *
+     * @param zone     the zone of the trips' local end times
+     * @param currency the currency of the price figures
+     * @return the sketches
+     */
+    public TripSketches enableSketches(ZoneId zone, String currency) {
+        TripSketches created = new TripSketches(zone, currency);
+        if (trips != null) {
+            trips.forEach(created::onTripCompleted);
+        }
+        sketches = created;
+        return created;
+    }
+
+    /**
+     * Returns the sketches of distinct riders, most used vehicles and price quantiles.
+     *
+     * @return the sketches
+     * @throws IllegalStateException if sketches were not enabled
+     */
+    public TripSketches getSketches() {
+        TripSketches current = sketches;
+        if (current == null) {
+            throw new IllegalStateException("Sketches are not enabled");
+        }
+        return current;
+    }
+
+    /**
+     * Adds a completed trip to the counters; called by {@link TripService} in streaming mode.
+     *
+     * @param trip the completed trip
+     */
+    @Override
+    public void onTripCompleted(Trip trip) {
+        if (live != null) {
+            live.record(trip);
+            TripSketches current = sketches;
+            if (current != null) {
+                current.onTripCompleted(trip);
+            }
+        }
+    }
+
+    /**
+     * Adds a canceled trip to the counters; called by {@link TripService} in streaming mode.
+     *
+     * @param trip the canceled trip
+     */
+    @Override
+    public void onTripCanceled(Trip trip) {
+        if (live != null) {
+            live.record(trip);
+        }
+    }
+
+    private TripAggregates aggregates() {
+        if (live != null) {
+            return live;
+        }
+        TripAggregates batch = new TripAggregates();
+        for (Trip trip : trips) {
+            batch.record(trip);
+        }
+        return batch;
     }
 }
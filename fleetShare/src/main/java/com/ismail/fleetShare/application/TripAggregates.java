@@ -0,0 +1,138 @@
+package com.ismail.fleetShare.application;
+
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripState;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trip counts and revenue, overall and per vehicle type and membership tier.
+ *
+ * All counters are {@link LongAdder}s, which spread concurrent updates over
+ * per-thread cells, so recording a trip never contends on a shared counter.
+ * Revenue is kept in minor units per currency.
+ */
+class TripAggregates {
+
+    private final Counters total = new Counters();
+    private final Map<Class<? extends Vehicle>, Counters> byVehicleType = new ConcurrentHashMap<>();
+    private final Map<MembershipTier, Counters> byTier = new EnumMap<>(MembershipTier.class);
+
+    TripAggregates() {
+        for (MembershipTier tier : MembershipTier.values()) {
+            byTier.put(tier, new Counters());
+        }
+    }
+
+    /**
+     * Adds a completed or canceled trip; trips in other states are ignored.
+     */
+    void record(Trip trip) {
+        if (trip.getState() != TripState.COMPLETED && trip.getState() != TripState.CANCELED) {
+            return;
+        }
+        total.record(trip);
+        byVehicleType.computeIfAbsent(trip.getVehicle().getClass(), t -> new Counters()).record(trip);
+        User user = trip.getUser();
+        if (user != null) {
+            byTier.get(user.getMembershipTier()).record(trip);
+        }
+    }
+
+    Counters total() {
+        return total;
+    }
+
+    Counters of(Class<? extends Vehicle> type) {
+        Counters counters = byVehicleType.get(type);
+        return counters != null ? counters : Counters.EMPTY;
+    }
+
+    Counters of(MembershipTier tier) {
+        return byTier.get(tier);
+    }
+
+    static final class Counters {
+
+        static final Counters EMPTY = new Counters();
+
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder canceled = new LongAdder();
+        private final Map<String, Revenue> revenue = new ConcurrentHashMap<>();
+
+        private void record(Trip trip) {
+            if (trip.getState() == TripState.CANCELED) {
+                canceled.increment();
+                return;
+            }
+            completed.increment();
+            Money price = trip.getPrice();
+            revenue.computeIfAbsent(price.getCurrency(), c -> new Revenue()).add(price);
+        }
+
+        long completed() {
+            return completed.sum();
+        }
+
+        long canceled() {
+            return canceled.sum();
+        }
+
+        /**
+         * Returns the revenue in one currency, zero if none was earned in it.
+         */
+        Money revenue(String currency) {
+            Revenue r = revenue.get(currency);
+            return r != null ? r.toMoney(currency) : Money.ofMinor(0L, currency);
+        }
+
+        /**
+         * Returns the revenue per currency, sorted by currency code.
+         */
+        Map<String, Money> revenueByCurrency() {
+            Map<String, Money> result = new TreeMap<>();
+            revenue.forEach((currency, r) -> result.put(currency, r.toMoney(currency)));
+            return result;
+        }
+    }
+
+    /**
+     * Sum of prices in one currency. Amounts that do not fit in minor units,
+     * which {@link Money} keeps as {@link BigDecimal}, are summed separately.
+     */
+    private static final class Revenue {
+        private final LongAdder units = new LongAdder();
+        private BigDecimal overflow;
+
+        void add(Money price) {
+            if (price.isCompact()) {
+                units.add(price.getMinorUnits());
+            } else {
+                synchronized (this) {
+                    overflow = overflow == null ? price.getAmount() : overflow.add(price.getAmount());
+                }
+            }
+        }
+
+        Money toMoney(String currency) {
+            long sum = units.sum();
+            BigDecimal spill;
+            synchronized (this) {
+                spill = overflow;
+            }
+            if (spill == null) {
+                return Money.ofMinor(sum, currency);
+            }
+            return new Money(spill.add(BigDecimal.valueOf(sum, Money.SCALE)), currency);
+        }
+    }
+}
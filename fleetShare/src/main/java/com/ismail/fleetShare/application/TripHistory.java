@@ -0,0 +1,55 @@
+package com.ismail.fleetShare.application;
+
+/**
+ * The ids of the most recent trips of one rider, kept in a ring of primitive longs.
+ *
+ * The ring starts with room for a few trips and doubles up to its capacity, so riders
+ * with one or two trips do not pay for a full ring. Once full, each new trip overwrites
+ * the oldest one. Safe for concurrent use; a rider's trips rarely contend.
+ */
+final class TripHistory {
+
+    private static final int INITIAL_SIZE = 4;
+
+    private final int capacity;
+    private long[] ids;
+    private int next;
+    private int size;
+
+    TripHistory(int capacity) {
+        this.capacity = capacity;
+        this.ids = new long[Math.min(INITIAL_SIZE, capacity)];
+    }
+
+    /**
+     * Records a finished trip as the most recent one.
+     */
+    synchronized void add(long tripId) {
+        if (size == ids.length && size < capacity) {
+            long[] grown = new long[Math.min(size * 2, capacity)];
+            // the ring is full, so it is in order from next to next - 1
+            System.arraycopy(ids, next, grown, 0, size - next);
+            System.arraycopy(ids, 0, grown, size - next, next);
+            ids = grown;
+            next = size;
+        }
+        ids[next] = tripId;
+        next = next + 1 == ids.length ? 0 : next + 1;
+        if (size < ids.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Returns the trip ids, most recent first.
+     */
+    synchronized long[] toArray() {
+        long[] out = new long[size];
+        int at = next;
+        for (int i = 0; i < size; i++) {
+            at = at == 0 ? ids.length - 1 : at - 1;
+            out[i] = ids[at];
+        }
+        return out;
+    }
+}
@@ -1,35 +1,102 @@
 package com.ismail.fleetShare.application;
 
+import com.ismail.fleetShare.application.telemetry.TraceIngestor;
 import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.PricingCompiler;
 import com.ismail.fleetShare.domain.price.PricingStrategy;
+import com.ismail.fleetShare.domain.trip.Reservation;
+import com.ismail.fleetShare.domain.trip.ReservationState;
 import com.ismail.fleetShare.domain.trip.Trip;
 import com.ismail.fleetShare.domain.trip.TripId;
+import com.ismail.fleetShare.domain.trip.TripIdGenerator;
+import com.ismail.fleetShare.domain.trip.TripListener;
 import com.ismail.fleetShare.domain.trip.TripState;
 import com.ismail.fleetShare.domain.user.User;
 import com.ismail.fleetShare.domain.vehicle.Vehicle;
 import com.ismail.fleetShare.domain.vehicle.VehicleState;
 import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
 import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.collection.ConcurrentLongMap;
+import com.ismail.fleetShare.infrastructure.event.EventBus;
+import com.ismail.fleetShare.infrastructure.journal.TripJournal;
+import com.ismail.fleetShare.infrastructure.metrics.Counter;
+import com.ismail.fleetShare.infrastructure.metrics.LatencyTimer;
+import com.ismail.fleetShare.infrastructure.metrics.MetricsRegistry;
+import com.ismail.fleetShare.infrastructure.timer.TimingWheel;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Service responsible for managing trips:
  * - starting trips
  * - ending trips (and calculating price)
  * - retrieving active trips
+ *
+ * Safe for concurrent use: vehicles are claimed with a compare-and-set on their state
+ * and active trips are kept in a concurrent map keyed by the primitive trip id, so no
+ * global lock is taken. Methods taking a {@code String} id are the API boundary and
+ * parse it once; internal callers use the {@code long} overloads.
+ *
+ * Riders may reserve a vehicle before unlocking it. The vehicle is moved to
+ * {@link VehicleState#RESERVED} and the hold is placed on a {@link TimingWheel} with one
+ * second ticks, so pending expirations cost O(1) each however many there are. Holds
+ * that were not unlocked are released by {@link #expireReservations()}, which the
+ * owner of the service calls periodically, e.g. every second from a scheduler or on
+ * every tick of a simulation.
+ *
+ * Active trips are also indexed by rider and by vehicle, and the ids of each rider's
+ * last {@link #HISTORY_SIZE} finished trips are kept in a small ring, so
+ * {@link #getActiveTrip}, {@link #getTripByVehicle} and {@link #getRecentTripIds} take
+ * one hash lookup. A rider holds at most one active trip: the rider is claimed with a
+ * put-if-absent on the rider index, so of two racing starts for the same rider exactly
+ * one succeeds.
+ *
+ * When a {@link MetricsRegistry} is set, successful starts and ends and the price
+ * calculation are timed, rejected starts are counted, and the number of active trips
+ * and reservations is exposed as gauges. Without one the only cost is a null check.
  */
 public class TripService {
 
+    /**
+     * How long a vehicle is held when no hold time is given.
+     */
+    public static final Duration DEFAULT_HOLD = Duration.ofMinutes(15);
+
+    /**
+     * How many finished trips are remembered per rider.
+     */
+    public static final int HISTORY_SIZE = 20;
+
+    private static final long HOLD_TICK_MILLIS = 1_000;
+
     private final InMemoryVehicleRepository vehicleRepo;
     private final InMemoryUserRepository userRepo;
     private final PricingStrategy pricingStrategy;
-    private final Map<String, Trip> activeTrips = new HashMap<>();
+    private final Clock clock;
+    private volatile TripJournal journal;
+    private volatile EventBus eventBus;
+    private volatile Instruments metrics;
+    private volatile TraceIngestor traceIngestor;
+    private final ConcurrentLongMap<Trip> activeTrips = new ConcurrentLongMap<>();
+    private final ConcurrentHashMap<String, Trip> tripsByUser = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Trip> tripsByVehicle = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TripHistory> histories = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ConcurrentLongMap<TimingWheel.Timeout<Reservation>> reservations = new ConcurrentLongMap<>();
+    private final TimingWheel<Reservation> holds;
 
     /**
      * Creates a new TripService with repositories and a pricing strategy.
+     * The strategy is compiled with {@link PricingCompiler}, which gives the same prices.
      *
      * @param vehicleRepo      repository for vehicles
      * @param userRepo         repository for users
@@ -38,33 +105,238 @@ public class TripService {
     public TripService(InMemoryVehicleRepository vehicleRepo,
                        InMemoryUserRepository userRepo,
                        PricingStrategy pricingStrategy) {
+        this(vehicleRepo, userRepo, pricingStrategy, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a new TripService that reads trip start and end times from the given clock.
+     *
+     * @param vehicleRepo      repository for vehicles
+     * @param userRepo         repository for users
+     * @param pricingStrategy  strategy to calculate trip price
+     * @param clock            clock for trip times, e.g. a simulation's virtual clock
+     */
+    public TripService(InMemoryVehicleRepository vehicleRepo,
+                       InMemoryUserRepository userRepo,
+                       PricingStrategy pricingStrategy,
+                       Clock clock) {
         this.vehicleRepo = vehicleRepo;
         this.userRepo = userRepo;
-        this.pricingStrategy = pricingStrategy;
+        this.pricingStrategy = PricingCompiler.compile(pricingStrategy);
+        this.clock = clock;
+        this.holds = new TimingWheel<>(HOLD_TICK_MILLIS, clock.millis());
     }
 
     /**
      * Starts a new trip if the vehicle is available.
+     * The vehicle is claimed atomically, so when several users race for the same
+     * vehicle exactly one of them gets it.
      *
      * @param user    the user who starts the trip
      * @param vehicle the vehicle to be used
      * @return the created {@link Trip}
-     * @throws IllegalStateException if the vehicle is not available
+     * @throws IllegalStateException if the vehicle is not available, or the user
+     *                               already has an active trip
      */
     public Trip startTrip(User user, Vehicle vehicle) {
-        if (vehicle.getState() != VehicleState.AVAILABLE) {
+        Instruments metrics = this.metrics;
+        long timing = metrics == null ? 0L : metrics.start.begin();
+        if (!vehicle.compareAndSetState(VehicleState.AVAILABLE, VehicleState.IN_USE)) {
+            if (metrics != null) {
+                metrics.startRejected.increment();
+            }
+            throw new IllegalStateException("Vehicle is not available!");
+        }
+        Trip trip = begin(user, vehicle);
+        if (trip == null) {
+            if (metrics != null) {
+                metrics.startRejected.increment();
+            }
+            throw new IllegalStateException("User already has an active trip!");
+        }
+        if (metrics != null) {
+            metrics.start.end(timing);
+        }
+        return trip;
+    }
+
+    /**
+     * Reserves an available vehicle for {@link #DEFAULT_HOLD}.
+     *
+     * @param user    the rider reserving the vehicle
+     * @param vehicle the vehicle to hold
+     * @return the active {@link Reservation}
+     * @throws IllegalStateException if the vehicle is not available
+     */
+    public Reservation reserve(User user, Vehicle vehicle) {
+        return reserve(user, vehicle, DEFAULT_HOLD);
+    }
+
+    /**
+     * Reserves an available vehicle. Like {@link #startTrip}, the vehicle is claimed
+     * atomically, so exactly one of several racing riders gets it.
+     *
+     * @param user    the rider reserving the vehicle
+     * @param vehicle the vehicle to hold
+     * @param hold    how long the vehicle is held before it is released
+     * @return the active {@link Reservation}
+     * @throws IllegalArgumentException if the hold is not positive
+     * @throws IllegalStateException if the vehicle is not available
+     */
+    public Reservation reserve(User user, Vehicle vehicle, Duration hold) {
+        if (hold.isNegative() || hold.isZero()) {
+            throw new IllegalArgumentException("Hold must be positive: " + hold);
+        }
+        if (!vehicle.compareAndSetState(VehicleState.AVAILABLE, VehicleState.RESERVED)) {
             throw new IllegalStateException("Vehicle is not available!");
         }
 
-        Trip trip = new Trip(new TripId(), user, vehicle);
-        trip.setStartTime(LocalDateTime.now());
-        activeTrips.put(trip.getId().getValue(), trip);
+        Instant now = clock.instant();
+        Reservation reservation = new Reservation(TripIdGenerator.getDefault().nextId(),
+                user, vehicle, now, now.plus(hold));
+        TimingWheel.Timeout<Reservation> timeout =
+                holds.schedule(reservation, reservation.getExpiresAt().toEpochMilli());
+        reservations.put(reservation.getId(), timeout);
+        // an expiry that ran before the put above could not remove the entry
+        if (reservation.getState() != ReservationState.ACTIVE) {
+            reservations.remove(reservation.getId(), timeout);
+        }
+        return reservation;
+    }
+
+    /**
+     * Unlocks a reserved vehicle and starts the trip.
+     *
+     * @param reservationId the id of the reservation
+     * @return the created {@link Trip}
+     * @throws IllegalArgumentException if the reservation does not exist or has finished
+     * @throws IllegalStateException if the hold has run out, the vehicle was taken
+     *                               out of the reserved state meanwhile, or the user
+     *                               already has an active trip
+     * @see #unlock(long)
+     */
+    public Trip unlock(String reservationId) {
+        return unlock(parseId(reservationId, "Reservation"));
+    }
+
+    /**
+     * Unlocks a reserved vehicle by the primitive reservation id and starts the trip.
+     * A hold that has run out is released here even if {@link #expireReservations()}
+     * has not run yet.
+     *
+     * @param reservationId the id of the reservation
+     * @return the created {@link Trip}
+     * @throws IllegalArgumentException if the reservation does not exist or has finished
+     * @throws IllegalStateException if the hold has run out, the vehicle was taken
+     *                               out of the reserved state meanwhile, or the user
+     *                               already has an active trip, in which case the
+     *                               vehicle is released
+     */
+    public Trip unlock(long reservationId) {
+        Reservation reservation = finish(reservationId, ReservationState.CONVERTED);
+        if (reservation == null) {
+            throw new IllegalStateException("Reservation has expired!");
+        }
+        Vehicle vehicle = reservation.getVehicle();
+        if (!vehicle.compareAndSetState(VehicleState.RESERVED, VehicleState.IN_USE)) {
+            throw new IllegalStateException("Vehicle is no longer reserved!");
+        }
+        Trip trip = begin(reservation.getUser(), vehicle);
+        if (trip == null) {
+            throw new IllegalStateException("User already has an active trip!");
+        }
+        return trip;
+    }
+
+    /**
+     * Cancels a reservation and makes the vehicle available again.
+     *
+     * @param reservationId the id of the reservation
+     * @throws IllegalArgumentException if the reservation does not exist or has finished
+     */
+    public void cancelReservation(String reservationId) {
+        cancelReservation(parseId(reservationId, "Reservation"));
+    }
+
+    /**
+     * Cancels a reservation by its primitive id.
+     *
+     * @param reservationId the id of the reservation
+     * @throws IllegalArgumentException if the reservation does not exist or has finished
+     * @see #cancelReservation(String)
+     */
+    public void cancelReservation(long reservationId) {
+        Reservation reservation = finish(reservationId, ReservationState.CANCELED);
+        if (reservation != null) {
+            reservation.getVehicle().compareAndSetState(VehicleState.RESERVED, VehicleState.AVAILABLE);
+        }
+    }
+
+    /**
+     * Releases every hold that has run out by the current time of the service clock.
+     *
+     * @return the number of reservations that expired
+     */
+    public int expireReservations() {
+        int[] expired = new int[1];
+        holds.advance(clock.millis(), reservation -> {
+            if (expire(reservation)) {
+                expired[0]++;
+            }
+        });
+        return expired[0];
+    }
+
+    /**
+     * Retrieves a reservation that is still active.
+     *
+     * @param reservationId the id of the reservation
+     * @return the {@link Reservation}, or null if not found or finished
+     */
+    public Reservation getReservation(long reservationId) {
+        TimingWheel.Timeout<Reservation> timeout = reservations.get(reservationId);
+        return timeout == null ? null : timeout.getTask();
+    }
+
+    /**
+     * Returns the number of reservations still active.
+     *
+     * @return the active reservation count
+     */
+    public int getReservationCount() {
+        return reservations.size();
+    }
+
+    /**
+     * Creates, journals and registers the trip for a vehicle the caller has claimed.
+     * Returns null, and makes the vehicle available again, if the user already has an
+     * active trip.
+     */
+    private Trip begin(User user, Vehicle vehicle) {
+        Trip trip = new Trip(new TripId(), user, vehicle, clock);
+        // started before it is published, so getActiveTrip never sees a CREATED trip
+        trip.setStartTime(LocalDateTime.now(clock));
+        if (tripsByUser.putIfAbsent(user.getId(), trip) != null) {
+            vehicle.compareAndSetState(VehicleState.IN_USE, VehicleState.AVAILABLE);
+            return null;
+        }
+        TripJournal journal = this.journal;
+        if (journal != null) {
+            journal.tripStarted(trip, user);
+        }
+        activeTrips.put(trip.getId().asLong(), trip);
+        tripsByVehicle.put(vehicle.getId(), trip);
+        EventBus eventBus = this.eventBus;
+        if (eventBus != null) {
+            eventBus.publishTripState(trip, TripState.CREATED, TripState.IN_PROGRESS);
+        }
 
         return trip;
     }
 
     /**
      * Ends an active trip and calculates the price using the pricing strategy.
+     * The price is also stored on the trip for reporting.
      *
      * @param tripId the id of the trip
      * @return the calculated price as {@link Money}
@@ -72,6 +344,21 @@ public class TripService {
      * @throws IllegalStateException if the trip is not in progress
      */
     public Money endTrip(String tripId) {
+        return endTrip(parseId(tripId));
+    }
+
+    /**
+     * Ends an active trip by its primitive id.
+     *
+     * @param tripId the id of the trip
+     * @return the calculated price as {@link Money}
+     * @throws IllegalArgumentException if the trip does not exist
+     * @throws IllegalStateException if the trip is not in progress
+     * @see #endTrip(String)
+     */
+    public Money endTrip(long tripId) {
+        Instruments metrics = this.metrics;
+        long timing = metrics == null ? 0L : metrics.end.begin();
         Trip trip = activeTrips.get(tripId);
         if (trip == null) {
             throw new IllegalArgumentException("Trip not found: " + tripId);
@@ -81,15 +368,243 @@ public class TripService {
             throw new IllegalStateException("Trip is not in progress!");
         }
 
-        trip.setEndTime(LocalDateTime.now());
-        Money price = pricingStrategy.calculatePrice(trip);
+        // only the caller that removes the trip may end it
+        if (!activeTrips.remove(tripId, trip)) {
+            throw new IllegalArgumentException("Trip not found: " + tripId);
+        }
+        unindex(tripId, trip);
 
-        // remove from active trips after ending
-        activeTrips.remove(tripId);
+        TraceIngestor traceIngestor = this.traceIngestor;
+        if (traceIngestor != null) {
+            traceIngestor.complete(trip);
+        }
+        trip.setEndTime(LocalDateTime.now(clock));
+        long pricing = metrics == null ? 0L : metrics.price.begin();
+        Money price = pricingStrategy.calculatePrice(trip);
+        if (metrics != null) {
+            metrics.price.end(pricing);
+        }
+        trip.setPrice(price);
 
+        TripJournal journal = this.journal;
+        if (journal != null) {
+            journal.tripEnded(trip);
+        }
+        EventBus eventBus = this.eventBus;
+        if (eventBus != null) {
+            eventBus.publishTripState(trip, TripState.IN_PROGRESS, TripState.COMPLETED);
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.listener.onTripCompleted(trip);
+            } catch (RuntimeException e) {
+                listener.failures.incrementAndGet();
+            }
+        }
+        if (metrics != null) {
+            metrics.end.end(timing);
+        }
         return price;
     }
 
+    /**
+     * Cancels an active trip without charging it and makes the vehicle available again.
+     *
+     * @param tripId the id of the trip
+     * @throws IllegalArgumentException if the trip does not exist
+     */
+    public void cancelTrip(String tripId) {
+        cancelTrip(parseId(tripId));
+    }
+
+    /**
+     * Cancels an active trip by its primitive id.
+     *
+     * @param tripId the id of the trip
+     * @throws IllegalArgumentException if the trip does not exist
+     * @see #cancelTrip(String)
+     */
+    public void cancelTrip(long tripId) {
+        Trip trip = activeTrips.remove(tripId);
+        if (trip == null) {
+            throw new IllegalArgumentException("Trip not found: " + tripId);
+        }
+        unindex(tripId, trip);
+
+        TripState previous = trip.getState();
+        trip.cancel();
+        TraceIngestor traceIngestor = this.traceIngestor;
+        if (traceIngestor != null) {
+            traceIngestor.discard(tripId);
+        }
+
+        TripJournal journal = this.journal;
+        if (journal != null) {
+            journal.tripCanceled(trip);
+        }
+        EventBus eventBus = this.eventBus;
+        if (eventBus != null) {
+            eventBus.publishTripState(trip, previous, TripState.CANCELED);
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.listener.onTripCanceled(trip);
+            } catch (RuntimeException e) {
+                listener.failures.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Re-registers a trip that was in progress before a restart.
+     * Used by journal recovery; the vehicle is marked IN_USE without being claimed.
+     * A user whose record was lost is not indexed.
+     *
+     * @param id        the id of the trip
+     * @param user      the user taking the trip
+     * @param vehicle   the vehicle used for the trip
+     * @param startTime the original start time
+     * @return the restored {@link Trip}
+     */
+    public Trip restoreTrip(TripId id, User user, Vehicle vehicle, LocalDateTime startTime) {
+        Trip trip = new Trip(id, user, vehicle, clock);
+        trip.setStartTime(startTime);
+        activeTrips.put(id.asLong(), trip);
+        if (user != null) {
+            tripsByUser.put(user.getId(), trip);
+        }
+        tripsByVehicle.put(vehicle.getId(), trip);
+        return trip;
+    }
+
+    /**
+     * Returns the trip a user has in progress.
+     *
+     * @param userId the id of the user
+     * @return the active {@link Trip}, or null if the user has none
+     */
+    public Trip getActiveTrip(String userId) {
+        return tripsByUser.get(userId);
+    }
+
+    /**
+     * Returns the trip a vehicle is being used for.
+     *
+     * @param vehicleId the id of the vehicle
+     * @return the active {@link Trip}, or null if the vehicle is not in use
+     */
+    public Trip getTripByVehicle(String vehicleId) {
+        return tripsByVehicle.get(vehicleId);
+    }
+
+    /**
+     * Returns the ids of the last {@link #HISTORY_SIZE} trips a user completed or
+     * canceled, most recent first. Trips restored after a restart are remembered
+     * from the moment they end; earlier history is not persisted.
+     *
+     * @param userId the id of the user
+     * @return the trip ids, empty if the user has not finished a trip
+     */
+    public long[] getRecentTripIds(String userId) {
+        TripHistory history = histories.get(userId);
+        return history == null ? new long[0] : history.toArray();
+    }
+
+    /**
+     * Returns a live, read-only view of the trips in progress, without copying.
+     *
+     * @return a view of the active trips
+     */
+    public Collection<Trip> getActiveTrips() {
+        return Collections.unmodifiableCollection(activeTrips.values());
+    }
+
+    /**
+     * Registers a listener notified whenever a trip is completed or canceled.
+     * Listeners run on the thread ending the trip, so they must be fast and thread-safe.
+     * An exception thrown by a listener does not fail the trip or skip the other
+     * listeners; it is counted in {@link #getListenerFailureCount(TripListener)}.
+     *
+     * @param listener the listener to add
+     */
+    public void addTripListener(TripListener listener) {
+        listeners.add(new Listener(listener));
+    }
+
+    /**
+     * Removes a listener added with {@link #addTripListener(TripListener)}.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeTripListener(TripListener listener) {
+        for (Listener registered : listeners) {
+            if (registered.listener.equals(listener)) {
+                listeners.remove(registered);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns how many trip notifications the listener failed on.
+     *
+     * @param listener a listener added with {@link #addTripListener(TripListener)}
+     * @return the failure count, or 0 if the listener is not registered
+     */
+    public long getListenerFailureCount(TripListener listener) {
+        long failures = 0;
+        for (Listener registered : listeners) {
+            if (registered.listener.equals(listener)) {
+                failures += registered.failures.get();
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Sets the journal that records trip starts, ends and cancellations.
+     *
+     * @param journal the journal, or null to stop journaling
+     */
+    public void setJournal(TripJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sets the bus on which trip state transitions are published.
+     *
+     * @param eventBus the bus, or null to stop publishing
+     */
+    public void setEventBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Sets the ingestor whose GPS traces give the distance of ending trips. The traced
+     * distance replaces whatever was set on the trip before it is priced.
+     *
+     * @param traceIngestor the ingestor, or null to price the distance set on the trip
+     */
+    public void setTraceIngestor(TraceIngestor traceIngestor) {
+        this.traceIngestor = traceIngestor;
+    }
+
+    /**
+     * Sets the registry that times and counts trip operations. The metrics are
+     * {@code trips.start}, {@code trips.end} and {@code trips.price} timers, the
+     * {@code trips.start.rejected} counter and the {@code trips.active} and
+     * {@code reservations.active} gauges.
+     *
+     * @param registry the registry, or null to stop recording
+     */
+    public void setMetrics(MetricsRegistry registry) {
+        if (registry != null) {
+            registry.gauge("trips.active", activeTrips::size);
+            registry.gauge("reservations.active", reservations::size);
+        }
+        this.metrics = registry == null ? null : new Instruments(registry);
+    }
+
     /**
      * Retrieves an active trip by its id.
      *
@@ -97,6 +612,113 @@ public class TripService {
      * @return the {@link Trip}, or null if not found
      */
     public Trip getTrip(String tripId) {
+        try {
+            return activeTrips.get(TripId.parse(tripId));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Retrieves an active trip by its primitive id.
+     *
+     * @param tripId the id of the trip
+     * @return the {@link Trip}, or null if not found
+     */
+    public Trip getTrip(long tripId) {
         return activeTrips.get(tripId);
     }
+
+    /**
+     * Removes a trip that has left the active trips from the rider and vehicle indexes
+     * and adds it to the rider's history. The history is written first, so once the
+     * rider can start again the finished trip is already listed.
+     */
+    private void unindex(long tripId, Trip trip) {
+        tripsByVehicle.remove(trip.getVehicle().getId(), trip);
+        User user = trip.getUser();
+        if (user != null) {
+            histories.computeIfAbsent(user.getId(), id -> new TripHistory(HISTORY_SIZE)).add(tripId);
+            tripsByUser.remove(user.getId(), trip);
+        }
+    }
+
+    /**
+     * Ends an active reservation with the given outcome and removes its hold.
+     * Returns null if the hold had already run out, in which case the reservation
+     * is expired instead.
+     */
+    private Reservation finish(long reservationId, ReservationState outcome) {
+        TimingWheel.Timeout<Reservation> timeout = reservations.get(reservationId);
+        if (timeout == null) {
+            throw new IllegalArgumentException("Reservation not found: " + reservationId);
+        }
+        Reservation reservation = timeout.getTask();
+        if (!clock.instant().isBefore(reservation.getExpiresAt())) {
+            expire(reservation);
+            timeout.cancel();
+            return null;
+        }
+        if (!reservation.finish(outcome)) {
+            throw new IllegalArgumentException("Reservation not found: " + reservationId);
+        }
+        reservations.remove(reservationId, timeout);
+        timeout.cancel();
+        return reservation;
+    }
+
+    private boolean expire(Reservation reservation) {
+        if (!reservation.finish(ReservationState.EXPIRED)) {
+            return false;
+        }
+        reservations.remove(reservation.getId());
+        reservation.getVehicle().compareAndSetState(VehicleState.RESERVED, VehicleState.AVAILABLE);
+        return true;
+    }
+
+    /**
+     * Parses an id from the API; ids that cannot exist are reported as not found.
+     */
+    private static long parseId(String tripId) {
+        return parseId(tripId, "Trip");
+    }
+
+    private static long parseId(String id, String kind) {
+        try {
+            return TripId.parse(id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(kind + " not found: " + id);
+        }
+    }
+
+    /**
+     * A registered listener and the number of notifications it threw on.
+     */
+    private static final class Listener {
+
+        final TripListener listener;
+        final AtomicLong failures = new AtomicLong();
+
+        Listener(TripListener listener) {
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * The metrics of a registry, looked up once so recording does not touch the registry.
+     */
+    private static final class Instruments {
+
+        final LatencyTimer start;
+        final LatencyTimer end;
+        final LatencyTimer price;
+        final Counter startRejected;
+
+        Instruments(MetricsRegistry registry) {
+            this.start = registry.timer("trips.start");
+            this.end = registry.timer("trips.end");
+            this.price = registry.timer("trips.price");
+            this.startRejected = registry.counter("trips.start.rejected");
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.ismail.fleetShare.application;
 
+import com.ismail.fleetShare.domain.common.GeoPoint;
 import com.ismail.fleetShare.domain.vehicle.Vehicle;
 import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
 
@@ -39,4 +40,30 @@ public class VehicleService {
     public List<Vehicle> getAvailableVehicles() {
         return repository.findAvailable();
     }
+
+    /**
+     * Retrieves all available vehicles of the given type.
+     *
+     * @param type the vehicle type, e.g. {@code Scooter.class}
+     * @param <T>  the vehicle type
+     * @return a list of available vehicles of that type
+     */
+    public <T extends Vehicle> List<T> getAvailableVehicles(Class<T> type) {
+        return repository.findAvailable(type);
+    }
+
+    /**
+     * Retrieves the available vehicles of the given type nearest to a rider.
+     *
+     * @param type         the vehicle type, e.g. {@code Scooter.class}
+     * @param location     the rider's location
+     * @param limit        the maximum number of vehicles to return
+     * @param radiusMeters how far to search, in meters
+     * @param <T>          the vehicle type
+     * @return the nearest available vehicles, closest first
+     */
+    public <T extends Vehicle> List<T> getNearestAvailableVehicles(Class<T> type, GeoPoint location,
+                                                                  int limit, double radiusMeters) {
+        return repository.findNearestAvailable(type, location, limit, radiusMeters);
+    }
 }
@@ -0,0 +1,32 @@
+package com.ismail.fleetShare.application.analytics;
+
+/**
+ * 64-bit hashing of ids for the sketches. String.hashCode has only 32 bits,
+ * too few for distinct counts in the hundreds of millions.
+ */
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * FNV-1a over the characters followed by the MurmurHash3 finalizer.
+     */
+    static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
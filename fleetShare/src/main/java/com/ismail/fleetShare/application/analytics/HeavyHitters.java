@@ -0,0 +1,189 @@
+package com.ismail.fleetShare.application.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the most frequent values of a stream with a {@link CountMinSketch}
+ * and a fixed number of candidates.
+ *
+ * Every added value updates the sketch; a value whose estimated count exceeds that
+ * of the weakest candidate replaces it. Reported counts carry the sketch's bound:
+ * never below the true count, and above it by at most {@code e / width * N} with
+ * probability {@code 1 - e^-depth}. Any value whose true count exceeds that of the
+ * k-th candidate by more than the bound is among the candidates.
+ */
+public class HeavyHitters {
+
+    private final int capacity;
+    private final CountMinSketch sketch;
+    private final Map<String, Long> candidates = new HashMap<>();
+    private long weakest;
+
+    /**
+     * Creates a tracker with the default sketch shape.
+     *
+     * @param capacity how many values to track, e.g. 100 for a top 100
+     */
+    public HeavyHitters(int capacity) {
+        this(capacity, new CountMinSketch());
+    }
+
+    /**
+     * Creates a tracker.
+     *
+     * @param capacity how many values to track
+     * @param sketch   an empty sketch counting the values
+     */
+    public HeavyHitters(int capacity, CountMinSketch sketch) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.sketch = sketch;
+    }
+
+    /**
+     * Counts one occurrence of a value.
+     *
+     * @param value the value, e.g. a vehicle id
+     */
+    public synchronized void add(String value) {
+        long hash = Hashing.hash64(value);
+        sketch.addHash(hash);
+        offer(value, sketch.estimateHash(hash));
+    }
+
+    /**
+     * Returns the tracked values with their estimated counts, most frequent first.
+     *
+     * @param n the maximum number of values to return
+     * @return up to n values
+     */
+    public synchronized List<Entry> top(int n) {
+        List<Entry> entries = new ArrayList<>(candidates.size());
+        candidates.forEach((value, count) -> entries.add(new Entry(value, count)));
+        entries.sort((a, b) -> a.count != b.count ? Long.compare(b.count, a.count) : a.value.compareTo(b.value));
+        return entries.size() > n ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    /**
+     * Returns the estimated count of any value, tracked or not.
+     *
+     * @param value the value
+     * @return an estimate, never below the true count
+     */
+    public long estimate(String value) {
+        return sketch.estimateHash(Hashing.hash64(value));
+    }
+
+    /**
+     * Returns the total number of values added.
+     *
+     * @return the total count N
+     */
+    public long getTotal() {
+        return sketch.getTotal();
+    }
+
+    /**
+     * Returns the bound on overestimation relative to the total count.
+     *
+     * @return the relative error bound
+     */
+    public double getRelativeError() {
+        return sketch.getRelativeError();
+    }
+
+    /**
+     * Adds another tracker's counts to this one. The candidates of both are
+     * re-estimated against the merged sketch and the strongest are kept.
+     *
+     * @param other a tracker with the same sketch shape
+     */
+    public void merge(HeavyHitters other) {
+        List<Entry> theirs = other.top(Integer.MAX_VALUE);
+        synchronized (this) {
+            sketch.merge(other.sketch);
+            Map<String, Long> all = new HashMap<>(candidates);
+            for (Entry entry : theirs) {
+                all.put(entry.value, 0L);
+            }
+            candidates.clear();
+            weakest = 0;
+            all.keySet().forEach(value -> offer(value, sketch.estimateHash(Hashing.hash64(value))));
+        }
+    }
+
+    /**
+     * Keeps {@code weakest} equal to the smallest candidate count once all slots are
+     * taken. Counts only grow, so it only needs recomputing when the weakest
+     * candidate grows or is evicted.
+     */
+    private void offer(String value, long count) {
+        Long previous = candidates.get(value);
+        if (previous != null) {
+            candidates.put(value, count);
+            if (previous == weakest && candidates.size() == capacity) {
+                weakest = minCount();
+            }
+            return;
+        }
+        if (candidates.size() < capacity) {
+            candidates.put(value, count);
+            if (candidates.size() == capacity) {
+                weakest = minCount();
+            }
+            return;
+        }
+        if (count <= weakest) {
+            return;
+        }
+        String evict = null;
+        for (Map.Entry<String, Long> e : candidates.entrySet()) {
+            if (e.getValue() == weakest) {
+                evict = e.getKey();
+                break;
+            }
+        }
+        candidates.remove(evict);
+        candidates.put(value, count);
+        weakest = minCount();
+    }
+
+    private long minCount() {
+        long min = Long.MAX_VALUE;
+        for (long c : candidates.values()) {
+            min = Math.min(min, c);
+        }
+        return min;
+    }
+
+    /**
+     * A tracked value and its estimated count.
+     */
+    public static final class Entry {
+        private final String value;
+        private final long count;
+
+        Entry(String value, long count) {
+            this.value = value;
+            this.count = count;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return value + "=" + count;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.ismail.fleetShare.application.analytics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size histogram of non-negative long values with bounded relative error.
+ *
+ * Values below {@code 2^precision} are counted exactly; larger values share a bucket
+ * with values that differ by less than {@code 2^-precision} of their magnitude
+ * (log-linear buckets, as in HdrHistogram). The bucket array is allocated once, so
+ * memory does not grow with the number of values. Recording is thread-safe and lock-free.
+ */
+public class LogHistogram {
+
+    private final int precision;
+    private final long maxValue;
+    private final AtomicLongArray counts;
+
+    /**
+     * Creates a histogram.
+     *
+     * @param precision number of bits kept per value, between 1 and 16; 5 bits give about 3% error
+     * @param maxValue  the largest value counted exactly; larger values are clamped to it
+     */
+    public LogHistogram(int precision, long maxValue) {
+        if (precision < 1 || precision > 16) {
+            throw new IllegalArgumentException("Precision must be between 1 and 16 bits: " + precision);
+        }
+        if (maxValue < 1) {
+            throw new IllegalArgumentException("Max value must be positive: " + maxValue);
+        }
+        this.precision = precision;
+        this.maxValue = maxValue;
+        this.counts = new AtomicLongArray(index(maxValue) + 1);
+    }
+
+    /**
+     * Counts one value. Negative values count as zero.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        counts.getAndIncrement(index(Math.max(0L, Math.min(value, maxValue))));
+    }
+
+    /**
+     * Adds all counts of another histogram with the same layout to this one.
+     *
+     * @param other the histogram to add
+     * @throws IllegalArgumentException if the layouts differ
+     */
+    public void add(LogHistogram other) {
+        if (other.precision != precision || other.maxValue != maxValue) {
+            throw new IllegalArgumentException("Histogram layouts differ");
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            long c = other.counts.get(i);
+            if (c != 0) {
+                counts.getAndAdd(i, c);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the value count
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value at the given percentile, e.g. 0.99 for p99.
+     * The result is the middle of the bucket holding that rank.
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the value at the percentile, or 0 if the histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 1) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 1: " + percentile);
+        }
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(maxValue, (lowestValue(i) + highestValue(i)) >>> 1);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Returns the number of buckets, which fixes the memory used.
+     *
+     * @return the bucket count
+     */
+    public int getBucketCount() {
+        return counts.length();
+    }
+
+    private int index(long value) {
+        int subBuckets = 1 << precision;
+        if (value < subBuckets) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - precision;
+        int sub = (int) (value >>> shift) - subBuckets;
+        return ((shift + 1) << precision) + sub;
+    }
+
+    private long lowestValue(int index) {
+        int subBuckets = 1 << precision;
+        if (index < subBuckets) {
+            return index;
+        }
+        int shift = (index >> precision) - 1;
+        long sub = (index & (subBuckets - 1)) + subBuckets;
+        return sub << shift;
+    }
+
+    private long highestValue(int index) {
+        int subBuckets = 1 << precision;
+        if (index < subBuckets) {
+            return index;
+        }
+        int shift = (index >> precision) - 1;
+        return lowestValue(index) + (1L << shift) - 1;
+    }
+}
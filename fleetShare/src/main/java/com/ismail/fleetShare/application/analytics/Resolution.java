@@ -0,0 +1,31 @@
+package com.ismail.fleetShare.application.analytics;
+
+import java.time.Duration;
+
+/**
+ * Bucket sizes of {@link TripRollups}, each with the number of buckets kept.
+ */
+public enum Resolution {
+    /** One bucket per minute, the last two hours. */
+    MINUTE(Duration.ofMinutes(1), 120),
+    /** One bucket per hour, the last two days. */
+    HOUR(Duration.ofHours(1), 48),
+    /** One bucket per day (UTC), the last 90 days. */
+    DAY(Duration.ofDays(1), 90);
+
+    private final Duration span;
+    private final int buckets;
+
+    Resolution(Duration span, int buckets) {
+        this.span = span;
+        this.buckets = buckets;
+    }
+
+    public Duration getSpan() {
+        return span;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+}
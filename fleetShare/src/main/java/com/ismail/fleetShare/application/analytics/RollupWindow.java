@@ -0,0 +1,98 @@
+package com.ismail.fleetShare.application.analytics;
+
+import com.ismail.fleetShare.domain.common.Distance;
+import com.ismail.fleetShare.domain.common.Money;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Trip figures for one time window, as returned by {@link TripRollups}.
+ * A snapshot: it does not change when more trips are recorded.
+ */
+public class RollupWindow {
+
+    private final Instant start;
+    private final Instant end;
+    private final long tripCount;
+    private final Money revenue;
+    private final double distanceKm;
+    private final long durationSeconds;
+    private final LogHistogram durations;
+    private final LogHistogram prices;
+
+    RollupWindow(Instant start, Instant end, long tripCount, Money revenue, double distanceKm,
+                 long durationSeconds, LogHistogram durations, LogHistogram prices) {
+        this.start = start;
+        this.end = end;
+        this.tripCount = tripCount;
+        this.revenue = revenue;
+        this.distanceKm = distanceKm;
+        this.durationSeconds = durationSeconds;
+        this.durations = durations;
+        this.prices = prices;
+    }
+
+    /**
+     * Returns the start of the window, inclusive.
+     *
+     * @return the window start
+     */
+    public Instant getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the end of the window, exclusive.
+     *
+     * @return the window end
+     */
+    public Instant getEnd() {
+        return end;
+    }
+
+    public long getTripCount() {
+        return tripCount;
+    }
+
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    public Distance getTotalDistance() {
+        return Distance.of(distanceKm);
+    }
+
+    public Duration getTotalDuration() {
+        return Duration.ofSeconds(durationSeconds);
+    }
+
+    /**
+     * Returns the trip duration at the given percentile, to within about 3%.
+     *
+     * @param percentile the percentile, e.g. 0.95 for p95
+     * @return the duration, or zero if the window has no trips
+     */
+    public Duration getDurationPercentile(double percentile) {
+        return Duration.ofSeconds(durations.getValueAtPercentile(percentile));
+    }
+
+    /**
+     * Returns the trip price at the given percentile, to within about 3%.
+     *
+     * @param percentile the percentile, e.g. 0.95 for p95
+     * @return the price, or zero if the window has no trips
+     */
+    public Money getPricePercentile(double percentile) {
+        return Money.ofMinor(prices.getValueAtPercentile(percentile), revenue.getCurrency());
+    }
+
+    @Override
+    public String toString() {
+        return "RollupWindow{" + start + " - " + end +
+                ", trips=" + tripCount +
+                ", revenue=" + revenue +
+                ", p50=" + getDurationPercentile(0.5) +
+                ", p99=" + getDurationPercentile(0.99) + '}';
+    }
+}
@@ -0,0 +1,159 @@
+package com.ismail.fleetShare.application.analytics;
+
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Approximate trip figures for one time window, as returned by {@link TripSketches}.
+ *
+ * Holds a {@link HyperLogLog} of rider ids, {@link HeavyHitters} of vehicle ids and
+ * models, and a {@link TDigest} of prices in minor units, about 25 KB in all whatever
+ * the number of trips. Windows merge, so figures from several shards or several
+ * windows can be combined without revisiting any trip.
+ */
+public class SketchWindow {
+
+    static final int TOP_VEHICLES = 100;
+    static final int TOP_MODELS = 10;
+
+    private Instant start;
+    private Instant end;
+    private final String currency;
+    private final HyperLogLog riders = new HyperLogLog();
+    private final HeavyHitters vehicles = new HeavyHitters(TOP_VEHICLES);
+    private final HeavyHitters models = new HeavyHitters(TOP_MODELS);
+    private final TDigest prices = new TDigest();
+
+    /**
+     * Creates an empty window, e.g. to merge the windows of several shards into.
+     *
+     * @param start    the start of the window, inclusive
+     * @param end      the end of the window, exclusive
+     * @param currency the currency of the price figures
+     */
+    public SketchWindow(Instant start, Instant end, String currency) {
+        this.start = start;
+        this.end = end;
+        this.currency = Money.currencyCode(currency);
+    }
+
+    /**
+     * Adds a completed trip, whose price must be in the window's currency.
+     */
+    void record(Trip trip) {
+        if (trip.getUser() != null) {
+            riders.add(trip.getUser().getId());
+        }
+        vehicles.add(trip.getVehicle().getId());
+        models.add(trip.getVehicle().getModel());
+        prices.add(trip.getPrice().getMinorUnits());
+    }
+
+    /**
+     * Adds the figures of another window to this one and widens this window to
+     * cover both.
+     *
+     * @param other a window in the same currency
+     * @throws IllegalArgumentException if the currencies differ
+     */
+    public void merge(SketchWindow other) {
+        if (!Money.sameCurrency(other.currency, currency)) {
+            throw new IllegalArgumentException("Currencies differ: " + currency + " vs " + other.currency);
+        }
+        riders.merge(other.riders);
+        vehicles.merge(other.vehicles);
+        models.merge(other.models);
+        prices.merge(other.prices);
+        synchronized (this) {
+            start = start.isBefore(other.start) ? start : other.start;
+            end = end.isAfter(other.end) ? end : other.end;
+        }
+    }
+
+    /**
+     * Returns the start of the window, inclusive.
+     *
+     * @return the window start
+     */
+    public synchronized Instant getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the end of the window, exclusive.
+     *
+     * @return the window end
+     */
+    public synchronized Instant getEnd() {
+        return end;
+    }
+
+    public long getTripCount() {
+        return vehicles.getTotal();
+    }
+
+    /**
+     * Returns the estimated number of distinct riders, to within about 1.6%
+     * (one standard error).
+     *
+     * @return the estimated rider count
+     */
+    public long getDistinctRiders() {
+        return riders.estimate();
+    }
+
+    /**
+     * Returns the most used vehicles with their estimated trip counts, which are
+     * never below the true counts and above them by at most about 1.1% of the
+     * window's trips.
+     *
+     * @param n the maximum number of vehicles, at most 100
+     * @return vehicle ids and trip counts, most used first
+     */
+    public List<HeavyHitters.Entry> getTopVehicles(int n) {
+        return vehicles.top(n);
+    }
+
+    /**
+     * Returns the most used vehicle models with their estimated trip counts.
+     *
+     * @param n the maximum number of models, at most 10
+     * @return models and trip counts, most used first
+     */
+    public List<HeavyHitters.Entry> getTopModels(int n) {
+        return models.top(n);
+    }
+
+    /**
+     * Returns the estimated trip count of a vehicle, tracked among the top or not.
+     *
+     * @param vehicleId the vehicle id
+     * @return the estimated trip count
+     */
+    public long getVehicleTrips(String vehicleId) {
+        return vehicles.estimate(vehicleId);
+    }
+
+    /**
+     * Returns the trip price at the given percentile. Its rank is typically within
+     * 0.5% of the requested one.
+     *
+     * @param percentile the percentile, e.g. 0.95 for p95
+     * @return the price, or zero if the window has no trips
+     */
+    public Money getPricePercentile(double percentile) {
+        return Money.ofMinor(Math.round(prices.quantile(percentile)), currency);
+    }
+
+    @Override
+    public String toString() {
+        return "SketchWindow{" + getStart() + " - " + getEnd() +
+                ", trips=" + getTripCount() +
+                ", riders~" + getDistinctRiders() +
+                ", topModels=" + getTopModels(3) +
+                ", p50=" + getPricePercentile(0.5) + '}';
+    }
+}
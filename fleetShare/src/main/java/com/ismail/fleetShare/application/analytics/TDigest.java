@@ -0,0 +1,218 @@
+package com.ismail.fleetShare.application.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest estimating quantiles of a stream of values.
+ *
+ * Values are buffered and periodically merged into at most about
+ * {@code compression * pi / 2} centroids, whose size is bounded by
+ * {@code 4 * N * q * (1 - q) / compression} so they are smallest near the tails.
+ * With the default compression of 100 (about 4 KB), the rank of an estimated
+ * quantile is typically within 0.5% of the requested one, and much closer at the
+ * extremes such as p99. Digests merge by combining their centroids.
+ */
+public class TDigest {
+
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+    private final double[] buffer;
+    private int buffered;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates an empty digest.
+     *
+     * @param compression the accuracy parameter; larger keeps more centroids
+     */
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression must be at least 10: " + compression);
+        }
+        this.compression = compression;
+        int size = (int) Math.ceil(compression * Math.PI / 2) + 10;
+        this.means = new double[size];
+        this.weights = new double[size];
+        this.buffer = new double[(int) (2 * compression)];
+    }
+
+    /**
+     * Adds one value.
+     *
+     * @param value the value
+     */
+    public synchronized void add(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Cannot add NaN");
+        }
+        buffer[buffered++] = value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (buffered == buffer.length) {
+            compress(null, null, 0);
+        }
+    }
+
+    /**
+     * Returns the number of values added.
+     *
+     * @return the value count
+     */
+    public synchronized long getCount() {
+        return Math.round(totalWeight) + buffered;
+    }
+
+    /**
+     * Returns the estimated value at the given quantile.
+     *
+     * @param q the quantile, between 0 and 1
+     * @return the estimated value, or NaN if the digest is empty
+     */
+    public synchronized double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+        }
+        compress(null, null, 0);
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+        double index = q * totalWeight;
+        if (index < weights[0] / 2) {
+            // between the minimum and the center of the first centroid
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        }
+        double cumulative = weights[0] / 2;
+        for (int i = 0; i < centroids - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + gap > index) {
+                double t = (index - cumulative) / gap;
+                return means[i] + t * (means[i + 1] - means[i]);
+            }
+            cumulative += gap;
+        }
+        double last = weights[centroids - 1] / 2;
+        double t = Math.min(1.0, (index - cumulative) / last);
+        return means[centroids - 1] + t * (max - means[centroids - 1]);
+    }
+
+    /**
+     * Adds all values of another digest to this one.
+     *
+     * @param other the digest to add
+     */
+    public void merge(TDigest other) {
+        double[] theirMeans;
+        double[] theirWeights;
+        int count;
+        double theirMin;
+        double theirMax;
+        synchronized (other) {
+            other.compress(null, null, 0);
+            theirMeans = Arrays.copyOf(other.means, other.centroids);
+            theirWeights = Arrays.copyOf(other.weights, other.centroids);
+            count = other.centroids;
+            theirMin = other.min;
+            theirMax = other.max;
+        }
+        synchronized (this) {
+            min = Math.min(min, theirMin);
+            max = Math.max(max, theirMax);
+            compress(theirMeans, theirWeights, count);
+        }
+    }
+
+    /**
+     * Merges the buffer, the current centroids and optional extra centroids into a
+     * new set of centroids. All three are sorted by mean, so they are combined with
+     * a merge pass instead of a full sort.
+     */
+    private void compress(double[] extraMeans, double[] extraWeights, int extra) {
+        if (buffered == 0 && extra == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        double[] oldMeans = Arrays.copyOf(means, centroids);
+        double[] oldWeights = Arrays.copyOf(weights, centroids);
+        int oldCount = centroids;
+
+        double total = totalWeight + buffered;
+        for (int i = 0; i < extra; i++) {
+            total += extraWeights[i];
+        }
+
+        int a = 0;
+        int b = 0;
+        int c = 0;
+        int out = 0;
+        double soFar = 0;
+        double mean = 0;
+        double weight = 0;
+        while (a < oldCount || b < buffered || c < extra) {
+            double nextMean;
+            double nextWeight;
+            double ma = a < oldCount ? oldMeans[a] : Double.POSITIVE_INFINITY;
+            double mb = b < buffered ? buffer[b] : Double.POSITIVE_INFINITY;
+            double mc = c < extra ? extraMeans[c] : Double.POSITIVE_INFINITY;
+            if (a < oldCount && ma <= mb && ma <= mc) {
+                nextMean = ma;
+                nextWeight = oldWeights[a++];
+            } else if (b < buffered && mb <= mc) {
+                nextMean = mb;
+                nextWeight = 1;
+                b++;
+            } else {
+                nextMean = mc;
+                nextWeight = extraWeights[c++];
+            }
+
+            if (weight == 0) {
+                mean = nextMean;
+                weight = nextWeight;
+                continue;
+            }
+            double proposed = weight + nextWeight;
+            double q0 = soFar / total;
+            double q2 = (soFar + proposed) / total;
+            if (proposed <= total * Math.min(maxSize(q0), maxSize(q2))) {
+                mean += (nextMean - mean) * nextWeight / proposed;
+                weight = proposed;
+            } else {
+                out = emit(out, mean, weight);
+                soFar += weight;
+                mean = nextMean;
+                weight = nextWeight;
+            }
+        }
+        out = emit(out, mean, weight);
+        centroids = out;
+        buffered = 0;
+        totalWeight = total;
+    }
+
+    private double maxSize(double q) {
+        return 4 * q * (1 - q) / compression;
+    }
+
+    private int emit(int index, double mean, double weight) {
+        if (index == means.length) {
+            means = Arrays.copyOf(means, index * 2);
+            weights = Arrays.copyOf(weights, index * 2);
+        }
+        means[index] = mean;
+        weights[index] = weight;
+        return index + 1;
+    }
+}
@@ -0,0 +1,169 @@
+package com.ismail.fleetShare.application.analytics;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripListener;
+import com.ismail.fleetShare.domain.trip.TripState;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-minute, per-hour and per-day rollups of completed trips.
+ *
+ * Each {@link Resolution} keeps a {@link WindowRing} of a fixed number of buckets. A trip
+ * is added to the bucket of its end time in every ring; when time moves past a ring's
+ * length, the oldest bucket is replaced by a fresh one, so memory stays bounded however
+ * many trips are recorded. Each bucket holds counters and two {@link LogHistogram}s, for trip
+ * duration in seconds and price in minor units, from which p50/p95/p99 are read.
+ * A bucket takes about 18 KB, so all rings together stay under 5 MB.
+ * Trips are fed by {@link TripService} completion events; trips in a currency other
+ * than the rollup currency, and trips older than a ring, are not counted there.
+ */
+public class TripRollups implements TripListener {
+
+    static final int PRECISION = 5;
+    static final long MAX_DURATION_SECONDS = 1L << 31;
+    static final long MAX_PRICE_UNITS = 1L << 47;
+
+    private final ZoneId zone;
+    private final String currency;
+    private final Map<Resolution, WindowRing<Bucket>> rings = new EnumMap<>(Resolution.class);
+
+    /**
+     * Creates rollups in USD for trips timed in the system default zone, like
+     * {@link TripService}'s default clock.
+     */
+    public TripRollups() {
+        this(ZoneId.systemDefault(), "USD");
+    }
+
+    /**
+     * Creates rollups.
+     *
+     * @param zone     the zone of the trips' local end times
+     * @param currency the currency of the revenue figures
+     */
+    public TripRollups(ZoneId zone, String currency) {
+        this.zone = zone;
+        this.currency = Money.currencyCode(currency);
+        for (Resolution resolution : Resolution.values()) {
+            rings.put(resolution, new WindowRing<>(resolution.getBuckets(), window -> new Bucket()));
+        }
+    }
+
+    /**
+     * Creates rollups and subscribes them to the trips ended by the service.
+     *
+     * @param tripService the service whose completed trips are rolled up
+     * @param zone        the zone of the service's clock
+     * @param currency    the currency of the revenue figures
+     * @return the subscribed rollups
+     */
+    public static TripRollups subscribe(TripService tripService, ZoneId zone, String currency) {
+        TripRollups rollups = new TripRollups(zone, currency);
+        tripService.addTripListener(rollups);
+        return rollups;
+    }
+
+    /**
+     * Adds a completed trip to the bucket of its end time at every resolution.
+     *
+     * @param trip the completed trip
+     */
+    @Override
+    public void onTripCompleted(Trip trip) {
+        LocalDateTime end = trip.getEndTime();
+        if (trip.getState() != TripState.COMPLETED || end == null
+                || !Money.sameCurrency(trip.getPrice().getCurrency(), currency) || !trip.getPrice().isCompact()) {
+            return;
+        }
+        long epochSecond = end.atZone(zone).toEpochSecond();
+        long durationSeconds = trip.getDuration().getSeconds();
+        long price = trip.getPrice().getMinorUnits();
+        double km = trip.getDistance() != null ? trip.getDistance().getValue() : 0.0;
+        for (Resolution resolution : Resolution.values()) {
+            Bucket bucket = rings.get(resolution)
+                    .getOrCreate(Math.floorDiv(epochSecond, resolution.getSpan().getSeconds()));
+            if (bucket != null) {
+                bucket.record(durationSeconds, price, km);
+            }
+        }
+    }
+
+    /**
+     * Returns the figures of the bucket containing the given time.
+     *
+     * @param resolution the bucket size
+     * @param time       a time within the window
+     * @return the window, empty if no trips were recorded in it or it is no longer kept
+     */
+    public RollupWindow getWindow(Resolution resolution, Instant time) {
+        return getWindows(resolution, time, 1);
+    }
+
+    /**
+     * Returns the combined figures of the last {@code count} buckets, ending with the
+     * bucket containing {@code now}. The cost depends on {@code count}, not on the
+     * number of trips.
+     *
+     * @param resolution the bucket size
+     * @param now        a time within the last bucket
+     * @param count      the number of buckets, at most {@link Resolution#getBuckets()}
+     * @return the combined window
+     * @throws IllegalArgumentException if count is out of range
+     */
+    public RollupWindow getWindows(Resolution resolution, Instant now, int count) {
+        if (count < 1 || count > resolution.getBuckets()) {
+            throw new IllegalArgumentException("Bucket count must be between 1 and "
+                    + resolution.getBuckets() + ": " + count);
+        }
+        long span = resolution.getSpan().getSeconds();
+        long last = Math.floorDiv(now.getEpochSecond(), span);
+        long first = last - count + 1;
+
+        long trips = 0;
+        long units = 0;
+        double km = 0;
+        long seconds = 0;
+        LogHistogram durations = new LogHistogram(PRECISION, MAX_DURATION_SECONDS);
+        LogHistogram prices = new LogHistogram(PRECISION, MAX_PRICE_UNITS);
+        for (long epoch = first; epoch <= last; epoch++) {
+            Bucket bucket = rings.get(resolution).get(epoch);
+            if (bucket != null) {
+                trips += bucket.trips.sum();
+                units += bucket.revenue.sum();
+                km += bucket.distance.sum();
+                seconds += bucket.duration.sum();
+                durations.add(bucket.durations);
+                prices.add(bucket.prices);
+            }
+        }
+        return new RollupWindow(Instant.ofEpochSecond(first * span), Instant.ofEpochSecond((last + 1) * span),
+                trips, Money.ofMinor(units, currency), km, seconds, durations, prices);
+    }
+
+    private static final class Bucket {
+        private final LongAdder trips = new LongAdder();
+        private final LongAdder revenue = new LongAdder();
+        private final LongAdder duration = new LongAdder();
+        private final DoubleAdder distance = new DoubleAdder();
+        private final LogHistogram durations = new LogHistogram(PRECISION, MAX_DURATION_SECONDS);
+        private final LogHistogram prices = new LogHistogram(PRECISION, MAX_PRICE_UNITS);
+
+        void record(long durationSeconds, long price, double km) {
+            trips.increment();
+            revenue.add(price);
+            duration.add(durationSeconds);
+            distance.add(km);
+            durations.record(durationSeconds);
+            prices.record(price);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ismail.fleetShare.application.analytics;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripListener;
+import com.ismail.fleetShare.domain.trip.TripState;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-minute, per-hour and per-day sketches of completed trips: distinct riders,
+ * most used vehicles and models, and price quantiles.
+ *
+ * Laid out like {@link TripRollups}: each {@link Resolution} keeps a {@link WindowRing}
+ * of {@link SketchWindow}s and a trip is added to the window of its end time in every
+ * ring. Where the rollups give exact totals, the sketches answer questions whose exact
+ * answer would need every rider or vehicle id of the window, in fixed memory.
+ * A window takes about 25 KB, so all rings together stay under 7 MB.
+ * Trips in a currency other than the sketch currency are not counted.
+ */
+public class TripSketches implements TripListener {
+
+    private final ZoneId zone;
+    private final String currency;
+    private final Map<Resolution, WindowRing<SketchWindow>> rings = new EnumMap<>(Resolution.class);
+
+    /**
+     * Creates sketches.
+     *
+     * @param zone     the zone of the trips' local end times
+     * @param currency the currency of the price figures
+     */
+    public TripSketches(ZoneId zone, String currency) {
+        this.zone = zone;
+        this.currency = Money.currencyCode(currency);
+        for (Resolution resolution : Resolution.values()) {
+            long span = resolution.getSpan().getSeconds();
+            rings.put(resolution, new WindowRing<>(resolution.getBuckets(), window -> new SketchWindow(
+                    Instant.ofEpochSecond(window * span), Instant.ofEpochSecond((window + 1) * span), this.currency)));
+        }
+    }
+
+    /**
+     * Creates sketches and subscribes them to the trips ended by the service.
+     *
+     * @param tripService the service whose completed trips are sketched
+     * @param zone        the zone of the service's clock
+     * @param currency    the currency of the price figures
+     * @return the subscribed sketches
+     */
+    public static TripSketches subscribe(TripService tripService, ZoneId zone, String currency) {
+        TripSketches sketches = new TripSketches(zone, currency);
+        tripService.addTripListener(sketches);
+        return sketches;
+    }
+
+    /**
+     * Adds a completed trip to the window of its end time at every resolution.
+     *
+     * @param trip the completed trip
+     */
+    @Override
+    public void onTripCompleted(Trip trip) {
+        LocalDateTime end = trip.getEndTime();
+        if (trip.getState() != TripState.COMPLETED || end == null
+                || !Money.sameCurrency(trip.getPrice().getCurrency(), currency) || !trip.getPrice().isCompact()) {
+            return;
+        }
+        long epochSecond = end.atZone(zone).toEpochSecond();
+        for (Resolution resolution : Resolution.values()) {
+            SketchWindow window = rings.get(resolution)
+                    .getOrCreate(Math.floorDiv(epochSecond, resolution.getSpan().getSeconds()));
+            if (window != null) {
+                window.record(trip);
+            }
+        }
+    }
+
+    /**
+     * Returns the sketches of the window containing the given time.
+     *
+     * @param resolution the window size
+     * @param time       a time within the window
+     * @return a copy of the window, empty if no trips were recorded in it or it is no longer kept
+     */
+    public SketchWindow getWindow(Resolution resolution, Instant time) {
+        return getWindows(resolution, time, 1);
+    }
+
+    /**
+     * Returns the merged sketches of the last {@code count} windows, ending with the
+     * window containing {@code now}.
+     *
+     * @param resolution the window size
+     * @param now        a time within the last window
+     * @param count      the number of windows, at most {@link Resolution#getBuckets()}
+     * @return a new window holding the merged sketches
+     * @throws IllegalArgumentException if count is out of range
+     */
+    public SketchWindow getWindows(Resolution resolution, Instant now, int count) {
+        if (count < 1 || count > resolution.getBuckets()) {
+            throw new IllegalArgumentException("Window count must be between 1 and "
+                    + resolution.getBuckets() + ": " + count);
+        }
+        long span = resolution.getSpan().getSeconds();
+        long last = Math.floorDiv(now.getEpochSecond(), span);
+        long first = last - count + 1;
+        Instant start = Instant.ofEpochSecond(first * span);
+        SketchWindow merged = new SketchWindow(start, Instant.ofEpochSecond((last + 1) * span), currency);
+        for (long epoch = first; epoch <= last; epoch++) {
+            SketchWindow window = rings.get(resolution).get(epoch);
+            if (window != null) {
+                merged.merge(window);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,74 @@
+package com.ismail.fleetShare.application.analytics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/**
+ * Fixed ring of per-window values indexed by window number (epoch / window span).
+ *
+ * Each slot holds the value of one window together with its number. When a later
+ * window maps to an occupied slot, a fresh value replaces the old one by CAS, so
+ * memory is bounded by the ring size. A writer that loses the race against a
+ * rotation writes into the discarded value, which is correct: that window is no
+ * longer kept.
+ */
+final class WindowRing<T> {
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final LongFunction<T> factory;
+
+    WindowRing(int size, LongFunction<T> factory) {
+        this.slots = new AtomicReferenceArray<>(size);
+        this.factory = factory;
+    }
+
+    int size() {
+        return slots.length();
+    }
+
+    /**
+     * Returns the value of the window, or null if it is empty or no longer kept.
+     */
+    T get(long window) {
+        Slot<T> slot = slots.get(index(window));
+        return slot != null && slot.window == window ? slot.value : null;
+    }
+
+    /**
+     * Returns the value of the window, creating it if needed, or null if the window
+     * is older than the one now occupying its slot.
+     */
+    T getOrCreate(long window) {
+        int index = index(window);
+        Slot<T> fresh = null;
+        while (true) {
+            Slot<T> current = slots.get(index);
+            if (current != null && current.window == window) {
+                return current.value;
+            }
+            if (current != null && current.window > window) {
+                return null;
+            }
+            if (fresh == null) {
+                fresh = new Slot<>(window, factory.apply(window));
+            }
+            if (slots.compareAndSet(index, current, fresh)) {
+                return fresh.value;
+            }
+        }
+    }
+
+    private int index(long window) {
+        return (int) Math.floorMod(window, (long) slots.length());
+    }
+
+    private static final class Slot<T> {
+        private final long window;
+        private final T value;
+
+        Slot(long window, T value) {
+            this.window = window;
+            this.value = value;
+        }
+    }
+}
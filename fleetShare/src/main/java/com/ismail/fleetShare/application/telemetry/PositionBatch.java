@@ -0,0 +1,88 @@
+package com.ismail.fleetShare.application.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * A batch of GPS fixes for active trips, stored column by column in primitive arrays.
+ * A gateway fills a batch with {@link #add}, hands it to {@link TraceIngestor#ingest}
+ * and {@link #clear() clears} it for the next round, so no object is created per fix.
+ * Fixes of the same trip should be in time order; runs of fixes of one trip are
+ * ingested under a single lock. Not thread-safe.
+ */
+public class PositionBatch {
+
+    private long[] tripIds;
+    private double[] latitudes;
+    private double[] longitudes;
+    private long[] timesMillis;
+    private int size;
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param capacity the number of fixes the batch holds before it grows
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public PositionBatch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.tripIds = new long[capacity];
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.timesMillis = new long[capacity];
+    }
+
+    /**
+     * Appends a fix.
+     *
+     * @param tripId     the primitive id of the trip, see
+     *                   {@link com.ismail.fleetShare.domain.trip.TripId#asLong()}
+     * @param latitude   the latitude in degrees
+     * @param longitude  the longitude in degrees
+     * @param timeMillis when the fix was taken, in epoch milliseconds
+     * @return this batch
+     */
+    public PositionBatch add(long tripId, double latitude, double longitude, long timeMillis) {
+        if (size == tripIds.length) {
+            int capacity = size * 2;
+            tripIds = Arrays.copyOf(tripIds, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            timesMillis = Arrays.copyOf(timesMillis, capacity);
+        }
+        tripIds[size] = tripId;
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        timesMillis[size] = timeMillis;
+        size++;
+        return this;
+    }
+
+    /**
+     * Removes all fixes, keeping the arrays for reuse.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getTripId(int index) {
+        return tripIds[index];
+    }
+
+    public double getLatitude(int index) {
+        return latitudes[index];
+    }
+
+    public double getLongitude(int index) {
+        return longitudes[index];
+    }
+
+    public long getTimeMillis(int index) {
+        return timesMillis[index];
+    }
+}
@@ -0,0 +1,247 @@
+package com.ismail.fleetShare.application.telemetry;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Distance;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripState;
+import com.ismail.fleetShare.infrastructure.collection.ConcurrentLongMap;
+
+/**
+ * Ingests batches of GPS fixes for active trips and keeps one {@link TripTrace} per trip.
+ *
+ * A trace is created on the first fix of a trip that is in progress; fixes of unknown
+ * or finished trips are dropped. Ingesting allocates nothing per fix: the batch is
+ * read in place, the trace lookup is by primitive id, and each trace accumulates its
+ * distance in primitive fields. Several threads may ingest at once; fixes of one trip
+ * are applied under that trace's lock.
+ *
+ * Set the ingestor on the {@link TripService} with
+ * {@link TripService#setTraceIngestor(TraceIngestor)}. Ending a trip then calls
+ * {@link #complete(Trip)} before the trip is priced, which writes the traced distance
+ * to the trip and moves the vehicle to where the trip ended, once per trip.
+ */
+public class TraceIngestor {
+
+    /**
+     * Movements shorter than this are GPS noise, in meters.
+     */
+    public static final double DEFAULT_JITTER_METERS = 5.0;
+
+    /**
+     * Faster than this no vehicle in the fleet moves, in meters per second (200 km/h).
+     */
+    public static final double DEFAULT_MAX_SPEED = 200 / 3.6;
+
+    /**
+     * Distance between kept path points before a path is thinned, in meters.
+     */
+    public static final double DEFAULT_PATH_SPACING = 25.0;
+
+    /**
+     * The most points a path holds.
+     */
+    public static final int DEFAULT_MAX_PATH_POINTS = 512;
+
+    private final TripService tripService;
+    private final ConcurrentLongMap<TripTrace> traces = new ConcurrentLongMap<>();
+    private double jitterMeters = DEFAULT_JITTER_METERS;
+    private double maxSpeed = DEFAULT_MAX_SPEED;
+    private double pathSpacing = DEFAULT_PATH_SPACING;
+    private int maxPathPoints = DEFAULT_MAX_PATH_POINTS;
+
+    /**
+     * Creates an ingestor for the trips of a service.
+     *
+     * @param tripService the service whose active trips are traced
+     */
+    public TraceIngestor(TripService tripService) {
+        this.tripService = tripService;
+    }
+
+    /**
+     * Applies a batch of fixes. Consecutive fixes of the same trip are applied under
+     * one lock, so batches grouped by trip are the cheapest to ingest.
+     *
+     * @param batch the fixes
+     * @return the number of fixes accepted; the others were jitter, outliers or
+     *         belonged to no active trip
+     */
+    public int ingest(PositionBatch batch) {
+        int accepted = 0;
+        int size = batch.size();
+        int i = 0;
+        while (i < size) {
+            long tripId = batch.getTripId(i);
+            int end = i + 1;
+            while (end < size && batch.getTripId(end) == tripId) {
+                end++;
+            }
+            TripTrace trace = traceFor(tripId);
+            if (trace != null) {
+                synchronized (trace) {
+                    for (int j = i; j < end; j++) {
+                        if (trace.offer(batch.getLatitude(j), batch.getLongitude(j), batch.getTimeMillis(j),
+                                jitterMeters, maxSpeed, maxPathPoints)) {
+                            accepted++;
+                        }
+                    }
+                }
+            }
+            i = end;
+        }
+        return accepted;
+    }
+
+    /**
+     * Returns the trace of an active trip.
+     *
+     * @param tripId the primitive id of the trip
+     * @return the trace, or null if no fix of that trip was ingested
+     */
+    public TripTrace getTrace(long tripId) {
+        return traces.get(tripId);
+    }
+
+    /**
+     * Returns the number of trips being traced.
+     *
+     * @return the trace count
+     */
+    public int getTraceCount() {
+        return traces.size();
+    }
+
+    /**
+     * Finishes the trace of a trip that is ending: the trip's distance is set to the
+     * traced distance and its vehicle moved to the last accepted fix. A trip without
+     * fixes keeps the distance it has.
+     *
+     * @param trip the ending trip
+     * @return the finished trace, or null if the trip had none
+     */
+    public TripTrace complete(Trip trip) {
+        TripTrace trace = traces.remove(trip.getId().asLong());
+        if (trace == null) {
+            return null;
+        }
+        synchronized (trace) {
+            trace.close(maxPathPoints);
+            if (trace.getAcceptedFixes() > 0) {
+                trip.setDistance(Distance.of(trace.getDistanceMeters() / 1_000.0));
+                trip.getVehicle().setLocation(trace.getLastPosition());
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * Drops the trace of a trip that was canceled.
+     *
+     * @param tripId the primitive id of the trip
+     */
+    public void discard(long tripId) {
+        TripTrace trace = traces.remove(tripId);
+        if (trace != null) {
+            synchronized (trace) {
+                trace.close(maxPathPoints);
+            }
+        }
+    }
+
+    public double getJitterMeters() {
+        return jitterMeters;
+    }
+
+    /**
+     * Sets the radius within which a fix is treated as noise. Configure before ingesting.
+     *
+     * @param jitterMeters the radius in meters, not negative
+     * @return this ingestor
+     */
+    public TraceIngestor setJitterMeters(double jitterMeters) {
+        if (!(jitterMeters >= 0)) {
+            throw new IllegalArgumentException("Jitter radius must not be negative: " + jitterMeters);
+        }
+        this.jitterMeters = jitterMeters;
+        return this;
+    }
+
+    public double getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    /**
+     * Sets the speed above which a fix is treated as an outlier. Configure before ingesting.
+     *
+     * @param maxSpeed the speed in meters per second
+     * @return this ingestor
+     */
+    public TraceIngestor setMaxSpeed(double maxSpeed) {
+        if (!(maxSpeed > 0)) {
+            throw new IllegalArgumentException("Max speed must be positive: " + maxSpeed);
+        }
+        this.maxSpeed = maxSpeed;
+        return this;
+    }
+
+    public double getPathSpacing() {
+        return pathSpacing;
+    }
+
+    /**
+     * Sets the distance between kept path points for traces created from now on.
+     *
+     * @param pathSpacing the spacing in meters
+     * @return this ingestor
+     */
+    public TraceIngestor setPathSpacing(double pathSpacing) {
+        if (!(pathSpacing > 0)) {
+            throw new IllegalArgumentException("Path spacing must be positive: " + pathSpacing);
+        }
+        this.pathSpacing = pathSpacing;
+        return this;
+    }
+
+    public int getMaxPathPoints() {
+        return maxPathPoints;
+    }
+
+    /**
+     * Sets the most points a path holds. Configure before ingesting.
+     *
+     * @param maxPathPoints the point limit, at least 2
+     * @return this ingestor
+     */
+    public TraceIngestor setMaxPathPoints(int maxPathPoints) {
+        if (maxPathPoints < 2) {
+            throw new IllegalArgumentException("A path needs at least 2 points: " + maxPathPoints);
+        }
+        this.maxPathPoints = maxPathPoints;
+        return this;
+    }
+
+    /**
+     * Finds or creates the trace of a trip in progress.
+     */
+    private TripTrace traceFor(long tripId) {
+        TripTrace trace = traces.get(tripId);
+        if (trace != null) {
+            return trace;
+        }
+        Trip trip = tripService.getTrip(tripId);
+        if (trip == null || trip.getState() != TripState.IN_PROGRESS) {
+            return null;
+        }
+        TripTrace created = new TripTrace(tripId, pathSpacing);
+        trace = traces.putIfAbsent(tripId, created);
+        if (trace != null) {
+            return trace;
+        }
+        // the trip may have ended between the lookup and the put; complete() missed this trace
+        if (tripService.getTrip(tripId) == null) {
+            traces.remove(tripId, created);
+            return null;
+        }
+        return created;
+    }
+}
@@ -0,0 +1,214 @@
+package com.ismail.fleetShare.application.telemetry;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The GPS trace of one trip: the distance driven so far and a downsampled path.
+ *
+ * All state is primitive. Each accepted fix adds the haversine distance from the
+ * previous accepted fix, so the distance is known at any time without keeping the
+ * fixes. A fix is dropped as jitter when it lies closer than the jitter radius to the
+ * previous one; the movement is not lost, since the next fix is measured from the
+ * same anchor. A fix is dropped as an outlier when it has invalid coordinates, is not
+ * newer than the previous one, or implies a speed above the limit. Several outliers in
+ * a row mean the anchor itself was wrong, e.g. the first fix after a cold start, so the
+ * trace restarts from the latest fix without billing the jump.
+ *
+ * The path keeps a point every time the trip has covered the path spacing since the
+ * last kept point. When the path is full every other point is dropped and the spacing
+ * doubles, so a trace never holds more than its maximum number of points and stops
+ * allocating once it has reached it. Path points are stored in 12 bytes: coordinates as
+ * floats, precise to about a meter, and the time as an offset from the first point.
+ *
+ * Guarded by its own monitor, held by {@link TraceIngestor} while it applies fixes.
+ */
+public class TripTrace {
+
+    private static final int INITIAL_PATH_POINTS = 64;
+    private static final int MAX_CONSECUTIVE_OUTLIERS = 5;
+
+    private final long tripId;
+    private boolean anchored;
+    private boolean closed;
+    private double lastLatitude;
+    private double lastLongitude;
+    private long lastTimeMillis;
+    private double meters;
+    private long acceptedFixes;
+    private long jitterFixes;
+    private long outlierFixes;
+    private int consecutiveOutliers;
+
+    private double pathSpacing;
+    private double sincePathPoint;
+    private float[] pathLatitudes;
+    private float[] pathLongitudes;
+    private int[] pathOffsetsMillis;
+    private long pathStartMillis;
+    private int pathSize;
+
+    TripTrace(long tripId, double pathSpacing) {
+        this.tripId = tripId;
+        this.pathSpacing = pathSpacing;
+        this.pathLatitudes = new float[INITIAL_PATH_POINTS];
+        this.pathLongitudes = new float[INITIAL_PATH_POINTS];
+        this.pathOffsetsMillis = new int[INITIAL_PATH_POINTS];
+    }
+
+    /**
+     * Applies one fix. Returns true if it was accepted.
+     */
+    boolean offer(double latitude, double longitude, long timeMillis,
+                  double jitterMeters, double maxSpeedMetersPerSecond, int maxPathPoints) {
+        if (closed) {
+            return false;
+        }
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            outlierFixes++;
+            return false;
+        }
+        if (!anchored) {
+            anchor(latitude, longitude, timeMillis);
+            keepPathPoint(maxPathPoints);
+            return true;
+        }
+        if (timeMillis <= lastTimeMillis) {
+            outlierFixes++;
+            return false;
+        }
+        double step = GeoPoint.distanceMeters(lastLatitude, lastLongitude, latitude, longitude);
+        if (step < jitterMeters) {
+            jitterFixes++;
+            return false;
+        }
+        if (step > maxSpeedMetersPerSecond * (timeMillis - lastTimeMillis) / 1_000.0) {
+            outlierFixes++;
+            if (++consecutiveOutliers < MAX_CONSECUTIVE_OUTLIERS) {
+                return false;
+            }
+            anchor(latitude, longitude, timeMillis);
+            keepPathPoint(maxPathPoints);
+            return true;
+        }
+        meters += step;
+        sincePathPoint += step;
+        anchor(latitude, longitude, timeMillis);
+        if (sincePathPoint >= pathSpacing) {
+            keepPathPoint(maxPathPoints);
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting fixes and ends the path at the last accepted fix.
+     */
+    void close(int maxPathPoints) {
+        if (!closed) {
+            closed = true;
+            if (anchored && sincePathPoint > 0) {
+                keepPathPoint(maxPathPoints);
+            }
+        }
+    }
+
+    private void anchor(double latitude, double longitude, long timeMillis) {
+        anchored = true;
+        lastLatitude = latitude;
+        lastLongitude = longitude;
+        lastTimeMillis = timeMillis;
+        consecutiveOutliers = 0;
+        acceptedFixes++;
+    }
+
+    private void keepPathPoint(int maxPathPoints) {
+        if (pathSize == maxPathPoints) {
+            // keep the first point and every second one after it
+            int kept = 1;
+            for (int i = 2; i < pathSize; i += 2) {
+                pathLatitudes[kept] = pathLatitudes[i];
+                pathLongitudes[kept] = pathLongitudes[i];
+                pathOffsetsMillis[kept] = pathOffsetsMillis[i];
+                kept++;
+            }
+            pathSize = kept;
+            pathSpacing *= 2;
+        } else if (pathSize == pathLatitudes.length) {
+            int capacity = Math.min(maxPathPoints, pathSize * 2);
+            pathLatitudes = Arrays.copyOf(pathLatitudes, capacity);
+            pathLongitudes = Arrays.copyOf(pathLongitudes, capacity);
+            pathOffsetsMillis = Arrays.copyOf(pathOffsetsMillis, capacity);
+        }
+        if (pathSize == 0) {
+            pathStartMillis = lastTimeMillis;
+        }
+        pathLatitudes[pathSize] = (float) lastLatitude;
+        pathLongitudes[pathSize] = (float) lastLongitude;
+        pathOffsetsMillis[pathSize] = (int) Math.min(Integer.MAX_VALUE, lastTimeMillis - pathStartMillis);
+        pathSize++;
+        sincePathPoint = 0;
+    }
+
+    public long getTripId() {
+        return tripId;
+    }
+
+    /**
+     * Returns the distance covered by the accepted fixes.
+     *
+     * @return the distance in meters
+     */
+    public synchronized double getDistanceMeters() {
+        return meters;
+    }
+
+    /**
+     * Returns the last accepted position.
+     *
+     * @return the position, or null if no fix was accepted
+     */
+    public synchronized GeoPoint getLastPosition() {
+        return anchored ? GeoPoint.of(lastLatitude, lastLongitude) : null;
+    }
+
+    public synchronized long getAcceptedFixes() {
+        return acceptedFixes;
+    }
+
+    public synchronized long getJitterFixes() {
+        return jitterFixes;
+    }
+
+    public synchronized long getOutlierFixes() {
+        return outlierFixes;
+    }
+
+    /**
+     * Returns the downsampled path, oldest point first.
+     *
+     * @return a copy of the path
+     */
+    public synchronized List<GeoPoint> getPath() {
+        List<GeoPoint> path = new ArrayList<>(pathSize);
+        for (int i = 0; i < pathSize; i++) {
+            path.add(GeoPoint.of(pathLatitudes[i], pathLongitudes[i]));
+        }
+        return path;
+    }
+
+    /**
+     * Returns when each point of {@link #getPath()} was recorded.
+     *
+     * @return a copy of the times in epoch milliseconds
+     */
+    public synchronized long[] getPathTimesMillis() {
+        long[] times = new long[pathSize];
+        for (int i = 0; i < pathSize; i++) {
+            times[i] = pathStartMillis + pathOffsetsMillis[i];
+        }
+        return times;
+    }
+}
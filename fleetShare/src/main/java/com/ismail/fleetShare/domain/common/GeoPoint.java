@@ -0,0 +1,100 @@
+package com.ismail.fleetShare.domain.common;
+
+import java.util.Objects;
+
+/**
+ * Value object representing a position on Earth in decimal degrees.
+ * Immutable and provides the great-circle distance to another point.
+ */
+public class GeoPoint {
+
+    /**
+     * Mean Earth radius in meters.
+     */
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private final double latitude;
+    private final double longitude;
+
+    /**
+     * Creates a new GeoPoint instance.
+     *
+     * @param latitude  the latitude in degrees, between -90 and 90
+     * @param longitude the longitude in degrees, between -180 and 180
+     * @throws IllegalArgumentException if a coordinate is out of range
+     */
+    public GeoPoint(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Invalid coordinates: " + latitude + ", " + longitude);
+        }
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    /**
+     * Factory method to create a new GeoPoint instance.
+     *
+     * @param latitude  the latitude in degrees
+     * @param longitude the longitude in degrees
+     * @return a new {@link GeoPoint} object
+     */
+    public static GeoPoint of(double latitude, double longitude) {
+        return new GeoPoint(latitude, longitude);
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Returns the great-circle (haversine) distance to another point.
+     *
+     * @param other the other point
+     * @return the distance in meters
+     */
+    public double distanceTo(GeoPoint other) {
+        return distanceMeters(latitude, longitude, other.latitude, other.longitude);
+    }
+
+    /**
+     * Returns the great-circle (haversine) distance between two positions given as
+     * primitives, for callers that process many positions without creating points.
+     *
+     * @param latitude1  the latitude of the first position in degrees
+     * @param longitude1 the longitude of the first position in degrees
+     * @param latitude2  the latitude of the second position in degrees
+     * @param longitude2 the longitude of the second position in degrees
+     * @return the distance in meters
+     */
+    public static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLat = Math.toRadians(latitude2 - latitude1);
+        double dLon = Math.toRadians(longitude2 - longitude1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double h = sinLat * sinLat
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GeoPoint)) return false;
+        GeoPoint point = (GeoPoint) o;
+        return Double.compare(latitude, point.latitude) == 0 && Double.compare(longitude, point.longitude) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(latitude, longitude);
+    }
+
+    @Override
+    public String toString() {
+        return "{lat=" + latitude + ", lon=" + longitude + '}';
+    }
+}
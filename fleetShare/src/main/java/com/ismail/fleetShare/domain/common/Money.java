@@ -1,34 +1,155 @@
 package com.ismail.fleetShare.domain.common;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * Value object representing a monetary amount.
- * Uses {@link BigDecimal} for precision and supports basic arithmetic
- * operations such as addition, subtraction, and multiplication.
-
+ * Supports basic arithmetic operations such as addition, subtraction, and multiplication.
+ *
+ * Amounts are stored as a {@code long} count of minor units with {@link #SCALE} decimal
+ * places, so arithmetic on ordinary prices allocates nothing but the result object.
+ * Only amounts that do not fit in a {@code long} fall back to {@link BigDecimal}.
+ * Every operation that loses precision rounds with {@link RoundingMode#HALF_EVEN}.
+ * ISO 4217 currency codes are interned, so checks between them are reference
+ * comparisons; any other code is compared by value.
+ *
  * Default currency is USD if not specified.
  */
 public class Money {
-    private final BigDecimal amount;
+
+    /**
+     * Number of decimal places kept for every amount.
+     */
+    public static final int SCALE = 4;
+
+    /**
+     * Rounding mode applied whenever an amount is reduced to {@link #SCALE} decimals.
+     */
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN;
+
+    private static final long UNIT = 10_000L;
+    private static final long FACTOR_UNIT = 1_000_000L;
+    private static final double EXACT_LIMIT = 1e15;
+
+    private static final Map<String, String> CURRENCIES = isoCurrencies();
+    private static final String USD = currencyCode("USD");
+    private static final Money ZERO = new Money(0L, null, USD);
+
+    private final long units;
+    private final BigDecimal overflow;
     private final String currency;
 
     public Money(BigDecimal amount) {
-        this(amount, "USD");
+        this(amount, USD);
     }
 
     public Money(BigDecimal amount, String currency) {
-        this.amount = amount;
+        BigDecimal scaled = amount.setScale(SCALE, ROUNDING);
+        boolean compact = scaled.unscaledValue().bitLength() < Long.SIZE;
+        this.units = compact ? scaled.unscaledValue().longValue() : 0L;
+        this.overflow = compact ? null : scaled;
+        this.currency = currencyCode(currency);
+    }
+
+    private Money(long units, BigDecimal overflow, String currency) {
+        this.units = units;
+        this.overflow = overflow;
         this.currency = currency;
     }
 
     public static Money of(double value) {
-        return new Money(BigDecimal.valueOf(value));
+        double scaled = value * UNIT;
+        double rounded = Math.rint(scaled);
+        if (Math.abs(rounded) < EXACT_LIMIT && rounded / UNIT == value) {
+            return new Money((long) rounded, null, USD);
+        }
+        return new Money(BigDecimal.valueOf(value), USD);
+    }
+
+    /**
+     * Creates money from a count of minor units ({@link #SCALE} decimal places).
+     *
+     * @param units    the amount in minor units
+     * @param currency the currency code
+     * @return a new {@link Money} object
+     */
+    public static Money ofMinor(long units, String currency) {
+        return new Money(units, null, currencyCode(currency));
     }
 
     public static Money zero() {
-        return new Money(BigDecimal.ZERO, "USD");
+        return ZERO;
+    }
+
+    /**
+     * Returns the canonical instance of a currency code. Only ISO 4217 codes have one;
+     * other codes are returned as given, so the set of interned codes is fixed.
+     *
+     * @param currency the currency code, e.g. "USD"
+     * @return the interned currency code, or the given code if it is not an ISO code
+     */
+    public static String currencyCode(String currency) {
+        Objects.requireNonNull(currency, "currency");
+        String canonical = CURRENCIES.get(currency);
+        return canonical != null ? canonical : currency;
+    }
+
+    /**
+     * Tells whether two currency codes are the same. Interned codes are compared by
+     * reference, others by value.
+     *
+     * @param a a currency code
+     * @param b another currency code
+     * @return true if the codes are equal
+     */
+    public static boolean sameCurrency(String a, String b) {
+        return a == b || a.equals(b);
+    }
+
+    /**
+     * Sums a sequence of amounts of the same currency.
+     * The running total is kept in a primitive, so no intermediate objects are created
+     * unless the total overflows. An empty sequence sums to zero USD.
+     *
+     * @param amounts the amounts to sum
+     * @return the total as a {@link Money} object
+     * @throws IllegalArgumentException if the currencies do not match
+     */
+    public static Money sum(Iterator<Money> amounts) {
+        String currency = null;
+        long units = 0L;
+        BigDecimal spill = null;
+        while (amounts.hasNext()) {
+            Money m = amounts.next();
+            if (currency == null) {
+                currency = m.currency;
+            } else if (!sameCurrency(currency, m.currency)) {
+                throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + m.currency);
+            }
+            if (m.overflow == null) {
+                long s = units + m.units;
+                if (((units ^ s) & (m.units ^ s)) >= 0) {
+                    units = s;
+                    continue;
+                }
+            }
+            BigDecimal base = spill != null ? spill : BigDecimal.ZERO;
+            spill = base.add(BigDecimal.valueOf(units, SCALE)).add(m.getAmount());
+            units = 0L;
+        }
+        if (currency == null) {
+            return ZERO;
+        }
+        if (spill != null) {
+            return new Money(spill.add(BigDecimal.valueOf(units, SCALE)), currency);
+        }
+        return new Money(units, null, currency);
     }
 
     /**
@@ -40,7 +161,13 @@ public class Money {
      */
     public Money add(Money other) {
         checkCurrency(other);
-        return new Money(this.amount.add(other.amount), this.currency);
+        if (overflow == null && other.overflow == null) {
+            long s = units + other.units;
+            if (((units ^ s) & (other.units ^ s)) >= 0) {
+                return new Money(s, null, currency);
+            }
+        }
+        return new Money(getAmount().add(other.getAmount()), currency);
     }
 
     /**
@@ -52,16 +179,97 @@ public class Money {
      */
     public Money subtract(Money other) {
         checkCurrency(other);
-        return new Money(this.amount.subtract(other.amount), this.currency);
+        if (overflow == null && other.overflow == null) {
+            long d = units - other.units;
+            if (((units ^ other.units) & (units ^ d)) >= 0) {
+                return new Money(d, null, currency);
+            }
+        }
+        return new Money(getAmount().subtract(other.getAmount()), currency);
     }
 
+    /**
+     * Multiplies this money by a decimal factor, rounding the result half-even.
+     * Factors with up to six decimal places are handled in integer arithmetic;
+     * anything else goes through {@link BigDecimal#valueOf(double)}.
+     *
+     * @param factor the multiplier
+     * @return a new {@link Money} representing the product
+     */
     public Money multiply(double factor) {
-        return new Money(this.amount.multiply(BigDecimal.valueOf(factor)), this.currency);
+        if (overflow == null) {
+            try {
+                return new Money(multiplyMinor(units, factor), null, currency);
+            } catch (ArithmeticException e) {
+                // product does not fit in minor units, use BigDecimal below
+            }
+        }
+        return new Money(getAmount().multiply(BigDecimal.valueOf(factor)), currency);
+    }
+
+    /**
+     * Multiplies an amount in minor units by a decimal factor with the same rounding
+     * as {@link #multiply(double)}.
+     *
+     * @param units  the amount in minor units
+     * @param factor the multiplier
+     * @return the product in minor units
+     * @throws ArithmeticException if the product does not fit in a long
+     */
+    public static long multiplyMinor(long units, double factor) {
+        double scaled = factor * FACTOR_UNIT;
+        double rounded = Math.rint(scaled);
+        // only factors with at most six decimals, where the scaled long is the exact factor
+        if (Math.abs(rounded) < EXACT_LIMIT && rounded / FACTOR_UNIT == factor) {
+            return divideRounded(Math.multiplyExact(units, (long) rounded), FACTOR_UNIT);
+        }
+        BigDecimal product = BigDecimal.valueOf(units, SCALE)
+                .multiply(BigDecimal.valueOf(factor))
+                .setScale(SCALE, ROUNDING);
+        return product.unscaledValue().longValueExact();
+    }
+
+    /**
+     * Multiplies this money by a whole number.
+     *
+     * @param factor the multiplier
+     * @return a new {@link Money} representing the product
+     */
+    public Money multiply(long factor) {
+        if (overflow == null) {
+            long product = units * factor;
+            if (Math.multiplyHigh(units, factor) == (product >> 63)) {
+                return new Money(product, null, currency);
+            }
+        }
+        return new Money(getAmount().multiply(BigDecimal.valueOf(factor)), currency);
     }
 
 
     public BigDecimal getAmount() {
-        return amount;
+        return overflow != null ? overflow : BigDecimal.valueOf(units, SCALE);
+    }
+
+    /**
+     * Returns the amount as a count of minor units ({@link #SCALE} decimal places).
+     *
+     * @return the amount in minor units
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public long getMinorUnits() {
+        if (overflow != null) {
+            throw new ArithmeticException("Amount does not fit in minor units: " + overflow);
+        }
+        return units;
+    }
+
+    /**
+     * Tells whether the amount is held as a primitive count of minor units.
+     *
+     * @return true unless the amount overflowed into {@link BigDecimal}
+     */
+    public boolean isCompact() {
+        return overflow == null;
     }
 
     public String getCurrency() {
@@ -69,16 +277,41 @@ public class Money {
     }
 
     private void checkCurrency(Money other) {
-        if (!this.currency.equals(other.currency)) {
+        if (!sameCurrency(this.currency, other.currency)) {
             throw new IllegalArgumentException(
                     "Currency mismatch: " + this.currency + " vs " + other.currency
             );
         }
     }
 
+    private static Map<String, String> isoCurrencies() {
+        Map<String, String> codes = new HashMap<>();
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            codes.put(currency.getCurrencyCode(), currency.getCurrencyCode());
+        }
+        return codes;
+    }
+
+    private static long divideRounded(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+        int cmp = Long.compare(Math.abs(remainder) * 2, divisor);
+        if (cmp > 0 || (cmp == 0 && (quotient & 1) != 0)) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+
     @Override
     public String toString() {
-        return amount + " " + currency;
+        BigDecimal amount = getAmount().stripTrailingZeros();
+        if (amount.scale() < 2) {
+            amount = amount.setScale(2);
+        }
+        return amount.toPlainString() + " " + currency;
     }
 
     @Override
@@ -86,11 +319,13 @@ public class Money {
         if (this == o) return true;
         if (!(o instanceof Money)) return false;
         Money money = (Money) o;
-        return amount.equals(money.amount) && currency.equals(money.currency);
+        return units == money.units
+                && Objects.equals(overflow, money.overflow)
+                && currency.equals(money.currency);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(amount, currency);
+        return Objects.hash(units, overflow, currency);
     }
 }
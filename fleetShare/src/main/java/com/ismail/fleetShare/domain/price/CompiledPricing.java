@@ -0,0 +1,180 @@
+package com.ismail.fleetShare.domain.price;
+
+import com.ismail.fleetShare.domain.common.Distance;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+
+import java.time.Duration;
+
+/**
+ * Fused evaluator for a tree of pricing strategies, produced by {@link PricingCompiler}.
+ *
+ * The tree is flattened into a postfix program over amounts in minor units.
+ * The trip's duration and distance are read once, and the price is computed in a single
+ * pass without intermediate {@link Money} objects. Every step rounds exactly like the
+ * interpreted strategies, so the result is identical to calling the original tree.
+ * When a step cannot be done in a long (overflow, a currency mismatch, or a custom
+ * strategy returning an unexpected amount), the program is evaluated again with
+ * {@link Money} arithmetic, as the original tree would. The prices custom strategies
+ * have already returned are reused, so each custom strategy runs once per trip.
+ */
+public final class CompiledPricing implements PricingStrategy {
+
+    static final byte TIME = 0;
+    static final byte DISTANCE = 1;
+    static final byte ADD = 2;
+    static final byte SURGE = 3;
+    static final byte CUSTOM = 4;
+
+    private static final String DEFAULT_CURRENCY = Money.zero().getCurrency();
+
+    private final PricingStrategy source;
+    private final byte[] ops;
+    private final long[] rates;
+    private final double[] factors;
+    private final PricingStrategy[] leaves;
+    private final String currency;
+    private final int maxStack;
+    private final boolean readsTime;
+    private final boolean readsDistance;
+    private final boolean callsCustom;
+
+    CompiledPricing(PricingStrategy source, byte[] ops, long[] rates, double[] factors,
+                    PricingStrategy[] leaves, String currency, int maxStack) {
+        this.source = source;
+        this.ops = ops;
+        this.rates = rates;
+        this.factors = factors;
+        this.leaves = leaves;
+        this.currency = currency;
+        this.maxStack = maxStack;
+        boolean time = false;
+        boolean distance = false;
+        boolean custom = false;
+        for (byte op : ops) {
+            time |= op == TIME;
+            distance |= op == DISTANCE;
+            custom |= op == CUSTOM;
+        }
+        this.readsTime = time;
+        this.readsDistance = distance;
+        this.callsCustom = custom;
+    }
+
+    /**
+     * Calculates the trip price with the fused program.
+     *
+     * @param trip the trip to calculate price for
+     * @return the total price as {@link Money}
+     */
+    @Override
+    public Money calculatePrice(Trip trip) {
+        boolean hasTime = false;
+        long minutes = 0L;
+        if (readsTime && trip.getStartTime() != null && trip.getEndTime() != null) {
+            minutes = Duration.between(trip.getStartTime(), trip.getEndTime()).toMinutes();
+            hasTime = true;
+        }
+        Distance distance = readsDistance ? trip.getDistance() : null;
+        boolean hasDistance = distance != null;
+        double km = hasDistance ? distance.getValue() : 0.0;
+
+        Money[] called = callsCustom ? new Money[ops.length] : null;
+        try {
+            return Money.ofMinor(run(trip, hasTime, minutes, hasDistance, km, called), currency);
+        } catch (ArithmeticException | Deoptimize e) {
+            return interpret(trip, called);
+        }
+    }
+
+    /**
+     * Returns the strategy tree this program was compiled from.
+     *
+     * @return the original strategy
+     */
+    public PricingStrategy getSource() {
+        return source;
+    }
+
+    private long run(Trip trip, boolean hasTime, long minutes, boolean hasDistance, double km, Money[] called) {
+        long[] stack = new long[maxStack];
+        int sp = 0;
+        for (int pc = 0; pc < ops.length; pc++) {
+            switch (ops[pc]) {
+                case TIME:
+                    stack[sp++] = hasTime ? Math.multiplyExact(rates[pc], minutes) : zero();
+                    break;
+                case DISTANCE:
+                    stack[sp++] = hasDistance ? Money.multiplyMinor(rates[pc], km) : zero();
+                    break;
+                case ADD:
+                    sp--;
+                    stack[sp - 1] = Math.addExact(stack[sp - 1], stack[sp]);
+                    break;
+                case SURGE:
+                    stack[sp - 1] = Money.multiplyMinor(stack[sp - 1], factors[pc]);
+                    break;
+                default:
+                    Money price = leaves[pc].calculatePrice(trip);
+                    called[pc] = price;
+                    if (!price.isCompact() || !Money.sameCurrency(price.getCurrency(), currency)) {
+                        throw Deoptimize.INSTANCE;
+                    }
+                    stack[sp++] = price.getMinorUnits();
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Evaluates the program with {@link Money} arithmetic, step by step as the original
+     * tree does, taking the prices of custom strategies already called from
+     * {@code called}.
+     */
+    private Money interpret(Trip trip, Money[] called) {
+        Money[] stack = new Money[maxStack];
+        int sp = 0;
+        for (int pc = 0; pc < ops.length; pc++) {
+            switch (ops[pc]) {
+                case ADD:
+                    sp--;
+                    stack[sp - 1] = stack[sp - 1].add(stack[sp]);
+                    break;
+                case SURGE:
+                    stack[sp - 1] = stack[sp - 1].multiply(factors[pc]);
+                    break;
+                case CUSTOM:
+                    Money price = called[pc];
+                    stack[sp++] = price != null ? price : leaves[pc].calculatePrice(trip);
+                    break;
+                default:
+                    stack[sp++] = leaves[pc].calculatePrice(trip);
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * The interpreted strategies return {@link Money#zero()} when a trip has no time
+     * or distance; that zero only fits the program when the currencies agree.
+     */
+    private long zero() {
+        if (!Money.sameCurrency(currency, DEFAULT_CURRENCY)) {
+            throw Deoptimize.INSTANCE;
+        }
+        return 0L;
+    }
+
+    /**
+     * Signals that the program must hand over to the original tree.
+     */
+    private static final class Deoptimize extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        static final Deoptimize INSTANCE = new Deoptimize();
+
+        private Deoptimize() {
+            super("deoptimize", null, false, false);
+        }
+    }
+}
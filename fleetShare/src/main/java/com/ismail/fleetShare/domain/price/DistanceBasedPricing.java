@@ -6,7 +6,7 @@ import com.ismail.fleetShare.domain.trip.Trip;
 
 /**
  * Pricing strategy based on trip distance.
-
+ *
  * The total price is calculated by multiplying
  * the distance traveled by the price per kilometer.
  */
@@ -40,4 +40,13 @@ public class DistanceBasedPricing implements PricingStrategy {
 
         return pricePerKm.multiply(distance.getValue());
     }
+
+    /**
+     * Returns the price per kilometer, used by {@link PricingCompiler}.
+     *
+     * @return the price per kilometer
+     */
+    Money getPricePerKm() {
+        return pricePerKm;
+    }
 }
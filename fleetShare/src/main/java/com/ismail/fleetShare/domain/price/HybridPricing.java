@@ -38,4 +38,22 @@ public class HybridPricing implements PricingStrategy {
 
         return timePrice.add(distancePrice);
     }
+
+    /**
+     * Returns the time strategy, used by {@link PricingCompiler}.
+     *
+     * @return the time strategy
+     */
+    PricingStrategy getTimeStrategy() {
+        return timeStrategy;
+    }
+
+    /**
+     * Returns the distance strategy, used by {@link PricingCompiler}.
+     *
+     * @return the distance strategy
+     */
+    PricingStrategy getDistanceStrategy() {
+        return distanceStrategy;
+    }
 }
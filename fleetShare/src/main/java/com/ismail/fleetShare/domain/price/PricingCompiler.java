@@ -0,0 +1,117 @@
+package com.ismail.fleetShare.domain.price;
+
+import com.ismail.fleetShare.domain.common.Money;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles a tree of pricing strategies into a single {@link CompiledPricing}.
+ *
+ * Known strategies ({@link TimeBasedPricing}, {@link DistanceBasedPricing},
+ * {@link HybridPricing} and {@link SurgeDecorator}) are flattened into the fused program.
+ * Any other strategy is kept as a call inside the program, so custom strategies still work.
+ */
+public final class PricingCompiler {
+
+    private final List<Byte> ops = new ArrayList<>();
+    private final List<Long> rates = new ArrayList<>();
+    private final List<Double> factors = new ArrayList<>();
+    private final List<PricingStrategy> leaves = new ArrayList<>();
+    private String currency;
+    private int depth;
+    private int maxDepth;
+    private int fused;
+
+    private PricingCompiler() {
+    }
+
+    /**
+     * Compiles the given strategy tree.
+     * Trees without any known strategy are returned unchanged.
+     *
+     * @param strategy the root of the strategy tree
+     * @return a strategy giving the same prices as {@code strategy}
+     */
+    public static PricingStrategy compile(PricingStrategy strategy) {
+        if (strategy instanceof CompiledPricing) {
+            return strategy;
+        }
+        PricingCompiler compiler = new PricingCompiler();
+        compiler.emit(strategy);
+        if (compiler.fused == 0) {
+            return strategy;
+        }
+        return compiler.build(strategy);
+    }
+
+    private void emit(PricingStrategy strategy) {
+        if (strategy instanceof CompiledPricing) {
+            emit(((CompiledPricing) strategy).getSource());
+        } else if (strategy instanceof TimeBasedPricing
+                && acceptsRate(((TimeBasedPricing) strategy).getPricePerMinute())) {
+            push(CompiledPricing.TIME, ((TimeBasedPricing) strategy).getPricePerMinute().getMinorUnits(), strategy);
+            fused++;
+        } else if (strategy instanceof DistanceBasedPricing
+                && acceptsRate(((DistanceBasedPricing) strategy).getPricePerKm())) {
+            push(CompiledPricing.DISTANCE, ((DistanceBasedPricing) strategy).getPricePerKm().getMinorUnits(), strategy);
+            fused++;
+        } else if (strategy instanceof HybridPricing) {
+            HybridPricing hybrid = (HybridPricing) strategy;
+            emit(hybrid.getTimeStrategy());
+            emit(hybrid.getDistanceStrategy());
+            append(CompiledPricing.ADD, 0L, 0.0, null);
+            depth--;
+            fused++;
+        } else if (strategy instanceof SurgeDecorator) {
+            SurgeDecorator surge = (SurgeDecorator) strategy;
+            emit(surge.getWrapped());
+            append(CompiledPricing.SURGE, 0L, surge.getSurgeMultiplier(), null);
+            fused++;
+        } else {
+            push(CompiledPricing.CUSTOM, 0L, strategy);
+        }
+    }
+
+    /**
+     * A rate can be fused when it is held in minor units and matches the program currency,
+     * which is taken from the first rate seen.
+     */
+    private boolean acceptsRate(Money rate) {
+        if (rate == null || !rate.isCompact()) {
+            return false;
+        }
+        if (currency == null) {
+            currency = rate.getCurrency();
+        }
+        return Money.sameCurrency(rate.getCurrency(), currency);
+    }
+
+    private void push(byte op, long rate, PricingStrategy strategy) {
+        append(op, rate, 0.0, strategy);
+        depth++;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    private void append(byte op, long rate, double factor, PricingStrategy strategy) {
+        ops.add(op);
+        rates.add(rate);
+        factors.add(factor);
+        leaves.add(strategy);
+    }
+
+    private CompiledPricing build(PricingStrategy source) {
+        int n = ops.size();
+        byte[] opArray = new byte[n];
+        long[] rateArray = new long[n];
+        double[] factorArray = new double[n];
+        for (int i = 0; i < n; i++) {
+            opArray[i] = ops.get(i);
+            rateArray[i] = rates.get(i);
+            factorArray[i] = factors.get(i);
+        }
+        String programCurrency = currency != null ? currency : Money.zero().getCurrency();
+        return new CompiledPricing(source, opArray, rateArray, factorArray,
+                leaves.toArray(new PricingStrategy[0]), programCurrency, maxDepth);
+    }
+}
@@ -34,4 +34,22 @@ public class SurgeDecorator implements PricingStrategy {
         Money basePrice = wrapped.calculatePrice(trip);
         return basePrice.multiply(surgeMultiplier);
     }
+
+    /**
+     * Returns the wrapped strategy, used by {@link PricingCompiler}.
+     *
+     * @return the wrapped strategy
+     */
+    PricingStrategy getWrapped() {
+        return wrapped;
+    }
+
+    /**
+     * Returns the surge multiplier, used by {@link PricingCompiler}.
+     *
+     * @return the surge multiplier
+     */
+    double getSurgeMultiplier() {
+        return surgeMultiplier;
+    }
 }
@@ -37,4 +37,13 @@ public class TimeBasedPricing implements PricingStrategy {
         long minutes = Duration.between(trip.getStartTime(), trip.getEndTime()).toMinutes();
         return pricePerMinute.multiply(minutes);
     }
+
+    /**
+     * Returns the price per minute, used by {@link PricingCompiler}.
+     *
+     * @return the price per minute
+     */
+    Money getPricePerMinute() {
+        return pricePerMinute;
+    }
 }
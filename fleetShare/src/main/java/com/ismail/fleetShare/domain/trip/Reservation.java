@@ -0,0 +1,106 @@
+package com.ismail.fleetShare.domain.trip;
+
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A hold placed by a rider on a vehicle before unlocking it.
+ * The reservation leaves the ACTIVE state exactly once, so an unlock racing with the
+ * expiry of the same reservation is decided by {@link #finish(ReservationState)}.
+ */
+public class Reservation {
+
+    private static final AtomicReferenceFieldUpdater<Reservation, ReservationState> STATE =
+            AtomicReferenceFieldUpdater.newUpdater(Reservation.class, ReservationState.class, "state");
+
+    private final long id;
+    private final User user;
+    private final Vehicle vehicle;
+    private final Instant createdAt;
+    private final Instant expiresAt;
+    private volatile ReservationState state = ReservationState.ACTIVE;
+
+    /**
+     * Creates an active reservation.
+     *
+     * @param id        the unique identifier of the reservation
+     * @param user      the rider holding the vehicle
+     * @param vehicle   the reserved vehicle
+     * @param createdAt when the vehicle was reserved
+     * @param expiresAt when the hold runs out
+     */
+    public Reservation(long id, User user, Vehicle vehicle, Instant createdAt, Instant expiresAt) {
+        this.id = id;
+        this.user = user;
+        this.vehicle = vehicle;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Returns the id of the reservation.
+     *
+     * @return the id
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the rider holding the vehicle.
+     *
+     * @return the user
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Returns the reserved vehicle.
+     *
+     * @return the vehicle
+     */
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    /**
+     * Returns when the vehicle was reserved.
+     *
+     * @return the creation time
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Returns when the hold runs out.
+     *
+     * @return the expiry time
+     */
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Returns the current state of the reservation.
+     *
+     * @return the state
+     */
+    public ReservationState getState() {
+        return state;
+    }
+
+    /**
+     * Moves an active reservation to its final state.
+     *
+     * @param outcome the final state
+     * @return true if the reservation was active, false if it had already finished
+     */
+    public boolean finish(ReservationState outcome) {
+        return STATE.compareAndSet(this, ReservationState.ACTIVE, outcome);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ismail.fleetShare.domain.trip;
+
+/**
+ * Represents the state of a vehicle reservation.
+ * Possible values:
+ * - ACTIVE: the vehicle is held for the rider
+ * - CONVERTED: the rider unlocked the vehicle and the reservation became a trip
+ * - EXPIRED: the hold ran out before the rider unlocked the vehicle
+ * - CANCELED: the rider released the vehicle
+ */
+public enum ReservationState {
+    ACTIVE,
+    CONVERTED,
+    EXPIRED,
+    CANCELED
+}
@@ -6,6 +6,7 @@ import com.ismail.fleetShare.domain.user.User;
 import com.ismail.fleetShare.domain.vehicle.Vehicle;
 import com.ismail.fleetShare.domain.vehicle.VehicleState;
 
+import java.time.Clock;
 import java.time.Duration;
 import java.time.LocalDateTime;
 
@@ -16,7 +17,9 @@ import java.time.LocalDateTime;
 public class Trip {
 
     private final TripId id;
+    private final User user;
     private final Vehicle vehicle;
+    private final Clock clock;
     private TripState state;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
@@ -32,8 +35,23 @@ public class Trip {
      * @param vehicle the vehicle used for the trip
      */
     public Trip(TripId id, User user, Vehicle vehicle) {
+        this(id, user, vehicle, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a new trip that reads the current time from the given clock.
+     * Simulations pass a virtual clock here.
+     *
+     * @param id      the unique identifier of the trip
+     * @param user    the user taking the trip
+     * @param vehicle the vehicle used for the trip
+     * @param clock   the clock used when no explicit time is given
+     */
+    public Trip(TripId id, User user, Vehicle vehicle, Clock clock) {
         this.id = id;
+        this.user = user;
         this.vehicle = vehicle;
+        this.clock = clock;
         this.state = TripState.CREATED;
         this.distance = Distance.of(0);
         this.price = Money.of(0);
@@ -63,6 +81,24 @@ public class Trip {
         return id;
     }
 
+    /**
+     * Returns the user taking the trip.
+     *
+     * @return the user
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Returns the vehicle used for the trip.
+     *
+     * @return the vehicle
+     */
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
     public Distance getDistance() {
         return distance;
     }
@@ -78,7 +114,7 @@ public class Trip {
      */
     public void setStartTime(LocalDateTime startTime) {
         if (state == TripState.CREATED) {
-            this.startTime = startTime != null ? startTime : LocalDateTime.now();
+            this.startTime = startTime != null ? startTime : LocalDateTime.now(clock);
             this.state = TripState.IN_PROGRESS;
             vehicle.setState(VehicleState.IN_USE);
         }
@@ -91,7 +127,7 @@ public class Trip {
      */
     public void setEndTime(LocalDateTime endTime) {
         if (state == TripState.IN_PROGRESS) {
-            this.endTime = endTime != null ? endTime : LocalDateTime.now();
+            this.endTime = endTime != null ? endTime : LocalDateTime.now(clock);
             this.state = TripState.COMPLETED;
             vehicle.setState(VehicleState.AVAILABLE);
         }
@@ -114,7 +150,7 @@ public class Trip {
      */
     public void cancel() {
         this.state = TripState.CANCELED;
-        this.endTime = LocalDateTime.now();
+        this.endTime = LocalDateTime.now(clock);
         vehicle.setState(VehicleState.AVAILABLE);
     }
 }
@@ -1,31 +1,90 @@
 package com.ismail.fleetShare.domain.trip;
 
-import java.util.UUID;
-
 /**
  * Represents a unique identifier for a Trip.
- * Encapsulates a UUID string.
+ * Encapsulates a time-ordered 64-bit id issued by {@link TripIdGenerator}.
+ * The decimal string form is only built when asked for, at API boundaries.
  */
-public class TripId {
+public class TripId implements Comparable<TripId> {
 
-    private final String value;
+    private final long value;
 
     /**
-     * Creates a new TripId with a randomly generated UUID.
+     * Creates a new TripId from the default {@link TripIdGenerator}.
      */
     public TripId() {
-        this.value = UUID.randomUUID().toString();
+        this(TripIdGenerator.getDefault().nextId());
+    }
+
+    /**
+     * Creates a TripId from an existing id, e.g. when trips are restored from a journal.
+     *
+     * @param value the id value
+     */
+    public TripId(long value) {
+        this.value = value;
+    }
+
+    /**
+     * Creates a TripId from its string form.
+     *
+     * @param value the id as returned by {@link #getValue()}
+     * @throws IllegalArgumentException if the value is not a valid trip id
+     */
+    public TripId(String value) {
+        this(parse(value));
+    }
+
+    /**
+     * Parses the string form of a trip id.
+     *
+     * @param value the id as returned by {@link #getValue()}
+     * @return the id as a long
+     * @throws IllegalArgumentException if the value is not a valid trip id
+     */
+    public static long parse(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid trip id: " + value);
+        }
     }
 
     /**
      * Returns the string value of the TripId.
      *
-     * @return the UUID as a string
+     * @return the id as a decimal string
      */
     public String getValue() {
+        return Long.toString(value);
+    }
+
+    /**
+     * Returns the TripId as a primitive, for lookups without allocation.
+     *
+     * @return the id as a long
+     */
+    public long asLong() {
         return value;
     }
 
+    @Override
+    public int compareTo(TripId other) {
+        return Long.compare(value, other.value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TripId)) return false;
+        return value == ((TripId) o).value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(value);
+    }
+
     @Override
     public String toString() {
         return "TripId{" +
@@ -0,0 +1,104 @@
+package com.ismail.fleetShare.domain.trip;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered 64-bit trip ids without locks.
+ *
+ * An id is laid out as
+ * {@code [41 bits milliseconds since 2024-01-01][10 bits node][12 bits sequence]}, so ids
+ * from one generator increase over time and ids from generators with different node ids
+ * never collide. Up to 4096 ids are issued per millisecond; beyond that the generator
+ * borrows from the next millisecond instead of waiting, and it never goes backwards if
+ * the system clock does.
+ */
+public class TripIdGenerator {
+
+    /**
+     * Start of the id timestamps, 2024-01-01T00:00:00Z in epoch milliseconds.
+     */
+    public static final long EPOCH_MILLIS = 1_704_067_200_000L;
+
+    /**
+     * Largest node id, as node ids use 10 bits.
+     */
+    public static final int MAX_NODE_ID = 1023;
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+
+    private static final TripIdGenerator DEFAULT = new TripIdGenerator(Integer.getInteger("fleetshare.nodeId", 0));
+
+    private final long node;
+    // timestamp << SEQUENCE_BITS | sequence of the last issued id
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * Creates a generator for the given node.
+     *
+     * @param nodeId the id of this instance, between 0 and {@link #MAX_NODE_ID}
+     * @throws IllegalArgumentException if the node id is out of range
+     */
+    public TripIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.node = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Returns the generator used by {@link TripId#TripId()}.
+     * Its node id is read from the {@code fleetshare.nodeId} system property, 0 by default.
+     *
+     * @return the default generator
+     */
+    public static TripIdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the next id.
+     *
+     * @return a new id, greater than every id previously returned by this generator
+     */
+    public long nextId() {
+        long now = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long prev;
+        long next;
+        do {
+            prev = last.get();
+            next = now > prev ? now : prev + 1;
+        } while (!last.compareAndSet(prev, next));
+        long timestamp = next >>> SEQUENCE_BITS;
+        return timestamp << (SEQUENCE_BITS + NODE_BITS) | node | (next & ((1L << SEQUENCE_BITS) - 1));
+    }
+
+    /**
+     * Returns a new {@link TripId}.
+     *
+     * @return the next trip id
+     */
+    public TripId next() {
+        return new TripId(nextId());
+    }
+
+    /**
+     * Returns the node id encoded in an id.
+     *
+     * @param id an id issued by a generator
+     * @return the node id
+     */
+    public static int nodeOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    /**
+     * Returns the time an id was issued at, in epoch milliseconds.
+     *
+     * @param id an id issued by a generator
+     * @return the issue time in epoch milliseconds
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (SEQUENCE_BITS + NODE_BITS)) + EPOCH_MILLIS;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ismail.fleetShare.domain.trip;
+
+/**
+ * Callback notified when a trip finishes, used to maintain aggregates
+ * incrementally instead of rescanning the trip history.
+ */
+public interface TripListener {
+
+    /**
+     * Called after the trip has ended and its price has been set.
+     *
+     * @param trip the completed trip
+     */
+    void onTripCompleted(Trip trip);
+
+    /**
+     * Called after the trip has been canceled. Does nothing by default.
+     *
+     * @param trip the canceled trip
+     */
+    default void onTripCanceled(Trip trip) {
+    }
+}
@@ -19,4 +19,13 @@ public class Car extends Vehicle  {
         super(id, model, pricePerMinute);
         this.fuelType=fuelType;
     }
+
+    /**
+     * Returns the fuel type of the car.
+     *
+     * @return the fuel type
+     */
+    public String getFuelType() {
+        return fuelType;
+    }
 }
@@ -19,4 +19,13 @@ public class EBike extends Vehicle {
         super(id, model, pricePerMinute);
         this.BatteryLevel=BatteryLevel;
     }
+
+    /**
+     * Returns the battery level of the e-bike.
+     *
+     * @return the battery level
+     */
+    public String getBatteryLevel() {
+        return BatteryLevel;
+    }
 }
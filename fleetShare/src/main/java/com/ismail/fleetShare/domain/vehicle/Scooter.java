@@ -19,4 +19,13 @@ public class Scooter extends Vehicle {
         super(id, model, pricePerMinute);
         this.weightLimit=weightLimit ;
     }
+
+    /**
+     * Returns the weight limit of the scooter.
+     *
+     * @return the weight limit
+     */
+    public String getWeightLimit() {
+        return weightLimit;
+    }
 }
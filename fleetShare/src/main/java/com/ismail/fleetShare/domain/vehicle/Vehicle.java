@@ -1,18 +1,27 @@
 package com.ismail.fleetShare.domain.vehicle;
 
+import com.ismail.fleetShare.domain.common.GeoPoint;
 import com.ismail.fleetShare.domain.common.Money;
 
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
 /**
  * Represents a generic vehicle in the system.
- * Stores vehicle ID, model, state, and price per minute.
+ * Stores vehicle ID, model, state, location, and price per minute.
  * Can be extended by specific vehicle types like Car, EBike, or Scooter.
  */
 public abstract class Vehicle {
 
+    private static final AtomicReferenceFieldUpdater<Vehicle, VehicleState> STATE =
+            AtomicReferenceFieldUpdater.newUpdater(Vehicle.class, VehicleState.class, "state");
+
     private final String id;
     private String model;
-    private VehicleState state;
+    private volatile VehicleState state;
+    private volatile GeoPoint location;
     private Money pricePerMinute;
+    private volatile VehicleStateListener stateListener;
 
     /**
      * Creates a new vehicle with the given ID, model, and price per minute.
@@ -62,7 +71,73 @@ public abstract class Vehicle {
      * @param state the new vehicle state
      */
     public void setState(VehicleState state) {
-        this.state = state;
+        VehicleState previous = STATE.getAndSet(this, state);
+        notifyStateChanged(previous, state);
+    }
+
+    /**
+     * Atomically sets the state of the vehicle if it currently equals the expected state.
+     * Used to claim a vehicle without locks when several riders race for it.
+     *
+     * @param expected the state the vehicle must be in
+     * @param newState the new vehicle state
+     * @return true if the state was changed, false if the vehicle was in another state
+     */
+    public boolean compareAndSetState(VehicleState expected, VehicleState newState) {
+        if (!STATE.compareAndSet(this, expected, newState)) {
+            return false;
+        }
+        notifyStateChanged(expected, newState);
+        return true;
+    }
+
+    /**
+     * Returns the last known location of the vehicle.
+     *
+     * @return the location, or null if it was never reported
+     */
+    public GeoPoint getLocation() {
+        return location;
+    }
+
+    /**
+     * Moves the vehicle to a new location and notifies the listener.
+     *
+     * @param location the new location
+     */
+    public void setLocation(GeoPoint location) {
+        GeoPoint previous = this.location;
+        this.location = location;
+        VehicleStateListener listener = stateListener;
+        if (listener != null && !Objects.equals(previous, location)) {
+            listener.onLocationChanged(this, previous, location);
+        }
+    }
+
+    /**
+     * Registers the listener notified on every state or location change.
+     * A vehicle has at most one listener, normally the repository that stores it.
+     *
+     * @param stateListener the listener, or null to remove the current one
+     */
+    public void setStateListener(VehicleStateListener stateListener) {
+        this.stateListener = stateListener;
+    }
+
+    /**
+     * Returns the listener currently notified on state changes.
+     *
+     * @return the state listener, or null if none is registered
+     */
+    public VehicleStateListener getStateListener() {
+        return stateListener;
+    }
+
+    private void notifyStateChanged(VehicleState previous, VehicleState current) {
+        VehicleStateListener listener = stateListener;
+        if (listener != null && previous != current) {
+            listener.onStateChanged(this, previous, current);
+        }
     }
 
     /**
@@ -0,0 +1,30 @@
+package com.ismail.fleetShare.domain.vehicle;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+
+/**
+ * Callback notified whenever a {@link Vehicle} changes its {@link VehicleState}.
+ * Used by repositories to keep their state and spatial indexes up to date.
+ */
+@FunctionalInterface
+public interface VehicleStateListener {
+
+    /**
+     * Called after the state of the vehicle has changed.
+     *
+     * @param vehicle  the vehicle whose state changed
+     * @param previous the state before the change
+     * @param current  the state after the change
+     */
+    void onStateChanged(Vehicle vehicle, VehicleState previous, VehicleState current);
+
+    /**
+     * Called after the vehicle has moved. Does nothing by default.
+     *
+     * @param vehicle  the vehicle that moved
+     * @param previous the location before the move, or null
+     * @param current  the location after the move
+     */
+    default void onLocationChanged(Vehicle vehicle, GeoPoint previous, GeoPoint current) {
+    }
+}
@@ -0,0 +1,274 @@
+package com.ismail.fleetShare.infrastructure;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Uniform latitude/longitude grid of vehicles, used as a spatial index.
+ *
+ * Each cell is {@code cellDegrees} wide in both directions (about 280 m of latitude
+ * for the default) and holds a concurrent set of the vehicles located in it. Queries
+ * visit cells in rings of growing size around the query point and stop as soon as no
+ * unvisited ring can hold a closer match, so their cost depends on the vehicle density
+ * near the point, not on the size of the fleet. The walk also ends at the last ring
+ * that still overlaps the block of cells ever occupied, so a wide radius over a
+ * sparse grid does not visit empty rings. Cells are sized for city-scale queries; longitude wrap-around at the antimeridian is not handled.
+ * Callers serialize updates of the same vehicle.
+ */
+class GeoGrid {
+
+    static final double DEFAULT_CELL_DEGREES = 0.0025;
+
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * GeoPoint.EARTH_RADIUS_METERS;
+    // keeps rings growing near the poles, where the grid is not meant to be used
+    private static final double MIN_COS = 0.01;
+    // tolerance of the cheap distance used to skip the haversine for far-away vehicles
+    private static final double SLACK = 1.02;
+
+    private final double cellDegrees;
+    private final Map<Long, Set<Vehicle>> cells = new ConcurrentHashMap<>();
+    private final Map<Vehicle, Long> cellOf = new ConcurrentHashMap<>();
+    // bounds of every cell ever occupied; they only grow, which keeps them safe to read racily
+    private final AtomicInteger minRow = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicInteger maxRow = new AtomicInteger(Integer.MIN_VALUE);
+    private final AtomicInteger minColumn = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicInteger maxColumn = new AtomicInteger(Integer.MIN_VALUE);
+
+    GeoGrid() {
+        this(DEFAULT_CELL_DEGREES);
+    }
+
+    GeoGrid(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+    }
+
+    /**
+     * Places the vehicle in the cell of the given location, moving it if it was elsewhere.
+     */
+    void put(Vehicle vehicle, GeoPoint location) {
+        int row = row(location.getLatitude());
+        int column = column(location.getLongitude());
+        long cell = key(row, column);
+        Long previous = cellOf.put(vehicle, cell);
+        if (previous != null) {
+            if (previous == cell) {
+                return;
+            }
+            removeFromCell(previous, vehicle);
+        }
+        extend(row, column);
+        cells.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(vehicle);
+    }
+
+    void remove(Vehicle vehicle) {
+        Long previous = cellOf.remove(vehicle);
+        if (previous != null) {
+            removeFromCell(previous, vehicle);
+        }
+    }
+
+    int size() {
+        return cellOf.size();
+    }
+
+    /**
+     * Returns up to {@code k} vehicles nearest to the point within the radius, closest first.
+     */
+    List<Vehicle> nearest(GeoPoint point, int k, double radiusMeters) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+        // max-heap on distance holding the best k so far
+        PriorityQueue<Candidate> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble((Candidate c) -> c.distance).reversed());
+        Query query = new Query(point);
+        double limit = radiusMeters;
+        int lastRing = lastRing(query);
+        for (int ring = 0; ring <= lastRing && query.ringDistance(ring) <= limit; ring++) {
+            for (Set<Vehicle> cell : ring(query.row, query.column, ring)) {
+                for (Vehicle vehicle : cell) {
+                    GeoPoint location = vehicle.getLocation();
+                    if (location == null || query.roughDistance(location) > limit * SLACK) {
+                        continue;
+                    }
+                    double distance = point.distanceTo(location);
+                    if (distance > limit) {
+                        continue;
+                    }
+                    if (best.size() == k) {
+                        best.poll();
+                    }
+                    best.add(new Candidate(vehicle, distance));
+                    if (best.size() == k) {
+                        limit = best.peek().distance;
+                    }
+                }
+            }
+        }
+        List<Vehicle> result = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            result.add(best.poll().vehicle);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Returns the vehicles within the radius of the point, in no particular order.
+     */
+    List<Vehicle> within(GeoPoint point, double radiusMeters) {
+        List<Vehicle> result = new ArrayList<>();
+        Query query = new Query(point);
+        int lastRing = lastRing(query);
+        for (int ring = 0; ring <= lastRing && query.ringDistance(ring) <= radiusMeters; ring++) {
+            for (Set<Vehicle> cell : ring(query.row, query.column, ring)) {
+                for (Vehicle vehicle : cell) {
+                    GeoPoint location = vehicle.getLocation();
+                    if (location != null && query.roughDistance(location) <= radiusMeters * SLACK
+                            && point.distanceTo(location) <= radiusMeters) {
+                        result.add(vehicle);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the outermost ring around the query cell that overlaps an occupied cell,
+     * or -1 if no vehicle was ever placed.
+     */
+    private int lastRing(Query query) {
+        int top = maxRow.get();
+        int right = maxColumn.get();
+        if (top == Integer.MIN_VALUE || right == Integer.MIN_VALUE) {
+            return -1;
+        }
+        long rows = Math.max(Math.abs((long) query.row - minRow.get()), Math.abs((long) query.row - top));
+        long columns = Math.max(Math.abs((long) query.column - minColumn.get()), Math.abs((long) query.column - right));
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(rows, columns));
+    }
+
+    private void extend(int row, int column) {
+        if (row < minRow.get()) {
+            minRow.accumulateAndGet(row, Math::min);
+        }
+        if (row > maxRow.get()) {
+            maxRow.accumulateAndGet(row, Math::max);
+        }
+        if (column < minColumn.get()) {
+            minColumn.accumulateAndGet(column, Math::min);
+        }
+        if (column > maxColumn.get()) {
+            maxColumn.accumulateAndGet(column, Math::max);
+        }
+    }
+
+    private List<Set<Vehicle>> ring(int row, int column, int ring) {
+        List<Set<Vehicle>> result = new ArrayList<>();
+        if (ring == 0) {
+            addCell(result, row, column);
+            return result;
+        }
+        for (int c = column - ring; c <= column + ring; c++) {
+            addCell(result, row - ring, c);
+            addCell(result, row + ring, c);
+        }
+        for (int r = row - ring + 1; r <= row + ring - 1; r++) {
+            addCell(result, r, column - ring);
+            addCell(result, r, column + ring);
+        }
+        return result;
+    }
+
+    private void addCell(List<Set<Vehicle>> result, int row, int column) {
+        Set<Vehicle> cell = cells.get(key(row, column));
+        if (cell != null && !cell.isEmpty()) {
+            result.add(cell);
+        }
+    }
+
+    private void removeFromCell(long cell, Vehicle vehicle) {
+        Set<Vehicle> vehicles = cells.get(cell);
+        if (vehicles != null) {
+            vehicles.remove(vehicle);
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Precomputed values of one query point.
+     */
+    private final class Query {
+        private final GeoPoint point;
+        private final int row;
+        private final int column;
+        private final double metersPerLongitude;
+
+        Query(GeoPoint point) {
+            this.point = point;
+            this.row = row(point.getLatitude());
+            this.column = column(point.getLongitude());
+            this.metersPerLongitude = METERS_PER_DEGREE * Math.cos(Math.toRadians(point.getLatitude()));
+        }
+
+        /**
+         * Returns a lower bound of the distance from the point to any cell of the given
+         * ring, i.e. to the edge of the block of rings 0 to ring - 1 around it. East-west,
+         * a cell is narrowest at the latitude of the ring farthest from the equator.
+         */
+        double ringDistance(int ring) {
+            if (ring == 0) {
+                return 0.0;
+            }
+            double south = point.getLatitude() - (row - ring + 1) * cellDegrees;
+            double north = (row + ring) * cellDegrees - point.getLatitude();
+            double west = point.getLongitude() - (column - ring + 1) * cellDegrees;
+            double east = (column + ring) * cellDegrees - point.getLongitude();
+            double edge = Math.min(90.0, Math.abs(point.getLatitude()) + (ring + 1) * cellDegrees);
+            double lonMeters = METERS_PER_DEGREE * Math.max(MIN_COS, Math.cos(Math.toRadians(edge)));
+            return Math.min(Math.min(south, north) * METERS_PER_DEGREE, Math.min(west, east) * lonMeters);
+        }
+
+        /**
+         * Returns the equirectangular distance to a location, which is within
+         * {@link #SLACK} of the great-circle distance at city scale.
+         */
+        double roughDistance(GeoPoint location) {
+            double dy = (location.getLatitude() - point.getLatitude()) * METERS_PER_DEGREE;
+            double dx = (location.getLongitude() - point.getLongitude()) * metersPerLongitude;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+    }
+
+    private static final class Candidate {
+        private final Vehicle vehicle;
+        private final double distance;
+
+        Candidate(Vehicle vehicle, double distance) {
+            this.vehicle = vehicle;
+            this.distance = distance;
+        }
+    }
+}
@@ -1,19 +1,24 @@
 package com.ismail.fleetShare.infrastructure;
 
 import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.infrastructure.journal.TripJournal;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * In-memory repository for storing and managing users.
- * Uses a HashMap internally to store users by their unique ID.
+ * Uses a ConcurrentHashMap internally to store users by their unique ID,
+ * so it can be filled and read from several threads.
  */
 public class InMemoryUserRepository {
 
-    private final Map<String, User> users = new HashMap<>();
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private volatile TripJournal journal;
 
     /**
      * Saves a user to the repository.
@@ -23,6 +28,36 @@ public class InMemoryUserRepository {
      */
     public void save(User user) {
         users.put(user.getId(), user);
+        TripJournal journal = this.journal;
+        if (journal != null) {
+            journal.userSaved(user);
+        }
+    }
+
+    /**
+     * Saves a user unless a user with the same ID exists.
+     *
+     * @param user the user to save
+     * @return true if the user was saved, false if the ID was already taken
+     */
+    public boolean saveIfAbsent(User user) {
+        if (users.putIfAbsent(user.getId(), user) != null) {
+            return false;
+        }
+        TripJournal journal = this.journal;
+        if (journal != null) {
+            journal.userSaved(user);
+        }
+        return true;
+    }
+
+    /**
+     * Sets the journal that records saved users.
+     *
+     * @param journal the journal, or null to stop journaling
+     */
+    public void setJournal(TripJournal journal) {
+        this.journal = journal;
     }
 
     /**
@@ -43,4 +78,22 @@ public class InMemoryUserRepository {
     public List<User> findAll() {
         return new ArrayList<>(users.values());
     }
+
+    /**
+     * Returns a live, read-only view of all users without copying.
+     *
+     * @return a view of all users
+     */
+    public Collection<User> viewAll() {
+        return Collections.unmodifiableCollection(users.values());
+    }
+
+    /**
+     * Returns the number of users stored in the repository.
+     *
+     * @return the user count
+     */
+    public int size() {
+        return users.size();
+    }
 }
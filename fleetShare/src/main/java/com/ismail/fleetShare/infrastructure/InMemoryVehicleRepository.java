@@ -1,19 +1,49 @@
 package com.ismail.fleetShare.infrastructure;
 
+import com.ismail.fleetShare.domain.common.GeoPoint;
 import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.domain.vehicle.VehicleStateListener;
+import com.ismail.fleetShare.infrastructure.event.EventBus;
+import com.ismail.fleetShare.infrastructure.journal.TripJournal;
+import com.ismail.fleetShare.infrastructure.metrics.LatencyTimer;
+import com.ismail.fleetShare.infrastructure.metrics.MetricsRegistry;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * In-memory repository for storing and managing vehicles.
- * Uses a HashMap internally to store vehicles by their unique ID.
+ * Uses a ConcurrentHashMap internally to store vehicles by their unique ID.
+ *
+ * Besides the primary map, the repository keeps one live index per {@link VehicleState}
+ * and per vehicle subtype (Car, EBike, Scooter). The indexes are updated whenever
+ * {@link Vehicle#setState(VehicleState)} runs, so state queries cost O(result)
+ * instead of a scan over the whole fleet. Available vehicles with a known location are
+ * also kept in a {@link GeoGrid} per subtype, updated on every move or state change, to
+ * answer nearest and radius queries. The repository is safe for concurrent use.
+ *
+ * With a {@link MetricsRegistry} set, state and location queries and the index update
+ * run on every state change are timed, and the vehicle count per state is exposed as
+ * gauges read from the indexes.
  */
-public class InMemoryVehicleRepository {
+public class InMemoryVehicleRepository implements VehicleStateListener {
 
-    private final Map<String, Vehicle> vehicles = new HashMap<>();
+    private final Map<String, Vehicle> vehicles = new ConcurrentHashMap<>();
+    private final Map<VehicleState, Set<Vehicle>> byState = newStateIndex();
+    private final Map<Class<? extends Vehicle>, Map<VehicleState, Set<Vehicle>>> byTypeAndState =
+            new ConcurrentHashMap<>();
+    private final Map<Class<? extends Vehicle>, GeoGrid> availableByLocation = new ConcurrentHashMap<>();
+    private volatile TripJournal journal;
+    private volatile EventBus eventBus;
+    private volatile Instruments metrics;
 
     /**
      * Saves a vehicle to the repository.
@@ -22,7 +52,17 @@ public class InMemoryVehicleRepository {
      * @param vehicle the vehicle to save
      */
     public void save(Vehicle vehicle) {
-        vehicles.put(vehicle.getId(), vehicle);
+        Vehicle previous = vehicles.put(vehicle.getId(), vehicle);
+        if (previous != null && previous != vehicle) {
+            unindex(previous);
+            previous.setStateListener(null);
+        }
+        vehicle.setStateListener(this);
+        TripJournal journal = this.journal;
+        if (journal != null) {
+            journal.vehicleSaved(vehicle);
+        }
+        reindex(vehicle, null, false);
     }
 
     /**
@@ -50,12 +90,342 @@ public class InMemoryVehicleRepository {
      * @return a list of available vehicles
      */
     public List<Vehicle> findAvailable() {
-        List<Vehicle> available = new ArrayList<>();
-        for (Vehicle v : vehicles.values()) {
-            if (v.getState() == com.ismail.fleetShare.domain.vehicle.VehicleState.AVAILABLE) {
-                available.add(v);
+        return findByState(VehicleState.AVAILABLE);
+    }
+
+    /**
+     * Returns all vehicles of the given subtype that are currently available.
+     *
+     * @param type the vehicle subtype, e.g. {@code Scooter.class}
+     * @param <T>  the vehicle subtype
+     * @return a list of available vehicles of that type
+     */
+    public <T extends Vehicle> List<T> findAvailable(Class<T> type) {
+        return findByState(type, VehicleState.AVAILABLE);
+    }
+
+    /**
+     * Returns all vehicles currently in the given state.
+     *
+     * @param state the vehicle state
+     * @return a list of vehicles in that state
+     */
+    public List<Vehicle> findByState(VehicleState state) {
+        Instruments metrics = this.metrics;
+        long timing = metrics == null ? 0L : metrics.findByState.begin();
+        List<Vehicle> result = new ArrayList<>(byState.get(state));
+        if (metrics != null) {
+            metrics.findByState.end(timing);
+        }
+        return result;
+    }
+
+    /**
+     * Returns all vehicles of the given subtype currently in the given state.
+     *
+     * @param type  the vehicle subtype
+     * @param state the vehicle state
+     * @param <T>   the vehicle subtype
+     * @return a list of matching vehicles
+     */
+    public <T extends Vehicle> List<T> findByState(Class<T> type, VehicleState state) {
+        Instruments metrics = this.metrics;
+        long timing = metrics == null ? 0L : metrics.findByState.begin();
+        List<T> result = new ArrayList<>();
+        for (Vehicle v : viewByState(type, state)) {
+            result.add(type.cast(v));
+        }
+        if (metrics != null) {
+            metrics.findByState.end(timing);
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code k} available vehicles of the given subtype nearest to a point,
+     * closest first. Only vehicles within {@code radiusMeters} are considered.
+     *
+     * @param type         the vehicle subtype, e.g. {@code Scooter.class}
+     * @param point        the point to search from
+     * @param k            the maximum number of vehicles to return
+     * @param radiusMeters the search radius in meters
+     * @param <T>          the vehicle subtype
+     * @return the nearest available vehicles, closest first
+     * @throws IllegalArgumentException if the radius is not a positive finite number
+     */
+    public <T extends Vehicle> List<T> findNearestAvailable(Class<T> type, GeoPoint point, int k, double radiusMeters) {
+        checkRadius(radiusMeters);
+        GeoGrid grid = availableByLocation.get(type);
+        if (grid == null) {
+            return new ArrayList<>();
+        }
+        Instruments metrics = this.metrics;
+        long timing = metrics == null ? 0L : metrics.findNearest.begin();
+        List<T> result = castAll(type, grid.nearest(point, k, radiusMeters));
+        if (metrics != null) {
+            metrics.findNearest.end(timing);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the available vehicles of the given subtype within a radius of a point,
+     * in no particular order.
+     *
+     * @param type         the vehicle subtype
+     * @param point        the center of the search
+     * @param radiusMeters the search radius in meters
+     * @param <T>          the vehicle subtype
+     * @return the available vehicles within the radius
+     * @throws IllegalArgumentException if the radius is not a positive finite number
+     */
+    public <T extends Vehicle> List<T> findAvailableWithin(Class<T> type, GeoPoint point, double radiusMeters) {
+        checkRadius(radiusMeters);
+        GeoGrid grid = availableByLocation.get(type);
+        if (grid == null) {
+            return new ArrayList<>();
+        }
+        Instruments metrics = this.metrics;
+        long timing = metrics == null ? 0L : metrics.findWithin.begin();
+        List<T> result = castAll(type, grid.within(point, radiusMeters));
+        if (metrics != null) {
+            metrics.findWithin.end(timing);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a live, read-only view of all vehicles without copying.
+     * The view reflects later changes to the repository.
+     *
+     * @return a view of all vehicles
+     */
+    public Collection<Vehicle> viewAll() {
+        return Collections.unmodifiableCollection(vehicles.values());
+    }
+
+    /**
+     * Returns a live, read-only view of the vehicles in the given state without copying.
+     * Iteration is weakly consistent and never throws
+     * {@link java.util.ConcurrentModificationException}.
+     *
+     * @param state the vehicle state
+     * @return a view of vehicles in that state
+     */
+    public Collection<Vehicle> viewByState(VehicleState state) {
+        return Collections.unmodifiableSet(byState.get(state));
+    }
+
+    /**
+     * Returns a live, read-only view of the vehicles of the given subtype in the given state.
+     *
+     * @param type  the vehicle subtype
+     * @param state the vehicle state
+     * @return a view of matching vehicles
+     */
+    public Collection<Vehicle> viewByState(Class<? extends Vehicle> type, VehicleState state) {
+        Map<VehicleState, Set<Vehicle>> index = byTypeAndState.get(type);
+        if (index == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(index.get(state));
+    }
+
+    /**
+     * Returns the number of vehicles currently in the given state.
+     *
+     * @param state the vehicle state
+     * @return the vehicle count
+     */
+    public int countByState(VehicleState state) {
+        return byState.get(state).size();
+    }
+
+    /**
+     * Returns the total number of vehicles stored in the repository.
+     *
+     * @return the vehicle count
+     */
+    public int size() {
+        return vehicles.size();
+    }
+
+    /**
+     * Sets the journal that records saved vehicles and their state and location changes.
+     *
+     * @param journal the journal, or null to stop journaling
+     */
+    public void setJournal(TripJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sets the bus on which vehicle state transitions are published.
+     * Transitions are published while the vehicle's monitor is held, so that events
+     * of one vehicle are in the order its indexes were updated; a publisher may wait
+     * there for a full ring, so handlers must not change vehicle states themselves.
+     *
+     * @param eventBus the bus, or null to stop publishing
+     */
+    public void setEventBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Sets the registry that times queries and index updates. The metrics are
+     * {@code vehicles.findByState}, {@code vehicles.findNearest}, {@code vehicles.findWithin}
+     * and {@code vehicles.reindex} timers and one gauge per state, e.g.
+     * {@code vehicles.available} and {@code vehicles.in_use}.
+     *
+     * @param registry the registry, or null to stop recording
+     */
+    public void setMetrics(MetricsRegistry registry) {
+        if (registry != null) {
+            for (VehicleState state : VehicleState.values()) {
+                Set<Vehicle> index = byState.get(state);
+                registry.gauge("vehicles." + state.name().toLowerCase(Locale.ROOT), index::size);
+            }
+        }
+        this.metrics = registry == null ? null : new Instruments(registry);
+    }
+
+    /**
+     * Moves the vehicle to the index of its new state and publishes the transition.
+     *
+     * @param vehicle  the vehicle whose state changed
+     * @param previous the state before the change
+     * @param current  the state after the change
+     */
+    @Override
+    public void onStateChanged(Vehicle vehicle, VehicleState previous, VehicleState current) {
+        if (vehicles.get(vehicle.getId()) == vehicle) {
+            Instruments metrics = this.metrics;
+            long timing = metrics == null ? 0L : metrics.reindex.begin();
+            reindex(vehicle, previous, false);
+            if (metrics != null) {
+                metrics.reindex.end(timing);
+            }
+        }
+    }
+
+    /**
+     * Moves the vehicle to the grid cell of its new location and journals the move.
+     *
+     * @param vehicle  the vehicle that moved
+     * @param previous the location before the move
+     * @param current  the location after the move
+     */
+    @Override
+    public void onLocationChanged(Vehicle vehicle, GeoPoint previous, GeoPoint current) {
+        if (vehicles.get(vehicle.getId()) == vehicle) {
+            reindex(vehicle, null, true);
+        }
+    }
+
+    /**
+     * Places the vehicle in the index of the state it has right now.
+     * Reading the state under the vehicle's monitor keeps the indexes consistent
+     * even when several transitions of the same vehicle are reported out of order.
+     * For the same reason the state and location are journaled and the transition is
+     * published under the monitor, so the last record written and the last event
+     * published for a vehicle always hold its final values.
+     *
+     * @param previous the state before the reported transition, or null if the state did not change
+     * @param moved    whether the location changed
+     */
+    private void reindex(Vehicle vehicle, VehicleState previous, boolean moved) {
+        Map<VehicleState, Set<Vehicle>> typeIndex =
+                byTypeAndState.computeIfAbsent(vehicle.getClass(), t -> newStateIndex());
+        synchronized (vehicle) {
+            VehicleState current = vehicle.getState();
+            for (VehicleState state : VehicleState.values()) {
+                if (state != current) {
+                    byState.get(state).remove(vehicle);
+                    typeIndex.get(state).remove(vehicle);
+                }
+            }
+            byState.get(current).add(vehicle);
+            typeIndex.get(current).add(vehicle);
+
+            GeoPoint location = vehicle.getLocation();
+            if (current == VehicleState.AVAILABLE && location != null) {
+                availableByLocation.computeIfAbsent(vehicle.getClass(), t -> new GeoGrid()).put(vehicle, location);
+            } else {
+                GeoGrid grid = availableByLocation.get(vehicle.getClass());
+                if (grid != null) {
+                    grid.remove(vehicle);
+                }
+            }
+
+            TripJournal journal = this.journal;
+            if (journal != null) {
+                if (previous != null) {
+                    journal.vehicleStateChanged(vehicle, current);
+                }
+                if (moved) {
+                    journal.vehicleMoved(vehicle, location);
+                }
             }
+            EventBus eventBus = this.eventBus;
+            if (previous != null && eventBus != null) {
+                eventBus.publishVehicleState(vehicle, previous, current);
+            }
+        }
+    }
+
+    private void unindex(Vehicle vehicle) {
+        Map<VehicleState, Set<Vehicle>> typeIndex = byTypeAndState.get(vehicle.getClass());
+        synchronized (vehicle) {
+            for (VehicleState state : VehicleState.values()) {
+                byState.get(state).remove(vehicle);
+                if (typeIndex != null) {
+                    typeIndex.get(state).remove(vehicle);
+                }
+            }
+            GeoGrid grid = availableByLocation.get(vehicle.getClass());
+            if (grid != null) {
+                grid.remove(vehicle);
+            }
+        }
+    }
+
+    private static void checkRadius(double radiusMeters) {
+        if (!(radiusMeters > 0) || Double.isInfinite(radiusMeters)) {
+            throw new IllegalArgumentException("Radius must be a positive number of meters: " + radiusMeters);
+        }
+    }
+
+    private static <T extends Vehicle> List<T> castAll(Class<T> type, List<Vehicle> vehicles) {
+        List<T> result = new ArrayList<>(vehicles.size());
+        for (Vehicle v : vehicles) {
+            result.add(type.cast(v));
+        }
+        return result;
+    }
+
+    private static Map<VehicleState, Set<Vehicle>> newStateIndex() {
+        Map<VehicleState, Set<Vehicle>> index = new EnumMap<>(VehicleState.class);
+        for (VehicleState state : VehicleState.values()) {
+            index.put(state, ConcurrentHashMap.newKeySet());
+        }
+        return index;
+    }
+
+    /**
+     * The timers of a registry, looked up once so recording does not touch the registry.
+     */
+    private static final class Instruments {
+
+        final LatencyTimer findByState;
+        final LatencyTimer findNearest;
+        final LatencyTimer findWithin;
+        final LatencyTimer reindex;
+
+        Instruments(MetricsRegistry registry) {
+            this.findByState = registry.timer("vehicles.findByState");
+            this.findNearest = registry.timer("vehicles.findNearest");
+            this.findWithin = registry.timer("vehicles.findWithin");
+            this.reindex = registry.timer("vehicles.reindex");
         }
-        return available;
     }
 }
@@ -0,0 +1,67 @@
+package com.ismail.fleetShare.infrastructure.archive;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns dense int codes to values, so columns store the code instead of the value.
+ * Codes are added under a lock; {@link #value(int)} reads a published array without one.
+ */
+public final class Dictionary<T> {
+
+    private final int maxSize;
+    private final Map<T, Integer> codes = new HashMap<>();
+    private volatile Object[] values = new Object[16];
+
+    /**
+     * Creates an empty dictionary.
+     *
+     * @param maxSize the number of values it can hold
+     */
+    public Dictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the code of the value, adding it if needed.
+     *
+     * @throws IllegalStateException if the dictionary is full
+     */
+    public synchronized int code(T value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        int next = codes.size();
+        if (next == maxSize) {
+            throw new IllegalStateException("Dictionary is full: " + maxSize + " values");
+        }
+        Object[] current = values;
+        if (next == current.length) {
+            Object[] grown = new Object[current.length * 2];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            current = grown;
+        }
+        current[next] = value;
+        values = current;
+        codes.put(value, next);
+        return next;
+    }
+
+    /**
+     * Returns the code of the value, or -1 if it was never added.
+     */
+    public synchronized int find(T value) {
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    public synchronized int size() {
+        return codes.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    public T value(int code) {
+        return (T) values[code];
+    }
+}
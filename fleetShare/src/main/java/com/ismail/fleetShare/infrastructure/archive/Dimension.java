@@ -0,0 +1,20 @@
+package com.ismail.fleetShare.infrastructure.archive;
+
+/**
+ * Columns a {@link TripQuery} can group archived trips by.
+ * At most one of the time dimensions (HOUR, DAY, HOUR_OF_DAY) can be used per query.
+ */
+public enum Dimension {
+    /** Hour of the trip end, in UTC; keys are {@link java.time.Instant}s. */
+    HOUR,
+    /** Day of the trip end, in UTC; keys are {@link java.time.Instant}s. */
+    DAY,
+    /** Hour of day of the trip end in the archive's zone; keys are {@link Integer}s 0-23. */
+    HOUR_OF_DAY,
+    /** Vehicle subtype; keys are {@link Class}es. */
+    VEHICLE_TYPE,
+    /** Vehicle id; keys are {@link String}s. */
+    VEHICLE,
+    /** Membership tier of the user; keys are {@link com.ismail.fleetShare.domain.user.MembershipTier}s, or null if unknown. */
+    TIER
+}
@@ -0,0 +1,88 @@
+package com.ismail.fleetShare.infrastructure.archive;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants and field codecs shared by {@link TripExporter} and {@link ExportReader}.
+ *
+ * Columnar file layout (version 1), all numbers big-endian:
+ * <pre>
+ * header: int magic "FLTX", short version, byte compression, long row count
+ * block:  byte kind, int count, int raw length, int stored length, payload
+ * ...     dictionary blocks of currencies, vehicle types, vehicle ids and user ids,
+ *         then row blocks
+ * end:    a block of kind END with no entries
+ * </pre>
+ * A dictionary payload is {@code count} strings, each a short length and UTF-8 bytes;
+ * entries continue the codes of the previous block of the same kind. A row payload
+ * holds {@code count} rows column after column: trip id, start and end epoch
+ * milliseconds and price in minor units as longs, distance in km as a float, vehicle
+ * and user codes as ints (-1 for no user), then currency, type and tier codes as bytes
+ * (tier 0 for none, else ordinal + 1). With deflate compression, each payload is
+ * compressed on its own, so blocks can be encoded and decoded in parallel.
+ */
+final class ExportFormat {
+
+    static final int MAGIC = 0x464C5458;
+    static final short VERSION = 1;
+    static final int FILE_HEADER = 4 + 2 + 1 + 8;
+    static final int BLOCK_HEADER = 1 + 4 + 4 + 4;
+
+    static final byte END = 0;
+    static final byte CURRENCIES = 1;
+    static final byte TYPES = 2;
+    static final byte VEHICLES = 3;
+    static final byte USERS = 4;
+    static final byte ROWS = 5;
+
+    static final byte STORED = 0;
+    static final byte DEFLATE = 1;
+
+    static final int COLUMN_ROW_BYTES = 8 + 8 + 8 + 8 + 4 + 4 + 4 + 1 + 1 + 1;
+
+    private ExportFormat() {
+    }
+
+    /**
+     * Returns an upper bound of the deflated size of {@code length} bytes, including
+     * a gzip header and trailer.
+     */
+    static int deflateBound(int length) {
+        return length + (length >> 12) + (length >> 14) + (length >> 25) + 13 + 18;
+    }
+
+    /**
+     * Returns an upper bound of the encoded size of a string.
+     */
+    static int stringBound(String value) {
+        return 2 + 3 * value.length();
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        int start = buffer.position();
+        buffer.putShort((short) 0);
+        int n = value.length();
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                buffer.position(start + 2);
+                buffer.put(value.getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+            buffer.put((byte) c);
+        }
+        int length = buffer.position() - start - 2;
+        if (length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for export: " + length + " bytes");
+        }
+        buffer.putShort(start, (short) length);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,174 @@
+package com.ismail.fleetShare.infrastructure.archive;
+
+import com.ismail.fleetShare.domain.user.MembershipTier;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the columnar files written by {@link TripExporter}, one block at a time.
+ * Only the dictionaries are kept in memory.
+ */
+public final class ExportReader {
+
+    private static final MembershipTier[] TIERS = MembershipTier.values();
+
+    private final FileChannel channel;
+    private final boolean compressed;
+    private final Inflater inflater = new Inflater(true);
+    private ByteBuffer stored = ByteBuffer.allocate(0);
+    private ByteBuffer payload = ByteBuffer.allocate(0);
+    private final List<String> currencies = new ArrayList<>();
+    private final List<String> types = new ArrayList<>();
+    private final List<String> vehicles = new ArrayList<>();
+    private final List<String> users = new ArrayList<>();
+
+    private ExportReader(FileChannel channel, boolean compressed) {
+        this.channel = channel;
+        this.compressed = compressed;
+    }
+
+    /**
+     * Replays every trip of the file.
+     *
+     * @param file    the exported file
+     * @param visitor the visitor receiving the trips
+     * @return the number of trips read
+     * @throws IOException if the file cannot be read or is not an export
+     */
+    public static long read(Path file, ExportVisitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(ExportFormat.FILE_HEADER);
+            readFully(channel, header);
+            header.flip();
+            if (header.getInt() != ExportFormat.MAGIC) {
+                throw new IOException("Not a trip export: " + file);
+            }
+            short version = header.getShort();
+            if (version != ExportFormat.VERSION) {
+                throw new IOException("Unsupported export version: " + version);
+            }
+            ExportReader reader = new ExportReader(channel, header.get() == ExportFormat.DEFLATE);
+            try {
+                return reader.readBlocks(visitor);
+            } finally {
+                reader.inflater.end();
+            }
+        }
+    }
+
+    private long readBlocks(ExportVisitor visitor) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(ExportFormat.BLOCK_HEADER);
+        long trips = 0;
+        while (true) {
+            header.clear();
+            readFully(channel, header);
+            header.flip();
+            byte kind = header.get();
+            int count = header.getInt();
+            int rawLength = header.getInt();
+            int storedLength = header.getInt();
+            if (kind == ExportFormat.END) {
+                return trips;
+            }
+            ByteBuffer block = readPayload(rawLength, storedLength);
+            switch (kind) {
+                case ExportFormat.CURRENCIES:
+                    readDictionary(block, count, currencies);
+                    break;
+                case ExportFormat.TYPES:
+                    readDictionary(block, count, types);
+                    break;
+                case ExportFormat.VEHICLES:
+                    readDictionary(block, count, vehicles);
+                    break;
+                case ExportFormat.USERS:
+                    readDictionary(block, count, users);
+                    break;
+                case ExportFormat.ROWS:
+                    readRows(block, count, visitor);
+                    trips += count;
+                    break;
+                default:
+                    throw new IOException("Unknown export block kind: " + kind);
+            }
+        }
+    }
+
+    private ByteBuffer readPayload(int rawLength, int storedLength) throws IOException {
+        if (stored.capacity() < storedLength) {
+            stored = ByteBuffer.allocate(storedLength);
+        }
+        stored.clear().limit(storedLength);
+        readFully(channel, stored);
+        stored.flip();
+        if (!compressed) {
+            return stored;
+        }
+        if (payload.capacity() < rawLength) {
+            payload = ByteBuffer.allocate(rawLength);
+        }
+        payload.clear().limit(rawLength);
+        inflater.reset();
+        inflater.setInput(stored);
+        try {
+            while (payload.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(payload) == 0 && inflater.needsInput()) {
+                    throw new IOException("Truncated export block");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt export block", e);
+        }
+        return payload.flip();
+    }
+
+    private static void readDictionary(ByteBuffer block, int count, List<String> values) {
+        for (int i = 0; i < count; i++) {
+            values.add(ExportFormat.getString(block));
+        }
+    }
+
+    private void readRows(ByteBuffer block, int n, ExportVisitor visitor) {
+        int ids = block.position();
+        int starts = ids + 8 * n;
+        int ends = starts + 8 * n;
+        int prices = ends + 8 * n;
+        int distances = prices + 8 * n;
+        int vehicleCodes = distances + 4 * n;
+        int userCodes = vehicleCodes + 4 * n;
+        int currencyCodes = userCodes + 4 * n;
+        int typeCodes = currencyCodes + n;
+        int tierCodes = typeCodes + n;
+        for (int i = 0; i < n; i++) {
+            int user = block.getInt(userCodes + 4 * i);
+            int tier = block.get(tierCodes + i);
+            visitor.trip(block.getLong(ids + 8 * i),
+                    user >= 0 ? users.get(user) : null,
+                    vehicles.get(block.getInt(vehicleCodes + 4 * i)),
+                    types.get(block.get(typeCodes + i)),
+                    block.getLong(starts + 8 * i),
+                    block.getLong(ends + 8 * i),
+                    block.getFloat(distances + 4 * i),
+                    block.getLong(prices + 8 * i),
+                    currencies.get(block.get(currencyCodes + i)),
+                    tier > 0 ? TIERS[tier - 1] : null);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target) < 0) {
+                throw new EOFException("Truncated trip export");
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.ismail.fleetShare.infrastructure.archive;
+
+import com.ismail.fleetShare.domain.user.MembershipTier;
+
+/**
+ * Receives the trips of a columnar export in the order they were written.
+ */
+@FunctionalInterface
+public interface ExportVisitor {
+
+    void trip(long tripId, String userId, String vehicleId, String vehicleType,
+              long startMillis, long endMillis, float distanceKm,
+              long priceUnits, String currency, MembershipTier tier);
+}
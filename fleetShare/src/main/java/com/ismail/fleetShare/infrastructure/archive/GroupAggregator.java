@@ -0,0 +1,111 @@
+package com.ismail.fleetShare.infrastructure.archive;
+
+/**
+ * Open-addressing hash table from a packed group key to running totals,
+ * filled by one fork-join task and merged at the end of a query.
+ * Each slot keeps its key and totals next to each other in one array, so adding
+ * a row to a group touches a single cache line.
+ */
+final class GroupAggregator {
+
+    private static final int STRIDE = 5;
+    private static final int KEY = 0;
+    private static final int COUNT = 1;
+    private static final int UNITS = 2;
+    private static final int DURATION = 3;
+    private static final int DISTANCE = 4;
+
+    private long[] slots = new long[64 * STRIDE];
+    private int capacity = 64;
+    private int size;
+
+    void add(long key, long count, long priceUnits, long durationMillis, double km) {
+        int mask = capacity - 1;
+        int i = (int) mix(key) & mask;
+        long[] s = slots;
+        while (s[i * STRIDE + COUNT] != 0 && s[i * STRIDE + KEY] != key) {
+            i = (i + 1) & mask;
+        }
+        int base = i * STRIDE;
+        if (s[base + COUNT] == 0) {
+            s[base + KEY] = key;
+            s[base + DISTANCE] = Double.doubleToRawLongBits(0.0);
+            size++;
+        }
+        s[base + COUNT] += count;
+        s[base + UNITS] += priceUnits;
+        s[base + DURATION] += durationMillis;
+        s[base + DISTANCE] = Double.doubleToRawLongBits(Double.longBitsToDouble(s[base + DISTANCE]) + km);
+        if (size * 2 > capacity) {
+            grow();
+        }
+    }
+
+    /**
+     * Adds all groups of another aggregator to this one.
+     */
+    void mergeFrom(GroupAggregator other) {
+        for (int i = 0; i < other.capacity; i++) {
+            if (other.used(i)) {
+                add(other.key(i), other.count(i), other.units(i), other.duration(i), other.distance(i));
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    boolean used(int slot) {
+        return slots[slot * STRIDE + COUNT] != 0;
+    }
+
+    long key(int slot) {
+        return slots[slot * STRIDE + KEY];
+    }
+
+    long count(int slot) {
+        return slots[slot * STRIDE + COUNT];
+    }
+
+    long units(int slot) {
+        return slots[slot * STRIDE + UNITS];
+    }
+
+    long duration(int slot) {
+        return slots[slot * STRIDE + DURATION];
+    }
+
+    double distance(int slot) {
+        return Double.longBitsToDouble(slots[slot * STRIDE + DISTANCE]);
+    }
+
+    private void grow() {
+        long[] old = slots;
+        int oldCapacity = capacity;
+        capacity = oldCapacity * 2;
+        slots = new long[capacity * STRIDE];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldCapacity; j++) {
+            int from = j * STRIDE;
+            if (old[from + COUNT] != 0) {
+                int i = (int) mix(old[from + KEY]) & mask;
+                while (slots[i * STRIDE + COUNT] != 0) {
+                    i = (i + 1) & mask;
+                }
+                System.arraycopy(old, from, slots, i * STRIDE, STRIDE);
+            }
+        }
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,399 @@
+package com.ismail.fleetShare.infrastructure.archive;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripListener;
+import com.ismail.fleetShare.domain.trip.TripState;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Column-oriented archive of completed trips.
+ *
+ * Trips are stored in chunks of {@value #CHUNK_SIZE} rows, one primitive array per
+ * column: trip id, start and end as epoch milliseconds, price in minor units, distance
+ * as a float, and dictionary codes for currency, vehicle type, vehicle id, user id and
+ * user tier. A row takes 47 bytes, against several hundred for a {@link Trip} with its
+ * LocalDateTimes and value objects. Queries scan the chunks in parallel on the
+ * common fork-join pool, each task aggregating into its own table, so a filtered
+ * group-by uses every core without locks.
+ *
+ * Appends are serialized; queries see every trip appended before they started.
+ */
+public class TripArchive implements TripListener {
+
+    static final int CHUNK_SHIFT = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int ROW_BYTES = 8 + 8 + 8 + 8 + 4 + 4 + 4 + 1 + 1 + 1;
+
+    // layout of a packed group key, from the low bits up
+    private static final int CURRENCY_BITS = 6;
+    private static final int TIER_BITS = 2;
+    private static final int TYPE_BITS = 4;
+    private static final int VEHICLE_BITS = 24;
+    private static final int TIME_BITS = 28;
+    private static final int TIER_SHIFT = CURRENCY_BITS;
+    private static final int TYPE_SHIFT = TIER_SHIFT + TIER_BITS;
+    private static final int VEHICLE_SHIFT = TYPE_SHIFT + TYPE_BITS;
+    private static final int TIME_SHIFT = VEHICLE_SHIFT + VEHICLE_BITS;
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final MembershipTier[] TIERS = MembershipTier.values();
+
+    private final ZoneId zone;
+    private final Dictionary<String> currencies = new Dictionary<>(1 << CURRENCY_BITS);
+    private final Dictionary<Class<? extends Vehicle>> types = new Dictionary<>(1 << TYPE_BITS);
+    private final Dictionary<String> vehicles = new Dictionary<>(Integer.MAX_VALUE);
+    private final Dictionary<String> users = new Dictionary<>(Integer.MAX_VALUE);
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile long size;
+
+    /**
+     * Creates an archive for trips timed in the system default zone, like
+     * {@link TripService}'s default clock.
+     */
+    public TripArchive() {
+        this(ZoneId.systemDefault());
+    }
+
+    /**
+     * Creates an archive.
+     *
+     * @param zone the zone of the trips' local times
+     */
+    public TripArchive(ZoneId zone) {
+        if (TIERS.length >= 1 << TIER_BITS) {
+            throw new IllegalStateException("Too many membership tiers for the archive key layout");
+        }
+        this.zone = zone;
+    }
+
+    /**
+     * Archives a completed trip. Trips without times, and prices that do not fit in
+     * minor units, are skipped.
+     *
+     * @param trip the completed trip
+     */
+    @Override
+    public void onTripCompleted(Trip trip) {
+        if (trip.getState() != TripState.COMPLETED || trip.getStartTime() == null || trip.getEndTime() == null
+                || !trip.getPrice().isCompact()) {
+            return;
+        }
+        append(trip.getId().asLong(),
+                trip.getStartTime().atZone(zone).toInstant().toEpochMilli(),
+                trip.getEndTime().atZone(zone).toInstant().toEpochMilli(),
+                trip.getPrice().getMinorUnits(),
+                trip.getPrice().getCurrency(),
+                trip.getDistance() != null ? (float) trip.getDistance().getValue() : 0f,
+                trip.getVehicle().getClass(),
+                trip.getVehicle().getId(),
+                trip.getUser() != null ? trip.getUser().getId() : null,
+                trip.getUser() != null ? trip.getUser().getMembershipTier() : null);
+    }
+
+    /**
+     * Appends one trip row.
+     *
+     * @param tripId      trip id
+     * @param startMillis start of the trip in epoch milliseconds
+     * @param endMillis   end of the trip in epoch milliseconds, not before 1970
+     * @param priceUnits  price in minor units
+     * @param currency    currency of the price
+     * @param distanceKm  distance in kilometers
+     * @param vehicleType vehicle subtype
+     * @param vehicleId   vehicle id
+     * @param userId      user id, or null if unknown
+     * @param tier        user tier, or null if unknown
+     * @throws IllegalArgumentException if the end time is before 1970
+     */
+    public synchronized void append(long tripId, long startMillis, long endMillis, long priceUnits,
+                                    String currency, float distanceKm, Class<? extends Vehicle> vehicleType,
+                                    String vehicleId, String userId, MembershipTier tier) {
+        if (endMillis < 0) {
+            throw new IllegalArgumentException("Trips ending before 1970 cannot be archived");
+        }
+        long row = size;
+        int index = (int) (row >>> CHUNK_SHIFT);
+        Chunk[] current = chunks;
+        if (index == current.length) {
+            current = Arrays.copyOf(current, index + 1);
+            current[index] = new Chunk();
+            chunks = current;
+        }
+        Chunk chunk = current[index];
+        int r = (int) row & (CHUNK_SIZE - 1);
+        chunk.id[r] = tripId;
+        chunk.start[r] = startMillis;
+        chunk.end[r] = endMillis;
+        chunk.price[r] = priceUnits;
+        chunk.distance[r] = distanceKm;
+        chunk.currency[r] = (byte) currencies.code(Money.currencyCode(currency));
+        chunk.type[r] = (byte) types.code(vehicleType);
+        chunk.vehicle[r] = vehicles.code(vehicleId);
+        chunk.user[r] = userId != null ? users.code(userId) : -1;
+        chunk.tier[r] = (byte) (tier != null ? tier.ordinal() + 1 : 0);
+        size = row + 1;
+    }
+
+    /**
+     * Returns the number of archived trips.
+     *
+     * @return the trip count
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the chunks holding at least the rows counted by a previous read of
+     * {@link #size()}; rows below that count are never modified.
+     */
+    Chunk[] chunks() {
+        return chunks;
+    }
+
+    Dictionary<String> currencies() {
+        return currencies;
+    }
+
+    Dictionary<Class<? extends Vehicle>> types() {
+        return types;
+    }
+
+    Dictionary<String> vehicles() {
+        return vehicles;
+    }
+
+    Dictionary<String> users() {
+        return users;
+    }
+
+    /**
+     * Compiles the filters of a query; its grouping is ignored.
+     */
+    Scan scan(TripQuery query) {
+        return new Scan(query);
+    }
+
+    /**
+     * Returns the heap used by the trip columns, excluding dictionaries.
+     *
+     * @return the column size in bytes
+     */
+    public long getColumnBytes() {
+        return (long) chunks.length * CHUNK_SIZE * ROW_BYTES;
+    }
+
+    /**
+     * Runs a filtered group-by over all archived trips.
+     * Each result row covers one combination of the grouped dimensions and one currency.
+     *
+     * @param query the filters and grouping
+     * @return the groups, ordered by time and then by the other dimensions
+     * @throws IllegalStateException if grouping by vehicle with more than 16M distinct vehicles
+     */
+    public List<TripGroup> query(TripQuery query) {
+        long rows = size;
+        Chunk[] snapshot = chunks;
+        Set<Dimension> groupBy = query.getGroupBy();
+        if (groupBy.contains(Dimension.VEHICLE) && vehicles.size() > 1 << VEHICLE_BITS) {
+            throw new IllegalStateException("Too many vehicles to group by: " + vehicles.size());
+        }
+
+        Scan scan = new Scan(query);
+        if (scan.empty) {
+            return new ArrayList<>();
+        }
+        int chunkCount = (int) ((rows + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+        // one aggregator per fork-join leaf task rather than per chunk, so
+        // high-cardinality groupings are not merged once per chunk
+        GroupAggregator total = IntStream.range(0, chunkCount).parallel()
+                .collect(GroupAggregator::new,
+                        (aggregator, i) -> scan.run(aggregator, snapshot[i],
+                                (int) Math.min(CHUNK_SIZE, rows - ((long) i << CHUNK_SHIFT))),
+                        (left, right) -> left.mergeFrom(right));
+
+        List<TripGroup> result = new ArrayList<>(total.size());
+        long[] order = new long[total.size()];
+        int[] slots = new int[total.size()];
+        int n = 0;
+        for (int slot = 0; slot < total.capacity(); slot++) {
+            if (total.used(slot)) {
+                order[n++] = total.key(slot);
+            }
+        }
+        Arrays.sort(order);
+        for (int slot = 0; slot < total.capacity(); slot++) {
+            if (total.used(slot)) {
+                slots[Arrays.binarySearch(order, total.key(slot))] = slot;
+            }
+        }
+        for (int slot : slots) {
+            result.add(toGroup(total, slot, groupBy));
+        }
+        return result;
+    }
+
+    private TripGroup toGroup(GroupAggregator total, int slot, Set<Dimension> groupBy) {
+        long key = total.key(slot);
+        Map<Dimension, Object> values = new EnumMap<>(Dimension.class);
+        long time = key >>> TIME_SHIFT;
+        for (Dimension dimension : groupBy) {
+            switch (dimension) {
+                case HOUR:
+                    values.put(dimension, Instant.ofEpochMilli(time * HOUR_MILLIS));
+                    break;
+                case DAY:
+                    values.put(dimension, Instant.ofEpochMilli(time * DAY_MILLIS));
+                    break;
+                case HOUR_OF_DAY:
+                    values.put(dimension, (int) time);
+                    break;
+                case VEHICLE_TYPE:
+                    values.put(dimension, types.value(field(key, TYPE_SHIFT, TYPE_BITS)));
+                    break;
+                case VEHICLE:
+                    values.put(dimension, vehicles.value(field(key, VEHICLE_SHIFT, VEHICLE_BITS)));
+                    break;
+                case TIER:
+                    int tier = field(key, TIER_SHIFT, TIER_BITS);
+                    values.put(dimension, tier == 0 ? null : TIERS[tier - 1]);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown dimension: " + dimension);
+            }
+        }
+        return new TripGroup(values, currencies.value(field(key, 0, CURRENCY_BITS)), total.count(slot),
+                total.units(slot), total.distance(slot), total.duration(slot));
+    }
+
+    private static int field(long key, int shift, int bits) {
+        return (int) ((key >>> shift) & ((1L << bits) - 1));
+    }
+
+    /**
+     * The compiled form of a query, shared by the threads scanning chunks.
+     */
+    final class Scan {
+        private final long from;
+        private final long to;
+        private final int typeCode;
+        private final int tierCode;
+        private final int currencyCode;
+        final boolean empty;
+        private final Dimension time;
+        private final boolean byType;
+        private final boolean byVehicle;
+        private final boolean byTier;
+
+        Scan(TripQuery query) {
+            from = query.getFromMillis();
+            to = query.getToMillis();
+            typeCode = query.getVehicleType() != null ? types.find(query.getVehicleType()) : -2;
+            tierCode = query.getTier() != null ? query.getTier().ordinal() + 1 : -2;
+            currencyCode = query.getCurrency() != null
+                    ? currencies.find(Money.currencyCode(query.getCurrency())) : -2;
+            empty = typeCode == -1 || currencyCode == -1;
+
+            Set<Dimension> groupBy = query.getGroupBy();
+            time = groupBy.contains(Dimension.HOUR) ? Dimension.HOUR
+                    : groupBy.contains(Dimension.DAY) ? Dimension.DAY
+                    : groupBy.contains(Dimension.HOUR_OF_DAY) ? Dimension.HOUR_OF_DAY : null;
+            byType = groupBy.contains(Dimension.VEHICLE_TYPE);
+            byVehicle = groupBy.contains(Dimension.VEHICLE);
+            byTier = groupBy.contains(Dimension.TIER);
+        }
+
+        void run(GroupAggregator aggregator, Chunk chunk, int rows) {
+            LocalHours localHours = time == Dimension.HOUR_OF_DAY ? new LocalHours(zone.getRules()) : null;
+            long[] end = chunk.end;
+            for (int r = 0; r < rows; r++) {
+                if (!matches(chunk, r)) {
+                    continue;
+                }
+                long e = end[r];
+                long key = chunk.currency[r];
+                if (time == Dimension.HOUR) {
+                    key |= (e / HOUR_MILLIS) << TIME_SHIFT;
+                } else if (time == Dimension.DAY) {
+                    key |= (e / DAY_MILLIS) << TIME_SHIFT;
+                } else if (time == Dimension.HOUR_OF_DAY) {
+                    key |= (long) localHours.hourOfDay(e) << TIME_SHIFT;
+                }
+                if (byType) {
+                    key |= (long) chunk.type[r] << TYPE_SHIFT;
+                }
+                if (byVehicle) {
+                    key |= (long) chunk.vehicle[r] << VEHICLE_SHIFT;
+                }
+                if (byTier) {
+                    key |= (long) chunk.tier[r] << TIER_SHIFT;
+                }
+                aggregator.add(key, 1, chunk.price[r], e - chunk.start[r], chunk.distance[r]);
+            }
+        }
+
+        boolean matches(Chunk chunk, int r) {
+            long e = chunk.end[r];
+            return e >= from && e < to
+                    && (typeCode < 0 || chunk.type[r] == typeCode)
+                    && (tierCode < 0 || chunk.tier[r] == tierCode)
+                    && (currencyCode < 0 || chunk.currency[r] == currencyCode);
+        }
+    }
+
+    /**
+     * Hour of day in a zone, caching the offset between two transitions so that
+     * the zone rules are only consulted when a row crosses a DST change.
+     */
+    private static final class LocalHours {
+        private final ZoneRules rules;
+        private long validFrom = Long.MAX_VALUE;
+        private long validTo = Long.MIN_VALUE;
+        private long offsetMillis;
+
+        LocalHours(ZoneRules rules) {
+            this.rules = rules;
+        }
+
+        int hourOfDay(long epochMillis) {
+            if (epochMillis < validFrom || epochMillis >= validTo) {
+                Instant instant = Instant.ofEpochMilli(epochMillis);
+                offsetMillis = rules.getOffset(instant).getTotalSeconds() * 1000L;
+                ZoneOffsetTransition previous = rules.previousTransition(instant.plusMillis(1));
+                ZoneOffsetTransition next = rules.nextTransition(instant);
+                validFrom = previous != null ? previous.getInstant().toEpochMilli() : Long.MIN_VALUE;
+                validTo = next != null ? next.getInstant().toEpochMilli() : Long.MAX_VALUE;
+            }
+            return (int) Math.floorMod(epochMillis + offsetMillis, DAY_MILLIS) / (int) HOUR_MILLIS;
+        }
+    }
+
+    static final class Chunk {
+        final long[] id = new long[CHUNK_SIZE];
+        final long[] start = new long[CHUNK_SIZE];
+        final long[] end = new long[CHUNK_SIZE];
+        final long[] price = new long[CHUNK_SIZE];
+        final float[] distance = new float[CHUNK_SIZE];
+        final int[] vehicle = new int[CHUNK_SIZE];
+        final int[] user = new int[CHUNK_SIZE];
+        final byte[] currency = new byte[CHUNK_SIZE];
+        final byte[] type = new byte[CHUNK_SIZE];
+        final byte[] tier = new byte[CHUNK_SIZE];
+    }
+}
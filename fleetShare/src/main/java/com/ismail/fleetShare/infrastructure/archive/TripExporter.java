@@ -0,0 +1,748 @@
+package com.ismail.fleetShare.infrastructure.archive;
+
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streams the trips of a {@link TripArchive} to a CSV file or to a compact columnar
+ * file (see {@link ExportFormat}), optionally compressed.
+ *
+ * Rows are read straight from the archive columns and encoded into a small pool of
+ * reused buffers, a unit of a few thousand rows per buffer, without a {@code Trip},
+ * a list or a per-row {@code String}; CSV text is formatted in a heap array and
+ * copied to a direct buffer in one call per unit. Units are encoded and compressed in parallel
+ * on the executor while the calling thread writes finished units to the file channel
+ * in order; at most one unit per buffer is in flight, so heap and buffer usage stay
+ * flat however many trips are exported. Compressed CSV is written as one gzip member
+ * per unit, which gzip tools read as a single stream.
+ *
+ * The export covers the trips archived when it starts. Files are written to a
+ * temporary name and moved into place when complete.
+ * Setters return {@code this}, so an export reads as one chained expression.
+ */
+public class TripExporter {
+
+    static final int BUFFER_SIZE = 1 << 20;
+    static final int CSV_UNIT_ROWS = 4096;
+    static final int COLUMN_UNIT_ROWS = 16384;
+
+    private static final byte[] CSV_HEADER = ("trip_id,user_id,vehicle_id,vehicle_type,start,end,"
+            + "distance_km,price,currency,tier\n").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    // widest numeric fields and separators of a CSV row, without the id fields
+    private static final int CSV_FIXED_BOUND = 256;
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final MembershipTier[] TIERS = MembershipTier.values();
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final TripArchive archive;
+    private TripQuery filter = new TripQuery();
+    private boolean compress;
+    private Executor executor = ForkJoinPool.commonPool();
+    private int parallelism = ForkJoinPool.getCommonPoolParallelism();
+
+    /**
+     * Creates an exporter of all trips of the archive, uncompressed, encoding on the
+     * common fork-join pool.
+     *
+     * @param archive the archive to export
+     */
+    public TripExporter(TripArchive archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Exports only the trips matching the filters of the query. Its grouping is ignored.
+     *
+     * @param filter the filters
+     * @return this exporter
+     */
+    public TripExporter filter(TripQuery filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    /**
+     * Compresses the output with deflate at its fastest level, gzip-framed for CSV.
+     *
+     * @param compress whether to compress
+     * @return this exporter
+     */
+    public TripExporter compress(boolean compress) {
+        this.compress = compress;
+        return this;
+    }
+
+    /**
+     * Encodes on the given executor.
+     *
+     * @param executor    the executor encoding units
+     * @param parallelism how many units may be encoded at once
+     * @return this exporter
+     * @throws IllegalArgumentException if parallelism is not positive
+     */
+    public TripExporter executor(Executor executor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Writes the trips as CSV with a header line. Times are UTC instants with
+     * milliseconds, prices have {@link Money#SCALE} decimals and distances three.
+     *
+     * @param file the output file, e.g. {@code trips.csv} or {@code trips.csv.gz}
+     * @return the number of trips written
+     * @throws IOException if the file cannot be written
+     */
+    public long writeCsv(Path file) throws IOException {
+        return export(file, new CsvEncoder());
+    }
+
+    /**
+     * Writes the trips in the columnar format described in {@link ExportFormat},
+     * readable with {@link ExportReader}.
+     *
+     * @param file the output file
+     * @return the number of trips written
+     * @throws IOException if the file cannot be written
+     */
+    public long writeColumnar(Path file) throws IOException {
+        return export(file, new ColumnEncoder());
+    }
+
+    private long export(Path file, Encoder encoder) throws IOException {
+        // rows first: every code used by these rows is in the dictionaries read after
+        long rows = archive.size();
+        TripArchive.Chunk[] chunks = archive.chunks();
+        TripArchive.Scan scan = archive.scan(filter);
+        View view = new View(archive);
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Slot[] slots = new Slot[parallelism + 1];
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = new Slot(compress);
+            }
+            encoder.begin(channel, view, slots[0]);
+
+            ArrayDeque<Slot> free = new ArrayDeque<>(Arrays.asList(slots));
+            ArrayDeque<CompletableFuture<Slot>> pending = new ArrayDeque<>();
+            long written = 0;
+            try {
+                int unitRows = encoder.unitRows();
+                for (long first = 0; first < rows && !scan.empty; first += unitRows) {
+                    if (free.isEmpty()) {
+                        written += drain(pending.poll(), channel, free);
+                    }
+                    Slot slot = free.poll();
+                    TripArchive.Chunk chunk = chunks[(int) (first >>> TripArchive.CHUNK_SHIFT)];
+                    int from = (int) first & (TripArchive.CHUNK_SIZE - 1);
+                    int to = (int) Math.min(from + unitRows, from + rows - first);
+                    pending.add(CompletableFuture.supplyAsync(() -> {
+                        encoder.encode(slot, view, scan, chunk, from, to);
+                        return slot;
+                    }, executor));
+                }
+                while (!pending.isEmpty()) {
+                    written += drain(pending.poll(), channel, free);
+                }
+            } catch (IOException | RuntimeException e) {
+                pending.forEach(f -> f.exceptionally(t -> null).join());
+                throw e;
+            }
+
+            encoder.end(channel, written, slots[0]);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            for (Slot slot : slots) {
+                if (slot != null) {
+                    slot.close();
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return encoder.rows;
+    }
+
+    /**
+     * Waits for the oldest unit, writes it and returns its slot to the free list.
+     */
+    private static int drain(CompletableFuture<Slot> unit, FileChannel channel, ArrayDeque<Slot> free)
+            throws IOException {
+        Slot slot;
+        try {
+            slot = unit.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+        writeFully(channel, slot.output());
+        free.add(slot);
+        return slot.rows;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    /**
+     * The dictionaries of the archive as of the start of the export.
+     */
+    private static final class View {
+        private final String[] currencies;
+        private final String[] types;
+        private final Dictionary<String> vehicles;
+        private final Dictionary<String> users;
+        private final int vehicleCount;
+        private final int userCount;
+
+        View(TripArchive archive) {
+            Dictionary<String> currencyCodes = archive.currencies();
+            Dictionary<Class<? extends Vehicle>> typeCodes = archive.types();
+            currencies = new String[currencyCodes.size()];
+            for (int i = 0; i < currencies.length; i++) {
+                currencies[i] = currencyCodes.value(i);
+            }
+            types = new String[typeCodes.size()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = typeCodes.value(i).getSimpleName();
+            }
+            vehicles = archive.vehicles();
+            users = archive.users();
+            vehicleCount = vehicles.size();
+            userCount = users.size();
+        }
+    }
+
+    /**
+     * A pooled unit of work: the direct buffers a unit is encoded and compressed
+     * into, and the deflater reused across units.
+     */
+    private static final class Slot {
+        private ByteBuffer raw = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private ByteBuffer packed;
+        private final Deflater deflater;
+        private final CRC32 crc;
+        private final Text text = new Text();
+        private int[] matches = new int[0];
+        private ByteBuffer output;
+        private int rows;
+
+        Slot(boolean compress) {
+            deflater = compress ? new Deflater(Deflater.BEST_SPEED, true) : null;
+            crc = compress ? new CRC32() : null;
+            packed = compress ? ByteBuffer.allocateDirect(ExportFormat.deflateBound(BUFFER_SIZE)) : null;
+        }
+
+        ByteBuffer output() {
+            return output;
+        }
+
+        void ensure(int bytes) {
+            if (raw.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(raw.capacity() * 2, raw.position() + bytes));
+                raw.flip();
+                grown.put(raw);
+                raw = grown;
+            }
+        }
+
+        /**
+         * Deflates the raw bytes from {@code offset} to the raw position into the packed
+         * buffer, starting at its position.
+         */
+        void deflate(int offset) {
+            int length = raw.position() - offset;
+            int needed = packed.position() + ExportFormat.deflateBound(length);
+            if (packed.capacity() < needed) {
+                ByteBuffer grown = ByteBuffer.allocateDirect(needed);
+                packed.flip();
+                grown.put(packed);
+                packed = grown;
+            }
+            ByteBuffer input = raw.duplicate();
+            input.position(offset).limit(offset + length);
+            deflater.reset();
+            deflater.setInput(input);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (deflater.deflate(packed) == 0 && !packed.hasRemaining()) {
+                    throw new IllegalStateException("Deflate bound exceeded");
+                }
+            }
+        }
+
+        void close() {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    private abstract static class Encoder {
+        long rows;
+
+        abstract int unitRows();
+
+        abstract void begin(FileChannel channel, View view, Slot scratch) throws IOException;
+
+        /**
+         * Encodes the matching rows in [from, to) of the chunk and sets the slot output.
+         * Called concurrently for different slots.
+         */
+        abstract void encode(Slot slot, View view, TripArchive.Scan scan, TripArchive.Chunk chunk, int from, int to);
+
+        abstract void end(FileChannel channel, long written, Slot scratch) throws IOException;
+    }
+
+    private final class CsvEncoder extends Encoder {
+
+        @Override
+        int unitRows() {
+            return CSV_UNIT_ROWS;
+        }
+
+        @Override
+        void begin(FileChannel channel, View view, Slot scratch) throws IOException {
+            scratch.raw.clear();
+            scratch.raw.put(CSV_HEADER);
+            finish(scratch, 0);
+            writeFully(channel, scratch.output());
+        }
+
+        @Override
+        void encode(Slot slot, View view, TripArchive.Scan scan, TripArchive.Chunk chunk, int from, int to) {
+            // encoded on the heap, where byte stores are plain array stores, then
+            // copied to the direct buffer in one call
+            Text t = slot.text;
+            t.length = 0;
+            int count = 0;
+            for (int r = from; r < to; r++) {
+                if (!scan.matches(chunk, r)) {
+                    continue;
+                }
+                String vehicle = view.vehicles.value(chunk.vehicle[r]);
+                int user = chunk.user[r];
+                String userId = user >= 0 ? view.users.value(user) : "";
+                t.ensure(CSV_FIXED_BOUND + 6 * (vehicle.length() + userId.length()));
+                t.putLong(chunk.id[r]);
+                t.put(',');
+                t.putField(userId);
+                t.put(',');
+                t.putField(vehicle);
+                t.put(',');
+                t.putAscii(view.types[chunk.type[r]]);
+                t.put(',');
+                t.putInstant(chunk.start[r]);
+                t.put(',');
+                t.putInstant(chunk.end[r]);
+                t.put(',');
+                t.putDecimal(Math.round((double) chunk.distance[r] * 1000), 3);
+                t.put(',');
+                t.putDecimal(chunk.price[r], Money.SCALE);
+                t.put(',');
+                t.putAscii(view.currencies[chunk.currency[r]]);
+                t.put(',');
+                if (chunk.tier[r] > 0) {
+                    t.putAscii(TIERS[chunk.tier[r] - 1].name());
+                }
+                t.put('\n');
+                count++;
+            }
+            slot.rows = count;
+            slot.raw.clear();
+            slot.ensure(t.length);
+            slot.raw.put(t.bytes, 0, t.length);
+            finish(slot, 0);
+        }
+
+        @Override
+        void end(FileChannel channel, long written, Slot scratch) {
+            rows = written;
+        }
+
+        /**
+         * Sets the output to the raw bytes, or to them as a gzip member.
+         */
+        private void finish(Slot slot, int offset) {
+            ByteBuffer raw = slot.raw;
+            if (!compress) {
+                raw.flip();
+                slot.output = raw;
+                return;
+            }
+            if (raw.position() == offset) {
+                slot.output = raw.flip();
+                return;
+            }
+            ByteBuffer packed = slot.packed;
+            packed.clear();
+            packed.put(GZIP_HEADER);
+            slot.deflate(offset);
+            packed = slot.packed;
+            ByteBuffer input = raw.duplicate();
+            input.flip().position(offset);
+            slot.crc.reset();
+            slot.crc.update(input);
+            packed.order(ByteOrder.LITTLE_ENDIAN);
+            packed.putInt((int) slot.crc.getValue());
+            packed.putInt(raw.position() - offset);
+            packed.order(ByteOrder.BIG_ENDIAN);
+            slot.output = packed.flip();
+        }
+    }
+
+    private final class ColumnEncoder extends Encoder {
+
+        @Override
+        int unitRows() {
+            return COLUMN_UNIT_ROWS;
+        }
+
+        @Override
+        void begin(FileChannel channel, View view, Slot scratch) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(ExportFormat.FILE_HEADER);
+            header.putInt(ExportFormat.MAGIC);
+            header.putShort(ExportFormat.VERSION);
+            header.put(compress ? ExportFormat.DEFLATE : ExportFormat.STORED);
+            header.putLong(0L);
+            header.flip();
+            writeFully(channel, header);
+
+            writeDictionary(channel, scratch, ExportFormat.CURRENCIES, view.currencies.length, i -> view.currencies[i]);
+            writeDictionary(channel, scratch, ExportFormat.TYPES, view.types.length, i -> view.types[i]);
+            writeDictionary(channel, scratch, ExportFormat.VEHICLES, view.vehicleCount, view.vehicles::value);
+            writeDictionary(channel, scratch, ExportFormat.USERS, view.userCount, view.users::value);
+        }
+
+        private void writeDictionary(FileChannel channel, Slot slot, byte kind, int size,
+                                     IntFunction<String> values) throws IOException {
+            int next = 0;
+            while (next < size) {
+                ByteBuffer raw = slot.raw;
+                raw.clear();
+                raw.position(ExportFormat.BLOCK_HEADER);
+                int count = 0;
+                while (next < size) {
+                    String value = values.apply(next);
+                    if (raw.remaining() < ExportFormat.stringBound(value)) {
+                        if (count > 0) {
+                            break;
+                        }
+                        slot.ensure(ExportFormat.stringBound(value));
+                        raw = slot.raw;
+                    }
+                    ExportFormat.putString(raw, value);
+                    count++;
+                    next++;
+                }
+                finishBlock(slot, kind, count);
+                writeFully(channel, slot.output());
+            }
+        }
+
+        @Override
+        void encode(Slot slot, View view, TripArchive.Scan scan, TripArchive.Chunk chunk, int from, int to) {
+            if (slot.matches.length < to - from) {
+                slot.matches = new int[COLUMN_UNIT_ROWS];
+            }
+            int[] matches = slot.matches;
+            int n = 0;
+            for (int r = from; r < to; r++) {
+                if (scan.matches(chunk, r)) {
+                    matches[n++] = r;
+                }
+            }
+            slot.rows = n;
+            ByteBuffer b = slot.raw;
+            b.clear();
+            if (n == 0) {
+                slot.output = b.flip();
+                return;
+            }
+            slot.ensure(ExportFormat.BLOCK_HEADER + n * ExportFormat.COLUMN_ROW_BYTES);
+            b = slot.raw;
+            b.position(ExportFormat.BLOCK_HEADER);
+            for (int i = 0; i < n; i++) {
+                b.putLong(chunk.id[matches[i]]);
+            }
+            for (int i = 0; i < n; i++) {
+                b.putLong(chunk.start[matches[i]]);
+            }
+            for (int i = 0; i < n; i++) {
+                b.putLong(chunk.end[matches[i]]);
+            }
+            for (int i = 0; i < n; i++) {
+                b.putLong(chunk.price[matches[i]]);
+            }
+            for (int i = 0; i < n; i++) {
+                b.putFloat(chunk.distance[matches[i]]);
+            }
+            for (int i = 0; i < n; i++) {
+                b.putInt(chunk.vehicle[matches[i]]);
+            }
+            for (int i = 0; i < n; i++) {
+                b.putInt(chunk.user[matches[i]]);
+            }
+            for (int i = 0; i < n; i++) {
+                b.put(chunk.currency[matches[i]]);
+            }
+            for (int i = 0; i < n; i++) {
+                b.put(chunk.type[matches[i]]);
+            }
+            for (int i = 0; i < n; i++) {
+                b.put(chunk.tier[matches[i]]);
+            }
+            finishBlock(slot, ExportFormat.ROWS, n);
+        }
+
+        @Override
+        void end(FileChannel channel, long written, Slot scratch) throws IOException {
+            ByteBuffer raw = scratch.raw;
+            raw.clear();
+            raw.position(ExportFormat.BLOCK_HEADER);
+            finishBlock(scratch, ExportFormat.END, 0);
+            writeFully(channel, scratch.output());
+            ByteBuffer count = ByteBuffer.allocate(8).putLong(written).flip();
+            while (count.hasRemaining()) {
+                channel.write(count, ExportFormat.FILE_HEADER - 8 + count.position());
+            }
+            rows = written;
+        }
+
+        /**
+         * Fills the header of the block whose payload follows the header space in the
+         * raw buffer, deflating the payload if enabled, and sets the slot output.
+         */
+        private void finishBlock(Slot slot, byte kind, int count) {
+            ByteBuffer raw = slot.raw;
+            int rawLength = raw.position() - ExportFormat.BLOCK_HEADER;
+            ByteBuffer block = raw;
+            if (compress) {
+                slot.packed.clear();
+                slot.packed.position(ExportFormat.BLOCK_HEADER);
+                slot.deflate(ExportFormat.BLOCK_HEADER);
+                block = slot.packed;
+            }
+            block.put(0, kind);
+            block.putInt(1, count);
+            block.putInt(5, rawLength);
+            block.putInt(9, block.position() - ExportFormat.BLOCK_HEADER);
+            slot.output = block.flip();
+        }
+    }
+
+    /**
+     * A growable heap array that CSV rows are encoded into.
+     */
+    private static final class Text {
+        private byte[] bytes = new byte[BUFFER_SIZE];
+        private int length;
+        // the date of the last instant written; trips end in time order, so most
+        // rows repeat the date of the previous row
+        private long lastDayStart = Long.MIN_VALUE;
+        private final byte[] lastDate = new byte[10];
+
+        void ensure(int more) {
+            if (bytes.length - length < more) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + more));
+            }
+        }
+
+        void put(char c) {
+            bytes[length++] = (byte) c;
+        }
+
+        void putAscii(String value) {
+            for (int i = 0, n = value.length(); i < n; i++) {
+                bytes[length++] = (byte) value.charAt(i);
+            }
+        }
+
+        /**
+         * Writes a CSV field, quoting it if it holds a separator, a quote or a line break.
+         */
+        void putField(String value) {
+            int n = value.length();
+            for (int i = 0; i < n; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80 || c == ',' || c == '"' || c == '\n' || c == '\r') {
+                    putQuoted(value);
+                    return;
+                }
+            }
+            putAscii(value);
+        }
+
+        private void putQuoted(String value) {
+            put('"');
+            for (byte c : value.getBytes(StandardCharsets.UTF_8)) {
+                if (c == '"') {
+                    put('"');
+                }
+                bytes[length++] = c;
+            }
+            put('"');
+        }
+
+        void putLong(long value) {
+            if (value < 0) {
+                if (value == Long.MIN_VALUE) {
+                    putAscii(Long.toString(value));
+                    return;
+                }
+                put('-');
+                value = -value;
+            }
+            int end = length + digits(value);
+            int i = end;
+            // nine digits at a time in int arithmetic, which is much cheaper than long division
+            while (value > Integer.MAX_VALUE) {
+                int low = (int) (value % 1_000_000_000);
+                value /= 1_000_000_000;
+                for (int d = 0; d < 9; d++) {
+                    bytes[--i] = (byte) ('0' + low % 10);
+                    low /= 10;
+                }
+            }
+            int rest = (int) value;
+            do {
+                bytes[--i] = (byte) ('0' + rest % 10);
+                rest /= 10;
+            } while (rest != 0);
+            length = end;
+        }
+
+        /**
+         * Writes {@code units / 10^scale} with exactly {@code scale} decimals, at most 9.
+         */
+        void putDecimal(long units, int scale) {
+            if (units < 0) {
+                if (units == Long.MIN_VALUE) {
+                    putAscii(BigDecimal.valueOf(units, scale).toPlainString());
+                    return;
+                }
+                put('-');
+                units = -units;
+            }
+            long pow = POWERS_OF_TEN[scale];
+            putLong(units / pow);
+            put('.');
+            int fraction = (int) (units % pow);
+            int end = length + scale;
+            for (int i = end - 1; i >= length; i--) {
+                bytes[i] = (byte) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            length = end;
+        }
+
+        /**
+         * Writes an ISO-8601 UTC instant with milliseconds, e.g. {@code 2025-03-01T12:30:00.000Z}.
+         */
+        void putInstant(long epochMillis) {
+            // checked by range, which avoids a long division on most rows
+            long sinceDayStart = epochMillis - lastDayStart;
+            if (sinceDayStart < 0 || sinceDayStart >= DAY_MILLIS) {
+                if (!cacheDate(Math.floorDiv(epochMillis, DAY_MILLIS))) {
+                    putAscii(Instant.ofEpochMilli(epochMillis).toString());
+                    return;
+                }
+                sinceDayStart = epochMillis - lastDayStart;
+            }
+            int millisOfDay = (int) sinceDayStart;
+            System.arraycopy(lastDate, 0, bytes, length, lastDate.length);
+            length += lastDate.length;
+            put('T');
+            put2(millisOfDay / 3_600_000);
+            put(':');
+            put2(millisOfDay / 60_000 % 60);
+            put(':');
+            put2(millisOfDay / 1000 % 60);
+            put('.');
+            int millis = millisOfDay % 1000;
+            bytes[length++] = (byte) ('0' + millis / 100);
+            put2(millis % 100);
+            put('Z');
+        }
+
+        /**
+         * Formats the date of a day since 1970-01-01 into {@code lastDate}.
+         * Returns false for years that do not have four digits.
+         */
+        private boolean cacheDate(long days) {
+            // civil date from days since 1970-01-01, in 400-year eras starting in March
+            long z = days + 719_468;
+            long era = Math.floorDiv(z, 146_097);
+            long dayOfEra = z - era * 146_097;
+            long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+            long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+            long mp = (5 * dayOfYear + 2) / 153;
+            int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+            int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+            long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+            if (year < 0 || year > 9999) {
+                return false;
+            }
+            int y = (int) year;
+            int[] fields = {y / 1000, y / 100 % 10, y / 10 % 10, y % 10, -1, month / 10, month % 10, -1,
+                    day / 10, day % 10};
+            for (int i = 0; i < fields.length; i++) {
+                lastDate[i] = (byte) (fields[i] < 0 ? '-' : '0' + fields[i]);
+            }
+            lastDayStart = days * DAY_MILLIS;
+            return true;
+        }
+
+        private void put2(int value) {
+            bytes[length++] = (byte) ('0' + value / 10);
+            bytes[length++] = (byte) ('0' + value % 10);
+        }
+
+        private static int digits(long value) {
+            int n = 1;
+            while (n < POWERS_OF_TEN.length && value >= POWERS_OF_TEN[n]) {
+                n++;
+            }
+            return n;
+        }
+    }
+}
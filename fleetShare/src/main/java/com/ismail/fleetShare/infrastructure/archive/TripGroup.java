@@ -0,0 +1,77 @@
+package com.ismail.fleetShare.infrastructure.archive;
+
+import com.ismail.fleetShare.domain.common.Distance;
+import com.ismail.fleetShare.domain.common.Money;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * One row of a {@link TripArchive} query result: the group key and its totals.
+ */
+public class TripGroup {
+
+    private final Map<Dimension, Object> key;
+    private final String currency;
+    private final long tripCount;
+    private final long revenueUnits;
+    private final double distanceKm;
+    private final long durationMillis;
+
+    TripGroup(Map<Dimension, Object> key, String currency, long tripCount, long revenueUnits,
+              double distanceKm, long durationMillis) {
+        this.key = Collections.unmodifiableMap(key);
+        this.currency = currency;
+        this.tripCount = tripCount;
+        this.revenueUnits = revenueUnits;
+        this.distanceKm = distanceKm;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Returns the value of one grouping dimension.
+     *
+     * @param dimension a dimension the query grouped by
+     * @return the key value, see {@link Dimension} for its type
+     */
+    public Object get(Dimension dimension) {
+        return key.get(dimension);
+    }
+
+    /**
+     * Returns all grouping values of this row.
+     *
+     * @return the key values by dimension
+     */
+    public Map<Dimension, Object> getKey() {
+        return key;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public long getTripCount() {
+        return tripCount;
+    }
+
+    public Money getRevenue() {
+        return Money.ofMinor(revenueUnits, currency);
+    }
+
+    public Distance getTotalDistance() {
+        return Distance.of(distanceKm);
+    }
+
+    public Duration getTotalDuration() {
+        return Duration.ofMillis(durationMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "TripGroup{" + key +
+                ", trips=" + tripCount +
+                ", revenue=" + getRevenue() + '}';
+    }
+}
@@ -0,0 +1,124 @@
+package com.ismail.fleetShare.infrastructure.archive;
+
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Filters and grouping of a {@link TripArchive} query.
+ * Setters return {@code this}, so a query reads as one chained expression.
+ */
+public class TripQuery {
+
+    private long fromMillis = Long.MIN_VALUE;
+    private long toMillis = Long.MAX_VALUE;
+    private Class<? extends Vehicle> vehicleType;
+    private MembershipTier tier;
+    private String currency;
+    private final Set<Dimension> groupBy = EnumSet.noneOf(Dimension.class);
+
+    /**
+     * Keeps trips that ended at or after the given time.
+     *
+     * @param from the inclusive lower bound of the end time
+     * @return this query
+     */
+    public TripQuery from(Instant from) {
+        this.fromMillis = from.toEpochMilli();
+        return this;
+    }
+
+    /**
+     * Keeps trips that ended before the given time.
+     *
+     * @param to the exclusive upper bound of the end time
+     * @return this query
+     */
+    public TripQuery to(Instant to) {
+        this.toMillis = to.toEpochMilli();
+        return this;
+    }
+
+    /**
+     * Keeps trips with vehicles of the given type.
+     *
+     * @param vehicleType the vehicle subtype
+     * @return this query
+     */
+    public TripQuery vehicleType(Class<? extends Vehicle> vehicleType) {
+        this.vehicleType = vehicleType;
+        return this;
+    }
+
+    /**
+     * Keeps trips of users with the given tier.
+     *
+     * @param tier the membership tier
+     * @return this query
+     */
+    public TripQuery tier(MembershipTier tier) {
+        this.tier = tier;
+        return this;
+    }
+
+    /**
+     * Keeps trips paid in the given currency.
+     *
+     * @param currency the currency code
+     * @return this query
+     */
+    public TripQuery currency(String currency) {
+        this.currency = currency;
+        return this;
+    }
+
+    /**
+     * Adds grouping dimensions. Results are always split by currency as well.
+     *
+     * @param dimensions the dimensions to group by
+     * @return this query
+     * @throws IllegalArgumentException if more than one time dimension is given
+     */
+    public TripQuery groupBy(Dimension... dimensions) {
+        for (Dimension dimension : dimensions) {
+            groupBy.add(dimension);
+        }
+        int timeDimensions = 0;
+        for (Dimension d : groupBy) {
+            if (d == Dimension.HOUR || d == Dimension.DAY || d == Dimension.HOUR_OF_DAY) {
+                timeDimensions++;
+            }
+        }
+        if (timeDimensions > 1) {
+            throw new IllegalArgumentException("At most one time dimension can be grouped by: " + groupBy);
+        }
+        return this;
+    }
+
+    long getFromMillis() {
+        return fromMillis;
+    }
+
+    long getToMillis() {
+        return toMillis;
+    }
+
+    Class<? extends Vehicle> getVehicleType() {
+        return vehicleType;
+    }
+
+    MembershipTier getTier() {
+        return tier;
+    }
+
+    String getCurrency() {
+        return currency;
+    }
+
+    Set<Dimension> getGroupBy() {
+        return groupBy;
+    }
+}
@@ -0,0 +1,344 @@
+package com.ismail.fleetShare.infrastructure.collection;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Concurrent hash map from primitive {@code long} keys to non-null values.
+ *
+ * Keys are never boxed: the map is split into stripes, each an open-addressing table
+ * of {@code long[]} keys and {@code Object[]} values with linear probing. Writers lock
+ * only their stripe; {@link #get(long)} is an optimistic read that takes no lock unless
+ * it races with a writer on the same stripe. Iteration over {@link #values()} is weakly
+ * consistent, like {@link java.util.concurrent.ConcurrentHashMap}.
+ *
+ * @param <V> the type of values
+ */
+public class ConcurrentLongMap<V> {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Stripe<V>[] stripes;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ConcurrentLongMap() {
+        stripes = new Stripe[1 << STRIPE_BITS];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    /**
+     * Returns the value mapped to the key.
+     *
+     * @param key the key
+     * @return the value, or null if the key is not present
+     */
+    public V get(long key) {
+        long hash = mix(key);
+        return stripe(hash).get(key, hash);
+    }
+
+    /**
+     * Maps the key to the value, replacing any previous value.
+     *
+     * @param key   the key
+     * @param value the value, not null
+     * @return the previous value, or null if the key was not present
+     */
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        long hash = mix(key);
+        return stripe(hash).put(key, hash, value, false);
+    }
+
+    /**
+     * Maps the key to the value unless the key is already present.
+     *
+     * @param key   the key
+     * @param value the value, not null
+     * @return the current value, or null if the value was added
+     */
+    public V putIfAbsent(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        long hash = mix(key);
+        return stripe(hash).put(key, hash, value, true);
+    }
+
+    /**
+     * Removes the key.
+     *
+     * @param key the key
+     * @return the removed value, or null if the key was not present
+     */
+    public V remove(long key) {
+        long hash = mix(key);
+        return stripe(hash).remove(key, hash, null);
+    }
+
+    /**
+     * Removes the key only if it is currently mapped to the given value.
+     *
+     * @param key   the key
+     * @param value the expected value
+     * @return true if the entry was removed
+     */
+    public boolean remove(long key, V value) {
+        long hash = mix(key);
+        return stripe(hash).remove(key, hash, value) != null;
+    }
+
+    /**
+     * Returns the number of entries. Exact only when no writer is running.
+     *
+     * @return the entry count
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns a live, read-only view of the values.
+     * Its iterator copies one stripe at a time, so it never throws
+     * {@link java.util.ConcurrentModificationException}.
+     *
+     * @return a view of the values
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return ConcurrentLongMap.this.size();
+            }
+        };
+    }
+
+    private Stripe<V> stripe(long hash) {
+        return stripes[(int) (hash >>> (Long.SIZE - STRIPE_BITS))];
+    }
+
+    /**
+     * Spreads the key bits; time-ordered ids differ mostly in their low bits.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private final class ValueIterator implements Iterator<V> {
+        private int stripe;
+        private Iterator<V> current = Collections.emptyIterator();
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                if (stripe == stripes.length) {
+                    return false;
+                }
+                current = stripes[stripe++].snapshot().iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+
+    /**
+     * One lock-protected open-addressing table. Keys and values live in a single
+     * {@link Table} object, so an optimistic reader always sees arrays of equal length.
+     */
+    private static final class Stripe<V> {
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table = new Table(INITIAL_CAPACITY);
+        private volatile int size;
+
+        V get(long key, long hash) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                Object value = find(table, key, hash);
+                if (lock.validate(stamp)) {
+                    return cast(value);
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return cast(find(table, key, hash));
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        V put(long key, long hash, V value, boolean onlyIfAbsent) {
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int mask = t.keys.length - 1;
+                for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                    Object existing = t.values[i];
+                    if (existing == null) {
+                        t.keys[i] = key;
+                        t.values[i] = value;
+                        size++;
+                        if (size * 4 > t.keys.length * 3) {
+                            table = t.resize();
+                        }
+                        return null;
+                    }
+                    if (t.keys[i] == key) {
+                        if (!onlyIfAbsent) {
+                            t.values[i] = value;
+                        }
+                        return cast(existing);
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        V remove(long key, long hash, Object expected) {
+            long stamp = lock.writeLock();
+            try {
+                Table t = table;
+                int mask = t.keys.length - 1;
+                for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+                    Object existing = t.values[i];
+                    if (existing == null) {
+                        return null;
+                    }
+                    if (t.keys[i] == key) {
+                        if (expected != null && existing != expected) {
+                            return null;
+                        }
+                        t.deleteAt(i);
+                        size--;
+                        return cast(existing);
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        List<V> snapshot() {
+            long stamp = lock.readLock();
+            try {
+                List<V> values = new ArrayList<>(size);
+                for (Object value : table.values) {
+                    if (value != null) {
+                        values.add(cast(value));
+                    }
+                }
+                return values;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Probes for the key. May run concurrently with a writer, so it never loops
+         * more than the table length and never trusts what it reads until validated.
+         */
+        private static Object find(Table t, long key, long hash) {
+            long[] keys = t.keys;
+            Object[] values = t.values;
+            int mask = keys.length - 1;
+            int i = (int) hash & mask;
+            for (int probes = 0; probes < keys.length; probes++, i = (i + 1) & mask) {
+                Object value = values[i];
+                if (value == null) {
+                    return null;
+                }
+                if (keys[i] == key) {
+                    return value;
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <V> V cast(Object value) {
+            return (V) value;
+        }
+    }
+
+    private static final class Table {
+        private final long[] keys;
+        private final Object[] values;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+        }
+
+        Table resize() {
+            Table bigger = new Table(keys.length * 2);
+            int mask = bigger.keys.length - 1;
+            for (int i = 0; i < keys.length; i++) {
+                if (values[i] != null) {
+                    int j = (int) mix(keys[i]) & mask;
+                    while (bigger.values[j] != null) {
+                        j = (j + 1) & mask;
+                    }
+                    bigger.keys[j] = keys[i];
+                    bigger.values[j] = values[i];
+                }
+            }
+            return bigger;
+        }
+
+        /**
+         * Removes the entry at the slot and shifts later entries of the same probe
+         * chain back, so lookups never need tombstones.
+         */
+        void deleteAt(int slot) {
+            int mask = keys.length - 1;
+            int gap = slot;
+            for (int i = (gap + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+                int home = (int) mix(keys[i]) & mask;
+                // move the entry into the gap if its home slot is not between the gap and i
+                if (((i - home) & mask) >= ((i - gap) & mask)) {
+                    keys[gap] = keys[i];
+                    values[gap] = values[i];
+                    gap = i;
+                }
+            }
+            keys[gap] = 0L;
+            values[gap] = null;
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.ismail.fleetShare.infrastructure.columnar;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.archive.Dictionary;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+
+/**
+ * Vehicle store for fleets of millions, holding every attribute in a primitive column
+ * instead of one object graph per vehicle.
+ *
+ * A vehicle is a slot: its state and subtype are bytes, its price a long of minor units
+ * with a dictionary-coded currency, its model and subtype detail (fuel type, battery
+ * level, weight limit) dictionary codes, and its location two floats packed in a long,
+ * about a metre apart at worst. Ids are kept as ISO-8859-1 bytes in one array and found
+ * through an open-addressing table of slots. With no object per vehicle the heap holds
+ * a dozen large arrays whatever the fleet size, so a collection has almost nothing to
+ * trace. All columns are allocated for the full capacity up front.
+ *
+ * Vehicles are read through {@link VehicleView} flyweights. Lookups, scans, state
+ * changes and moves take no lock; state changes are compare-and-set on the state
+ * column, as {@link Vehicle#compareAndSetState} is on a vehicle. {@link #save} is
+ * serialized and publishes a new slot only once all its columns are written.
+ * Replacing a saved vehicle rewrites its columns one by one, which concurrent readers
+ * may observe half done.
+ *
+ * The store does not notify listeners, journal, or keep per-state indexes: state
+ * queries scan the state and type columns, about a byte each per vehicle. Use
+ * {@link VehicleView#toVehicle()} where a heap {@link Vehicle} is needed.
+ */
+public class ColumnarVehicleStore {
+
+    /** The largest capacity, bounded by the size of the id table. */
+    public static final int MAX_CAPACITY = 1 << 28;
+
+    private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VehicleState[] STATES = VehicleState.values();
+    private static final List<Class<? extends Vehicle>> TYPES = List.of(Car.class, EBike.class, Scooter.class);
+    // both floats NaN, which no location has
+    private static final long NO_LOCATION = -1L;
+    private static final int MAX_ID_LENGTH = 255;
+
+    private final int capacity;
+    private final byte[] states;
+    private final byte[] types;
+    private final short[] currencies;
+    private final long[] prices;
+    private final int[] models;
+    private final int[] details;
+    private final long[] locations;
+    private final int[] idHashes;
+    private final int[] idStarts;
+    private final byte[] idLengths;
+    private final int[] table;
+    private final Dictionary<String> modelNames = new Dictionary<>(Integer.MAX_VALUE);
+    private final Dictionary<String> detailNames = new Dictionary<>(Integer.MAX_VALUE);
+    private final Dictionary<String> currencyCodes = new Dictionary<>(Short.MAX_VALUE);
+    private final AtomicIntegerArray stateCounts = new AtomicIntegerArray(STATES.length);
+    private volatile byte[] idBytes;
+    private int idSize;
+    private volatile int size;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param capacity the number of vehicles the store can hold, at most {@link #MAX_CAPACITY}
+     * @throws IllegalArgumentException if the capacity is not positive or too large
+     */
+    public ColumnarVehicleStore(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be between 1 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        this.capacity = capacity;
+        this.states = new byte[capacity];
+        this.types = new byte[capacity];
+        this.currencies = new short[capacity];
+        this.prices = new long[capacity];
+        this.models = new int[capacity];
+        this.details = new int[capacity];
+        this.locations = new long[capacity];
+        this.idHashes = new int[capacity];
+        this.idStarts = new int[capacity];
+        this.idLengths = new byte[capacity];
+        // at most 3/4 full, so probes stay short
+        this.table = new int[Integer.highestOneBit(capacity + capacity / 3) << 1];
+        this.idBytes = new byte[Math.max(16, capacity * 8)];
+    }
+
+    /**
+     * Copies a vehicle into the store. A vehicle with the same id is replaced in place.
+     * The vehicle itself is not kept and later changes to it are not seen.
+     *
+     * @param vehicle a {@link Car}, {@link EBike} or {@link Scooter}
+     * @return the slot of the vehicle
+     * @throws IllegalArgumentException if the subtype is not supported, the id is longer
+     *                                  than 255 characters or not ISO-8859-1, or the price
+     *                                  does not fit in minor units
+     * @throws IllegalStateException    if the store is full
+     */
+    public synchronized int save(Vehicle vehicle) {
+        String id = vehicle.getId();
+        int type = TYPES.indexOf(vehicle.getClass());
+        if (type < 0) {
+            throw new IllegalArgumentException("Unsupported vehicle type: " + vehicle.getClass().getName());
+        }
+        Money price = vehicle.getPricePerMinute();
+        if (!price.isCompact()) {
+            throw new IllegalArgumentException("Price does not fit in minor units: " + price);
+        }
+        int slot = slotOf(id);
+        boolean added = slot < 0;
+        if (added) {
+            if (size == capacity) {
+                throw new IllegalStateException("Store is full: " + capacity + " vehicles");
+            }
+            slot = size;
+            writeId(slot, id);
+        }
+        types[slot] = (byte) type;
+        currencies[slot] = (short) currencyCodes.code(price.getCurrency());
+        prices[slot] = price.getMinorUnits();
+        models[slot] = modelNames.code(vehicle.getModel());
+        details[slot] = detailNames.code(detailOf(vehicle));
+        GeoPoint location = vehicle.getLocation();
+        LONGS.setVolatile(locations, slot, location == null ? NO_LOCATION : pack(location));
+        VehicleState state = vehicle.getState();
+        if (added) {
+            states[slot] = (byte) state.ordinal();
+            stateCounts.incrementAndGet(state.ordinal());
+            publish(slot, id.hashCode());
+            size = slot + 1;
+        } else {
+            setState(slot, state);
+        }
+        return slot;
+    }
+
+    /**
+     * Returns a view of the vehicle with the given id.
+     *
+     * @param id the id of the vehicle
+     * @return a new view, or null if no vehicle has the id
+     */
+    public VehicleView findById(String id) {
+        int slot = slotOf(id);
+        return slot < 0 ? null : new VehicleView(this, slot);
+    }
+
+    /**
+     * Returns the slot of the vehicle with the given id.
+     *
+     * @param id the id of the vehicle
+     * @return the slot, or -1 if no vehicle has the id
+     */
+    public int slotOf(String id) {
+        int hash = id.hashCode();
+        int mask = table.length - 1;
+        for (int i = mix(hash) & mask; ; i = (i + 1) & mask) {
+            int entry = (int) INTS.getAcquire(table, i);
+            if (entry == 0) {
+                return -1;
+            }
+            int slot = entry - 1;
+            if (idHashes[slot] == hash && idEquals(slot, id)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Returns a view of the vehicle in a slot.
+     *
+     * @param slot the slot, below {@link #size()}
+     * @return a new view
+     * @throws IndexOutOfBoundsException if no vehicle has the slot
+     */
+    public VehicleView view(int slot) {
+        return new VehicleView(this, checkSlot(slot));
+    }
+
+    /**
+     * Calls the action for every vehicle of a subtype in a state, in slot order.
+     * The action receives the same view each time, moved to the next vehicle, so it
+     * must not keep the view; nothing is allocated per vehicle. The scan is weakly
+     * consistent: a vehicle changing state meanwhile may or may not be seen.
+     *
+     * @param type   the vehicle subtype, or null for all subtypes
+     * @param state  the state, or null for all states
+     * @param action the action to call
+     */
+    public void forEach(Class<? extends Vehicle> type, VehicleState state, Consumer<VehicleView> action) {
+        VehicleView cursor = new VehicleView(this, 0);
+        int end = size;
+        int wantedType = type == null ? -1 : TYPES.indexOf(type);
+        if (type != null && wantedType < 0) {
+            return;
+        }
+        int wantedState = state == null ? -1 : state.ordinal();
+        for (int slot = 0; slot < end; slot++) {
+            if ((wantedType < 0 || types[slot] == wantedType)
+                    && (wantedState < 0 || (byte) BYTES.getOpaque(states, slot) == wantedState)) {
+                cursor.moveTo(slot);
+                action.accept(cursor);
+            }
+        }
+    }
+
+    /**
+     * Returns views of up to {@code limit} vehicles of a subtype in a state, in slot order.
+     *
+     * @param type  the vehicle subtype, or null for all subtypes
+     * @param state the state
+     * @param limit the most vehicles to return
+     * @return new views of the matching vehicles
+     */
+    public List<VehicleView> findByState(Class<? extends Vehicle> type, VehicleState state, int limit) {
+        List<VehicleView> result = new ArrayList<>(Math.min(limit, 64));
+        int end = size;
+        int wantedType = type == null ? -1 : TYPES.indexOf(type);
+        if (type != null && wantedType < 0) {
+            return result;
+        }
+        for (int slot = 0; slot < end && result.size() < limit; slot++) {
+            if ((wantedType < 0 || types[slot] == wantedType)
+                    && (byte) BYTES.getOpaque(states, slot) == state.ordinal()) {
+                result.add(new VehicleView(this, slot));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of vehicles in a state, from a counter kept on every change.
+     *
+     * @param state the state
+     * @return the vehicle count
+     */
+    public int countByState(VehicleState state) {
+        return stateCounts.get(state.ordinal());
+    }
+
+    /**
+     * Returns the number of vehicles in the store.
+     *
+     * @return the vehicle count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of vehicles the store can hold.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the bytes held by the columns, the id table and the id bytes, not
+     * counting the dictionaries.
+     *
+     * @return the size of the arrays in bytes
+     */
+    public long getFootprintBytes() {
+        long perSlot = Byte.BYTES * 3 + Short.BYTES + Long.BYTES * 2 + Integer.BYTES * 4;
+        return perSlot * capacity + (long) Integer.BYTES * table.length + idBytes.length;
+    }
+
+    String id(int slot) {
+        return new String(idBytes, idStarts[slot], idLengths[slot] & 0xFF, StandardCharsets.ISO_8859_1);
+    }
+
+    Class<? extends Vehicle> type(int slot) {
+        return TYPES.get(types[slot]);
+    }
+
+    String model(int slot) {
+        return modelNames.value(models[slot]);
+    }
+
+    String detail(int slot) {
+        return detailNames.value(details[slot]);
+    }
+
+    long priceMinorUnits(int slot) {
+        return prices[slot];
+    }
+
+    String currency(int slot) {
+        return currencyCodes.value(currencies[slot]);
+    }
+
+    VehicleState state(int slot) {
+        return STATES[(byte) BYTES.getVolatile(states, slot)];
+    }
+
+    VehicleState setState(int slot, VehicleState state) {
+        VehicleState previous = STATES[(byte) BYTES.getAndSet(states, slot, (byte) state.ordinal())];
+        if (previous != state) {
+            stateCounts.decrementAndGet(previous.ordinal());
+            stateCounts.incrementAndGet(state.ordinal());
+        }
+        return previous;
+    }
+
+    boolean compareAndSetState(int slot, VehicleState expected, VehicleState state) {
+        if (!BYTES.compareAndSet(states, slot, (byte) expected.ordinal(), (byte) state.ordinal())) {
+            return false;
+        }
+        if (expected != state) {
+            stateCounts.decrementAndGet(expected.ordinal());
+            stateCounts.incrementAndGet(state.ordinal());
+        }
+        return true;
+    }
+
+    GeoPoint location(int slot) {
+        long packed = (long) LONGS.getVolatile(locations, slot);
+        if (packed == NO_LOCATION) {
+            return null;
+        }
+        return new GeoPoint(Float.intBitsToFloat((int) (packed >>> 32)), Float.intBitsToFloat((int) packed));
+    }
+
+    void setLocation(int slot, GeoPoint location) {
+        LONGS.setVolatile(locations, slot, location == null ? NO_LOCATION : pack(location));
+    }
+
+    int checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("No vehicle in slot " + slot + " of " + size);
+        }
+        return slot;
+    }
+
+    private void writeId(int slot, String id) {
+        int length = id.length();
+        if (length > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Id is longer than " + MAX_ID_LENGTH + " characters: " + id);
+        }
+        byte[] bytes = idBytes;
+        if (idSize + length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(idSize + length, bytes.length * 2));
+        }
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (c > 0xFF) {
+                throw new IllegalArgumentException("Id is not ISO-8859-1: " + id);
+            }
+            bytes[idSize + i] = (byte) c;
+        }
+        idStarts[slot] = idSize;
+        idLengths[slot] = (byte) length;
+        idHashes[slot] = id.hashCode();
+        idSize += length;
+        idBytes = bytes;
+    }
+
+    private void publish(int slot, int hash) {
+        int mask = table.length - 1;
+        int i = mix(hash) & mask;
+        while (table[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        INTS.setRelease(table, i, slot + 1);
+    }
+
+    private boolean idEquals(int slot, String id) {
+        int length = idLengths[slot] & 0xFF;
+        if (length != id.length()) {
+            return false;
+        }
+        byte[] bytes = idBytes;
+        int start = idStarts[slot];
+        for (int i = 0; i < length; i++) {
+            if ((bytes[start + i] & 0xFF) != id.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String detailOf(Vehicle vehicle) {
+        if (vehicle instanceof Car) {
+            return ((Car) vehicle).getFuelType();
+        }
+        if (vehicle instanceof EBike) {
+            return ((EBike) vehicle).getBatteryLevel();
+        }
+        return ((Scooter) vehicle).getWeightLimit();
+    }
+
+    private static long pack(GeoPoint location) {
+        long latitude = Float.floatToIntBits((float) location.getLatitude());
+        long longitude = Float.floatToIntBits((float) location.getLongitude());
+        return latitude << 32 | (longitude & 0xFFFFFFFFL);
+    }
+
+    private static int mix(int hash) {
+        return hash * 0x9E3779B9 ^ hash >>> 16;
+    }
+}
@@ -0,0 +1,171 @@
+package com.ismail.fleetShare.infrastructure.columnar;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+
+/**
+ * Flyweight over one slot of a {@link ColumnarVehicleStore}, read like a {@link Vehicle}.
+ * A view holds only the store and the slot; every getter reads the columns, so it
+ * always sees the current values. The id, price and location are built on each call;
+ * the model and detail strings are shared dictionary entries.
+ *
+ * State and location can be changed through the view. The other attributes change by
+ * saving the vehicle again.
+ */
+public final class VehicleView {
+
+    private final ColumnarVehicleStore store;
+    private int slot;
+
+    VehicleView(ColumnarVehicleStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+    }
+
+    void moveTo(int slot) {
+        this.slot = slot;
+    }
+
+    /**
+     * Returns the slot of the vehicle in the store.
+     *
+     * @return the slot
+     */
+    public int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Returns the unique ID of the vehicle, decoded from the id column.
+     *
+     * @return the vehicle ID
+     */
+    public String getId() {
+        return store.id(slot);
+    }
+
+    /**
+     * Returns the model name of the vehicle.
+     *
+     * @return the model name
+     */
+    public String getModel() {
+        return store.model(slot);
+    }
+
+    /**
+     * Returns the subtype the vehicle was saved as.
+     *
+     * @return {@code Car.class}, {@code EBike.class} or {@code Scooter.class}
+     */
+    public Class<? extends Vehicle> getType() {
+        return store.type(slot);
+    }
+
+    /**
+     * Returns the attribute of the subtype: the fuel type of a car, the battery level of
+     * an e-bike or the weight limit of a scooter.
+     *
+     * @return the subtype attribute
+     */
+    public String getDetail() {
+        return store.detail(slot);
+    }
+
+    /**
+     * Returns the current state of the vehicle.
+     *
+     * @return the vehicle state
+     */
+    public VehicleState getState() {
+        return store.state(slot);
+    }
+
+    /**
+     * Sets the state of the vehicle.
+     *
+     * @param state the new vehicle state
+     */
+    public void setState(VehicleState state) {
+        store.setState(slot, state);
+    }
+
+    /**
+     * Atomically sets the state of the vehicle if it currently equals the expected state.
+     *
+     * @param expected the state the vehicle must be in
+     * @param newState the new vehicle state
+     * @return true if the state was changed, false if the vehicle was in another state
+     */
+    public boolean compareAndSetState(VehicleState expected, VehicleState newState) {
+        return store.compareAndSetState(slot, expected, newState);
+    }
+
+    /**
+     * Returns the last known location, rounded to float precision.
+     *
+     * @return the location, or null if it was never reported
+     */
+    public GeoPoint getLocation() {
+        return store.location(slot);
+    }
+
+    /**
+     * Moves the vehicle to a new location.
+     *
+     * @param location the new location, or null if unknown
+     */
+    public void setLocation(GeoPoint location) {
+        store.setLocation(slot, location);
+    }
+
+    /**
+     * Returns the rental price per minute of the vehicle.
+     *
+     * @return the price per minute as {@link Money}
+     */
+    public Money getPricePerMinute() {
+        return Money.ofMinor(store.priceMinorUnits(slot), store.currency(slot));
+    }
+
+    /**
+     * Returns the price per minute without creating a {@link Money}.
+     *
+     * @return the price in minor units ({@link Money#SCALE} decimal places)
+     */
+    public long getPriceMinorUnits() {
+        return store.priceMinorUnits(slot);
+    }
+
+    /**
+     * Copies the vehicle into a new heap {@link Vehicle} of its subtype, for code that
+     * needs one, e.g. {@link com.ismail.fleetShare.application.TripService}. The copy is
+     * not linked to the store.
+     *
+     * @return a new vehicle with the same attributes, state and location
+     */
+    public Vehicle toVehicle() {
+        Class<? extends Vehicle> type = getType();
+        Vehicle vehicle;
+        if (type == Car.class) {
+            vehicle = new Car(getId(), getModel(), getDetail(), getPricePerMinute());
+        } else if (type == EBike.class) {
+            vehicle = new EBike(getId(), getModel(), getDetail(), getPricePerMinute());
+        } else {
+            vehicle = new Scooter(getId(), getModel(), getDetail(), getPricePerMinute());
+        }
+        vehicle.setState(getState());
+        vehicle.setLocation(getLocation());
+        return vehicle;
+    }
+
+    @Override
+    public String toString() {
+        return getType().getSimpleName() + "[" + getId() + ", " + getState() + "]";
+    }
+}
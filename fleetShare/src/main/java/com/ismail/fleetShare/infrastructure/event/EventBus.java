@@ -0,0 +1,230 @@
+package com.ismail.fleetShare.infrastructure.event;
+
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripState;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ring-buffer bus publishing vehicle and trip state transitions to consumer threads,
+ * in the style of the LMAX Disruptor.
+ *
+ * The ring holds a fixed number of preallocated {@link FleetEvent} slots. A publisher
+ * claims the next sequence with one atomic increment, fills the slot in place and
+ * marks it published, so publishing allocates nothing. Any thread may publish, since
+ * trips start and end on the callers' threads. Each consumer runs on its own thread,
+ * drains every available event as one batch and then idles with its
+ * {@link WaitStrategy}. The ring never overwrites an event a consumer has not seen:
+ * when it is full, publishers wait for the slowest consumer. With no consumer
+ * registered, publishing does nothing.
+ */
+public class EventBus implements AutoCloseable {
+
+    public static final int DEFAULT_SIZE = 1 << 14;
+
+    private final FleetEvent[] slots;
+    private final AtomicIntegerArray published;
+    private final int mask;
+    private final int shift;
+    private final Sequence claimed = new Sequence(-1);
+    private final Sequence gatingCache = new Sequence(-1);
+    private volatile EventConsumer[] consumers = new EventConsumer[0];
+    private volatile WaitStrategy[] blockingStrategies = new WaitStrategy[0];
+
+    /**
+     * Creates a bus with {@value #DEFAULT_SIZE} slots.
+     */
+    public EventBus() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * Creates a bus.
+     *
+     * @param size the number of slots, a power of two
+     * @throws IllegalArgumentException if size is not a power of two
+     */
+    public EventBus(int size) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two: " + size);
+        }
+        slots = new FleetEvent[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new FleetEvent();
+        }
+        published = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        mask = size - 1;
+        shift = Integer.numberOfTrailingZeros(size);
+    }
+
+    /**
+     * Publishes a vehicle state transition.
+     *
+     * @param vehicle  the vehicle
+     * @param previous the state before the change
+     * @param current  the state after the change
+     */
+    public void publishVehicleState(Vehicle vehicle, VehicleState previous, VehicleState current) {
+        if (consumers.length == 0) {
+            return;
+        }
+        long sequence = next();
+        slots[(int) sequence & mask].setVehicleState(vehicle, previous, current, System.nanoTime());
+        publish(sequence);
+    }
+
+    /**
+     * Publishes a trip state transition.
+     *
+     * @param trip     the trip
+     * @param previous the state before the change
+     * @param current  the state after the change
+     */
+    public void publishTripState(Trip trip, TripState previous, TripState current) {
+        if (consumers.length == 0) {
+            return;
+        }
+        long sequence = next();
+        slots[(int) sequence & mask].setTripState(trip, previous, current, System.nanoTime());
+        publish(sequence);
+    }
+
+    /**
+     * Starts a consumer thread receiving every event published from now on.
+     *
+     * @param name         the consumer name, used for its thread
+     * @param handler      the handler receiving the events
+     * @param waitStrategy how the consumer waits for events
+     * @return the running consumer
+     */
+    public synchronized EventConsumer addConsumer(String name, EventHandler handler, WaitStrategy waitStrategy) {
+        EventConsumer consumer = new EventConsumer(this, name, handler, waitStrategy, claimed.get());
+        EventConsumer[] current = consumers;
+        EventConsumer[] added = Arrays.copyOf(current, current.length + 1);
+        added[current.length] = consumer;
+        consumers = added;
+        updateBlockingStrategies();
+        consumer.start();
+        return consumer;
+    }
+
+    /**
+     * Stops a consumer once it has handled the events already published, and
+     * waits for its thread to end.
+     *
+     * @param consumer the consumer to remove
+     * @throws InterruptedException if interrupted while waiting for the consumer
+     */
+    public void removeConsumer(EventConsumer consumer) throws InterruptedException {
+        consumer.halt();
+        consumer.join();
+        synchronized (this) {
+            List<EventConsumer> remaining = new ArrayList<>(Arrays.asList(consumers));
+            remaining.remove(consumer);
+            consumers = remaining.toArray(new EventConsumer[0]);
+            updateBlockingStrategies();
+        }
+    }
+
+    /**
+     * Returns the number of slots.
+     *
+     * @return the ring size
+     */
+    public int getSize() {
+        return slots.length;
+    }
+
+    /**
+     * Returns the sequence of the last claimed event, or -1 if none was published.
+     *
+     * @return the publish cursor
+     */
+    public long getCursor() {
+        return claimed.get();
+    }
+
+    /**
+     * Stops every consumer after it has handled the events already published.
+     */
+    @Override
+    public void close() {
+        boolean interrupted = false;
+        for (EventConsumer consumer : consumers) {
+            try {
+                removeConsumer(consumer);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isPublished(long sequence) {
+        return published.get((int) sequence & mask) == (int) (sequence >>> shift);
+    }
+
+    FleetEvent slot(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    /**
+     * Claims the next sequence, waiting while the slot still holds an event that a
+     * consumer has not handled.
+     */
+    private long next() {
+        long sequence = claimed.getAndIncrement() + 1;
+        long wrapPoint = sequence - slots.length;
+        if (wrapPoint > gatingCache.get()) {
+            long slowest;
+            int idle = 0;
+            while (wrapPoint > (slowest = slowestConsumer(sequence - 1))) {
+                if (idle++ < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(1_000);
+                }
+            }
+            gatingCache.setRelease(slowest);
+        }
+        return sequence;
+    }
+
+    /**
+     * Marks the slot as holding the event of this lap around the ring. A volatile
+     * write, so that the blocking check below cannot be reordered before it.
+     */
+    private void publish(long sequence) {
+        published.set((int) sequence & mask, (int) (sequence >>> shift));
+        for (WaitStrategy strategy : blockingStrategies) {
+            strategy.signalAll();
+        }
+    }
+
+    private long slowestConsumer(long fallback) {
+        long slowest = fallback;
+        for (EventConsumer consumer : consumers) {
+            slowest = Math.min(slowest, consumer.getSequence());
+        }
+        return slowest;
+    }
+
+    private void updateBlockingStrategies() {
+        blockingStrategies = Arrays.stream(consumers)
+                .map(EventConsumer::getWaitStrategy)
+                .filter(WaitStrategy::isBlocking)
+                .distinct()
+                .toArray(WaitStrategy[]::new);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ismail.fleetShare.infrastructure.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A thread draining an {@link EventBus} into an {@link EventHandler}.
+ *
+ * Each pass handles every event published so far as one batch, then records its
+ * progress so publishers may reuse the slots. A handler exception is counted and the
+ * event skipped; letting it stop the consumer would stall every publisher once the
+ * ring filled up.
+ */
+public final class EventConsumer {
+
+    private final EventBus bus;
+    private final EventHandler handler;
+    private final WaitStrategy waitStrategy;
+    private final Sequence sequence;
+    private final Thread thread;
+    private final AtomicLong failures = new AtomicLong();
+    private final BooleanSupplier ready = this::ready;
+    private volatile boolean halted;
+    private long next;
+
+    EventConsumer(EventBus bus, String name, EventHandler handler, WaitStrategy waitStrategy, long start) {
+        this.bus = bus;
+        this.handler = handler;
+        this.waitStrategy = waitStrategy;
+        this.sequence = new Sequence(start);
+        this.next = start + 1;
+        this.thread = new Thread(this::run, "fleet-events-" + name);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Returns the sequence of the last event handled.
+     *
+     * @return the consumer sequence
+     */
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Returns how many events the handler failed on.
+     *
+     * @return the failure count
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    WaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void halt() {
+        halted = true;
+        waitStrategy.signalAll();
+    }
+
+    void join() throws InterruptedException {
+        thread.join();
+    }
+
+    private boolean ready() {
+        return halted || bus.isPublished(next);
+    }
+
+    private void run() {
+        int idle = 0;
+        try {
+            while (true) {
+                if (!bus.isPublished(next)) {
+                    if (halted) {
+                        return;
+                    }
+                    waitStrategy.idle(idle++, ready);
+                    continue;
+                }
+                idle = 0;
+                long end = next;
+                long limit = next + bus.getSize() - 1;
+                while (end < limit && bus.isPublished(end + 1)) {
+                    end++;
+                }
+                for (long s = next; s <= end; s++) {
+                    try {
+                        handler.onEvent(bus.slot(s), s, s == end);
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+                sequence.setRelease(end);
+                next = end + 1;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
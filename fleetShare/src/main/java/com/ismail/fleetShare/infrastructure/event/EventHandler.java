@@ -0,0 +1,18 @@
+package com.ismail.fleetShare.infrastructure.event;
+
+/**
+ * Receives the events of an {@link EventBus} on the thread of its consumer.
+ */
+@FunctionalInterface
+public interface EventHandler {
+
+    /**
+     * Called for each event, in publish order.
+     *
+     * @param event      the event; its slot is reused after this call returns
+     * @param sequence   the sequence number of the event
+     * @param endOfBatch true for the last event currently available, e.g. to flush
+     *                   work accumulated over a batch
+     */
+    void onEvent(FleetEvent event, long sequence, boolean endOfBatch);
+}
@@ -0,0 +1,113 @@
+package com.ismail.fleetShare.infrastructure.event;
+
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripState;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+
+/**
+ * A vehicle or trip state transition published on an {@link EventBus}.
+ *
+ * Events are preallocated slots of the bus ring and are overwritten once every
+ * consumer has moved past them, so a handler must copy whatever it needs to keep
+ * before returning.
+ */
+public final class FleetEvent {
+
+    /**
+     * What changed.
+     */
+    public enum Kind {
+        VEHICLE_STATE,
+        TRIP_STATE
+    }
+
+    private Kind kind;
+    private Vehicle vehicle;
+    private Trip trip;
+    private VehicleState previousVehicleState;
+    private VehicleState vehicleState;
+    private TripState previousTripState;
+    private TripState tripState;
+    private long nanoTime;
+
+    FleetEvent() {
+    }
+
+    void setVehicleState(Vehicle vehicle, VehicleState previous, VehicleState current, long nanoTime) {
+        this.kind = Kind.VEHICLE_STATE;
+        this.vehicle = vehicle;
+        this.trip = null;
+        this.previousVehicleState = previous;
+        this.vehicleState = current;
+        this.previousTripState = null;
+        this.tripState = null;
+        this.nanoTime = nanoTime;
+    }
+
+    void setTripState(Trip trip, TripState previous, TripState current, long nanoTime) {
+        this.kind = Kind.TRIP_STATE;
+        this.vehicle = trip.getVehicle();
+        this.trip = trip;
+        this.previousVehicleState = null;
+        this.vehicleState = null;
+        this.previousTripState = previous;
+        this.tripState = current;
+        this.nanoTime = nanoTime;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the vehicle that changed state, or the vehicle of the trip.
+     *
+     * @return the vehicle
+     */
+    public Vehicle getVehicle() {
+        return vehicle;
+    }
+
+    /**
+     * Returns the trip that changed state.
+     *
+     * @return the trip, or null for a vehicle event
+     */
+    public Trip getTrip() {
+        return trip;
+    }
+
+    public VehicleState getPreviousVehicleState() {
+        return previousVehicleState;
+    }
+
+    public VehicleState getVehicleState() {
+        return vehicleState;
+    }
+
+    public TripState getPreviousTripState() {
+        return previousTripState;
+    }
+
+    public TripState getTripState() {
+        return tripState;
+    }
+
+    /**
+     * Returns when the event was published, from {@link System#nanoTime()}.
+     *
+     * @return the publish time in nanoseconds
+     */
+    public long getNanoTime() {
+        return nanoTime;
+    }
+
+    @Override
+    public String toString() {
+        if (kind == Kind.TRIP_STATE) {
+            return "FleetEvent{trip " + trip.getId() + ": " + previousTripState + " -> " + tripState + '}';
+        }
+        return "FleetEvent{vehicle " + vehicle.getId() + ": " + previousVehicleState + " -> " + vehicleState + '}';
+    }
+}
@@ -0,0 +1,144 @@
+package com.ismail.fleetShare.infrastructure.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * How an {@link EventBus} consumer waits when no event is available.
+ * The strategies trade latency against CPU: busy spinning reacts fastest but keeps a
+ * core busy, blocking frees the core but costs a wake-up per batch.
+ */
+public interface WaitStrategy {
+
+    /**
+     * Waits a little while no event is available.
+     *
+     * @param idleCount how many times in a row the consumer found nothing, from 0
+     * @param ready     tells whether an event became available or the consumer was halted
+     * @throws InterruptedException if the consumer thread is interrupted while blocked
+     */
+    void idle(int idleCount, BooleanSupplier ready) throws InterruptedException;
+
+    /**
+     * Wakes the consumers blocked in {@link #idle}. Called by publishers after every
+     * event, so it must be cheap when nobody is blocked.
+     */
+    default void signalAll() {
+    }
+
+    /**
+     * Returns whether publishers must call {@link #signalAll()}.
+     *
+     * @return true for strategies that block
+     */
+    default boolean isBlocking() {
+        return false;
+    }
+
+    /**
+     * Spins on the CPU. Lowest latency; keeps a core busy.
+     *
+     * @return the strategy
+     */
+    static WaitStrategy busySpin() {
+        return (idleCount, ready) -> Thread.onSpinWait();
+    }
+
+    /**
+     * Spins briefly, then yields the CPU to other threads.
+     *
+     * @return the strategy
+     */
+    static WaitStrategy yielding() {
+        return (idleCount, ready) -> {
+            if (idleCount < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        };
+    }
+
+    /**
+     * Spins, yields, then sleeps for up to the given time between checks.
+     *
+     * @param maxSleep the longest sleep
+     * @param unit     the unit of maxSleep
+     * @return the strategy
+     */
+    static WaitStrategy sleeping(long maxSleep, TimeUnit unit) {
+        long maxNanos = unit.toNanos(maxSleep);
+        return (idleCount, ready) -> {
+            if (idleCount < 100) {
+                Thread.onSpinWait();
+            } else if (idleCount < 200) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(maxNanos);
+            }
+        };
+    }
+
+    /**
+     * Spins briefly, then blocks on a condition until a publisher signals it.
+     * Share one instance between consumers so a publish wakes them with one signal.
+     *
+     * @return the strategy
+     */
+    static WaitStrategy blocking() {
+        return new Blocking();
+    }
+
+    /**
+     * Blocks on a condition. A publisher makes the event visible before reading the
+     * waiter count and a consumer counts itself before checking for events, both with
+     * full fences, so a wake-up cannot be missed.
+     */
+    final class Blocking implements WaitStrategy {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private final AtomicInteger waiters = new AtomicInteger();
+
+        private Blocking() {
+        }
+
+        @Override
+        public void idle(int idleCount, BooleanSupplier ready) throws InterruptedException {
+            if (idleCount < 100) {
+                Thread.onSpinWait();
+                return;
+            }
+            lock.lock();
+            try {
+                waiters.incrementAndGet();
+                while (!ready.getAsBoolean()) {
+                    available.await();
+                }
+            } finally {
+                waiters.decrementAndGet();
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void signalAll() {
+            if (waiters.get() > 0) {
+                lock.lock();
+                try {
+                    available.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        @Override
+        public boolean isBlocking() {
+            return true;
+        }
+    }
+}
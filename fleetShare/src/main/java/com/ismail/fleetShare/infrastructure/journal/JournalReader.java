@@ -0,0 +1,177 @@
+package com.ismail.fleetShare.infrastructure.journal;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the segment files written by {@link TripJournal}.
+ * Reading stops at the first empty or corrupt record of a segment, which is
+ * where a crash may have left a partly written record.
+ */
+public final class JournalReader {
+
+    private static final String SUFFIX = ".journal";
+    private static final MembershipTier[] TIERS = MembershipTier.values();
+    private static final VehicleState[] STATES = VehicleState.values();
+
+    private JournalReader() {
+    }
+
+    /**
+     * Replays every valid record of the journal in the given directory.
+     *
+     * @param directory the journal directory
+     * @param visitor   the visitor receiving the records
+     * @return the number of records replayed
+     * @throws IOException if a segment cannot be read
+     */
+    public static long replay(Path directory, JournalVisitor visitor) throws IOException {
+        long records = 0;
+        for (Path segment : segments(directory)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                CRC32 crc = new CRC32();
+                while (nextRecord(buffer, crc) > 0) {
+                    decode(buffer, visitor);
+                    records++;
+                }
+            }
+        }
+        return records;
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>();
+            files.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().forEach(segments::add);
+            return segments;
+        }
+    }
+
+    static String segmentName(int index) {
+        return String.format("%010d%s", index, SUFFIX);
+    }
+
+    static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Returns the number of bytes in the segment that hold valid records.
+     */
+    static int validLength(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32 crc = new CRC32();
+            int length;
+            while ((length = nextRecord(buffer, crc)) > 0) {
+                buffer.position(buffer.position() + TripJournal.HEADER + length + TripJournal.TRAILER);
+            }
+            return buffer.position();
+        }
+    }
+
+    /**
+     * Checks the record at the buffer position. Returns its payload length if it is
+     * complete and its checksum matches, or 0 at the end of the written data.
+     * The buffer position is left at the start of the record.
+     */
+    private static int nextRecord(ByteBuffer buffer, CRC32 crc) {
+        int start = buffer.position();
+        if (buffer.remaining() < TripJournal.HEADER + TripJournal.TRAILER) {
+            return 0;
+        }
+        int length = buffer.getInt(start);
+        if (length <= 0 || length > buffer.remaining() - TripJournal.HEADER - TripJournal.TRAILER) {
+            return 0;
+        }
+        ByteBuffer body = buffer.duplicate();
+        body.position(start + 4).limit(start + TripJournal.HEADER + length);
+        crc.reset();
+        crc.update(body);
+        if ((int) crc.getValue() != buffer.getInt(start + TripJournal.HEADER + length)) {
+            return 0;
+        }
+        return length;
+    }
+
+    private static void decode(ByteBuffer buffer, JournalVisitor visitor) {
+        buffer.getInt();
+        byte type = buffer.get();
+        switch (type) {
+            case TripJournal.USER:
+                visitor.userSaved(getString(buffer), getString(buffer), TIERS[buffer.get()]);
+                break;
+            case TripJournal.VEHICLE:
+                visitor.vehicleSaved(buffer.get(), getString(buffer), getString(buffer), getString(buffer),
+                        getMoney(buffer), STATES[buffer.get()], getLocation(buffer));
+                break;
+            case TripJournal.VEHICLE_STATE:
+                visitor.vehicleStateChanged(getString(buffer), STATES[buffer.get()]);
+                break;
+            case TripJournal.VEHICLE_LOCATION:
+                visitor.vehicleMoved(getString(buffer), getLocation(buffer));
+                break;
+            case TripJournal.TRIP_START:
+                visitor.tripStarted(buffer.getLong(), getString(buffer), getString(buffer),
+                        TripJournal.fromNanos(buffer.getLong()));
+                break;
+            case TripJournal.TRIP_END:
+                visitor.tripEnded(buffer.getLong(), TripJournal.fromNanos(buffer.getLong()),
+                        buffer.getDouble(), getMoney(buffer));
+                break;
+            case TripJournal.TRIP_CANCEL:
+                visitor.tripCanceled(buffer.getLong(), TripJournal.fromNanos(buffer.getLong()));
+                break;
+            default:
+                throw new IllegalStateException("Unknown journal record type: " + type);
+        }
+        buffer.getInt();
+    }
+
+    private static Money getMoney(ByteBuffer buffer) {
+        if (buffer.get() == TripJournal.COMPACT) {
+            long units = buffer.getLong();
+            return Money.ofMinor(units, getString(buffer));
+        }
+        byte[] unscaled = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(unscaled);
+        return new Money(new BigDecimal(new BigInteger(unscaled), Money.SCALE), getString(buffer));
+    }
+
+    private static GeoPoint getLocation(ByteBuffer buffer) {
+        if (buffer.get() == TripJournal.NO_LOCATION) {
+            return null;
+        }
+        double latitude = buffer.getDouble();
+        return new GeoPoint(latitude, buffer.getDouble());
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
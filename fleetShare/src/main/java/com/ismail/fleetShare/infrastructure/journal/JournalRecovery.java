@@ -0,0 +1,187 @@
+package com.ismail.fleetShare.infrastructure.journal;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.TripId;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rebuilds repositories and active trips by replaying a {@link TripJournal}.
+ * Run it on empty repositories before attaching the journal to them,
+ * otherwise the replayed changes would be journaled again.
+ */
+public class JournalRecovery implements JournalVisitor {
+
+    private final InMemoryVehicleRepository vehicleRepo;
+    private final InMemoryUserRepository userRepo;
+    private final TripService tripService;
+    private final Map<Long, PendingTrip> activeTrips = new HashMap<>();
+    private final Map<String, VehicleState> vehicleStates = new HashMap<>();
+    private final Map<String, GeoPoint> vehicleLocations = new HashMap<>();
+
+    private JournalRecovery(InMemoryVehicleRepository vehicleRepo,
+                            InMemoryUserRepository userRepo,
+                            TripService tripService) {
+        this.vehicleRepo = vehicleRepo;
+        this.userRepo = userRepo;
+        this.tripService = tripService;
+    }
+
+    /**
+     * Replays the journal into the given repositories and trip service.
+     *
+     * @param directory   the journal directory
+     * @param vehicleRepo the vehicle repository to fill
+     * @param userRepo    the user repository to fill
+     * @param tripService the trip service receiving trips still in progress
+     * @return the number of records replayed
+     * @throws IOException if the journal cannot be read
+     */
+    public static long recover(Path directory,
+                               InMemoryVehicleRepository vehicleRepo,
+                               InMemoryUserRepository userRepo,
+                               TripService tripService) throws IOException {
+        JournalRecovery recovery = new JournalRecovery(vehicleRepo, userRepo, tripService);
+        long records = JournalReader.replay(directory, recovery);
+        recovery.applyVehicleLocations();
+        recovery.applyVehicleStates();
+        recovery.restoreActiveTrips();
+        return records;
+    }
+
+    @Override
+    public void userSaved(String id, String name, MembershipTier tier) {
+        userRepo.save(new User(id, name, tier));
+    }
+
+    @Override
+    public void vehicleSaved(byte kind, String id, String model, String extra, Money price, VehicleState state,
+                             GeoPoint location) {
+        Vehicle vehicle;
+        switch (kind) {
+            case TripJournal.CAR:
+                vehicle = new Car(id, model, extra, price);
+                break;
+            case TripJournal.EBIKE:
+                vehicle = new EBike(id, model, extra, price);
+                break;
+            default:
+                vehicle = new Scooter(id, model, extra, price);
+        }
+        vehicle.setState(restoredState(state));
+        vehicle.setLocation(location);
+        vehicleRepo.save(vehicle);
+        vehicleStates.remove(id);
+        vehicleLocations.remove(id);
+    }
+
+    /**
+     * Only the last state of each vehicle matters, so states are collected
+     * and applied once at the end instead of re-indexing on every record.
+     */
+    @Override
+    public void vehicleStateChanged(String vehicleId, VehicleState state) {
+        vehicleStates.put(vehicleId, state);
+    }
+
+    /**
+     * Vehicles report their position often, so like states only the last
+     * location of each vehicle is kept and applied at the end.
+     */
+    @Override
+    public void vehicleMoved(String vehicleId, GeoPoint location) {
+        vehicleLocations.put(vehicleId, location);
+    }
+
+    @Override
+    public void tripStarted(long tripId, String userId, String vehicleId, LocalDateTime startTime) {
+        activeTrips.put(tripId, new PendingTrip(userId, vehicleId, startTime));
+    }
+
+    @Override
+    public void tripEnded(long tripId, LocalDateTime endTime, double distanceKm, Money price) {
+        activeTrips.remove(tripId);
+    }
+
+    @Override
+    public void tripCanceled(long tripId, LocalDateTime time) {
+        activeTrips.remove(tripId);
+    }
+
+    private void applyVehicleLocations() {
+        for (Map.Entry<String, GeoPoint> entry : vehicleLocations.entrySet()) {
+            Vehicle vehicle = vehicleRepo.findById(entry.getKey());
+            if (vehicle != null) {
+                vehicle.setLocation(entry.getValue());
+            }
+        }
+    }
+
+    private void applyVehicleStates() {
+        for (Map.Entry<String, VehicleState> entry : vehicleStates.entrySet()) {
+            Vehicle vehicle = vehicleRepo.findById(entry.getKey());
+            if (vehicle != null) {
+                vehicle.setState(restoredState(entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Reservations are short holds and are not journaled, so a vehicle that was
+     * reserved at the time of the crash is made available again.
+     */
+    private static VehicleState restoredState(VehicleState state) {
+        return state == VehicleState.RESERVED ? VehicleState.AVAILABLE : state;
+    }
+
+    /**
+     * A vehicle is journaled IN_USE before its trip is, so a crash between the two
+     * records leaves it IN_USE without a trip; such vehicles are made available again.
+     */
+    private void restoreActiveTrips() {
+        Set<Vehicle> inTrip = new HashSet<>();
+        for (Map.Entry<Long, PendingTrip> entry : activeTrips.entrySet()) {
+            PendingTrip pending = entry.getValue();
+            User user = userRepo.findById(pending.userId);
+            Vehicle vehicle = vehicleRepo.findById(pending.vehicleId);
+            if (vehicle != null) {
+                tripService.restoreTrip(new TripId(entry.getKey()), user, vehicle, pending.startTime);
+                inTrip.add(vehicle);
+            }
+        }
+        for (Vehicle vehicle : vehicleRepo.findByState(VehicleState.IN_USE)) {
+            if (!inTrip.contains(vehicle)) {
+                vehicle.setState(VehicleState.AVAILABLE);
+            }
+        }
+    }
+
+    private static final class PendingTrip {
+        private final String userId;
+        private final String vehicleId;
+        private final LocalDateTime startTime;
+
+        PendingTrip(String userId, String vehicleId, LocalDateTime startTime) {
+            this.userId = userId;
+            this.vehicleId = vehicleId;
+            this.startTime = startTime;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.ismail.fleetShare.infrastructure.journal;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Receives the decoded records of a journal in the order they were written.
+ * Vehicle kinds are {@code 0} for Car, {@code 1} for EBike and {@code 2} for Scooter.
+ * A null location means the vehicle's position is not known.
+ */
+public interface JournalVisitor {
+
+    void userSaved(String id, String name, MembershipTier tier);
+
+    void vehicleSaved(byte kind, String id, String model, String extra, Money price, VehicleState state,
+                      GeoPoint location);
+
+    void vehicleStateChanged(String vehicleId, VehicleState state);
+
+    void vehicleMoved(String vehicleId, GeoPoint location);
+
+    void tripStarted(long tripId, String userId, String vehicleId, LocalDateTime startTime);
+
+    void tripEnded(long tripId, LocalDateTime endTime, double distanceKm, Money price);
+
+    void tripCanceled(long tripId, LocalDateTime time);
+}
@@ -0,0 +1,469 @@
+package com.ismail.fleetShare.infrastructure.journal;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped write-ahead journal of trip and vehicle events.
+ *
+ * Records are written into fixed-size segment files mapped into memory, and a new
+ * segment is started when the current one is full. Each record is
+ * {@code [int length][byte type][payload][int crc32]}; a zero length marks the end of
+ * the written data. A background thread forces dirty pages to disk every commit
+ * interval, so many appends share one fsync (group commit). Appends return as soon as
+ * the record is in the mapped buffer; call {@link #sync()} to wait until everything
+ * appended so far is on disk.
+ *
+ * Use {@link JournalRecovery} to rebuild repositories and active trips from a journal.
+ */
+public class TripJournal implements Closeable {
+
+    static final byte USER = 1;
+    static final byte VEHICLE = 2;
+    static final byte VEHICLE_STATE = 3;
+    static final byte TRIP_START = 4;
+    static final byte TRIP_END = 5;
+    static final byte TRIP_CANCEL = 6;
+    static final byte VEHICLE_LOCATION = 7;
+
+    static final byte CAR = 0;
+    static final byte EBIKE = 1;
+    static final byte SCOOTER = 2;
+
+    static final byte COMPACT = 0;
+    static final byte DECIMAL = 1;
+
+    static final byte NO_LOCATION = 0;
+    static final byte LOCATION = 1;
+
+    static final int HEADER = 5;
+    static final int TRAILER = 4;
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    public static final Duration DEFAULT_COMMIT_INTERVAL = Duration.ofMillis(5);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long commitIntervalNanos;
+    private ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+    private final CRC32 crc = new CRC32();
+    private final Thread flusher;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private int dirtyFrom;
+    private long appended;
+    private long durable;
+    private volatile boolean closed;
+
+    /**
+     * Opens a journal with the default segment size and commit interval.
+     *
+     * @param directory the directory holding the segment files
+     * @throws IOException if the journal cannot be opened
+     */
+    public TripJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_COMMIT_INTERVAL);
+    }
+
+    /**
+     * Opens a journal, continuing after the last valid record if segments already exist.
+     *
+     * @param directory      the directory holding the segment files
+     * @param segmentSize    the size of each segment file in bytes
+     * @param commitInterval how long appends may wait before they are forced to disk
+     * @throws IOException if the journal cannot be opened
+     */
+    public TripJournal(Path directory, int segmentSize, Duration commitInterval) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.commitIntervalNanos = commitInterval.toNanos();
+        Files.createDirectories(directory);
+
+        List<Path> segments = JournalReader.segments(directory);
+        if (segments.isEmpty()) {
+            openSegment(0, 0);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            int end = JournalReader.validLength(last);
+            openSegment(JournalReader.segmentIndex(last), end);
+        }
+
+        this.flusher = new Thread(this::flushLoop, "trip-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Records that a user was saved.
+     *
+     * @param user the saved user
+     */
+    public synchronized void userSaved(User user) {
+        begin();
+        putString(user.getId());
+        putString(user.getName());
+        putByte((byte) user.getMembershipTier().ordinal());
+        commit(USER);
+    }
+
+    /**
+     * Records that a vehicle was saved, with all its attributes, current state and location.
+     *
+     * @param vehicle the saved vehicle
+     * @throws IllegalArgumentException if the vehicle type is not Car, EBike or Scooter
+     */
+    public synchronized void vehicleSaved(Vehicle vehicle) {
+        begin();
+        String extra;
+        if (vehicle instanceof Car) {
+            putByte(CAR);
+            extra = ((Car) vehicle).getFuelType();
+        } else if (vehicle instanceof EBike) {
+            putByte(EBIKE);
+            extra = ((EBike) vehicle).getBatteryLevel();
+        } else if (vehicle instanceof Scooter) {
+            putByte(SCOOTER);
+            extra = ((Scooter) vehicle).getWeightLimit();
+        } else {
+            throw new IllegalArgumentException("Unsupported vehicle type: " + vehicle.getClass().getName());
+        }
+        putString(vehicle.getId());
+        putString(vehicle.getModel());
+        putString(extra);
+        putMoney(vehicle.getPricePerMinute());
+        putByte((byte) vehicle.getState().ordinal());
+        putLocation(vehicle.getLocation());
+        commit(VEHICLE);
+    }
+
+    /**
+     * Records the state of a vehicle after a change.
+     *
+     * @param vehicle the vehicle
+     * @param state   the new state
+     */
+    public synchronized void vehicleStateChanged(Vehicle vehicle, VehicleState state) {
+        begin();
+        putString(vehicle.getId());
+        putByte((byte) state.ordinal());
+        commit(VEHICLE_STATE);
+    }
+
+    /**
+     * Records the location of a vehicle after a move.
+     *
+     * @param vehicle  the vehicle
+     * @param location the new location, or null if it is no longer known
+     */
+    public synchronized void vehicleMoved(Vehicle vehicle, GeoPoint location) {
+        begin();
+        putString(vehicle.getId());
+        putLocation(location);
+        commit(VEHICLE_LOCATION);
+    }
+
+    /**
+     * Records the start of a trip.
+     *
+     * @param trip the started trip
+     * @param user the user taking the trip
+     */
+    public synchronized void tripStarted(Trip trip, User user) {
+        begin();
+        putLong(trip.getId().asLong());
+        putString(user.getId());
+        putString(trip.getVehicle().getId());
+        putLong(toNanos(trip.getStartTime()));
+        commit(TRIP_START);
+    }
+
+    /**
+     * Records the end of a trip with its distance and price.
+     *
+     * @param trip the completed trip
+     */
+    public synchronized void tripEnded(Trip trip) {
+        begin();
+        putLong(trip.getId().asLong());
+        putLong(toNanos(trip.getEndTime()));
+        putDouble(trip.getDistance() != null ? trip.getDistance().getValue() : 0.0);
+        putMoney(trip.getPrice());
+        commit(TRIP_END);
+    }
+
+    /**
+     * Records the cancellation of a trip.
+     *
+     * @param trip the canceled trip
+     */
+    public synchronized void tripCanceled(Trip trip) {
+        begin();
+        putLong(trip.getId().asLong());
+        putLong(toNanos(trip.getEndTime()));
+        commit(TRIP_CANCEL);
+    }
+
+    /**
+     * Waits until every record appended before this call has been forced to disk.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void sync() throws InterruptedException {
+        long target;
+        synchronized (this) {
+            target = appended;
+        }
+        LockSupport.unpark(flusher);
+        synchronized (this) {
+            while (durable < target && !closed) {
+                wait();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of records appended since the journal was opened.
+     *
+     * @return the appended record count
+     */
+    public synchronized long getAppendedCount() {
+        return appended;
+    }
+
+    /**
+     * Returns the directory holding the segment files.
+     *
+     * @return the journal directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Forces all records to disk and stops the background flusher.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            segment.force();
+            durable = appended;
+            notifyAll();
+            channel.close();
+        }
+    }
+
+    private void flushLoop() {
+        while (!closed) {
+            LockSupport.parkNanos(commitIntervalNanos);
+            flush();
+        }
+    }
+
+    private void flush() {
+        MappedByteBuffer buffer;
+        int from;
+        int to;
+        long target;
+        synchronized (this) {
+            buffer = segment;
+            from = dirtyFrom;
+            to = segment.position();
+            target = appended;
+            dirtyFrom = to;
+        }
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+        synchronized (this) {
+            if (target > durable) {
+                durable = target;
+                notifyAll();
+            }
+        }
+    }
+
+    private void begin() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        scratch.clear();
+        scratch.position(HEADER);
+    }
+
+    private void commit(byte type) {
+        ensure(TRAILER);
+        int length = scratch.position() - HEADER;
+        scratch.putInt(0, length);
+        scratch.put(4, type);
+        crc.reset();
+        crc.update(scratch.array(), 4, length + 1);
+        scratch.putInt((int) crc.getValue());
+        scratch.flip();
+
+        if (scratch.remaining() + HEADER > segmentSize) {
+            throw new IllegalArgumentException("Record of " + scratch.remaining()
+                    + " bytes does not fit a journal segment of " + segmentSize + " bytes");
+        }
+        if (segment.remaining() < scratch.remaining() + HEADER) {
+            rollover();
+        }
+        segment.put(scratch);
+        appended++;
+    }
+
+    private void rollover() {
+        try {
+            segment.force();
+            durable = appended;
+            notifyAll();
+            channel.close();
+            openSegment(segmentIndex + 1, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void openSegment(int index, int position) throws IOException {
+        Path file = directory.resolve(JournalReader.segmentName(index));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.position(position);
+        segmentIndex = index;
+        dirtyFrom = position;
+    }
+
+    /**
+     * Writes a string as a short length followed by UTF-8 bytes.
+     * ASCII strings, the usual case for ids, are copied without allocating.
+     */
+    private void putString(String value) {
+        int n = value.length();
+        ensure(2 + n);
+        int start = scratch.position();
+        scratch.putShort((short) 0);
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                scratch.position(start + 2);
+                ensure(bytes.length);
+                scratch.put(bytes);
+                break;
+            }
+            scratch.put((byte) c);
+        }
+        int length = scratch.position() - start - 2;
+        if (length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for journal: " + length + " bytes");
+        }
+        scratch.putShort(start, (short) length);
+    }
+
+    /**
+     * Writes an amount as a flag byte, then either the long minor units or, for an
+     * amount that overflowed into BigDecimal, the unscaled bytes; then the currency.
+     */
+    private void putMoney(Money money) {
+        if (money.isCompact()) {
+            putByte(COMPACT);
+            putLong(money.getMinorUnits());
+        } else {
+            byte[] unscaled = money.getAmount().unscaledValue().toByteArray();
+            ensure(1 + 2 + unscaled.length);
+            scratch.put(DECIMAL);
+            scratch.putShort((short) unscaled.length);
+            scratch.put(unscaled);
+        }
+        putString(money.getCurrency());
+    }
+
+    /**
+     * Writes a location as a flag byte followed, if it is known, by latitude and longitude.
+     */
+    private void putLocation(GeoPoint location) {
+        if (location == null) {
+            putByte(NO_LOCATION);
+            return;
+        }
+        putByte(LOCATION);
+        putDouble(location.getLatitude());
+        putDouble(location.getLongitude());
+    }
+
+    private void putByte(byte value) {
+        ensure(Byte.BYTES);
+        scratch.put(value);
+    }
+
+    private void putLong(long value) {
+        ensure(Long.BYTES);
+        scratch.putLong(value);
+    }
+
+    private void putDouble(double value) {
+        ensure(Double.BYTES);
+        scratch.putDouble(value);
+    }
+
+    /**
+     * Grows the scratch buffer so that the given number of bytes fits after its position.
+     * Records are rarely larger than the initial buffer, so it is kept once grown.
+     */
+    private void ensure(int bytes) {
+        if (scratch.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(scratch.capacity() * 2, scratch.position() + bytes));
+            scratch.flip();
+            grown.put(scratch);
+            scratch = grown;
+        }
+    }
+
+    static long toNanos(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    static LocalDateTime fromNanos(long nanos) {
+        if (nanos == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
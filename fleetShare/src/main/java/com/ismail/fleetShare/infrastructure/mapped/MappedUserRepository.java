@@ -0,0 +1,451 @@
+package com.ismail.fleetShare.infrastructure.mapped;
+
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistent user repository for rider bases too large for the heap: an open-addressing
+ * hash table keyed by user id, kept in memory-mapped files.
+ *
+ * {@code users.idx} holds a header and a table of fixed-width 16-byte slots. A slot is
+ * a key word, holding 32 bits of the id's hash, the membership tier and a used bit,
+ * and the offset of the user's record in {@code users.dat}. Records are variable length,
+ * {@code [short length][id][short length][name]} in UTF-8, appended to segments of
+ * {@code users.dat} that are mapped as the file grows. A lookup probes the table from
+ * the id's hash, compares the hash bits in each key word and reads the record only
+ * when they match, so it usually touches one slot and one record.
+ *
+ * The table has a fixed number of slots, chosen when the files are created so that it
+ * is at most three quarters full at capacity. Saves are serialized; lookups and cursors
+ * take no lock and see a slot once its key word is published, after its record. A
+ * bounded cache of {@link User} objects sits in front of the files and keeps the ones
+ * read most often (see {@link UserCache}).
+ *
+ * Writes reach the files through the page cache; {@link #force()} and {@link #close()}
+ * write them to disk. The files are not crash-safe on their own: after a crash without
+ * a force, rebuild the repository from the
+ * {@link com.ismail.fleetShare.infrastructure.journal.TripJournal}.
+ */
+public class MappedUserRepository implements Closeable {
+
+    public static final int DEFAULT_CACHE_SIZE = 1 << 16;
+
+    static final String INDEX_FILE = "users.idx";
+    static final String DATA_FILE = "users.dat";
+
+    private static final int MAGIC = 0x46535552;
+    private static final int VERSION = 1;
+    private static final int HEADER = 64;
+    private static final int SLOTS_AT = 8;
+    private static final int CAPACITY_AT = 16;
+    private static final int SIZE_AT = 24;
+    private static final int DATA_END_AT = 32;
+    private static final int SLOT_SIZE = 16;
+    private static final int INDEX_SEGMENT_BITS = 30;
+    private static final int DATA_SEGMENT_BITS = 26;
+    private static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+    private static final long USED = 1L;
+    private static final MembershipTier[] TIERS = MembershipTier.values();
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path directory;
+    private final FileChannel indexChannel;
+    private final FileChannel dataChannel;
+    private final MappedByteBuffer[] index;
+    private final long slots;
+    private final long capacity;
+    private final UserCache cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile MappedByteBuffer[] data;
+    private volatile long size;
+    private long dataEnd;
+    private boolean closed;
+
+    /**
+     * Opens a repository with the default cache size.
+     *
+     * @param directory the directory holding the files
+     * @param capacity  the number of users the table holds, if the files are created
+     * @throws IOException if the files cannot be opened or are not a user repository
+     */
+    public MappedUserRepository(Path directory, long capacity) throws IOException {
+        this(directory, capacity, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Opens a repository, creating its files if they do not exist. Existing files keep
+     * the capacity they were created with.
+     *
+     * @param directory the directory holding the files
+     * @param capacity  the number of users the table holds, if the files are created
+     * @param cacheSize the number of users kept on the heap, or 0 for no cache
+     * @throws IOException if the files cannot be opened or are not a user repository
+     */
+    public MappedUserRepository(Path directory, long capacity, int cacheSize) throws IOException {
+        if (capacity < 1 || capacity > 1L << 40) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^40: " + capacity);
+        }
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size must not be negative: " + cacheSize);
+        }
+        Files.createDirectories(directory);
+        this.directory = directory;
+        Path indexFile = directory.resolve(INDEX_FILE);
+        boolean created = !Files.exists(indexFile);
+        this.indexChannel = FileChannel.open(indexFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.dataChannel = FileChannel.open(directory.resolve(DATA_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long slotCount;
+            if (created) {
+                slotCount = Math.max(16L, Long.highestOneBit(capacity + capacity / 3) << 1);
+            } else {
+                MappedByteBuffer header = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                    throw new IOException("Not a user repository: " + indexFile);
+                }
+                slotCount = header.getLong(SLOTS_AT);
+                capacity = header.getLong(CAPACITY_AT);
+            }
+            this.slots = slotCount;
+            this.capacity = capacity;
+            this.index = mapIndex(HEADER + slotCount * SLOT_SIZE);
+            if (created) {
+                index[0].putInt(0, MAGIC);
+                index[0].putInt(4, VERSION);
+                index[0].putLong(SLOTS_AT, slotCount);
+                index[0].putLong(CAPACITY_AT, capacity);
+            }
+            this.size = index[0].getLong(SIZE_AT);
+            this.dataEnd = index[0].getLong(DATA_END_AT);
+            this.data = mapData(dataEnd);
+        } catch (IOException | RuntimeException e) {
+            indexChannel.close();
+            dataChannel.close();
+            throw e;
+        }
+        this.cache = cacheSize == 0 ? null : new UserCache(cacheSize);
+    }
+
+    /**
+     * Saves a user. If a user with the same id exists, it is replaced; a replaced user
+     * may be read with its new name and old tier for an instant.
+     *
+     * @param user the user to save
+     * @throws IllegalArgumentException if the user has no tier, or its id or name is longer than
+     *                                  32767 UTF-8 bytes
+     * @throws IllegalStateException    if the repository is full or closed
+     */
+    public synchronized void save(User user) {
+        if (closed) {
+            throw new IllegalStateException("Repository is closed");
+        }
+        MembershipTier tier = user.getMembershipTier();
+        if (tier == null) {
+            throw new IllegalArgumentException("User has no membership tier: " + user.getId());
+        }
+        String id = user.getId();
+        long hash = hash(id);
+        long slot = find(id, hash);
+        boolean added = slot < 0;
+        long record;
+        if (added) {
+            if (size == capacity) {
+                throw new IllegalStateException("Repository is full: " + capacity + " users");
+            }
+            slot = ~slot;
+            record = append(id, user.getName());
+        } else {
+            record = recordOffset(slot);
+            if (!user.getName().equals(name(record))) {
+                record = append(id, user.getName());
+            }
+        }
+        long entry = HEADER + slot * SLOT_SIZE;
+        MappedByteBuffer segment = index[(int) (entry >>> INDEX_SEGMENT_BITS)];
+        int at = (int) (entry & ((1 << INDEX_SEGMENT_BITS) - 1));
+        segment.putLong(at + 8, record);
+        LONGS.setRelease(segment, at, (hash & 0xFFFFFFFF00000000L) | (long) tier.ordinal() << 8 | USED);
+        if (added) {
+            size++;
+            index[0].putLong(SIZE_AT, size);
+        }
+        if (cache != null) {
+            cache.put(user);
+        }
+    }
+
+    /**
+     * Finds a user by their unique ID, from the cache if it holds the user.
+     * The user returned may be shared with other callers; call {@link #save} after
+     * changing it.
+     *
+     * @param id the ID of the user to find
+     * @return the user with the given ID, or null if not found
+     */
+    public User findById(String id) {
+        if (cache != null) {
+            User cached = cache.get(id);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            misses.increment();
+        }
+        long slot = find(id, hash(id));
+        if (slot < 0) {
+            return null;
+        }
+        long key = keyWord(slot);
+        long record = recordOffset(slot);
+        User user = new User(id, name(record), tier(key));
+        if (cache != null) {
+            cache.fill(user, () -> keyWord(slot) == key && recordOffset(slot) == record);
+        }
+        return user;
+    }
+
+    /**
+     * Returns a cursor over all users, in table order. The cursor reads the files as it
+     * moves and creates no objects unless asked to; users saved meanwhile may or may
+     * not be seen.
+     *
+     * @return a cursor before the first user
+     */
+    public UserCursor findAll() {
+        return new UserCursor(this);
+    }
+
+    /**
+     * Returns the number of users stored in the repository.
+     *
+     * @return the user count
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of users the repository can hold.
+     *
+     * @return the capacity
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns how many lookups the cache answered.
+     *
+     * @return the cache hit count
+     */
+    public long getCacheHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns how many lookups went to the files.
+     *
+     * @return the cache miss count
+     */
+    public long getCacheMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Writes every change made so far to disk.
+     */
+    public synchronized void force() {
+        for (MappedByteBuffer segment : index) {
+            segment.force();
+        }
+        for (MappedByteBuffer segment : data) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Forces all changes to disk and closes the files. The mappings are released when
+     * they are garbage collected, so lookups must not run while or after closing.
+     *
+     * @throws IOException if a file cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        force();
+        closed = true;
+        indexChannel.close();
+        dataChannel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedUserRepository[" + directory + ", " + size + " users]";
+    }
+
+    long slotCount() {
+        return slots;
+    }
+
+    long keyWord(long slot) {
+        long entry = HEADER + slot * SLOT_SIZE;
+        return (long) LONGS.getAcquire(index[(int) (entry >>> INDEX_SEGMENT_BITS)],
+                (int) (entry & ((1 << INDEX_SEGMENT_BITS) - 1)));
+    }
+
+    long recordOffset(long slot) {
+        long entry = HEADER + slot * SLOT_SIZE + 8;
+        return index[(int) (entry >>> INDEX_SEGMENT_BITS)].getLong((int) (entry & ((1 << INDEX_SEGMENT_BITS) - 1)));
+    }
+
+    static MembershipTier tier(long keyWord) {
+        return TIERS[(int) (keyWord >>> 8) & 0xFF];
+    }
+
+    String id(long record) {
+        return string(record);
+    }
+
+    String name(long record) {
+        MappedByteBuffer segment = data[(int) (record >>> DATA_SEGMENT_BITS)];
+        int at = (int) (record & ((1 << DATA_SEGMENT_BITS) - 1));
+        return string(record + 2 + (segment.getShort(at) & 0xFFFF));
+    }
+
+    /**
+     * Returns the slot holding the id, or the complement of the empty slot where it
+     * would go.
+     */
+    private long find(String id, long hash) {
+        long mask = slots - 1;
+        long tag = hash & 0xFFFFFFFF00000000L;
+        for (long slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long key = keyWord(slot);
+            if (key == 0) {
+                return ~slot;
+            }
+            if ((key & 0xFFFFFFFF00000000L) == tag && idEquals(recordOffset(slot), id)) {
+                return slot;
+            }
+        }
+    }
+
+    private boolean idEquals(long record, String id) {
+        MappedByteBuffer segment = data[(int) (record >>> DATA_SEGMENT_BITS)];
+        int at = (int) (record & ((1 << DATA_SEGMENT_BITS) - 1));
+        int length = segment.getShort(at) & 0xFFFF;
+        if (length != id.length()) {
+            // UTF-8 takes more bytes than characters unless the id is ASCII
+            return length > id.length() && string(record).equals(id);
+        }
+        for (int i = 0; i < length; i++) {
+            if (segment.get(at + 2 + i) != id.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String string(long offset) {
+        MappedByteBuffer segment = data[(int) (offset >>> DATA_SEGMENT_BITS)];
+        int at = (int) (offset & ((1 << DATA_SEGMENT_BITS) - 1));
+        byte[] bytes = new byte[segment.getShort(at) & 0xFFFF];
+        segment.get(at + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends a record to the data file and returns its offset. A record never
+     * crosses a segment boundary.
+     */
+    private long append(String id, String name) {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (idBytes.length > MAX_STRING_BYTES || nameBytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("Id or name longer than " + MAX_STRING_BYTES + " bytes: " + id);
+        }
+        int length = 4 + idBytes.length + nameBytes.length;
+        long segmentSize = 1L << DATA_SEGMENT_BITS;
+        long offset = dataEnd;
+        if ((offset & (segmentSize - 1)) + length > segmentSize) {
+            offset = (offset | (segmentSize - 1)) + 1;
+        }
+        MappedByteBuffer[] segments = data;
+        int number = (int) (offset >>> DATA_SEGMENT_BITS);
+        if (number == segments.length) {
+            try {
+                segments = Arrays.copyOf(segments, number + 1);
+                segments[number] = dataChannel.map(FileChannel.MapMode.READ_WRITE, offset, segmentSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            data = segments;
+        }
+        MappedByteBuffer segment = segments[number];
+        int at = (int) (offset & (segmentSize - 1));
+        segment.putShort(at, (short) idBytes.length);
+        segment.put(at + 2, idBytes);
+        segment.putShort(at + 2 + idBytes.length, (short) nameBytes.length);
+        segment.put(at + 4 + idBytes.length, nameBytes);
+        dataEnd = offset + length;
+        index[0].putLong(DATA_END_AT, dataEnd);
+        return offset;
+    }
+
+    private MappedByteBuffer[] mapIndex(long length) throws IOException {
+        int count = (int) ((length + (1L << INDEX_SEGMENT_BITS) - 1) >>> INDEX_SEGMENT_BITS);
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long from = (long) i << INDEX_SEGMENT_BITS;
+            segments[i] = indexChannel.map(FileChannel.MapMode.READ_WRITE, from,
+                    Math.min(1L << INDEX_SEGMENT_BITS, length - from));
+        }
+        return segments;
+    }
+
+    private MappedByteBuffer[] mapData(long end) throws IOException {
+        int count = (int) ((end + (1L << DATA_SEGMENT_BITS) - 1) >>> DATA_SEGMENT_BITS);
+        MappedByteBuffer[] segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = dataChannel.map(FileChannel.MapMode.READ_WRITE,
+                    (long) i << DATA_SEGMENT_BITS, 1L << DATA_SEGMENT_BITS);
+        }
+        return segments;
+    }
+
+    /**
+     * FNV-1a over the characters followed by the MurmurHash3 finalizer.
+     */
+    private static long hash(String id) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ h >>> 33;
+    }
+}
@@ -0,0 +1,174 @@
+package com.ismail.fleetShare.infrastructure.mapped;
+
+import com.ismail.fleetShare.domain.user.User;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Bounded cache of users with frequency-aware eviction.
+ *
+ * Every lookup, hit or miss, is counted in a small count-min sketch of recent access
+ * frequencies whose counters are halved every ten lookups per counter, so old popularity
+ * fades. When the cache is full, a clock hand picks a victim (GCLOCK): each entry has
+ * a hit counter, bumped on hits up to {@link #MAX_HITS} and decremented as the hand
+ * passes, and the first entry found at zero is the candidate. A new user is admitted
+ * only if it was looked up more often than the candidate (TinyLFU), so a scan over
+ * users read once cannot flush the ones read all the time.
+ *
+ * Hits take no lock, and the sketch and hit counters are updated without
+ * synchronization, so a few counts are lost under contention; insertions and
+ * evictions are serialized. Saves {@link #put} the user they wrote, while lookups
+ * {@link #fill} the cache with what they read only if the files still hold it, so a
+ * lookup racing with a save cannot cache the user the save replaced.
+ */
+final class UserCache {
+
+    static final int MAX_HITS = 3;
+
+    private static final int DEPTH = 4;
+    private static final int MIN_WIDTH = 1024;
+    // the counters of one id share a 64-byte block, so a lookup touches one cache line
+    private static final int BLOCK = 16;
+
+    private final int capacity;
+    private final Map<String, Integer> slots;
+    private final AtomicReferenceArray<User> users;
+    private final byte[] hits;
+    private final int[] frequencies;
+    private final int blockMask;
+    private final int sampleSize;
+    private int lookups;
+    private int size;
+    private int hand;
+
+    UserCache(int capacity) {
+        this.capacity = capacity;
+        this.slots = new ConcurrentHashMap<>();
+        this.users = new AtomicReferenceArray<>(capacity);
+        this.hits = new byte[capacity];
+        int width = Integer.highestOneBit(Math.max(MIN_WIDTH, capacity) * 2 - 1);
+        this.frequencies = new int[DEPTH * width];
+        this.blockMask = DEPTH * width / BLOCK - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    /**
+     * Counts a lookup of the id and returns the cached user with it, or null.
+     */
+    User get(String id) {
+        recordLookup(id);
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            return null;
+        }
+        User user = users.get(slot);
+        // the slot may have been given to another user since it was looked up
+        if (user == null || !user.getId().equals(id)) {
+            return null;
+        }
+        if (hits[slot] < MAX_HITS) {
+            hits[slot]++;
+        }
+        return user;
+    }
+
+    /**
+     * Caches a user, replacing the cached user with the same id. When the cache is
+     * full, the user is admitted only if it was looked up more often than the victim.
+     *
+     * @return true if the user is now cached
+     */
+    synchronized boolean put(User user) {
+        Integer cached = slots.get(user.getId());
+        if (cached != null) {
+            users.set(cached, user);
+            return true;
+        }
+        return admit(user);
+    }
+
+    /**
+     * Caches a user read from the files unless the id is already cached. The check runs
+     * under the same lock as {@link #put}, so a save either changed the files before it,
+     * and the stale user is dropped, or caches its own user after it.
+     *
+     * @param current tells whether the files still hold the user
+     * @return true if the user is now cached
+     */
+    synchronized boolean fill(User user, BooleanSupplier current) {
+        if (slots.containsKey(user.getId()) || !current.getAsBoolean()) {
+            return false;
+        }
+        return admit(user);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private boolean admit(User user) {
+        int slot;
+        if (size < capacity) {
+            slot = size++;
+        } else {
+            while (hits[hand] > 0) {
+                hits[hand]--;
+                hand = (hand + 1) % capacity;
+            }
+            slot = hand;
+            hand = (hand + 1) % capacity;
+            String victim = users.get(slot).getId();
+            if (frequency(user.getId()) <= frequency(victim)) {
+                return false;
+            }
+            slots.remove(victim, slot);
+        }
+        hits[slot] = 0;
+        users.set(slot, user);
+        slots.put(user.getId(), slot);
+        return true;
+    }
+
+    /**
+     * Returns the estimated number of recent lookups of the id.
+     */
+    int frequency(String id) {
+        int hash = spread(id.hashCode());
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            min = Math.min(min, frequencies[index(hash, row)]);
+        }
+        return min;
+    }
+
+    private void recordLookup(String id) {
+        int hash = spread(id.hashCode());
+        for (int row = 0; row < DEPTH; row++) {
+            frequencies[index(hash, row)]++;
+        }
+        if (++lookups >= sampleSize) {
+            lookups = 0;
+            for (int i = 0; i < frequencies.length; i++) {
+                frequencies[i] >>>= 1;
+            }
+        }
+    }
+
+    /**
+     * Picks the block from the high bits of the hash, and one of four counters in the
+     * row's quarter of the block from two low bits per row.
+     */
+    private int index(int hash, int row) {
+        int block = (hash >>> 8) & blockMask;
+        return block * BLOCK + row * (BLOCK / DEPTH) + ((hash >>> (2 * row)) & (BLOCK / DEPTH - 1));
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        return hash ^ hash >>> 13;
+    }
+}
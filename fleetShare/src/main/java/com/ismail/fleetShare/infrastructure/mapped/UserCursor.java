@@ -0,0 +1,96 @@
+package com.ismail.fleetShare.infrastructure.mapped;
+
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming cursor over the users of a {@link MappedUserRepository}, in table order.
+ * Moving the cursor reads one key word per slot and allocates nothing; the getters
+ * decode the current user's fields on demand. Not thread-safe.
+ *
+ * Typical use:
+ *
+ *   UserCursor cursor = repository.findAll();
+ *   while (cursor.next()) {
+ *       if (cursor.getMembershipTier() == MembershipTier.VIP) { ... cursor.getName() ... }
+ *   }
+ */
+public final class UserCursor {
+
+    private final MappedUserRepository repository;
+    private final long slots;
+    private long slot = -1;
+    private long keyWord;
+
+    UserCursor(MappedUserRepository repository) {
+        this.repository = repository;
+        this.slots = repository.slotCount();
+    }
+
+    /**
+     * Moves to the next user.
+     *
+     * @return true if there is one, false when all slots have been visited
+     */
+    public boolean next() {
+        while (++slot < slots) {
+            keyWord = repository.keyWord(slot);
+            if (keyWord != 0) {
+                return true;
+            }
+        }
+        slot = slots;
+        return false;
+    }
+
+    /**
+     * Returns the id of the current user.
+     *
+     * @return the user ID
+     */
+    public String getId() {
+        return repository.id(record());
+    }
+
+    /**
+     * Returns the name of the current user.
+     *
+     * @return the user name
+     */
+    public String getName() {
+        return repository.name(record());
+    }
+
+    /**
+     * Returns the membership tier of the current user, without reading its record.
+     *
+     * @return the membership tier
+     */
+    public MembershipTier getMembershipTier() {
+        current();
+        return MappedUserRepository.tier(keyWord);
+    }
+
+    /**
+     * Creates a {@link User} from the current user. It is not cached.
+     *
+     * @return a new user
+     */
+    public User toUser() {
+        long record = record();
+        return new User(repository.id(record), repository.name(record), MappedUserRepository.tier(keyWord));
+    }
+
+    private long record() {
+        current();
+        return repository.recordOffset(slot);
+    }
+
+    private void current() {
+        if (slot < 0 || slot >= slots) {
+            throw new NoSuchElementException("Cursor is not on a user");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.ismail.fleetShare.infrastructure.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonically increasing count of events, e.g. rejected trip starts.
+ * Backed by a {@link LongAdder}, so threads incrementing it at the same time
+ * update separate cells instead of contending on one.
+ */
+public class Counter implements CounterMXBean {
+
+    private final LongAdder count = new LongAdder();
+
+    Counter() {
+    }
+
+    /**
+     * Counts one event.
+     */
+    public void increment() {
+        count.increment();
+    }
+
+    /**
+     * Counts several events.
+     *
+     * @param events the number of events, not negative
+     */
+    public void add(long events) {
+        count.add(events);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,14 @@
+package com.ismail.fleetShare.infrastructure.metrics;
+
+/**
+ * JMX view of a {@link Counter}.
+ */
+public interface CounterMXBean {
+
+    /**
+     * Returns the number of events counted since the counter was created.
+     *
+     * @return the count
+     */
+    long getCount();
+}
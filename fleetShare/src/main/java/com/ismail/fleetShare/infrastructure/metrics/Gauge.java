@@ -0,0 +1,26 @@
+package com.ismail.fleetShare.infrastructure.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A value sampled when it is read, e.g. the number of active trips.
+ * Nothing is recorded on the hot path; the supplier runs only when the gauge is
+ * reported or read over JMX, so it must be cheap and thread-safe.
+ */
+public class Gauge implements GaugeMXBean {
+
+    private volatile LongSupplier value;
+
+    Gauge(LongSupplier value) {
+        this.value = value;
+    }
+
+    void setSupplier(LongSupplier value) {
+        this.value = value;
+    }
+
+    @Override
+    public long getValue() {
+        return value.getAsLong();
+    }
+}
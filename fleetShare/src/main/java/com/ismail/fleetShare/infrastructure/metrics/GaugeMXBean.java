@@ -0,0 +1,14 @@
+package com.ismail.fleetShare.infrastructure.metrics;
+
+/**
+ * JMX view of a {@link Gauge}.
+ */
+public interface GaugeMXBean {
+
+    /**
+     * Returns the current value, read when the attribute is requested.
+     *
+     * @return the value
+     */
+    long getValue();
+}
@@ -0,0 +1,123 @@
+package com.ismail.fleetShare.infrastructure.metrics;
+
+import com.ismail.fleetShare.application.analytics.LogHistogram;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution of an operation, recorded in nanoseconds.
+ *
+ * Durations go into a {@link LogHistogram} with 5 bits of precision (about 3% error)
+ * up to one minute, so the memory used is fixed at about 8 KB whatever the number of
+ * operations, and a recording costs one bucket increment and one {@link LongAdder} add
+ * with no allocation and no lock.
+ *
+ * Reading the clock twice costs more than recording, so instrumented code brackets the
+ * operation with {@link #begin()} and {@link #end(long)}, which count every operation
+ * but time only a random one in {@code sampling}. The percentiles and the mean come
+ * from the sampled operations, the count is exact.
+ */
+public class LatencyTimer implements LatencyTimerMXBean {
+
+    private static final int PRECISION = 5;
+    private static final long MAX_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    private final int sampling;
+    private final LogHistogram nanos = new LogHistogram(PRECISION, MAX_NANOS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder count = new LongAdder();
+
+    LatencyTimer(int sampling) {
+        this.sampling = sampling;
+    }
+
+    /**
+     * Starts an operation.
+     *
+     * @return the token to pass to {@link #end(long)}
+     */
+    public long begin() {
+        if (sampling > 1 && ThreadLocalRandom.current().nextInt(sampling) != 0) {
+            return NOT_TIMED;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Ends an operation started with {@link #begin()} and counts it.
+     *
+     * @param token the value {@link #begin()} returned
+     */
+    public void end(long token) {
+        count.increment();
+        if (token != NOT_TIMED) {
+            long elapsed = System.nanoTime() - token;
+            nanos.record(elapsed);
+            totalNanos.add(elapsed);
+        }
+    }
+
+    /**
+     * Counts and records one operation timed by the caller.
+     *
+     * @param elapsedNanos the duration of the operation; longer than a minute counts as a minute
+     */
+    public void record(long elapsedNanos) {
+        count.increment();
+        nanos.record(elapsedNanos);
+        totalNanos.add(elapsedNanos);
+    }
+
+    /**
+     * Returns the latency at the given percentile, e.g. 0.99 for p99.
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the latency in nanoseconds, or 0 if nothing was timed
+     */
+    public long getNanosAtPercentile(double percentile) {
+        return nanos.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Returns how many operations were timed; one in {@code sampling} on average.
+     *
+     * @return the number of recorded durations
+     */
+    public long getSampleCount() {
+        return nanos.getCount();
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long samples = getSampleCount();
+        return samples == 0 ? 0.0 : totalNanos.sum() / 1_000.0 / samples;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return getNanosAtPercentile(0.5) / 1_000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return getNanosAtPercentile(0.99) / 1_000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return getNanosAtPercentile(0.999) / 1_000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return getNanosAtPercentile(1.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,49 @@
+package com.ismail.fleetShare.infrastructure.metrics;
+
+/**
+ * JMX view of a {@link LatencyTimer}. Latencies are in microseconds.
+ */
+public interface LatencyTimerMXBean {
+
+    /**
+     * Returns the number of operations timed.
+     *
+     * @return the count
+     */
+    long getCount();
+
+    /**
+     * Returns the mean latency.
+     *
+     * @return the mean in microseconds, or 0 if nothing was timed
+     */
+    double getMeanMicros();
+
+    /**
+     * Returns the median latency.
+     *
+     * @return the median in microseconds
+     */
+    double getP50Micros();
+
+    /**
+     * Returns the 99th percentile latency.
+     *
+     * @return the p99 in microseconds
+     */
+    double getP99Micros();
+
+    /**
+     * Returns the 99.9th percentile latency.
+     *
+     * @return the p99.9 in microseconds
+     */
+    double getP999Micros();
+
+    /**
+     * Returns the highest latency, within the histogram's precision.
+     *
+     * @return the maximum in microseconds
+     */
+    double getMaxMicros();
+}
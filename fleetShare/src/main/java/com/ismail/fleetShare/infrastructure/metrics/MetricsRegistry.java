@@ -0,0 +1,235 @@
+package com.ismail.fleetShare.infrastructure.metrics;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Named counters, latency timers and gauges of one fleet engine.
+ *
+ * Components look their metrics up once, when the registry is set on them, and keep
+ * the returned objects, so recording never goes through the registry. Metrics are
+ * exported to JMX under {@value #DOMAIN} as {@code type=Counter|Timer|Gauge,name=...}
+ * once {@link #registerMBeans(MBeanServer)} is called; metrics created afterwards are
+ * registered as they are created. {@link #report()} renders all of them as text, and
+ * {@link MetricsReporter} does so periodically.
+ *
+ * Timers count every operation but read the clock for one in {@link #DEFAULT_SAMPLING}
+ * by default; see {@link LatencyTimer}. A registry that times every operation is built
+ * with a sampling of 1.
+ */
+public class MetricsRegistry {
+
+    /**
+     * The JMX domain of the exported metrics.
+     */
+    public static final String DOMAIN = "com.ismail.fleetShare";
+
+    /**
+     * One operation in this many is timed when no sampling is given.
+     */
+    public static final int DEFAULT_SAMPLING = 16;
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_.-]+");
+
+    private final int sampling;
+    private final Map<String, Object> metrics = new ConcurrentSkipListMap<>();
+    private MBeanServer server;
+
+    /**
+     * Creates a registry whose timers sample one operation in {@link #DEFAULT_SAMPLING}.
+     */
+    public MetricsRegistry() {
+        this(DEFAULT_SAMPLING);
+    }
+
+    /**
+     * Creates a registry whose timers sample one operation in {@code sampling}.
+     *
+     * @param sampling one operation in this many is timed; 1 times all of them
+     * @throws IllegalArgumentException if the sampling is less than 1
+     */
+    public MetricsRegistry(int sampling) {
+        if (sampling < 1) {
+            throw new IllegalArgumentException("Sampling must be at least 1: " + sampling);
+        }
+        this.sampling = sampling;
+    }
+
+    /**
+     * Returns the counter with the given name, creating it if needed.
+     *
+     * @param name the metric name, e.g. {@code trips.start.rejected}
+     * @return the counter
+     * @throws IllegalArgumentException if the name is invalid or used by another kind of metric
+     */
+    public Counter counter(String name) {
+        return get(name, Counter.class);
+    }
+
+    /**
+     * Returns the latency timer with the given name, creating it if needed.
+     *
+     * @param name the metric name, e.g. {@code trips.start}
+     * @return the timer
+     * @throws IllegalArgumentException if the name is invalid or used by another kind of metric
+     */
+    public LatencyTimer timer(String name) {
+        return get(name, LatencyTimer.class);
+    }
+
+    /**
+     * Sets the gauge with the given name to read from a supplier. An existing gauge of
+     * that name switches to the new supplier, e.g. when a service is replaced.
+     *
+     * @param name  the metric name, e.g. {@code trips.active}
+     * @param value supplies the current value; runs on the reading thread
+     * @return the gauge
+     * @throws IllegalArgumentException if the name is invalid or used by another kind of metric
+     */
+    public synchronized Gauge gauge(String name, LongSupplier value) {
+        Object existing = metrics.get(name);
+        if (existing instanceof Gauge) {
+            ((Gauge) existing).setSupplier(value);
+            return (Gauge) existing;
+        }
+        Gauge gauge = new Gauge(value);
+        add(name, gauge);
+        return gauge;
+    }
+
+    /**
+     * Returns the metric with the given name.
+     *
+     * @param name the metric name
+     * @return the {@link Counter}, {@link LatencyTimer} or {@link Gauge}, or null if none
+     */
+    public Object get(String name) {
+        return metrics.get(name);
+    }
+
+    /**
+     * Exports every metric, now and in future, as an MXBean on the given server.
+     *
+     * @param server the MBean server, e.g.
+     *               {@link java.lang.management.ManagementFactory#getPlatformMBeanServer()}
+     * @throws IllegalStateException if the metrics are already registered, or a name is taken
+     */
+    public synchronized void registerMBeans(MBeanServer server) {
+        if (this.server != null) {
+            throw new IllegalStateException("Metrics are already registered");
+        }
+        this.server = server;
+        for (Map.Entry<String, Object> metric : metrics.entrySet()) {
+            register(metric.getKey(), metric.getValue());
+        }
+    }
+
+    /**
+     * Removes the MXBeans added by {@link #registerMBeans(MBeanServer)}.
+     */
+    public synchronized void unregisterMBeans() {
+        if (server == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> metric : metrics.entrySet()) {
+            try {
+                server.unregisterMBean(objectName(metric.getKey(), metric.getValue()));
+            } catch (InstanceNotFoundException | MBeanRegistrationException e) {
+                // already gone
+            }
+        }
+        server = null;
+    }
+
+    /**
+     * Returns the JMX name of a metric.
+     *
+     * @param name   the metric name
+     * @param metric the metric
+     * @return the object name, e.g. {@code com.ismail.fleetShare:type=Timer,name=trips.start}
+     */
+    public static ObjectName objectName(String name, Object metric) {
+        try {
+            return new ObjectName(DOMAIN + ":type=" + type(metric) + ",name=" + name);
+        } catch (JMException e) {
+            throw new IllegalArgumentException("Invalid metric name: " + name, e);
+        }
+    }
+
+    /**
+     * Renders every metric on one line, sorted by name. Latencies are in microseconds.
+     *
+     * @return the report
+     */
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Object> entry : metrics.entrySet()) {
+            Object metric = entry.getValue();
+            out.append(String.format("%-28s %-7s ", entry.getKey(), type(metric).toLowerCase()));
+            if (metric instanceof LatencyTimer) {
+                LatencyTimer timer = (LatencyTimer) metric;
+                out.append(String.format("count=%d timed=%d mean=%.2f p50=%.2f p99=%.2f p99.9=%.2f max=%.2f",
+                        timer.getCount(), timer.getSampleCount(), timer.getMeanMicros(), timer.getP50Micros(),
+                        timer.getP99Micros(), timer.getP999Micros(), timer.getMaxMicros()));
+            } else if (metric instanceof Counter) {
+                out.append(((Counter) metric).getCount());
+            } else {
+                out.append(((Gauge) metric).getValue());
+            }
+            out.append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+
+    private <M> M get(String name, Class<M> kind) {
+        Object metric = metrics.get(name);
+        if (metric == null) {
+            synchronized (this) {
+                metric = metrics.get(name);
+                if (metric == null) {
+                    metric = kind == Counter.class ? new Counter() : new LatencyTimer(sampling);
+                    add(name, metric);
+                }
+            }
+        }
+        if (!kind.isInstance(metric)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + type(metric).toLowerCase());
+        }
+        return kind.cast(metric);
+    }
+
+    private void add(String name, Object metric) {
+        if (!NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+        if (metrics.containsKey(name)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + type(metrics.get(name)).toLowerCase());
+        }
+        metrics.put(name, metric);
+        if (server != null) {
+            register(name, metric);
+        }
+    }
+
+    private void register(String name, Object metric) {
+        try {
+            server.registerMBean(metric, objectName(name, metric));
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metric " + name + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String type(Object metric) {
+        if (metric instanceof LatencyTimer) {
+            return "Timer";
+        }
+        return metric instanceof Counter ? "Counter" : "Gauge";
+    }
+}
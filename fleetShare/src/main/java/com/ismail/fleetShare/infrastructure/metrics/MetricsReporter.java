@@ -0,0 +1,45 @@
+package com.ismail.fleetShare.infrastructure.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Writes the report of a {@link MetricsRegistry} at a fixed period, on a daemon thread.
+ * Close the reporter to stop it.
+ */
+public class MetricsReporter implements AutoCloseable {
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Starts reporting.
+     *
+     * @param registry the metrics to report
+     * @param period   the time between reports
+     * @param out      receives each report, e.g. {@code System.out::print} or a logger
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public MetricsReporter(MetricsRegistry registry, Duration period, Consumer<String> out) {
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Period must be positive: " + period);
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = period.toMillis();
+        scheduler.scheduleAtFixedRate(() -> out.accept(registry.report()), millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops reporting. A report being written is allowed to finish.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,207 @@
+package com.ismail.fleetShare.infrastructure.snapshot;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Constants and field codecs shared by {@link SnapshotWriter} and {@link SnapshotReader}.
+ *
+ * File layout (version 3, where trip ids became 64-bit), all numbers big-endian:
+ * <pre>
+ * header:  int magic "FLSN", short version, long created-at epoch millis
+ * segment: byte type, int record count, int payload length, payload
+ * ...      segments of users, then vehicles, then active trips
+ * end:     a segment of type END with no records
+ * </pre>
+ * Segments are at most {@link #SEGMENT_SIZE} bytes, so they can be decoded in parallel.
+ */
+final class SnapshotFormat {
+
+    static final int MAGIC = 0x464C534E;
+    static final short VERSION = 3;
+    static final int FILE_HEADER = 4 + 2 + 8;
+    static final int SEGMENT_HEADER = 1 + 4 + 4;
+    static final int SEGMENT_SIZE = 4 << 20;
+
+    static final byte END = 0;
+    static final byte USERS = 1;
+    static final byte VEHICLES = 2;
+    static final byte TRIPS = 3;
+
+    static final byte CAR = 0;
+    static final byte EBIKE = 1;
+    static final byte SCOOTER = 2;
+
+    static final byte COMPACT = 0;
+    static final byte DECIMAL = 1;
+
+    static final byte NO_LOCATION = 0;
+    static final byte LOCATION = 1;
+    static final int LOCATION_BOUND = 1 + 8 + 8;
+
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    private SnapshotFormat() {
+    }
+
+    /**
+     * Returns an upper bound of the encoded size of a string.
+     */
+    static int stringBound(String value) {
+        return 2 + 3 * (value != null ? value.length() : 0);
+    }
+
+    static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            value = "";
+        }
+        int start = buffer.position();
+        buffer.putShort((short) 0);
+        int n = value.length();
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                buffer.position(start + 2);
+                buffer.put(value.getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+            buffer.put((byte) c);
+        }
+        int length = buffer.position() - start - 2;
+        if (length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for snapshot: " + length + " bytes");
+        }
+        buffer.putShort(start, (short) length);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns an upper bound of the encoded size of an amount and its currency.
+     */
+    static int moneyBound(Money money) {
+        int amount = money.isCompact() ? 8 : 2 + money.getAmount().unscaledValue().bitLength() / 8 + 1;
+        return 1 + amount + stringBound(money.getCurrency());
+    }
+
+    /**
+     * Writes an amount as a flag byte, then either the long minor units or, for an
+     * amount that overflowed into BigDecimal, the unscaled bytes; then the currency.
+     */
+    static void putMoney(ByteBuffer buffer, Money money) {
+        if (money.isCompact()) {
+            buffer.put(COMPACT);
+            buffer.putLong(money.getMinorUnits());
+        } else {
+            byte[] unscaled = money.getAmount().unscaledValue().toByteArray();
+            buffer.put(DECIMAL);
+            buffer.putShort((short) unscaled.length);
+            buffer.put(unscaled);
+        }
+        putString(buffer, money.getCurrency());
+    }
+
+    static Money getMoney(ByteBuffer buffer) {
+        if (buffer.get() == COMPACT) {
+            long units = buffer.getLong();
+            return Money.ofMinor(units, getString(buffer));
+        }
+        byte[] unscaled = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(unscaled);
+        return new Money(new BigDecimal(new BigInteger(unscaled), Money.SCALE), getString(buffer));
+    }
+
+    /**
+     * Writes a location as a flag byte followed, if it is known, by latitude and longitude.
+     */
+    static void putLocation(ByteBuffer buffer, GeoPoint location) {
+        if (location == null) {
+            buffer.put(NO_LOCATION);
+            return;
+        }
+        buffer.put(LOCATION);
+        buffer.putDouble(location.getLatitude());
+        buffer.putDouble(location.getLongitude());
+    }
+
+    static GeoPoint getLocation(ByteBuffer buffer) {
+        if (buffer.get() == NO_LOCATION) {
+            return null;
+        }
+        double latitude = buffer.getDouble();
+        return new GeoPoint(latitude, buffer.getDouble());
+    }
+
+    static byte kindOf(Vehicle vehicle) {
+        if (vehicle instanceof Car) {
+            return CAR;
+        }
+        if (vehicle instanceof EBike) {
+            return EBIKE;
+        }
+        if (vehicle instanceof Scooter) {
+            return SCOOTER;
+        }
+        throw new IllegalArgumentException("Unsupported vehicle type: " + vehicle.getClass().getName());
+    }
+
+    static String extraOf(Vehicle vehicle) {
+        if (vehicle instanceof Car) {
+            return ((Car) vehicle).getFuelType();
+        }
+        if (vehicle instanceof EBike) {
+            return ((EBike) vehicle).getBatteryLevel();
+        }
+        return ((Scooter) vehicle).getWeightLimit();
+    }
+
+    static Vehicle newVehicle(byte kind, String id, String model, String extra, Money price, VehicleState state,
+                              GeoPoint location) {
+        Vehicle vehicle;
+        switch (kind) {
+            case CAR:
+                vehicle = new Car(id, model, extra, price);
+                break;
+            case EBIKE:
+                vehicle = new EBike(id, model, extra, price);
+                break;
+            default:
+                vehicle = new Scooter(id, model, extra, price);
+        }
+        vehicle.setState(state);
+        vehicle.setLocation(location);
+        return vehicle;
+    }
+
+    static long toNanos(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    static LocalDateTime fromNanos(long nanos) {
+        if (nanos == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,209 @@
+package com.ismail.fleetShare.infrastructure.snapshot;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Distance;
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripId;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Loads a snapshot written by {@link SnapshotWriter} into empty repositories.
+ *
+ * The segment table is read first; then user and vehicle segments are decoded in
+ * parallel, each task reading its own segment with positional channel reads.
+ * Active trips are restored last. The writer captures the trips before the users and
+ * vehicles, so every trip finds its rider and vehicle and is indexed by both. The other
+ * differences of the fuzzy snapshot are reconciled here: a trip that ended while the
+ * snapshot ran is restored as active and its vehicle marked IN_USE, and a vehicle left
+ * IN_USE by a trip that started meanwhile, and so is not in the snapshot, is made
+ * available again. Reservations are not part of the snapshot, so reserved vehicles are
+ * loaded as available.
+ */
+public final class SnapshotReader {
+
+    private static final MembershipTier[] TIERS = MembershipTier.values();
+    private static final VehicleState[] STATES = VehicleState.values();
+
+    private SnapshotReader() {
+    }
+
+    /**
+     * Loads the snapshot file.
+     *
+     * @param file        the snapshot file
+     * @param vehicleRepo the repository receiving the vehicles
+     * @param userRepo    the repository receiving the users
+     * @param tripService the service receiving the active trips
+     * @return the number of records loaded
+     * @throws IOException if the file is missing, truncated or of an unknown version
+     */
+    public static long load(Path file,
+                            InMemoryVehicleRepository vehicleRepo,
+                            InMemoryUserRepository userRepo,
+                            TripService tripService) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<Segment> segments = readSegmentTable(channel);
+
+            List<Segment> entities = new ArrayList<>();
+            List<Segment> trips = new ArrayList<>();
+            for (Segment segment : segments) {
+                (segment.type == SnapshotFormat.TRIPS ? trips : entities).add(segment);
+            }
+
+            entities.parallelStream().forEach(segment -> {
+                ByteBuffer buffer = segment.read(channel);
+                if (segment.type == SnapshotFormat.USERS) {
+                    decodeUsers(buffer, segment.count, userRepo);
+                } else if (segment.type == SnapshotFormat.VEHICLES) {
+                    decodeVehicles(buffer, segment.count, vehicleRepo);
+                }
+            });
+
+            Set<Vehicle> inTrip = new HashSet<>();
+            for (Segment segment : trips) {
+                decodeTrips(segment.read(channel), segment.count, vehicleRepo, userRepo, tripService, inTrip);
+            }
+            for (Vehicle vehicle : vehicleRepo.findByState(VehicleState.IN_USE)) {
+                if (!inTrip.contains(vehicle)) {
+                    vehicle.setState(VehicleState.AVAILABLE);
+                }
+            }
+
+            long records = 0;
+            for (Segment segment : segments) {
+                records += segment.count;
+            }
+            return records;
+        }
+    }
+
+    private static List<Segment> readSegmentTable(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.FILE_HEADER);
+        readFully(channel, header, 0);
+        if (header.getInt(0) != SnapshotFormat.MAGIC) {
+            throw new IOException("Not a FleetShare snapshot");
+        }
+        short version = header.getShort(4);
+        if (version != SnapshotFormat.VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        ByteBuffer segmentHeader = ByteBuffer.allocate(SnapshotFormat.SEGMENT_HEADER);
+        long position = SnapshotFormat.FILE_HEADER;
+        while (true) {
+            segmentHeader.clear();
+            readFully(channel, segmentHeader, position);
+            byte type = segmentHeader.get(0);
+            int count = segmentHeader.getInt(1);
+            int length = segmentHeader.getInt(5);
+            position += SnapshotFormat.SEGMENT_HEADER;
+            if (type == SnapshotFormat.END) {
+                return segments;
+            }
+            segments.add(new Segment(type, count, position, length));
+            position += length;
+        }
+    }
+
+    private static void decodeUsers(ByteBuffer buffer, int count, InMemoryUserRepository userRepo) {
+        for (int i = 0; i < count; i++) {
+            String id = SnapshotFormat.getString(buffer);
+            String name = SnapshotFormat.getString(buffer);
+            userRepo.save(new User(id, name, TIERS[buffer.get()]));
+        }
+    }
+
+    private static void decodeVehicles(ByteBuffer buffer, int count, InMemoryVehicleRepository vehicleRepo) {
+        for (int i = 0; i < count; i++) {
+            byte kind = buffer.get();
+            String id = SnapshotFormat.getString(buffer);
+            String model = SnapshotFormat.getString(buffer);
+            String extra = SnapshotFormat.getString(buffer);
+            Money price = SnapshotFormat.getMoney(buffer);
+            VehicleState state = STATES[buffer.get()];
+            if (state == VehicleState.RESERVED) {
+                state = VehicleState.AVAILABLE;
+            }
+            GeoPoint location = SnapshotFormat.getLocation(buffer);
+            vehicleRepo.save(SnapshotFormat.newVehicle(kind, id, model, extra, price, state, location));
+        }
+    }
+
+    private static void decodeTrips(ByteBuffer buffer, int count,
+                                    InMemoryVehicleRepository vehicleRepo,
+                                    InMemoryUserRepository userRepo,
+                                    TripService tripService,
+                                    Set<Vehicle> inTrip) {
+        for (int i = 0; i < count; i++) {
+            long tripId = buffer.getLong();
+            String userId = SnapshotFormat.getString(buffer);
+            String vehicleId = SnapshotFormat.getString(buffer);
+            long start = buffer.getLong();
+            double km = buffer.getDouble();
+
+            Vehicle vehicle = vehicleRepo.findById(vehicleId);
+            if (vehicle == null) {
+                continue;
+            }
+            Trip trip = tripService.restoreTrip(new TripId(tripId), userRepo.findById(userId), vehicle,
+                    SnapshotFormat.fromNanos(start));
+            trip.setDistance(Distance.of(km));
+            vehicle.setState(VehicleState.IN_USE);
+            inTrip.add(vehicle);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) {
+                throw new EOFException("Truncated snapshot");
+            }
+        }
+    }
+
+    private static final class Segment {
+        private final byte type;
+        private final int count;
+        private final long offset;
+        private final int length;
+
+        Segment(byte type, int count, long offset, int length) {
+            this.type = type;
+            this.count = count;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        ByteBuffer read(FileChannel channel) {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            try {
+                readFully(channel, buffer, offset);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.ismail.fleetShare.infrastructure.snapshot;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Writes a binary snapshot of the users, vehicles and active trips.
+ *
+ * The snapshot is taken from the live, non-copying views of the repositories while
+ * trips keep starting and ending, so no lock is held. Each entity is captured
+ * atomically. The active trips are captured first, so the users and vehicles written
+ * after them include every rider and vehicle those trips refer to; the remaining
+ * differences between the three are reconciled by {@link SnapshotReader} on load.
+ * The file is written to a temporary name and moved into place when complete.
+ */
+public final class SnapshotWriter {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(SnapshotFormat.SEGMENT_SIZE);
+    private byte type;
+    private int count;
+    private long records;
+
+    private SnapshotWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Writes a snapshot on the given executor, without blocking the caller.
+     *
+     * @param file        the snapshot file
+     * @param vehicleRepo the vehicles to save
+     * @param userRepo    the users to save
+     * @param tripService the service whose active trips are saved
+     * @param executor    the executor running the snapshot
+     * @return a future completing with the number of records written
+     */
+    public static CompletableFuture<Long> writeAsync(Path file,
+                                                     InMemoryVehicleRepository vehicleRepo,
+                                                     InMemoryUserRepository userRepo,
+                                                     TripService tripService,
+                                                     Executor executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return write(file, vehicleRepo, userRepo, tripService);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Writes a snapshot on the calling thread.
+     *
+     * @param file        the snapshot file
+     * @param vehicleRepo the vehicles to save
+     * @param userRepo    the users to save
+     * @param tripService the service whose active trips are saved
+     * @return the number of records written
+     * @throws IOException if the file cannot be written
+     */
+    public static long write(Path file,
+                             InMemoryVehicleRepository vehicleRepo,
+                             InMemoryUserRepository userRepo,
+                             TripService tripService) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // captured before the users and vehicles, which are never removed, so the
+            // rider and vehicle of every trip are in the snapshot
+            List<Trip> trips = new ArrayList<>(tripService.getActiveTrips());
+            SnapshotWriter writer = new SnapshotWriter(channel);
+            writer.writeHeader();
+
+            writer.begin(SnapshotFormat.USERS);
+            for (User user : userRepo.viewAll()) {
+                writer.writeUser(user);
+            }
+            writer.flush();
+
+            writer.begin(SnapshotFormat.VEHICLES);
+            for (Vehicle vehicle : vehicleRepo.viewAll()) {
+                writer.writeVehicle(vehicle);
+            }
+            writer.flush();
+
+            writer.begin(SnapshotFormat.TRIPS);
+            for (Trip trip : trips) {
+                writer.writeTrip(trip);
+            }
+            writer.flush();
+
+            writer.begin(SnapshotFormat.END);
+            writer.flush();
+            channel.force(true);
+
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return writer.records;
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.FILE_HEADER);
+        header.putInt(SnapshotFormat.MAGIC);
+        header.putShort(SnapshotFormat.VERSION);
+        header.putLong(System.currentTimeMillis());
+        header.flip();
+        writeFully(header);
+    }
+
+    private void writeUser(User user) throws IOException {
+        ensure(SnapshotFormat.stringBound(user.getId()) + SnapshotFormat.stringBound(user.getName()) + 1);
+        SnapshotFormat.putString(buffer, user.getId());
+        SnapshotFormat.putString(buffer, user.getName());
+        buffer.put((byte) user.getMembershipTier().ordinal());
+        count++;
+    }
+
+    private void writeVehicle(Vehicle vehicle) throws IOException {
+        String extra = SnapshotFormat.extraOf(vehicle);
+        Money price = vehicle.getPricePerMinute();
+        ensure(1 + SnapshotFormat.stringBound(vehicle.getId()) + SnapshotFormat.stringBound(vehicle.getModel())
+                + SnapshotFormat.stringBound(extra) + SnapshotFormat.moneyBound(price) + 1
+                + SnapshotFormat.LOCATION_BOUND);
+        buffer.put(SnapshotFormat.kindOf(vehicle));
+        SnapshotFormat.putString(buffer, vehicle.getId());
+        SnapshotFormat.putString(buffer, vehicle.getModel());
+        SnapshotFormat.putString(buffer, extra);
+        SnapshotFormat.putMoney(buffer, price);
+        buffer.put((byte) vehicle.getState().ordinal());
+        SnapshotFormat.putLocation(buffer, vehicle.getLocation());
+        count++;
+    }
+
+    private void writeTrip(Trip trip) throws IOException {
+        String userId = trip.getUser() != null ? trip.getUser().getId() : "";
+        ensure(8 + SnapshotFormat.stringBound(userId)
+                + SnapshotFormat.stringBound(trip.getVehicle().getId()) + 8 + 8);
+        buffer.putLong(trip.getId().asLong());
+        SnapshotFormat.putString(buffer, userId);
+        SnapshotFormat.putString(buffer, trip.getVehicle().getId());
+        buffer.putLong(SnapshotFormat.toNanos(trip.getStartTime()));
+        buffer.putDouble(trip.getDistance() != null ? trip.getDistance().getValue() : 0.0);
+        count++;
+    }
+
+    private void begin(byte segmentType) {
+        type = segmentType;
+        count = 0;
+        buffer.clear();
+        buffer.position(SnapshotFormat.SEGMENT_HEADER);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+            begin(type);
+        }
+    }
+
+    /**
+     * Writes the current segment. Empty segments are skipped, except the end marker.
+     */
+    private void flush() throws IOException {
+        if (count == 0 && type != SnapshotFormat.END) {
+            return;
+        }
+        int length = buffer.position() - SnapshotFormat.SEGMENT_HEADER;
+        buffer.put(0, type);
+        buffer.putInt(1, count);
+        buffer.putInt(5, length);
+        buffer.flip();
+        writeFully(buffer);
+        records += count;
+        count = 0;
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ismail.fleetShare.infrastructure.telemetry;
+
+import java.util.Arrays;
+
+/**
+ * A batch of battery or fuel readings, stored column by column. The writer fills a
+ * batch with {@link #add}, applies it with {@link VehicleTelemetryStore#apply} and
+ * {@link #clear() clears} it for the next round. Not thread-safe.
+ */
+public class TelemetryBatch {
+
+    private String[] vehicleIds;
+    private float[] levels;
+    private long[] timesMillis;
+    private int size;
+
+    /**
+     * Creates an empty batch.
+     *
+     * @param capacity the number of readings the batch holds before it grows
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public TelemetryBatch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.vehicleIds = new String[capacity];
+        this.levels = new float[capacity];
+        this.timesMillis = new long[capacity];
+    }
+
+    /**
+     * Appends a reading.
+     *
+     * @param vehicleId    the id of the vehicle
+     * @param levelPercent the battery charge or fuel level, from 0 to 100
+     * @param timeMillis   when the reading was taken, in epoch milliseconds
+     * @return this batch
+     */
+    public TelemetryBatch add(String vehicleId, double levelPercent, long timeMillis) {
+        if (size == vehicleIds.length) {
+            int capacity = size * 2;
+            vehicleIds = Arrays.copyOf(vehicleIds, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            timesMillis = Arrays.copyOf(timesMillis, capacity);
+        }
+        vehicleIds[size] = vehicleId;
+        levels[size] = (float) levelPercent;
+        timesMillis[size] = timeMillis;
+        size++;
+        return this;
+    }
+
+    /**
+     * Removes all readings, keeping the arrays for reuse.
+     */
+    public void clear() {
+        Arrays.fill(vehicleIds, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getVehicleId(int index) {
+        return vehicleIds[index];
+    }
+
+    public float getLevel(int index) {
+        return levels[index];
+    }
+
+    public long getTimeMillis(int index) {
+        return timesMillis[index];
+    }
+}
@@ -0,0 +1,364 @@
+package com.ismail.fleetShare.infrastructure.telemetry;
+
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Latest battery charge or fuel level of every vehicle, with an index by level.
+ *
+ * Each vehicle gets a slot when it is first seen, and its reading lives in primitive
+ * arrays indexed by slot (struct of arrays): the level as a float percentage and the
+ * time of the reading. The index keeps, per vehicle subtype, one doubly linked list per
+ * tenth of a percent, threaded through two more int arrays. A reading moves its slot to
+ * another list only when it crosses a tenth, in O(1), and a query such as "the e-bikes
+ * with the least charge under 20%" walks the lowest lists only until it has enough
+ * vehicles, so it costs O(result) however large the fleet is. Nothing is allocated per
+ * reading once a vehicle has its slot.
+ *
+ * Readings arrive in batches from a single writer, typically the thread draining the
+ * telemetry feed; each batch is applied under one write lock and queries share a read
+ * lock. Readings older than the one stored for a vehicle are ignored.
+ */
+public class VehicleTelemetryStore {
+
+    private static final int BUCKETS_PER_PERCENT = 10;
+    private static final int BUCKETS = 100 * BUCKETS_PER_PERCENT + 1;
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final InMemoryVehicleRepository vehicleRepo;
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final Map<Class<? extends Vehicle>, Integer> types = new HashMap<>();
+
+    private Vehicle[] vehicles = new Vehicle[INITIAL_CAPACITY];
+    private float[] levels = new float[INITIAL_CAPACITY];
+    private long[] timesMillis = new long[INITIAL_CAPACITY];
+    private byte[] typeOf = new byte[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] prev = new int[INITIAL_CAPACITY];
+    private int[][] heads = new int[0][];
+    private int[][] counts = new int[0][];
+    private int size;
+
+    /**
+     * Creates a store that registers vehicles of the repository on their first reading.
+     *
+     * @param vehicleRepo the repository to look unknown vehicle ids up in, or null to
+     *                    accept readings only for vehicles registered with {@link #register}
+     */
+    public VehicleTelemetryStore(InMemoryVehicleRepository vehicleRepo) {
+        this.vehicleRepo = vehicleRepo;
+    }
+
+    /**
+     * Gives a vehicle a slot, or points its slot at this instance if the id is known.
+     * An e-bike whose battery level text is a percentage, e.g. "80%", starts with that
+     * level until its first reading.
+     *
+     * @param vehicle the vehicle
+     */
+    public void register(Vehicle vehicle) {
+        long stamp = lock.writeLock();
+        try {
+            Integer slot = slots.get(vehicle.getId());
+            if (slot != null) {
+                vehicles[slot] = vehicle;
+            } else {
+                add(vehicle);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Applies a batch of readings. Readings of unknown vehicles, readings older than
+     * the stored one and levels that are not numbers are skipped; levels outside 0 to
+     * 100 are clamped.
+     *
+     * @param batch the readings
+     * @return the number of readings applied
+     */
+    public int apply(TelemetryBatch batch) {
+        int applied = 0;
+        long stamp = lock.writeLock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                float level = batch.getLevel(i);
+                if (Float.isNaN(level)) {
+                    continue;
+                }
+                int slot = resolve(batch.getVehicleId(i));
+                long time = batch.getTimeMillis(i);
+                if (slot == NONE || time < timesMillis[slot]) {
+                    continue;
+                }
+                update(slot, Math.max(0f, Math.min(100f, level)), time);
+                applied++;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return applied;
+    }
+
+    /**
+     * Returns the latest level of a vehicle.
+     *
+     * @param vehicleId the id of the vehicle
+     * @return the level in percent, or NaN if the vehicle has no reading
+     */
+    public double getLevel(String vehicleId) {
+        long stamp = lock.readLock();
+        try {
+            Integer slot = slots.get(vehicleId);
+            return slot == null ? Double.NaN : levels[slot];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns when the latest reading of a vehicle was taken.
+     *
+     * @param vehicleId the id of the vehicle
+     * @return the time in epoch milliseconds, or {@link Long#MIN_VALUE} if the vehicle has
+     *         no reading
+     */
+    public long getTimeMillis(String vehicleId) {
+        long stamp = lock.readLock();
+        try {
+            Integer slot = slots.get(vehicleId);
+            return slot == null ? Long.MIN_VALUE : timesMillis[slot];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the vehicles of a subtype whose level is below a threshold, lowest first.
+     * Index lists are visited from the lowest level up and the walk stops at the first
+     * list boundary past the limit; the state of each candidate is checked as it is found.
+     *
+     * @param type         the vehicle subtype, e.g. {@code EBike.class}
+     * @param belowPercent the exclusive upper bound of the level
+     * @param state        the state the vehicles must be in, or null for any state
+     * @param limit        the most vehicles to return
+     * @param <T>          the vehicle subtype
+     * @return the matching vehicles, lowest level first
+     */
+    public <T extends Vehicle> List<T> findBelow(Class<T> type, double belowPercent, VehicleState state, int limit) {
+        long stamp = lock.readLock();
+        try {
+            Integer t = types.get(type);
+            if (t == null || limit <= 0) {
+                return new ArrayList<>();
+            }
+            int[] typeHeads = heads[t];
+            // level bits in the high half so that sorting the keys sorts by level
+            long[] found = new long[Math.min(limit, 64)];
+            int matches = 0;
+            int end = bucketsBelow(belowPercent);
+            for (int bucket = 0; bucket < end && matches < limit; bucket++) {
+                for (int slot = typeHeads[bucket]; slot != NONE; slot = next[slot]) {
+                    if (levels[slot] >= belowPercent) {
+                        continue;
+                    }
+                    if (state != null && vehicles[slot].getState() != state) {
+                        continue;
+                    }
+                    if (matches == found.length) {
+                        found = Arrays.copyOf(found, matches * 2);
+                    }
+                    found[matches++] = ((long) Float.floatToIntBits(levels[slot]) << 32) | slot;
+                }
+            }
+            Arrays.sort(found, 0, matches);
+            List<T> result = new ArrayList<>(Math.min(matches, limit));
+            for (int i = 0; i < matches && i < limit; i++) {
+                result.add(type.cast(vehicles[(int) found[i]]));
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Counts the vehicles of a subtype whose level is below a threshold, whatever
+     * their state. Costs one read per tenth of a percent below the threshold.
+     *
+     * @param type         the vehicle subtype
+     * @param belowPercent the exclusive upper bound of the level
+     * @return the number of vehicles
+     */
+    public int countBelow(Class<? extends Vehicle> type, double belowPercent) {
+        long stamp = lock.readLock();
+        try {
+            Integer t = types.get(type);
+            if (t == null) {
+                return 0;
+            }
+            int count = 0;
+            int end = bucketsBelow(belowPercent);
+            for (int bucket = 0; bucket < end; bucket++) {
+                if (bucket + 1 <= belowPercent * BUCKETS_PER_PERCENT) {
+                    count += counts[t][bucket];
+                } else {
+                    for (int slot = heads[t][bucket]; slot != NONE; slot = next[slot]) {
+                        if (levels[slot] < belowPercent) {
+                            count++;
+                        }
+                    }
+                }
+            }
+            return count;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of vehicles with a slot.
+     *
+     * @return the vehicle count
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int resolve(String vehicleId) {
+        Integer slot = slots.get(vehicleId);
+        if (slot != null) {
+            return slot;
+        }
+        Vehicle vehicle = vehicleRepo == null ? null : vehicleRepo.findById(vehicleId);
+        return vehicle == null ? NONE : add(vehicle);
+    }
+
+    private int add(Vehicle vehicle) {
+        if (size == vehicles.length) {
+            int capacity = size * 2;
+            vehicles = Arrays.copyOf(vehicles, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            timesMillis = Arrays.copyOf(timesMillis, capacity);
+            typeOf = Arrays.copyOf(typeOf, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        int slot = size++;
+        vehicles[slot] = vehicle;
+        levels[slot] = Float.NaN;
+        timesMillis[slot] = Long.MIN_VALUE;
+        typeOf[slot] = (byte) typeIndex(vehicle.getClass());
+        next[slot] = NONE;
+        prev[slot] = NONE;
+        slots.put(vehicle.getId(), slot);
+        if (vehicle instanceof EBike) {
+            float level = parsePercent(((EBike) vehicle).getBatteryLevel());
+            if (!Float.isNaN(level)) {
+                update(slot, level, Long.MIN_VALUE);
+            }
+        }
+        return slot;
+    }
+
+    private void update(int slot, float level, long time) {
+        float previous = levels[slot];
+        levels[slot] = level;
+        timesMillis[slot] = time;
+        int bucket = bucket(level);
+        int type = typeOf[slot];
+        if (Float.isNaN(previous)) {
+            link(type, bucket, slot);
+        } else if (bucket(previous) != bucket) {
+            unlink(type, bucket(previous), slot);
+            link(type, bucket, slot);
+        }
+    }
+
+    private void link(int type, int bucket, int slot) {
+        int head = heads[type][bucket];
+        next[slot] = head;
+        prev[slot] = NONE;
+        if (head != NONE) {
+            prev[head] = slot;
+        }
+        heads[type][bucket] = slot;
+        counts[type][bucket]++;
+    }
+
+    private void unlink(int type, int bucket, int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NONE) {
+            heads[type][bucket] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            prev[after] = before;
+        }
+        counts[type][bucket]--;
+    }
+
+    private int typeIndex(Class<? extends Vehicle> type) {
+        Integer index = types.get(type);
+        if (index != null) {
+            return index;
+        }
+        if (types.size() == Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many vehicle types");
+        }
+        int created = types.size();
+        types.put(type, created);
+        heads = Arrays.copyOf(heads, created + 1);
+        counts = Arrays.copyOf(counts, created + 1);
+        heads[created] = new int[BUCKETS];
+        Arrays.fill(heads[created], NONE);
+        counts[created] = new int[BUCKETS];
+        return created;
+    }
+
+    private static int bucket(float level) {
+        return (int) ((double) level * BUCKETS_PER_PERCENT);
+    }
+
+    private static int bucketsBelow(double percent) {
+        if (!(percent > 0)) {
+            return 0;
+        }
+        return (int) Math.min(BUCKETS, Math.ceil(percent * BUCKETS_PER_PERCENT));
+    }
+
+    private static float parsePercent(String text) {
+        if (text == null) {
+            return Float.NaN;
+        }
+        String digits = text.trim();
+        if (digits.endsWith("%")) {
+            digits = digits.substring(0, digits.length() - 1).trim();
+        }
+        try {
+            float level = Float.parseFloat(digits);
+            return level >= 0 && level <= 100 ? level : Float.NaN;
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+}
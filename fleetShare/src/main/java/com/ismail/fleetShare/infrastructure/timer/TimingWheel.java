@@ -0,0 +1,271 @@
+package com.ismail.fleetShare.infrastructure.timer;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel holding tasks that expire at a given time.
+ *
+ * Time is cut into ticks of a fixed length. The wheel has {@value #LEVELS} levels of
+ * {@value #SLOTS} slots each: level 0 holds the tasks due in the next 64 ticks, one slot
+ * per tick, level 1 the tasks due in the next 64 * 64 ticks, one slot per 64 ticks, and
+ * so on. Each slot is a doubly linked list, so scheduling and canceling a task cost O(1)
+ * however many tasks are pending. When the clock reaches the start of a higher-level
+ * slot, its tasks are moved down to the lower levels; a task is moved at most once per
+ * level, so advancing the wheel also costs O(1) per task, and stretches of time in which
+ * the lower levels are empty are skipped rather than walked tick by tick. Tasks due
+ * further ahead than the top level can hold are parked in its farthest slot and placed
+ * again when it is reached.
+ *
+ * Tasks never fire early and fire at most one tick late, counted from the last call to
+ * {@link #advance}. The wheel is safe for concurrent use; expired tasks are handed to
+ * the caller of {@link #advance} outside the lock, so their action may schedule or
+ * cancel other tasks.
+ *
+ * @param <T> the type of the scheduled tasks
+ */
+public class TimingWheel<T> {
+
+    public static final int LEVELS = 6;
+    public static final int SLOTS = 64;
+
+    private static final int BITS = 6;
+    private static final int MASK = SLOTS - 1;
+    private static final long MAX_DELTA = (1L << (BITS * LEVELS)) - 1;
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Timeout<T>[][] wheel;
+    private final int[] levelSizes = new int[LEVELS];
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param tickMillis  the length of a tick in milliseconds
+     * @param startMillis the time the wheel starts at, in epoch milliseconds
+     * @throws IllegalArgumentException if the tick is not positive
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        wheel = new Timeout[LEVELS][SLOTS];
+        for (Timeout<T>[] level : wheel) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Timeout<>(this, null, 0);
+                level[i].prev = level[i];
+                level[i].next = level[i];
+            }
+        }
+    }
+
+    /**
+     * Schedules a task to expire at the given time. A time that has already passed
+     * expires on the next tick.
+     *
+     * @param task           the task
+     * @param deadlineMillis when the task expires, in epoch milliseconds
+     * @return the handle used to cancel the task
+     */
+    public synchronized Timeout<T> schedule(T task, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(this, task, deadlineMillis);
+        long offset = Math.max(deadlineMillis - startMillis, 0);
+        timeout.tick = Math.max(offset / tickMillis + (offset % tickMillis == 0 ? 0 : 1), currentTick + 1);
+        timeout.pending = true;
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Moves the wheel to the given time and passes every task that expired on the way
+     * to the action, in deadline order up to the tick length.
+     *
+     * @param nowMillis the current time in epoch milliseconds
+     * @param action    the action run for each expired task, on the calling thread
+     * @return the number of expired tasks
+     */
+    public int advance(long nowMillis, Consumer<? super T> action) {
+        int expired = 0;
+        Timeout<T> chain;
+        while ((chain = nextExpired(Math.floorDiv(nowMillis - startMillis, tickMillis))) != null) {
+            while (chain != null) {
+                Timeout<T> next = chain.next;
+                chain.next = null;
+                action.accept(chain.task);
+                expired++;
+                chain = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Returns the number of tasks scheduled and not yet expired or canceled.
+     *
+     * @return the pending task count
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the length of a tick.
+     *
+     * @return the tick in milliseconds
+     */
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * Advances tick by tick until one of them expires tasks, and detaches those as a
+     * chain linked through {@code next}. Returns null once the wheel reached the tick.
+     */
+    private synchronized Timeout<T> nextExpired(long nowTick) {
+        while (currentTick < nowTick) {
+            currentTick = Math.min(lastIdleTick(), nowTick - 1) + 1;
+            int index = (int) currentTick & MASK;
+            if (index == 0) {
+                cascade(1);
+            }
+            Timeout<T> head = wheel[0][index];
+            if (head.next != head) {
+                Timeout<T> chain = head.next;
+                head.prev.next = null;
+                head.prev = head;
+                head.next = head;
+                for (Timeout<T> t = chain; t != null; t = t.next) {
+                    t.prev = null;
+                    t.pending = false;
+                    levelSizes[0]--;
+                    size--;
+                }
+                return chain;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the last tick up to which nothing can happen: when the lowest levels hold
+     * no task, every tick before the next cascade into the first non-empty one is idle.
+     */
+    private long lastIdleTick() {
+        int level = 0;
+        while (level < LEVELS && levelSizes[level] == 0) {
+            level++;
+        }
+        if (level == 0) {
+            return currentTick;
+        }
+        if (level == LEVELS) {
+            return Long.MAX_VALUE - 1;
+        }
+        int shift = BITS * level;
+        return ((currentTick >>> shift) + 1 << shift) - 1;
+    }
+
+    /**
+     * Moves the tasks of the level slot the clock has just reached down to the
+     * lower levels, after cascading the level above when this level wraps around.
+     */
+    private void cascade(int level) {
+        int index = (int) (currentTick >>> (BITS * level)) & MASK;
+        if (index == 0 && level + 1 < LEVELS) {
+            cascade(level + 1);
+        }
+        Timeout<T> head = wheel[level][index];
+        Timeout<T> t = head.next;
+        head.prev = head;
+        head.next = head;
+        while (t != head) {
+            Timeout<T> next = t.next;
+            levelSizes[level]--;
+            place(t);
+            t = next;
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = Math.min(timeout.tick - currentTick, MAX_DELTA);
+        int level = delta < SLOTS ? 0 : (63 - Long.numberOfLeadingZeros(delta)) / BITS;
+        int index = (int) ((currentTick + delta) >>> (BITS * level)) & MASK;
+        Timeout<T> head = wheel[level][index];
+        timeout.level = level;
+        levelSizes[level]++;
+        timeout.prev = head.prev;
+        timeout.next = head;
+        head.prev.next = timeout;
+        head.prev = timeout;
+    }
+
+    private synchronized boolean cancel(Timeout<T> timeout) {
+        if (!timeout.pending) {
+            return false;
+        }
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.pending = false;
+        levelSizes[timeout.level]--;
+        size--;
+        return true;
+    }
+
+    /**
+     * A task scheduled on a {@link TimingWheel}.
+     *
+     * @param <T> the type of the task
+     */
+    public static final class Timeout<T> {
+
+        private final T task;
+        private final long deadlineMillis;
+        private final TimingWheel<T> owner;
+        private boolean pending;
+        private int level;
+        private long tick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(TimingWheel<T> owner, T task, long deadlineMillis) {
+            this.owner = owner;
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        /**
+         * Returns the scheduled task.
+         *
+         * @return the task
+         */
+        public T getTask() {
+            return task;
+        }
+
+        /**
+         * Returns when the task expires.
+         *
+         * @return the deadline in epoch milliseconds
+         */
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+
+        /**
+         * Removes the task from the wheel so it never expires.
+         *
+         * @return true if the task was pending, false if it had already expired or
+         *         been canceled
+         */
+        public boolean cancel() {
+            return owner.cancel(this);
+        }
+    }
+}
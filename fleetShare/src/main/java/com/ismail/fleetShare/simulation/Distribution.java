@@ -0,0 +1,91 @@
+package com.ismail.fleetShare.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Summary statistics of one metric over the replicas of a scenario.
+ */
+public class Distribution {
+
+    private final int count;
+    private final double mean;
+    private final double stdDev;
+    private final double min;
+    private final double p05;
+    private final double p50;
+    private final double p95;
+    private final double max;
+
+    /**
+     * Summarizes the given samples. The array is not modified.
+     *
+     * @param samples one value per replica
+     */
+    public Distribution(double[] samples) {
+        double[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        this.count = sorted.length;
+
+        double sum = 0.0;
+        for (double v : samples) {
+            sum += v;
+        }
+        this.mean = count > 0 ? sum / count : Double.NaN;
+
+        double squares = 0.0;
+        for (double v : samples) {
+            squares += (v - mean) * (v - mean);
+        }
+        this.stdDev = count > 1 ? Math.sqrt(squares / (count - 1)) : 0.0;
+        this.min = percentile(sorted, 0.0);
+        this.p05 = percentile(sorted, 0.05);
+        this.p50 = percentile(sorted, 0.50);
+        this.p95 = percentile(sorted, 0.95);
+        this.max = percentile(sorted, 1.0);
+    }
+
+    private static double percentile(double[] sorted, double q) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.round(q * (sorted.length - 1))];
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public double getStdDev() {
+        return stdDev;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getP05() {
+        return p05;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP95() {
+        return p95;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("mean=%.2f sd=%.2f min=%.2f p05=%.2f p50=%.2f p95=%.2f max=%.2f",
+                mean, stdDev, min, p05, p50, p95, max);
+    }
+}
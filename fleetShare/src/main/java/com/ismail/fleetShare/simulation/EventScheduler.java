@@ -0,0 +1,100 @@
+package com.ismail.fleetShare.simulation;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.PriorityQueue;
+
+/**
+ * Discrete-event scheduler backed by a priority queue ordered by event time.
+ * Events are processed one at a time; before each event fires the
+ * {@link VirtualClock} jumps to the event time.
+ */
+public class EventScheduler {
+
+    private final VirtualClock clock;
+    private final PriorityQueue<SimulationEvent> queue = new PriorityQueue<>();
+    private long sequence;
+    private long processed;
+
+    /**
+     * Creates a scheduler driving the given clock.
+     *
+     * @param clock the virtual clock advanced by this scheduler
+     */
+    public EventScheduler(VirtualClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Schedules an event at the given time.
+     *
+     * @param event the event to schedule
+     * @param time  the time at which the event fires
+     * @throws IllegalArgumentException if the time is in the virtual past
+     */
+    public void schedule(SimulationEvent event, Instant time) {
+        if (time.isBefore(clock.instant())) {
+            throw new IllegalArgumentException("Cannot schedule an event in the past: " + time);
+        }
+        event.schedule(time, sequence++);
+        queue.add(event);
+    }
+
+    /**
+     * Schedules an event after a delay from the current virtual time.
+     *
+     * @param event the event to schedule
+     * @param delay the delay before the event fires
+     */
+    public void scheduleAfter(SimulationEvent event, Duration delay) {
+        schedule(event, clock.instant().plus(delay));
+    }
+
+    /**
+     * Processes every event due up to and including the given time,
+     * then moves the clock to that time.
+     *
+     * @param end the time at which to stop
+     * @return the number of events processed by this call
+     */
+    public long runUntil(Instant end) {
+        long before = processed;
+        while (!queue.isEmpty() && !queue.peek().getTime().isAfter(end)) {
+            SimulationEvent event = queue.poll();
+            clock.advanceTo(event.getTime());
+            event.fire(this);
+            processed++;
+        }
+        if (end.isAfter(clock.instant())) {
+            clock.advanceTo(end);
+        }
+        return processed - before;
+    }
+
+    /**
+     * Returns the clock driven by this scheduler.
+     *
+     * @return the virtual clock
+     */
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Returns the number of events still waiting to fire.
+     *
+     * @return the pending event count
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the total number of events processed so far.
+     *
+     * @return the processed event count
+     */
+    public long getProcessedCount() {
+        return processed;
+    }
+}
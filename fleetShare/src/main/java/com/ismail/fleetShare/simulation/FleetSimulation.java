@@ -0,0 +1,225 @@
+package com.ismail.fleetShare.simulation;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Distance;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+
+/**
+ * Headless discrete-event simulation of a fleet.
+ *
+ * The simulation builds its own repositories and a {@link TripService} driven by a
+ * {@link VirtualClock}, then replays trip requests, trip ends and maintenance visits
+ * through an {@link EventScheduler}. Prices come from the configured pricing strategy
+ * through the normal service calls, so the simulated revenue is what production code
+ * would charge. Runs with the same config and seed give the same result.
+ */
+public class FleetSimulation {
+
+    private final SimulationConfig config;
+    private final SplittableRandom random;
+    private final EventScheduler scheduler;
+    private final InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+    private final InMemoryUserRepository userRepo = new InMemoryUserRepository();
+    private final TripService tripService;
+    private final Vehicle[] fleet;
+    private final User[] riders;
+
+    private long tripRequests;
+    private long tripsStarted;
+    private long tripsCompleted;
+    private long rejectedStarts;
+    private long tripSeconds;
+    private Money revenue = Money.zero();
+
+    /**
+     * Creates a simulation for the given config, using the config's seed.
+     *
+     * @param config the simulation parameters
+     */
+    public FleetSimulation(SimulationConfig config) {
+        this(config, new SplittableRandom(config.getSeed()));
+    }
+
+    /**
+     * Creates a simulation that draws all random choices from the given generator.
+     *
+     * @param config the simulation parameters
+     * @param random the random stream for this run
+     */
+    public FleetSimulation(SimulationConfig config, SplittableRandom random) {
+        this.config = config;
+        this.random = random;
+        this.scheduler = new EventScheduler(new VirtualClock(config.getStart(), ZoneOffset.UTC));
+        this.tripService = new TripService(vehicleRepo, userRepo, config.getPricingStrategy(), scheduler.getClock());
+        this.fleet = new Vehicle[config.getVehicles()];
+        this.riders = new User[config.getUsers()];
+
+        for (int i = 0; i < fleet.length; i++) {
+            fleet[i] = newVehicle("v" + i, random.nextDouble());
+            vehicleRepo.save(fleet[i]);
+        }
+        for (int i = 0; i < riders.length; i++) {
+            riders[i] = new User("u" + i, "Rider " + i, newTier(random.nextDouble()));
+            userRepo.save(riders[i]);
+        }
+    }
+
+    /**
+     * Runs the simulation for the configured duration.
+     *
+     * @return the summary of the run
+     */
+    public SimulationResult run() {
+        if (config.getTripsPerHour() > 0) {
+            scheduler.scheduleAfter(new TripRequestEvent(), exponential(3600.0 / config.getTripsPerHour()));
+        }
+        if (config.getMaintenancePerHour() > 0) {
+            scheduler.scheduleAfter(new MaintenanceEvent(), exponential(3600.0 / config.getMaintenancePerHour()));
+        }
+        Instant end = config.getStart().plus(config.getDuration());
+        scheduler.runUntil(end);
+
+        double fleetSeconds = (double) fleet.length * config.getDuration().getSeconds();
+        double utilization = fleetSeconds > 0 ? tripSeconds / fleetSeconds : 0.0;
+        return new SimulationResult(tripRequests, tripsStarted, tripsCompleted, rejectedStarts,
+                revenue, utilization, scheduler.getProcessedCount(), config.getDuration());
+    }
+
+    public TripService getTripService() {
+        return tripService;
+    }
+
+    public InMemoryVehicleRepository getVehicleRepository() {
+        return vehicleRepo;
+    }
+
+    public InMemoryUserRepository getUserRepository() {
+        return userRepo;
+    }
+
+    public EventScheduler getScheduler() {
+        return scheduler;
+    }
+
+    private Vehicle newVehicle(String id, double draw) {
+        if (draw < config.getCarShare()) {
+            return new Car(id, "Tesla", "Electric", Money.of(1.0));
+        }
+        if (draw < config.getCarShare() + config.getEbikeShare()) {
+            return new EBike(id, "EbikeX", "100%", Money.of(0.5));
+        }
+        return new Scooter(id, "Xiaomi", "150 KG", Money.of(0.3));
+    }
+
+    private MembershipTier newTier(double draw) {
+        if (draw < config.getVipShare()) {
+            return MembershipTier.VIP;
+        }
+        if (draw < config.getVipShare() + config.getPremiumShare()) {
+            return MembershipTier.PREMIUM;
+        }
+        return MembershipTier.STANDARD;
+    }
+
+    private Duration exponential(double meanSeconds) {
+        double seconds = -Math.log(1.0 - random.nextDouble()) * meanSeconds;
+        return Duration.ofNanos(Math.round(seconds * 1e9));
+    }
+
+    /**
+     * A rider asks for a random vehicle. The trip starts if the vehicle is available
+     * and the rider is not already riding, otherwise the request counts as a rejected
+     * start. Schedules the next request.
+     */
+    private final class TripRequestEvent extends SimulationEvent {
+        @Override
+        protected void fire(EventScheduler scheduler) {
+            tripRequests++;
+            User rider = riders[random.nextInt(riders.length)];
+            Vehicle vehicle = fleet[random.nextInt(fleet.length)];
+
+            if (vehicle.getState() == VehicleState.AVAILABLE && tripService.getActiveTrip(rider.getId()) == null) {
+                Trip trip = tripService.startTrip(rider, vehicle);
+                tripsStarted++;
+                Duration length = exponential(config.getMeanTripMinutes() * 60).plusMinutes(1);
+                double km = config.getMeanSpeedKmh() * length.getSeconds() / 3600.0;
+                scheduler.scheduleAfter(new TripEndEvent(trip, km), length);
+            } else {
+                rejectedStarts++;
+            }
+            scheduler.scheduleAfter(this, exponential(3600.0 / config.getTripsPerHour()));
+        }
+    }
+
+    /**
+     * The rider reaches the destination and the trip is ended and priced.
+     */
+    private final class TripEndEvent extends SimulationEvent {
+        private final Trip trip;
+        private final double km;
+
+        TripEndEvent(Trip trip, double km) {
+            this.trip = trip;
+            this.km = km;
+        }
+
+        @Override
+        protected void fire(EventScheduler scheduler) {
+            trip.setDistance(Distance.of(km));
+            Money price = tripService.endTrip(trip.getId().asLong());
+            tripsCompleted++;
+            tripSeconds += trip.getDuration().getSeconds();
+            revenue = revenue.add(price);
+        }
+    }
+
+    /**
+     * Sends a random idle vehicle to maintenance and schedules its return.
+     */
+    private final class MaintenanceEvent extends SimulationEvent {
+        @Override
+        protected void fire(EventScheduler scheduler) {
+            Vehicle vehicle = fleet[random.nextInt(fleet.length)];
+            if (vehicle.compareAndSetState(VehicleState.AVAILABLE, VehicleState.MAINTENANCE)) {
+                scheduler.scheduleAfter(new VehicleStateEvent(vehicle, VehicleState.MAINTENANCE, VehicleState.AVAILABLE),
+                        config.getMaintenanceTime());
+            }
+            scheduler.scheduleAfter(this, exponential(3600.0 / config.getMaintenancePerHour()));
+        }
+    }
+
+    /**
+     * Moves a vehicle from one state to another, if it is still in the expected state.
+     */
+    private static final class VehicleStateEvent extends SimulationEvent {
+        private final Vehicle vehicle;
+        private final VehicleState expected;
+        private final VehicleState target;
+
+        VehicleStateEvent(Vehicle vehicle, VehicleState expected, VehicleState target) {
+            this.vehicle = vehicle;
+            this.expected = expected;
+            this.target = target;
+        }
+
+        @Override
+        protected void fire(EventScheduler scheduler) {
+            vehicle.compareAndSetState(expected, target);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.ismail.fleetShare.simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs many independent replicas of simulation scenarios in parallel on a fork-join pool.
+ *
+ * Each replica gets its own {@link FleetSimulation}, with its own repositories and
+ * services, and its own random stream split from the root seed. The streams are split
+ * in a fixed order before any work starts, and results are merged by replica index,
+ * so the summaries depend only on the seed and never on the number of threads.
+ */
+public class MonteCarloRunner {
+
+    private final int parallelism;
+
+    /**
+     * Creates a runner using all available processors.
+     */
+    public MonteCarloRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a runner with the given number of worker threads.
+     *
+     * @param parallelism the number of worker threads
+     */
+    public MonteCarloRunner(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs every scenario {@code replicas} times and summarizes the results.
+     *
+     * @param scenarios the scenarios to run
+     * @param replicas  the number of replicas per scenario
+     * @param seed      the root seed
+     * @return one summary per scenario, in the same order
+     */
+    public List<ScenarioSummary> run(List<Scenario> scenarios, int replicas, long seed) {
+        int jobs = scenarios.size() * replicas;
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[jobs];
+        for (int i = 0; i < jobs; i++) {
+            streams[i] = root.split();
+        }
+
+        SimulationResult[] results = new SimulationResult[jobs];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new ReplicaTask(scenarios, replicas, streams, results, 0, jobs));
+        } finally {
+            pool.shutdown();
+        }
+
+        List<ScenarioSummary> summaries = new ArrayList<>(scenarios.size());
+        for (int s = 0; s < scenarios.size(); s++) {
+            double[] revenue = new double[replicas];
+            double[] utilization = new double[replicas];
+            double[] rejected = new double[replicas];
+            for (int r = 0; r < replicas; r++) {
+                SimulationResult result = results[s * replicas + r];
+                revenue[r] = result.getRevenue().getAmount().doubleValue();
+                utilization[r] = result.getUtilization();
+                rejected[r] = result.getRejectedStarts();
+            }
+            summaries.add(new ScenarioSummary(scenarios.get(s),
+                    new Distribution(revenue), new Distribution(utilization), new Distribution(rejected)));
+        }
+        return summaries;
+    }
+
+    /**
+     * Splits the replica range in halves until a single replica is left, then runs it.
+     */
+    private static final class ReplicaTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Scenario> scenarios;
+        private final int replicas;
+        private final SplittableRandom[] streams;
+        private final SimulationResult[] results;
+        private final int from;
+        private final int to;
+
+        ReplicaTask(List<Scenario> scenarios, int replicas, SplittableRandom[] streams,
+                    SimulationResult[] results, int from, int to) {
+            this.scenarios = scenarios;
+            this.replicas = replicas;
+            this.streams = streams;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                SimulationConfig config = scenarios.get(from / replicas).getConfig();
+                results[from] = new FleetSimulation(config, streams[from]).run();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ReplicaTask(scenarios, replicas, streams, results, from, mid),
+                    new ReplicaTask(scenarios, replicas, streams, results, mid, to));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ismail.fleetShare.simulation;
+
+/**
+ * A named what-if scenario: one simulation config run many times with different random streams.
+ */
+public class Scenario {
+
+    private final String name;
+    private final SimulationConfig config;
+
+    /**
+     * Creates a scenario.
+     *
+     * @param name   a short label for reports
+     * @param config the simulation parameters; shared read-only by all replicas
+     */
+    public Scenario(String name, SimulationConfig config) {
+        this.name = name;
+        this.config = config;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SimulationConfig getConfig() {
+        return config;
+    }
+}
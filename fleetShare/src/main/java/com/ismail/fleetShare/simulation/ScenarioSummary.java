@@ -0,0 +1,44 @@
+package com.ismail.fleetShare.simulation;
+
+/**
+ * Merged results of all replicas of one {@link Scenario}.
+ */
+public class ScenarioSummary {
+
+    private final Scenario scenario;
+    private final Distribution revenue;
+    private final Distribution utilization;
+    private final Distribution rejectedStarts;
+
+    public ScenarioSummary(Scenario scenario, Distribution revenue,
+                           Distribution utilization, Distribution rejectedStarts) {
+        this.scenario = scenario;
+        this.revenue = revenue;
+        this.utilization = utilization;
+        this.rejectedStarts = rejectedStarts;
+    }
+
+    public Scenario getScenario() {
+        return scenario;
+    }
+
+    public Distribution getRevenue() {
+        return revenue;
+    }
+
+    public Distribution getUtilization() {
+        return utilization;
+    }
+
+    public Distribution getRejectedStarts() {
+        return rejectedStarts;
+    }
+
+    @Override
+    public String toString() {
+        return scenario.getName() + ":\n" +
+                "  revenue     " + revenue + "\n" +
+                "  utilization " + utilization + "\n" +
+                "  rejected    " + rejectedStarts;
+    }
+}
@@ -0,0 +1,207 @@
+package com.ismail.fleetShare.simulation;
+
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.DistanceBasedPricing;
+import com.ismail.fleetShare.domain.price.HybridPricing;
+import com.ismail.fleetShare.domain.price.PricingStrategy;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Parameters of a fleet simulation run.
+ * Setters return this config so a run can be described in one expression.
+ * Defaults describe one day of a mid-size city fleet with hybrid pricing.
+ */
+public class SimulationConfig {
+
+    private long seed = 1L;
+    private Instant start = Instant.parse("2025-01-01T00:00:00Z");
+    private Duration duration = Duration.ofDays(1);
+    private int vehicles = 1_000;
+    private int users = 10_000;
+    private double carShare = 0.2;
+    private double ebikeShare = 0.3;
+    private double premiumShare = 0.2;
+    private double vipShare = 0.05;
+    private double tripsPerHour = 2_000;
+    private double meanTripMinutes = 15;
+    private double meanSpeedKmh = 15;
+    private double maintenancePerHour = 2;
+    private Duration maintenanceTime = Duration.ofHours(2);
+    private PricingStrategy pricingStrategy = new HybridPricing(
+            new TimeBasedPricing(Money.of(0.5)),
+            new DistanceBasedPricing(Money.of(0.2)));
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public SimulationConfig setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public SimulationConfig setStart(Instant start) {
+        this.start = start;
+        return this;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public SimulationConfig setDuration(Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    public int getVehicles() {
+        return vehicles;
+    }
+
+    public SimulationConfig setVehicles(int vehicles) {
+        this.vehicles = vehicles;
+        return this;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public SimulationConfig setUsers(int users) {
+        this.users = users;
+        return this;
+    }
+
+    public double getCarShare() {
+        return carShare;
+    }
+
+    /**
+     * Sets the fraction of the fleet made of cars; the rest after e-bikes are scooters.
+     *
+     * @param carShare fraction between 0 and 1
+     * @return this config
+     */
+    public SimulationConfig setCarShare(double carShare) {
+        this.carShare = carShare;
+        return this;
+    }
+
+    public double getEbikeShare() {
+        return ebikeShare;
+    }
+
+    /**
+     * Sets the fraction of the fleet made of e-bikes; the rest after cars are scooters.
+     *
+     * @param ebikeShare fraction between 0 and 1
+     * @return this config
+     */
+    public SimulationConfig setEbikeShare(double ebikeShare) {
+        this.ebikeShare = ebikeShare;
+        return this;
+    }
+
+    public double getPremiumShare() {
+        return premiumShare;
+    }
+
+    /**
+     * Sets the fraction of riders with the PREMIUM membership tier.
+     *
+     * @param premiumShare fraction between 0 and 1
+     * @return this config
+     */
+    public SimulationConfig setPremiumShare(double premiumShare) {
+        this.premiumShare = premiumShare;
+        return this;
+    }
+
+    public double getVipShare() {
+        return vipShare;
+    }
+
+    /**
+     * Sets the fraction of riders with the VIP membership tier; the rest are STANDARD.
+     *
+     * @param vipShare fraction between 0 and 1
+     * @return this config
+     */
+    public SimulationConfig setVipShare(double vipShare) {
+        this.vipShare = vipShare;
+        return this;
+    }
+
+    public double getTripsPerHour() {
+        return tripsPerHour;
+    }
+
+    /**
+     * Sets the mean rate of trip requests (a Poisson process).
+     *
+     * @param tripsPerHour requests per simulated hour
+     * @return this config
+     */
+    public SimulationConfig setTripsPerHour(double tripsPerHour) {
+        this.tripsPerHour = tripsPerHour;
+        return this;
+    }
+
+    public double getMeanTripMinutes() {
+        return meanTripMinutes;
+    }
+
+    public SimulationConfig setMeanTripMinutes(double meanTripMinutes) {
+        this.meanTripMinutes = meanTripMinutes;
+        return this;
+    }
+
+    public double getMeanSpeedKmh() {
+        return meanSpeedKmh;
+    }
+
+    public SimulationConfig setMeanSpeedKmh(double meanSpeedKmh) {
+        this.meanSpeedKmh = meanSpeedKmh;
+        return this;
+    }
+
+    public double getMaintenancePerHour() {
+        return maintenancePerHour;
+    }
+
+    /**
+     * Sets the mean rate at which a random vehicle is sent to maintenance.
+     *
+     * @param maintenancePerHour maintenance events per simulated hour, 0 to disable
+     * @return this config
+     */
+    public SimulationConfig setMaintenancePerHour(double maintenancePerHour) {
+        this.maintenancePerHour = maintenancePerHour;
+        return this;
+    }
+
+    public Duration getMaintenanceTime() {
+        return maintenanceTime;
+    }
+
+    public SimulationConfig setMaintenanceTime(Duration maintenanceTime) {
+        this.maintenanceTime = maintenanceTime;
+        return this;
+    }
+
+    public PricingStrategy getPricingStrategy() {
+        return pricingStrategy;
+    }
+
+    public SimulationConfig setPricingStrategy(PricingStrategy pricingStrategy) {
+        this.pricingStrategy = pricingStrategy;
+        return this;
+    }
+}
@@ -0,0 +1,41 @@
+package com.ismail.fleetShare.simulation;
+
+import java.time.Instant;
+
+/**
+ * An event processed by the {@link EventScheduler} at a point in virtual time.
+ * Events scheduled for the same instant fire in the order they were scheduled,
+ * which keeps simulation runs deterministic.
+ */
+public abstract class SimulationEvent implements Comparable<SimulationEvent> {
+
+    private Instant time;
+    private long sequence;
+
+    /**
+     * Performs the event. The virtual clock already shows the event time.
+     *
+     * @param scheduler the scheduler, used to schedule follow-up events
+     */
+    protected abstract void fire(EventScheduler scheduler);
+
+    /**
+     * Returns the time at which the event fires.
+     *
+     * @return the event time
+     */
+    public Instant getTime() {
+        return time;
+    }
+
+    void schedule(Instant time, long sequence) {
+        this.time = time;
+        this.sequence = sequence;
+    }
+
+    @Override
+    public int compareTo(SimulationEvent other) {
+        int byTime = time.compareTo(other.time);
+        return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+    }
+}
@@ -0,0 +1,92 @@
+package com.ismail.fleetShare.simulation;
+
+import com.ismail.fleetShare.domain.common.Money;
+
+import java.time.Duration;
+
+/**
+ * Summary of one simulation run.
+ */
+public class SimulationResult {
+
+    private final long tripRequests;
+    private final long tripsStarted;
+    private final long tripsCompleted;
+    private final long rejectedStarts;
+    private final Money revenue;
+    private final double utilization;
+    private final long eventsProcessed;
+    private final Duration simulatedTime;
+
+    public SimulationResult(long tripRequests, long tripsStarted, long tripsCompleted, long rejectedStarts,
+                            Money revenue, double utilization, long eventsProcessed, Duration simulatedTime) {
+        this.tripRequests = tripRequests;
+        this.tripsStarted = tripsStarted;
+        this.tripsCompleted = tripsCompleted;
+        this.rejectedStarts = rejectedStarts;
+        this.revenue = revenue;
+        this.utilization = utilization;
+        this.eventsProcessed = eventsProcessed;
+        this.simulatedTime = simulatedTime;
+    }
+
+    public long getTripRequests() {
+        return tripRequests;
+    }
+
+    public long getTripsStarted() {
+        return tripsStarted;
+    }
+
+    public long getTripsCompleted() {
+        return tripsCompleted;
+    }
+
+    /**
+     * Returns the number of requests rejected because the vehicle was not available.
+     *
+     * @return the rejected start count
+     */
+    public long getRejectedStarts() {
+        return rejectedStarts;
+    }
+
+    /**
+     * Returns the revenue of all completed trips, as computed by the pricing strategy.
+     *
+     * @return the total revenue
+     */
+    public Money getRevenue() {
+        return revenue;
+    }
+
+    /**
+     * Returns the share of vehicle time spent on completed trips.
+     *
+     * @return utilization between 0 and 1
+     */
+    public double getUtilization() {
+        return utilization;
+    }
+
+    public long getEventsProcessed() {
+        return eventsProcessed;
+    }
+
+    public Duration getSimulatedTime() {
+        return simulatedTime;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationResult{" +
+                "requests=" + tripRequests +
+                ", started=" + tripsStarted +
+                ", completed=" + tripsCompleted +
+                ", rejected=" + rejectedStarts +
+                ", revenue=" + revenue +
+                ", utilization=" + String.format("%.4f", utilization) +
+                ", events=" + eventsProcessed +
+                '}';
+    }
+}
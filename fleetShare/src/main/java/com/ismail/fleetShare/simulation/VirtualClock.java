@@ -0,0 +1,64 @@
+package com.ismail.fleetShare.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A clock whose time only moves when the simulation advances it.
+ * Injected into {@link com.ismail.fleetShare.application.TripService} so trips can be
+ * simulated faster than real time.
+ */
+public class VirtualClock extends Clock {
+
+    private final AtomicReference<Instant> now;
+    private final ZoneId zone;
+
+    /**
+     * Creates a virtual clock starting at the given instant.
+     *
+     * @param start the initial time
+     * @param zone  the time zone used to build local date-times
+     */
+    public VirtualClock(Instant start, ZoneId zone) {
+        this(new AtomicReference<>(start), zone);
+    }
+
+    private VirtualClock(AtomicReference<Instant> now, ZoneId zone) {
+        this.now = now;
+        this.zone = zone;
+    }
+
+    /**
+     * Moves the clock forward to the given instant.
+     *
+     * @param time the new current time
+     * @throws IllegalArgumentException if the time is before the current time
+     */
+    public void advanceTo(Instant time) {
+        Instant current = now.get();
+        if (time.isBefore(current)) {
+            throw new IllegalArgumentException("Virtual time cannot go backwards: " + time + " < " + current);
+        }
+        now.set(time);
+    }
+
+    @Override
+    public Instant instant() {
+        return now.get();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * Returns a view of this clock in another zone. Both clocks share the same time.
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new VirtualClock(now, zone);
+    }
+}
@@ -0,0 +1,137 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.columnar.ColumnarVehicleStore;
+import com.ismail.fleetShare.infrastructure.columnar.VehicleView;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the columnar vehicle store and its flyweight views.
+ */
+public class ColumnarVehicleStoreTest {
+
+    @Test
+    public void testViewsReadLikeVehicles() {
+        ColumnarVehicleStore store = new ColumnarVehicleStore(16);
+        Car car = new Car("c1", "Tesla", "Electric", Money.of(1.25));
+        car.setLocation(GeoPoint.of(48.8566, 2.3522));
+        store.save(car);
+        store.save(new EBike("b1", "Cowboy", "80%", Money.ofMinor(2_000, "EUR")));
+
+        VehicleView view = store.findById("c1");
+        assertEquals("c1", view.getId());
+        assertEquals("Tesla", view.getModel());
+        assertEquals("Electric", view.getDetail());
+        assertEquals(Car.class, view.getType());
+        assertEquals(VehicleState.AVAILABLE, view.getState());
+        assertEquals(Money.of(1.25), view.getPricePerMinute());
+        assertTrue(view.getLocation().distanceTo(car.getLocation()) < 1.0);
+
+        VehicleView bike = store.findById("b1");
+        assertEquals("EUR", bike.getPricePerMinute().getCurrency());
+        assertEquals(2_000, bike.getPriceMinorUnits());
+        assertNull(bike.getLocation());
+        assertNull(store.findById("c2"));
+
+        Vehicle copy = bike.toVehicle();
+        assertTrue(copy instanceof EBike);
+        assertEquals("80%", ((EBike) copy).getBatteryLevel());
+        assertEquals(bike.getPricePerMinute(), copy.getPricePerMinute());
+    }
+
+    @Test
+    public void testStateChangesAndQueries() {
+        ColumnarVehicleStore store = new ColumnarVehicleStore(64);
+        for (int i = 0; i < 30; i++) {
+            store.save(i % 3 == 0
+                    ? new Scooter("s" + i, "Xiaomi", "150 KG", Money.of(0.3))
+                    : new EBike("b" + i, "Cowboy", "90%", Money.of(0.2)));
+        }
+        VehicleView scooter = store.findById("s3");
+        assertTrue(scooter.compareAndSetState(VehicleState.AVAILABLE, VehicleState.IN_USE));
+        assertFalse(scooter.compareAndSetState(VehicleState.AVAILABLE, VehicleState.IN_USE));
+        store.findById("b1").setState(VehicleState.MAINTENANCE);
+
+        assertEquals(28, store.countByState(VehicleState.AVAILABLE));
+        assertEquals(1, store.countByState(VehicleState.IN_USE));
+        assertEquals(9, store.findByState(Scooter.class, VehicleState.AVAILABLE, 100).size());
+        assertEquals(5, store.findByState(null, VehicleState.AVAILABLE, 5).size());
+        assertEquals("b1", store.findByState(EBike.class, VehicleState.MAINTENANCE, 10).get(0).getId());
+        assertTrue(store.findByState(Car.class, VehicleState.AVAILABLE, 10).isEmpty());
+
+        List<String> seen = new ArrayList<>();
+        store.forEach(Scooter.class, VehicleState.IN_USE, v -> seen.add(v.getId()));
+        assertEquals(List.of("s3"), seen);
+    }
+
+    @Test
+    public void testSaveReplacesAndRejects() {
+        ColumnarVehicleStore store = new ColumnarVehicleStore(2);
+        int slot = store.save(new Car("c1", "Tesla", "Electric", Money.of(1.0)));
+        Car replacement = new Car("c1", "Renault", "Diesel", Money.of(0.8));
+        replacement.setState(VehicleState.RESERVED);
+        assertEquals(slot, store.save(replacement));
+        assertEquals(1, store.size());
+        assertEquals("Renault", store.view(slot).getModel());
+        assertEquals(0, store.countByState(VehicleState.AVAILABLE));
+        assertEquals(1, store.countByState(VehicleState.RESERVED));
+
+        store.save(new Car("c2", "Tesla", "Electric", Money.of(1.0)));
+        assertThrows(IllegalStateException.class,
+                () -> store.save(new Car("c3", "Tesla", "Electric", Money.of(1.0))));
+        assertThrows(IllegalArgumentException.class,
+                () -> store.save(new Car("c1", "Tesla", "Electric", Money.of(1e30))));
+        assertThrows(IllegalArgumentException.class, () -> store.save(new Vehicle("v1", "Odd", Money.of(1.0)) {
+        }));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.view(2));
+    }
+
+    @Test
+    public void testConcurrentClaimsAndLookups() throws Exception {
+        int vehicles = 20_000;
+        ColumnarVehicleStore store = new ColumnarVehicleStore(vehicles);
+        for (int i = 0; i < vehicles; i++) {
+            store.save(new Scooter("s" + i, "Xiaomi", "150 KG", Money.of(0.3)));
+        }
+        AtomicInteger claimed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> riders = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            riders.add(pool.submit(() -> {
+                for (int i = 0; i < vehicles; i++) {
+                    if (store.findById("s" + i).compareAndSetState(VehicleState.AVAILABLE, VehicleState.IN_USE)) {
+                        claimed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> rider : riders) {
+            rider.get();
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(vehicles, claimed.get());
+        assertEquals(vehicles, store.countByState(VehicleState.IN_USE));
+        assertEquals(0, store.countByState(VehicleState.AVAILABLE));
+    }
+}
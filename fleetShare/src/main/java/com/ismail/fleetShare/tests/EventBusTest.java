@@ -0,0 +1,124 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.event.EventBus;
+import com.ismail.fleetShare.infrastructure.event.EventConsumer;
+import com.ismail.fleetShare.infrastructure.event.FleetEvent;
+import com.ismail.fleetShare.infrastructure.event.WaitStrategy;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that {@link EventBus} consumers see every transition, in order.
+ */
+public class EventBusTest {
+
+    @Test
+    public void testTripServicePublishesTransitions() {
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        TripService tripService = new TripService(vehicleRepo, new InMemoryUserRepository(),
+                new TimeBasedPricing(Money.of(0.5)));
+        EventBus bus = new EventBus(8);
+        vehicleRepo.setEventBus(bus);
+        tripService.setEventBus(bus);
+        List<String> seen = new ArrayList<>();
+        bus.addConsumer("test", (event, sequence, endOfBatch) -> seen.add(describe(event)), WaitStrategy.blocking());
+
+        Vehicle scooter = new Scooter("sc1", "Xiaomi", "150 KG", Money.of(0.3));
+        vehicleRepo.save(scooter);
+        User user = new User("u1", "Ismail", MembershipTier.STANDARD);
+        Trip first = tripService.startTrip(user, scooter);
+        tripService.endTrip(first.getId().asLong());
+        Trip second = tripService.startTrip(user, scooter);
+        tripService.cancelTrip(second.getId().asLong());
+        scooter.setState(VehicleState.MAINTENANCE);
+        bus.close();
+
+        assertEquals(List.of(
+                "sc1 AVAILABLE>IN_USE", "trip CREATED>IN_PROGRESS",
+                "sc1 IN_USE>AVAILABLE", "trip IN_PROGRESS>COMPLETED",
+                "sc1 AVAILABLE>IN_USE", "trip CREATED>IN_PROGRESS",
+                "sc1 IN_USE>AVAILABLE", "trip IN_PROGRESS>CANCELED",
+                "sc1 AVAILABLE>MAINTENANCE"), seen);
+    }
+
+    @Test
+    public void testConcurrentPublishersOnSmallRing() throws Exception {
+        int publishers = 4;
+        int events = 50_000;
+        EventBus bus = new EventBus(64);
+        // per vehicle: the state last seen, the number of events and of out-of-order
+        // events; counted rather than asserted, since the handler runs on the consumer thread
+        List<Map<Vehicle, Object[]>> views = new ArrayList<>();
+        List<EventConsumer> consumers = new ArrayList<>();
+        WaitStrategy shared = WaitStrategy.blocking();
+        for (WaitStrategy strategy : List.of(shared, shared, WaitStrategy.yielding(),
+                WaitStrategy.sleeping(50, TimeUnit.MICROSECONDS))) {
+            Map<Vehicle, Object[]> view = new HashMap<>();
+            views.add(view);
+            consumers.add(bus.addConsumer("c" + consumers.size(), (event, sequence, endOfBatch) -> {
+                Object[] last = view.computeIfAbsent(event.getVehicle(),
+                        v -> new Object[]{VehicleState.AVAILABLE, 0, 0});
+                if (last[0] != event.getPreviousVehicleState()) {
+                    last[2] = (int) last[2] + 1;
+                }
+                last[0] = event.getVehicleState();
+                last[1] = (int) last[1] + 1;
+            }, strategy));
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < publishers; p++) {
+            Vehicle vehicle = new Scooter("v" + p, "Xiaomi", "150 KG", Money.of(0.3));
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < events; i++) {
+                    boolean even = i % 2 == 0;
+                    bus.publishVehicleState(vehicle,
+                            even ? VehicleState.AVAILABLE : VehicleState.IN_USE,
+                            even ? VehicleState.IN_USE : VehicleState.AVAILABLE);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        bus.close();
+
+        assertEquals(publishers * events - 1, bus.getCursor());
+        for (int c = 0; c < consumers.size(); c++) {
+            assertEquals(0, consumers.get(c).getFailureCount());
+            assertEquals(publishers * events - 1, consumers.get(c).getSequence());
+            assertEquals(publishers, views.get(c).size());
+            for (Object[] last : views.get(c).values()) {
+                assertEquals(events, last[1]);
+                assertEquals(0, last[2]);
+            }
+        }
+    }
+
+    private static String describe(FleetEvent event) {
+        if (event.getKind() == FleetEvent.Kind.TRIP_STATE) {
+            return "trip " + event.getPreviousTripState() + ">" + event.getTripState();
+        }
+        return event.getVehicle().getId() + " " + event.getPreviousVehicleState() + ">" + event.getVehicleState();
+    }
+}
@@ -0,0 +1,108 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.ui.http.FleetHttpServer;
+import com.ismail.fleetShare.ui.http.LoadGenerator;
+import org.testng.annotations.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the HTTP front end and the loopback load generator.
+ */
+public class FleetHttpServerTest {
+
+    private final InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+    private final InMemoryUserRepository userRepo = new InMemoryUserRepository();
+    private final TripService tripService = new TripService(vehicleRepo, userRepo, new TimeBasedPricing(Money.of(0.5)));
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    public void testTripOverHttp() throws Exception {
+        vehicleRepo.save(new Scooter("s1", "Xiaomi", "150 KG", Money.of(0.3)));
+        vehicleRepo.save(new Car("c1", "Tesla", "Electric", Money.of(1.0)));
+
+        try (FleetHttpServer server = start()) {
+            URI base = URI.create("http://127.0.0.1:" + server.getPort());
+
+            HttpResponse<String> user = post(base.resolve("/users?id=u1&name=Ada%20L&tier=premium"));
+            assertEquals(201, user.statusCode());
+            assertEquals("PREMIUM", userRepo.findById("u1").getMembershipTier().name());
+            assertEquals("Ada L", userRepo.findById("u1").getName());
+            assertEquals(409, post(base.resolve("/users?id=u1&name=Other&tier=VIP")).statusCode());
+            assertEquals("Ada L", userRepo.findById("u1").getName());
+
+            HttpResponse<String> scooters = get(base.resolve("/vehicles/available?type=scooter"));
+            assertEquals(200, scooters.statusCode());
+            assertTrue(scooters.body().contains("\"id\":\"s1\""));
+            assertFalse(scooters.body().contains("c1"));
+
+            HttpResponse<String> started = post(base.resolve("/trips?user=u1&vehicle=s1"));
+            assertEquals(201, started.statusCode());
+            assertEquals(VehicleState.IN_USE, vehicleRepo.findById("s1").getState());
+            String body = started.body();
+            int from = body.indexOf("\"tripId\":\"") + 10;
+            String tripId = body.substring(from, body.indexOf('"', from));
+
+            assertEquals(409, post(base.resolve("/trips?user=u1&vehicle=s1")).statusCode());
+            assertEquals(404, post(base.resolve("/trips?user=u1&vehicle=nope")).statusCode());
+            assertEquals(404, post(base.resolve("/trips?user=nobody&vehicle=c1")).statusCode());
+            assertEquals(400, post(base.resolve("/trips?user=u1")).statusCode());
+            assertEquals(400, post(base.resolve("/users?id=u2&tier=GOLD")).statusCode());
+            assertEquals(400, get(base.resolve("/trips?user=u1&vehicle=c1")).statusCode());
+
+            HttpResponse<String> ended = post(base.resolve("/trips/" + tripId + "/end"));
+            assertEquals(200, ended.statusCode());
+            assertTrue(ended.body().contains("\"price\":"));
+            assertEquals(VehicleState.AVAILABLE, vehicleRepo.findById("s1").getState());
+            assertEquals(404, post(base.resolve("/trips/" + tripId + "/end")).statusCode());
+        }
+    }
+
+    @Test
+    public void testLoadGeneratorReportsThroughput() throws Exception {
+        vehicleRepo.save(new Scooter("s1", "Xiaomi", "150 KG", Money.of(0.3)));
+        vehicleRepo.save(new Scooter("s2", "Xiaomi", "150 KG", Money.of(0.3)));
+
+        try (FleetHttpServer server = start()) {
+            LoadGenerator.Report report = LoadGenerator.run(URI.create("http://127.0.0.1:" + server.getPort()),
+                    List.of("s1", "s2"), 20, 4, Duration.ofSeconds(2), 5);
+            assertTrue(report.getSucceeded() > 0);
+            assertTrue(report.getConflicts() > 0, "riders racing for two scooters must collide");
+            assertEquals(0, report.getFailed());
+            assertTrue(report.getLatencyMicros(0.99) >= report.getLatencyMicros(0.5));
+        }
+    }
+
+    private FleetHttpServer start() throws Exception {
+        return new FleetHttpServer(tripService, vehicleRepo, userRepo)
+                .start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    private HttpResponse<String> post(URI uri) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(URI uri) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,72 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.simulation.FleetSimulation;
+import com.ismail.fleetShare.simulation.MonteCarloRunner;
+import com.ismail.fleetShare.simulation.Scenario;
+import com.ismail.fleetShare.simulation.SimulationConfig;
+import com.ismail.fleetShare.simulation.SimulationResult;
+import com.ismail.fleetShare.simulation.ScenarioSummary;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the discrete-event fleet simulation.
+ */
+public class FleetSimulationTest {
+
+    @Test
+    public void testSameSeedGivesSameResult() {
+        SimulationConfig config = new SimulationConfig()
+                .setSeed(99)
+                .setDuration(Duration.ofHours(6))
+                .setVehicles(200)
+                .setUsers(1_000)
+                .setTripsPerHour(1_500);
+
+        SimulationResult first = new FleetSimulation(config).run();
+        SimulationResult second = new FleetSimulation(config).run();
+
+        assertTrue(first.getTripsCompleted() > 0);
+        assertEquals(first.getTripRequests(), second.getTripRequests());
+        assertEquals(first.getRejectedStarts(), second.getRejectedStarts());
+        assertEquals(first.getRevenue(), second.getRevenue());
+        assertEquals(first.getTripRequests(), first.getTripsStarted() + first.getRejectedStarts());
+    }
+
+    @Test
+    public void testVirtualClockDrivesTripTimes() {
+        SimulationConfig config = new SimulationConfig()
+                .setDuration(Duration.ofHours(1))
+                .setVehicles(50)
+                .setUsers(50)
+                .setTripsPerHour(100);
+        FleetSimulation simulation = new FleetSimulation(config);
+        simulation.run();
+
+        assertEquals(config.getStart().plus(config.getDuration()), simulation.getScheduler().getClock().instant());
+    }
+
+    @Test
+    public void testMonteCarloIsIndependentOfThreadCount() {
+        List<Scenario> scenarios = List.of(
+                new Scenario("scooters", new SimulationConfig()
+                        .setDuration(Duration.ofHours(3)).setVehicles(100).setUsers(300)
+                        .setCarShare(0).setEbikeShare(0)),
+                new Scenario("vip-heavy", new SimulationConfig()
+                        .setDuration(Duration.ofHours(3)).setVehicles(100).setUsers(300)
+                        .setVipShare(0.5)));
+
+        List<ScenarioSummary> single = new MonteCarloRunner(1).run(scenarios, 6, 2024);
+        List<ScenarioSummary> parallel = new MonteCarloRunner(4).run(scenarios, 6, 2024);
+
+        for (int i = 0; i < scenarios.size(); i++) {
+            assertEquals(single.get(i).toString(), parallel.get(i).toString());
+            assertEquals(6, single.get(i).getRevenue().getCount());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.infrastructure.mapped.MappedUserRepository;
+import com.ismail.fleetShare.infrastructure.mapped.UserCursor;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the memory-mapped user repository, its cache and its cursor.
+ */
+public class MappedUserRepositoryTest {
+
+    @Test
+    public void testUsersSurviveReopening() throws Exception {
+        Path directory = Files.createTempDirectory("users");
+        try (MappedUserRepository users = new MappedUserRepository(directory, 1_000)) {
+            for (int i = 0; i < 1_000; i++) {
+                users.save(new User("u" + i, "Rider " + i, MembershipTier.values()[i % 3]));
+            }
+            assertThrows(IllegalStateException.class,
+                    () -> users.save(new User("ü-1", "Zoë Ångström", MembershipTier.VIP)));
+        }
+
+        try (MappedUserRepository users = new MappedUserRepository(directory, 10, 0)) {
+            assertEquals(1_000, users.size());
+            assertEquals(1_000, users.capacity());
+            User user = users.findById("u42");
+            assertEquals("Rider 42", user.getName());
+            assertEquals(MembershipTier.STANDARD, user.getMembershipTier());
+            assertNull(users.findById("ü-1"));
+            assertNull(users.findById("u1000"));
+        }
+    }
+
+    @Test
+    public void testSaveReplacesNameAndTier() throws Exception {
+        try (MappedUserRepository users = new MappedUserRepository(Files.createTempDirectory("users"), 100, 0)) {
+            users.save(new User("ü-1", "Zoë", MembershipTier.STANDARD));
+            users.save(new User("ü-1", "Zoë", MembershipTier.PREMIUM));
+            assertEquals(MembershipTier.PREMIUM, users.findById("ü-1").getMembershipTier());
+
+            users.save(new User("ü-1", "Zoë Ångström", MembershipTier.VIP));
+            User user = users.findById("ü-1");
+            assertEquals("Zoë Ångström", user.getName());
+            assertEquals(MembershipTier.VIP, user.getMembershipTier());
+            assertEquals(1, users.size());
+            assertThrows(IllegalArgumentException.class, () -> users.save(new User("u2", "No tier", null)));
+        }
+    }
+
+    @Test
+    public void testCursorStreamsEveryUser() throws Exception {
+        try (MappedUserRepository users = new MappedUserRepository(Files.createTempDirectory("users"), 500, 0)) {
+            for (int i = 0; i < 500; i++) {
+                users.save(new User("u" + i, "Rider " + i, i % 10 == 0 ? MembershipTier.VIP : MembershipTier.STANDARD));
+            }
+            Map<String, String> seen = new HashMap<>();
+            int vip = 0;
+            UserCursor cursor = users.findAll();
+            while (cursor.next()) {
+                seen.put(cursor.getId(), cursor.getName());
+                if (cursor.getMembershipTier() == MembershipTier.VIP) {
+                    vip++;
+                }
+            }
+            assertEquals(500, seen.size());
+            assertEquals("Rider 7", seen.get("u7"));
+            assertEquals(50, vip);
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void testCacheKeepsFrequentlyReadUsers() throws Exception {
+        try (MappedUserRepository users = new MappedUserRepository(Files.createTempDirectory("users"), 1_000, 8)) {
+            for (int i = 0; i < 1_000; i++) {
+                users.save(new User("u" + i, "Rider " + i, MembershipTier.STANDARD));
+            }
+            User hot = users.findById("u1");
+            for (int round = 0; round < 3; round++) {
+                assertSame(hot, users.findById("u1"));
+                for (int i = 100; i < 200; i++) {
+                    users.findById("u" + i);
+                }
+            }
+            long hits = users.getCacheHits();
+            // a frequently read user must survive a scan
+            assertSame(hot, users.findById("u1"));
+            assertEquals(hits + 1, users.getCacheHits());
+        }
+    }
+
+    @Test
+    public void testLookupRacingSaveDoesNotCacheOldUser() throws Exception {
+        try (MappedUserRepository users = new MappedUserRepository(Files.createTempDirectory("users"), 100, 8)) {
+            users.save(new User("u1", "Rider 0", MembershipTier.STANDARD));
+            AtomicBoolean done = new AtomicBoolean();
+            Thread reader = new Thread(() -> {
+                while (!done.get()) {
+                    users.findById("u1");
+                    // keeps evicting u1, so most lookups read the files and fill the cache
+                    users.findById("u" + (2 + (int) (Math.random() * 50)));
+                }
+            });
+            reader.start();
+            for (int i = 1; i <= 20_000; i++) {
+                users.save(new User("u1", "Rider " + i, MembershipTier.values()[i % 3]));
+                if (i % 1_000 == 0) {
+                    users.save(new User("u" + (i / 1_000 + 1), "Other", MembershipTier.STANDARD));
+                }
+            }
+            done.set(true);
+            reader.join();
+
+            User last = users.findById("u1");
+            assertEquals("Rider 20000", last.getName());
+            assertEquals(MembershipTier.values()[20_000 % 3], last.getMembershipTier());
+        }
+    }
+}
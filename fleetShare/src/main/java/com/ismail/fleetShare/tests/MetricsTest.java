@@ -0,0 +1,156 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.metrics.Counter;
+import com.ismail.fleetShare.infrastructure.metrics.Gauge;
+import com.ismail.fleetShare.infrastructure.metrics.LatencyTimer;
+import com.ismail.fleetShare.infrastructure.metrics.MetricsRegistry;
+import com.ismail.fleetShare.infrastructure.metrics.MetricsReporter;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the metrics registry, its JMX export and the instrumented services.
+ */
+public class MetricsTest {
+
+    private InMemoryVehicleRepository vehicleRepo;
+    private TripService tripService;
+    private MetricsRegistry registry;
+    private MetricsRegistry timeEverything;
+
+    @BeforeMethod
+    public void setUp() {
+        vehicleRepo = new InMemoryVehicleRepository();
+        tripService = new TripService(vehicleRepo, new InMemoryUserRepository(), new TimeBasedPricing(Money.of(0.5)));
+        registry = new MetricsRegistry();
+        timeEverything = new MetricsRegistry(1);
+    }
+
+    @Test
+    public void testTripOperationsAreTimedAndCounted() {
+        tripService.setMetrics(timeEverything);
+        vehicleRepo.setMetrics(timeEverything);
+        User user = new User("u1", "Ada", MembershipTier.STANDARD);
+        Vehicle scooter = new Scooter("s1", "Xiaomi", "150 KG", Money.of(0.3));
+        vehicleRepo.save(scooter);
+        vehicleRepo.save(new Scooter("s2", "Xiaomi", "150 KG", Money.of(0.3)));
+
+        Trip trip = tripService.startTrip(user, scooter);
+        assertThrows(IllegalStateException.class, () -> tripService.startTrip(user, scooter));
+        assertEquals(1L, gauge("trips.active"));
+        assertEquals(1L, gauge("vehicles.in_use"));
+        assertEquals(1L, gauge("vehicles.available"));
+        assertEquals(1, vehicleRepo.findAvailable().size());
+
+        tripService.endTrip(trip.getId().asLong());
+        assertEquals(1L, timeEverything.timer("trips.start").getCount());
+        assertEquals(1L, timeEverything.timer("trips.end").getCount());
+        assertEquals(1L, timeEverything.timer("trips.price").getCount());
+        assertEquals(1L, timeEverything.counter("trips.start.rejected").getCount());
+        assertEquals(1L, timeEverything.timer("vehicles.findByState").getCount());
+        assertEquals(2L, timeEverything.timer("vehicles.reindex").getCount());
+        assertEquals(0L, gauge("trips.active"));
+        assertEquals(2L, gauge("vehicles.available"));
+        assertEquals(1L, timeEverything.timer("trips.end").getSampleCount());
+        assertTrue(timeEverything.timer("trips.end").getMaxMicros() >= timeEverything.timer("trips.price").getP50Micros());
+
+        String report = timeEverything.report();
+        assertTrue(report.contains("trips.start.rejected"), report);
+        assertTrue(report.contains("count=1 "), report);
+
+        tripService.setMetrics(null);
+        tripService.endTrip(tripService.startTrip(user, scooter).getId().asLong());
+        assertEquals(1L, timeEverything.timer("trips.start").getCount());
+    }
+
+    @Test
+    public void testTimerPercentilesWithinPrecision() {
+        LatencyTimer timer = registry.timer("op");
+        for (long micros = 1; micros <= 1_000; micros++) {
+            timer.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        assertEquals(1_000L, timer.getCount());
+        assertEquals(500.5, timer.getMeanMicros(), 0.01);
+        assertEquals(500.0, timer.getP50Micros(), 500.0 * 0.04);
+        assertEquals(990.0, timer.getP99Micros(), 990.0 * 0.04);
+        assertEquals(1_000.0, timer.getMaxMicros(), 1_000.0 * 0.04);
+        assertEquals(0.0, registry.timer("idle").getMeanMicros());
+
+        LatencyTimer sampled = registry.timer("sampled");
+        for (int i = 0; i < 16_000; i++) {
+            sampled.end(sampled.begin());
+        }
+        assertEquals(16_000L, sampled.getCount());
+        long expected = 16_000L / MetricsRegistry.DEFAULT_SAMPLING;
+        assertTrue(Math.abs(sampled.getSampleCount() - expected) < expected / 2, "samples: " + sampled.getSampleCount());
+        assertThrows(IllegalArgumentException.class, () -> new MetricsRegistry(0));
+
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("op"));
+        assertThrows(IllegalArgumentException.class, () -> registry.timer("bad name"));
+    }
+
+    @Test
+    public void testMetricsAreExportedOverJmx() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        Counter before = registry.counter("trips.start.rejected");
+        before.add(3);
+        registry.registerMBeans(server);
+        tripService.setMetrics(registry);
+
+        ObjectName rejected = new ObjectName(MetricsRegistry.DOMAIN + ":type=Counter,name=trips.start.rejected");
+        assertEquals(3L, server.getAttribute(rejected, "Count"));
+        ObjectName start = MetricsRegistry.objectName("trips.start", registry.get("trips.start"));
+        assertEquals(0L, server.getAttribute(start, "Count"));
+        assertNotNull(server.getAttribute(start, "P99Micros"));
+        ObjectName active = new ObjectName(MetricsRegistry.DOMAIN + ":type=Gauge,name=trips.active");
+        assertEquals(0L, server.getAttribute(active, "Value"));
+        assertThrows(IllegalStateException.class, () -> registry.registerMBeans(server));
+
+        registry.unregisterMBeans();
+        assertFalse(server.isRegistered(rejected));
+        assertFalse(server.isRegistered(start));
+    }
+
+    @Test
+    public void testReporterWritesPeriodically() throws Exception {
+        registry.counter("ticks").increment();
+        BlockingQueue<String> reports = new ArrayBlockingQueue<>(16);
+        MetricsReporter reporter = new MetricsReporter(registry, Duration.ofMillis(20), reports::offer);
+        try {
+            String report = reports.poll(5, TimeUnit.SECONDS);
+            assertNotNull(report);
+            assertTrue(report.startsWith("ticks"), report);
+            assertNotNull(reports.poll(5, TimeUnit.SECONDS));
+        } finally {
+            reporter.close();
+        }
+    }
+
+    private long gauge(String name) {
+        return ((Gauge) timeEverything.get(name)).getValue();
+    }
+}
@@ -0,0 +1,156 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.domain.common.Distance;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.*;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripId;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Differential tests: a compiled pricing tree must give exactly the same result
+ * as the interpreted tree it was compiled from.
+ */
+public class PricingCompilerTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 1, 8, 0);
+
+    @Test
+    public void testRandomTreesMatchInterpretedChain() {
+        Random random = new Random(42);
+        for (int depth = 1; depth <= 8; depth++) {
+            for (int n = 0; n < 300; n++) {
+                PricingStrategy tree = randomTree(random, depth);
+                PricingStrategy compiled = PricingCompiler.compile(tree);
+                for (int t = 0; t < 20; t++) {
+                    Trip trip = randomTrip(random);
+                    assertSameOutcome(tree, compiled, trip);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOverflowFallsBackToInterpretedChain() {
+        PricingStrategy tree = new SurgeDecorator(new TimeBasedPricing(Money.ofMinor(Long.MAX_VALUE / 3, "USD")), 2.5);
+        PricingStrategy compiled = PricingCompiler.compile(tree);
+        Trip trip = randomTrip(new Random(1));
+        trip.setEndTime(BASE.plusMinutes(90));
+
+        Money expected = tree.calculatePrice(trip);
+        assertTrue(!expected.isCompact());
+        assertEquals(expected, compiled.calculatePrice(trip));
+    }
+
+    @Test
+    public void testFallbackCallsCustomStrategyOnce() {
+        int[] calls = new int[2];
+        // the first price does not fit a long, the second overflows the sum
+        PricingStrategy huge = trip -> {
+            calls[0]++;
+            return new Money(new BigDecimal("1e30"));
+        };
+        PricingStrategy nearMax = trip -> {
+            calls[1]++;
+            return Money.ofMinor(Long.MAX_VALUE - 1, "USD");
+        };
+        Trip trip = randomTrip(new Random(3));
+        trip.setStartTime(BASE);
+        trip.setEndTime(BASE.plusMinutes(30));
+
+        PricingStrategy first = new HybridPricing(new TimeBasedPricing(Money.of(0.5)), huge);
+        Money expected = first.calculatePrice(trip);
+        assertEquals(expected, PricingCompiler.compile(first).calculatePrice(trip));
+        assertEquals(2, calls[0]);
+
+        PricingStrategy second = new SurgeDecorator(new HybridPricing(nearMax, new TimeBasedPricing(Money.of(0.5))), 1.5);
+        expected = second.calculatePrice(trip);
+        assertEquals(expected, PricingCompiler.compile(second).calculatePrice(trip));
+        assertEquals(2, calls[1]);
+    }
+
+    @Test
+    public void testCustomStrategyOnlyTreeIsNotCompiled() {
+        PricingStrategy flatFee = trip -> Money.of(2.0);
+        assertTrue(PricingCompiler.compile(flatFee) == flatFee);
+    }
+
+    private static void assertSameOutcome(PricingStrategy tree, PricingStrategy compiled, Trip trip) {
+        Money expected;
+        try {
+            expected = tree.calculatePrice(trip);
+        } catch (IllegalArgumentException e) {
+            try {
+                compiled.calculatePrice(trip);
+            } catch (IllegalArgumentException e2) {
+                return;
+            }
+            throw new AssertionError("compiled tree did not throw: " + e.getMessage());
+        }
+        Money actual = compiled.calculatePrice(trip);
+        assertEquals(expected, actual);
+        assertEquals(expected.getAmount(), actual.getAmount());
+    }
+
+    private static PricingStrategy randomTree(Random random, int depth) {
+        if (depth <= 1) {
+            switch (random.nextInt(5)) {
+                case 0:
+                    return new TimeBasedPricing(randomRate(random));
+                case 1:
+                    return new DistanceBasedPricing(randomRate(random));
+                case 2:
+                    Money fee = randomRate(random);
+                    return trip -> fee;
+                case 3:
+                    Money euros = new Money(BigDecimal.valueOf(random.nextInt(100)), "EUR");
+                    return trip -> euros;
+                default:
+                    return new HybridPricing(new TimeBasedPricing(randomRate(random)),
+                            new DistanceBasedPricing(randomRate(random)));
+            }
+        }
+        if (random.nextBoolean()) {
+            double multiplier = random.nextBoolean()
+                    ? random.nextInt(40) / 10.0
+                    : random.nextDouble() * 3;
+            return new SurgeDecorator(randomTree(random, depth - 1), multiplier);
+        }
+        return new HybridPricing(randomTree(random, depth - 1), randomTree(random, 1 + random.nextInt(depth - 1)));
+    }
+
+    private static Money randomRate(Random random) {
+        return random.nextInt(10) == 0 ? Money.of(random.nextDouble()) : Money.of(random.nextInt(500) / 100.0);
+    }
+
+    private static Trip randomTrip(Random random) {
+        Trip trip = new Trip(new TripId(),
+                new User("u1", "Ismail", MembershipTier.STANDARD),
+                new Scooter("s1", "Xiaomi", "150 KG", Money.of(0.3)));
+        int shape = random.nextInt(6);
+        if (shape != 0) {
+            trip.setStartTime(BASE);
+            if (shape != 1) {
+                trip.setEndTime(BASE.plusSeconds(random.nextInt(4 * 3600)));
+            }
+        }
+        if (shape == 2) {
+            trip.setDistance(null);
+        } else if (shape == 3) {
+            trip.setDistance(Distance.of(random.nextInt(300) / 10.0));
+        } else {
+            trip.setDistance(Distance.of(random.nextDouble() * 40));
+        }
+        return trip;
+    }
+}
@@ -16,11 +16,14 @@ import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
 import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
 import org.testng.annotations.Test;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * PricingTest يحتوي على اختبارات لجميع استراتيجيات التسعير
@@ -149,6 +152,35 @@ public class PricingTest {
         assertEquals("USD", money.getCurrency());
     }
 
+    @Test
+    public void testCurrencyOutsideIsoIsComparedByValue() {
+        assertTrue(Money.currencyCode(new String("EUR")) == Money.currencyCode("EUR"));
+        String points = new String("PTS");
+        assertEquals(points, Money.currencyCode(points));
+        Money sum = new Money(BigDecimal.ONE, points).add(new Money(BigDecimal.TEN, new String("PTS")));
+        assertEquals(new Money(BigDecimal.valueOf(11), "PTS"), sum);
+        assertThrows(IllegalArgumentException.class,
+                () -> sum.add(new Money(BigDecimal.ONE, "EUR")));
+    }
+
+    @Test
+    public void testMultiplyMatchesBigDecimal() {
+        double[] factors = {0.1 + 0.2, 1.15, 0.3, 2.5, 1.0 / 3, 0.1234567, 1e-7, 1.000001, -0.75};
+        long[] amounts = {15, 35, 1, 12_345, 99_999, -7, 1_000_000_007L};
+        for (double factor : factors) {
+            for (long units : amounts) {
+                long expected = BigDecimal.valueOf(units, Money.SCALE)
+                        .multiply(BigDecimal.valueOf(factor))
+                        .setScale(Money.SCALE, Money.ROUNDING)
+                        .unscaledValue().longValueExact();
+                assertEquals(expected, Money.multiplyMinor(units, factor), units + " x " + factor);
+            }
+            assertEquals(new Money(BigDecimal.valueOf(factor)), Money.of(factor));
+        }
+        assertEquals(5L, Money.multiplyMinor(15, 0.1 + 0.2));
+        assertEquals(11L, Money.multiplyMinor(35, 0.1 + 0.2));
+    }
+
     /**
      * اختبار تعديل MembershipTier للمستخدم
      */
@@ -0,0 +1,125 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.ReportingService;
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Distance;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.DistanceBasedPricing;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripListener;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that streaming reports match the batch computation over the same trips.
+ */
+public class ReportingServiceTest {
+
+    @Test
+    public void testStreamingMatchesBatch() throws Exception {
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        InMemoryUserRepository userRepo = new InMemoryUserRepository();
+        TripService tripService = new TripService(vehicleRepo, userRepo, new DistanceBasedPricing(Money.of(0.37)));
+        ReportingService streaming = new ReportingService(tripService);
+
+        Queue<Trip> history = new ConcurrentLinkedQueue<>();
+        Thread[] workers = new Thread[4];
+        for (int t = 0; t < workers.length; t++) {
+            int worker = t;
+            List<Vehicle> fleet = List.of(
+                    new Car("car" + t, "Tesla", "Electric", Money.of(1.0)),
+                    new EBike("bike" + t, "EbikeX", "100%", Money.of(0.5)),
+                    new Scooter("sc" + t, "Xiaomi", "150 KG", Money.of(0.3)));
+            fleet.forEach(vehicleRepo::save);
+            List<User> users = new ArrayList<>();
+            for (MembershipTier tier : MembershipTier.values()) {
+                users.add(new User("u" + t + tier, "User", tier));
+            }
+            workers[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(worker);
+                for (int i = 0; i < 20_000; i++) {
+                    Trip trip = tripService.startTrip(users.get(random.nextInt(users.size())),
+                            fleet.get(random.nextInt(fleet.size())));
+                    trip.setDistance(Distance.of(random.nextInt(1, 200) / 10.0));
+                    if (random.nextInt(10) == 0) {
+                        tripService.cancelTrip(trip.getId().asLong());
+                    } else {
+                        tripService.endTrip(trip.getId().asLong());
+                    }
+                    history.add(trip);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        ReportingService batch = new ReportingService(new ArrayList<>(history));
+        assertEquals(batch.getCompletedTrips().size(), streaming.getCompletedTripCount());
+        assertEquals(batch.getCompletedTripCount(), streaming.getCompletedTripCount());
+        assertEquals(batch.getCanceledTripCount(), streaming.getCanceledTripCount());
+        assertEquals(batch.getTotalRevenue(), streaming.getTotalRevenue());
+        assertEquals(batch.getRevenueByCurrency(), streaming.getRevenueByCurrency());
+        for (Class<? extends Vehicle> type : List.of(Car.class, EBike.class, Scooter.class)) {
+            assertEquals(batch.getCompletedTripCount(type), streaming.getCompletedTripCount(type));
+            assertEquals(batch.getRevenue(type, "USD"), streaming.getRevenue(type, "USD"));
+        }
+        for (MembershipTier tier : MembershipTier.values()) {
+            assertEquals(batch.getCompletedTripCount(tier), streaming.getCompletedTripCount(tier));
+            assertEquals(batch.getRevenue(tier, "USD"), streaming.getRevenue(tier, "USD"));
+        }
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopOthers() {
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        TripService tripService = new TripService(vehicleRepo, new InMemoryUserRepository(),
+                new DistanceBasedPricing(Money.of(0.37)));
+        TripListener failing = new TripListener() {
+            @Override
+            public void onTripCompleted(Trip trip) {
+                throw new IllegalStateException("listener down");
+            }
+
+            @Override
+            public void onTripCanceled(Trip trip) {
+                throw new IllegalStateException("listener down");
+            }
+        };
+        tripService.addTripListener(failing);
+        ReportingService streaming = new ReportingService(tripService);
+
+        User user = new User("u1", "User", MembershipTier.STANDARD);
+        Car car = new Car("car1", "Tesla", "Electric", Money.of(1.0));
+        vehicleRepo.save(car);
+        Trip ended = tripService.startTrip(user, car);
+        ended.setDistance(Distance.of(10));
+        assertEquals(Money.of(3.7), tripService.endTrip(ended.getId().asLong()));
+        tripService.cancelTrip(tripService.startTrip(user, car).getId().asLong());
+
+        assertEquals(1, streaming.getCompletedTripCount());
+        assertEquals(1, streaming.getCanceledTripCount());
+        assertEquals(2, tripService.getListenerFailureCount(failing));
+        assertNull(tripService.getActiveTrip("u1"));
+
+        tripService.removeTripListener(failing);
+        assertEquals(0, tripService.getListenerFailureCount(failing));
+    }
+}
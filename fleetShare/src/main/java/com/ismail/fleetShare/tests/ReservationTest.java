@@ -0,0 +1,157 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.trip.Reservation;
+import com.ismail.fleetShare.domain.trip.ReservationState;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.timer.TimingWheel;
+import com.ismail.fleetShare.simulation.VirtualClock;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for vehicle reservations and the timing wheel releasing them.
+ */
+public class ReservationTest {
+
+    private final VirtualClock clock = new VirtualClock(Instant.parse("2024-03-01T08:00:00Z"), ZoneOffset.UTC);
+    private final InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+    private final TripService tripService = new TripService(vehicleRepo, new InMemoryUserRepository(),
+            new TimeBasedPricing(Money.of(0.5)), clock);
+    private final User rider = new User("u1", "Rider", MembershipTier.STANDARD);
+
+    @Test
+    public void testReservationLifecycle() {
+        Vehicle unlocked = vehicle("s1");
+        Vehicle canceled = vehicle("s2");
+        Vehicle expired = vehicle("s3");
+
+        Reservation first = tripService.reserve(rider, unlocked, Duration.ofMinutes(10));
+        Reservation second = tripService.reserve(rider, canceled);
+        Reservation third = tripService.reserve(rider, expired, Duration.ofMinutes(10));
+        assertEquals(VehicleState.RESERVED, unlocked.getState());
+        assertEquals(3, vehicleRepo.countByState(VehicleState.RESERVED));
+        assertThrows(IllegalStateException.class, () -> tripService.startTrip(rider, unlocked));
+        assertThrows(IllegalStateException.class, () -> tripService.reserve(rider, unlocked));
+
+        clock.advanceTo(clock.instant().plus(Duration.ofMinutes(9)));
+        assertEquals(0, tripService.expireReservations());
+        Trip trip = tripService.unlock(first.getId());
+        assertEquals(VehicleState.IN_USE, unlocked.getState());
+        assertEquals(ReservationState.CONVERTED, first.getState());
+        assertEquals(trip, tripService.getTrip(trip.getId().asLong()));
+        assertThrows(IllegalArgumentException.class, () -> tripService.unlock(first.getId()));
+
+        tripService.cancelReservation(Long.toString(second.getId()));
+        assertEquals(ReservationState.CANCELED, second.getState());
+        assertEquals(VehicleState.AVAILABLE, canceled.getState());
+
+        clock.advanceTo(clock.instant().plus(Duration.ofMinutes(1)));
+        assertEquals(1, tripService.expireReservations());
+        assertEquals(ReservationState.EXPIRED, third.getState());
+        assertEquals(VehicleState.AVAILABLE, expired.getState());
+        assertNull(tripService.getReservation(third.getId()));
+        assertEquals(0, tripService.getReservationCount());
+        assertThrows(IllegalArgumentException.class, () -> tripService.unlock("not-an-id"));
+    }
+
+    @Test
+    public void testUnlockAfterHoldRanOutBeforeExpiry() {
+        Vehicle scooter = vehicle("s1");
+        Reservation reservation = tripService.reserve(rider, scooter, Duration.ofMinutes(10));
+
+        clock.advanceTo(clock.instant().plus(Duration.ofMinutes(10)));
+        assertThrows(IllegalStateException.class, () -> tripService.unlock(reservation.getId()));
+        assertEquals(ReservationState.EXPIRED, reservation.getState());
+        assertEquals(VehicleState.AVAILABLE, scooter.getState());
+        assertEquals(0, tripService.expireReservations());
+    }
+
+    @Test
+    public void testWheelFiresEachTaskOnceAndNeverEarly() {
+        long start = 1_000_000;
+        TimingWheel<long[]> wheel = new TimingWheel<>(10, start);
+        Random random = new Random(7);
+        List<long[]> tasks = new ArrayList<>();
+        List<TimingWheel.Timeout<long[]>> timeouts = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            // deadlines from the past up to beyond the range of the top level
+            long deadline = start - 50 + (long) (Math.pow(random.nextDouble(), 6) * 1e12);
+            long[] task = {deadline, -1};
+            tasks.add(task);
+            timeouts.add(wheel.schedule(task, deadline));
+        }
+        int canceled = 0;
+        for (int i = 0; i < timeouts.size(); i += 7) {
+            assertTrue(timeouts.get(i).cancel());
+            assertFalse(timeouts.get(i).cancel());
+            tasks.get(i)[1] = -2;
+            canceled++;
+        }
+        assertEquals(tasks.size() - canceled, wheel.size());
+
+        long now = start;
+        int fired = 0;
+        while (now < start + 1e12 + 1e10) {
+            now += (long) (Math.pow(random.nextDouble(), 3) * 1e9) + 1;
+            long at = now;
+            fired += wheel.advance(now, task -> {
+                assertEquals(-1, task[1]);
+                task[1] = at;
+            });
+        }
+        assertEquals(tasks.size() - canceled, fired);
+        assertEquals(0, wheel.size());
+        for (long[] task : tasks) {
+            if (task[1] != -2) {
+                assertTrue(task[1] >= task[0], "fired before its deadline");
+            }
+        }
+    }
+
+    @Test
+    public void testWheelFiresWithinOneTick() {
+        TimingWheel<long[]> wheel = new TimingWheel<>(10, 0);
+        Random random = new Random(11);
+        List<long[]> tasks = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            long[] task = {1 + random.nextInt(200_000), -1};
+            tasks.add(task);
+            wheel.schedule(task, task[0]);
+        }
+        for (long now = 1; now <= 200_010; now++) {
+            long at = now;
+            wheel.advance(now, task -> task[1] = at);
+        }
+        for (long[] task : tasks) {
+            assertTrue(task[1] >= task[0] && task[1] < task[0] + 10, "fired at " + task[1] + " for " + task[0]);
+        }
+    }
+
+    private Vehicle vehicle(String id) {
+        Vehicle vehicle = new Scooter(id, "Xiaomi", "150 KG", Money.of(0.3));
+        vehicleRepo.save(vehicle);
+        return vehicle;
+    }
+}
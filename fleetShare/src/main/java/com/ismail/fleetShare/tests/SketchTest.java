@@ -0,0 +1,174 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.ReportingService;
+import com.ismail.fleetShare.application.analytics.HeavyHitters;
+import com.ismail.fleetShare.application.analytics.HyperLogLog;
+import com.ismail.fleetShare.application.analytics.Resolution;
+import com.ismail.fleetShare.application.analytics.SketchWindow;
+import com.ismail.fleetShare.application.analytics.TDigest;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripId;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the sketches behind approximate analytics against exact computation.
+ */
+public class SketchTest {
+
+    @Test
+    public void testDistinctCountWithinError() {
+        HyperLogLog all = new HyperLogLog();
+        HyperLogLog shardA = new HyperLogLog();
+        HyperLogLog shardB = new HyperLogLog();
+        SplittableRandom random = new SplittableRandom(1);
+        Set<String> exact = new HashSet<>();
+        for (int i = 0; i < 300_000; i++) {
+            String rider = "user-" + random.nextInt(100_000);
+            exact.add(rider);
+            all.add(rider);
+            (i % 2 == 0 ? shardA : shardB).add(rider);
+        }
+        double error = Math.abs(all.estimate() - exact.size()) / (double) exact.size();
+        assertTrue(error < 3 * all.getStandardError(), "error " + error);
+
+        // merging shards gives exactly the sketch of the whole stream
+        shardA.merge(shardB);
+        assertEquals(all.estimate(), shardA.estimate());
+
+        HyperLogLog small = new HyperLogLog();
+        for (int i = 0; i < 50; i++) {
+            small.add("user-" + i);
+        }
+        assertEquals(50, small.estimate(), 1);
+    }
+
+    @Test
+    public void testHeavyHittersWithinBound() {
+        HeavyHitters all = new HeavyHitters(100);
+        HeavyHitters shardA = new HeavyHitters(100);
+        HeavyHitters shardB = new HeavyHitters(100);
+        Map<String, Long> exact = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(2);
+        int n = 200_000;
+        for (int i = 0; i < n; i++) {
+            // skewed: vehicle k is used about 1/k as often as vehicle 1
+            String vehicle = "v" + (int) Math.exp(random.nextDouble() * Math.log(5000));
+            exact.merge(vehicle, 1L, Long::sum);
+            all.add(vehicle);
+            (i % 3 == 0 ? shardA : shardB).add(vehicle);
+        }
+        shardA.merge(shardB);
+
+        List<String> trueTop = new ArrayList<>(exact.keySet());
+        trueTop.sort((a, b) -> Long.compare(exact.get(b), exact.get(a)));
+        for (HeavyHitters hh : List.of(all, shardA)) {
+            assertEquals(n, hh.getTotal());
+            long bound = (long) Math.ceil(hh.getRelativeError() * n);
+            Set<String> reported = new HashSet<>();
+            for (HeavyHitters.Entry entry : hh.top(100)) {
+                long truth = exact.get(entry.getValue());
+                assertTrue(entry.getCount() >= truth && entry.getCount() <= truth + bound,
+                        entry + " vs " + truth + " bound " + bound);
+                reported.add(entry.getValue());
+            }
+            assertTrue(reported.containsAll(trueTop.subList(0, 10)), reported.toString());
+        }
+    }
+
+    @Test
+    public void testQuantileRankError() {
+        TDigest all = new TDigest();
+        TDigest shardA = new TDigest();
+        TDigest shardB = new TDigest();
+        SplittableRandom random = new SplittableRandom(3);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // log-normal prices around 4.00
+            values[i] = Math.round(400 * Math.exp(0.6 * gaussian(random)));
+            all.add(values[i]);
+            (i < 30_000 ? shardA : shardB).add(values[i]);
+        }
+        shardA.merge(shardB);
+        Arrays.sort(values);
+        for (TDigest digest : List.of(all, shardA)) {
+            assertEquals(values.length, digest.getCount());
+            for (double q : new double[]{0.5, 0.95, 0.99}) {
+                double estimate = digest.quantile(q);
+                // fraction of values below the estimate, with ties split evenly
+                int below = lowerBound(values, estimate);
+                int notAbove = lowerBound(values, Math.nextUp(estimate));
+                double error = Math.max(0, Math.max((double) below / values.length - q,
+                        q - (double) notAbove / values.length));
+                assertTrue(error < 0.01, q + ": rank error " + error);
+            }
+        }
+    }
+
+    @Test
+    public void testReportingSketches() {
+        Instant end = Instant.parse("2025-03-01T12:30:00Z");
+        Scooter busy = new Scooter("sc-busy", "Xiaomi", "150 KG", Money.of(0.3));
+        List<Trip> trips = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            User user = new User("u" + (i % 250), "Rider", MembershipTier.STANDARD);
+            Scooter scooter = i % 4 == 0 ? busy : new Scooter("sc" + i, "Segway", "120 KG", Money.of(0.3));
+            Trip trip = new Trip(new TripId(), user, scooter);
+            trip.setStartTime(LocalDateTime.ofInstant(end.minusSeconds(600), ZoneOffset.UTC));
+            trip.setEndTime(LocalDateTime.ofInstant(end, ZoneOffset.UTC));
+            trip.setPrice(Money.of(1 + i % 10));
+            trips.add(trip);
+        }
+        ReportingService reporting = new ReportingService(trips);
+        reporting.enableSketches(ZoneOffset.UTC, "USD");
+
+        SketchWindow hour = reporting.getSketches().getWindow(Resolution.HOUR, end);
+        assertEquals(1000, hour.getTripCount());
+        assertEquals(250, hour.getDistinctRiders(), 250 * 3 * new HyperLogLog().getStandardError());
+        assertEquals("Segway", hour.getTopModels(1).get(0).getValue());
+        assertEquals("sc-busy", hour.getTopVehicles(1).get(0).getValue());
+        // half the trips cost 5.00 or less and half 6.00 or more
+        long median = hour.getPricePercentile(0.5).getMinorUnits();
+        assertTrue(median >= Money.of(5).getMinorUnits() && median <= Money.of(6).getMinorUnits(), "p50 " + median);
+        assertEquals(Instant.parse("2025-03-01T12:00:00Z"), hour.getStart());
+        assertEquals(0, reporting.getSketches().getWindow(Resolution.HOUR, end.minusSeconds(3600)).getTripCount());
+    }
+
+    private static int lowerBound(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        double u = random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2 * Math.log(1 - u)) * Math.cos(2 * Math.PI * v);
+    }
+}
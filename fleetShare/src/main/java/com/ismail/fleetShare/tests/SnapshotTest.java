@@ -0,0 +1,115 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Distance;
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.trip.Reservation;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.snapshot.SnapshotReader;
+import com.ismail.fleetShare.infrastructure.snapshot.SnapshotWriter;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests that a snapshot written while trips run loads back into a consistent state.
+ */
+public class SnapshotTest {
+
+    @Test
+    public void testSnapshotRoundTrip() throws Exception {
+        Path file = Files.createTempDirectory("snapshot").resolve("fleet.snapshot");
+
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        InMemoryUserRepository userRepo = new InMemoryUserRepository();
+        TripService tripService = new TripService(vehicleRepo, userRepo, new TimeBasedPricing(Money.of(0.5)));
+
+        User user = new User("u1", "Ismaïl", MembershipTier.VIP);
+        userRepo.save(user);
+        for (int i = 0; i < 50_000; i++) {
+            vehicleRepo.save(new Car("car" + i, "Tesla", "Electric", Money.of(1.25)));
+        }
+        vehicleRepo.save(new Scooter("sc1", "Xiaomi", "150 KG", Money.of(0.3)));
+        vehicleRepo.findById("sc1").setState(VehicleState.MAINTENANCE);
+        vehicleRepo.findById("car42").setLocation(GeoPoint.of(33.5731, -7.5898));
+        vehicleRepo.save(new Car("gold", "Rolls", "Petrol", new Money(new BigDecimal("1e30"), "EUR")));
+        Trip open = tripService.startTrip(user, vehicleRepo.findById("car7"));
+        open.setDistance(Distance.of(3.5));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            long written = SnapshotWriter.writeAsync(file, vehicleRepo, userRepo, tripService, executor).get();
+            assertEquals(50_004L, written);
+        } finally {
+            executor.shutdown();
+        }
+
+        InMemoryVehicleRepository loadedVehicles = new InMemoryVehicleRepository();
+        InMemoryUserRepository loadedUsers = new InMemoryUserRepository();
+        TripService loadedTrips = new TripService(loadedVehicles, loadedUsers, new TimeBasedPricing(Money.of(0.5)));
+        SnapshotReader.load(file, loadedVehicles, loadedUsers, loadedTrips);
+
+        assertEquals("Ismaïl", loadedUsers.findById("u1").getName());
+        assertEquals(50_002, loadedVehicles.size());
+        assertEquals(new Money(new BigDecimal("1e30"), "EUR"), loadedVehicles.findById("gold").getPricePerMinute());
+        assertEquals(Money.of(1.25), loadedVehicles.findById("car42").getPricePerMinute());
+        assertEquals(GeoPoint.of(33.5731, -7.5898), loadedVehicles.findById("car42").getLocation());
+        assertNull(loadedVehicles.findById("car43").getLocation());
+        assertEquals(1, loadedVehicles.findAvailableWithin(Car.class, GeoPoint.of(33.5731, -7.5898), 100).size());
+        assertEquals(VehicleState.MAINTENANCE, loadedVehicles.findById("sc1").getState());
+        assertEquals(VehicleState.IN_USE, loadedVehicles.findById("car7").getState());
+        assertEquals(1, loadedVehicles.countByState(VehicleState.IN_USE));
+
+        Trip restored = loadedTrips.getTrip(open.getId().getValue());
+        assertNotNull(restored);
+        assertEquals(open.getStartTime(), restored.getStartTime());
+        assertEquals(3.5, restored.getDistance().getValue());
+    }
+
+    @Test
+    public void testReservedVehicleLoadsAvailable() throws Exception {
+        Path file = Files.createTempDirectory("snapshot").resolve("fleet.snapshot");
+
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        InMemoryUserRepository userRepo = new InMemoryUserRepository();
+        TripService tripService = new TripService(vehicleRepo, userRepo, new TimeBasedPricing(Money.of(0.5)));
+        User user = new User("u1", "Ismail", MembershipTier.STANDARD);
+        userRepo.save(user);
+        vehicleRepo.save(new Scooter("sc1", "Xiaomi", "150 KG", Money.of(0.3)));
+        Reservation held = tripService.reserve(user, vehicleRepo.findById("sc1"));
+        assertEquals(VehicleState.RESERVED, vehicleRepo.findById("sc1").getState());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            SnapshotWriter.writeAsync(file, vehicleRepo, userRepo, tripService, executor).get();
+        } finally {
+            executor.shutdown();
+        }
+
+        InMemoryVehicleRepository loadedVehicles = new InMemoryVehicleRepository();
+        InMemoryUserRepository loadedUsers = new InMemoryUserRepository();
+        TripService loadedTrips = new TripService(loadedVehicles, loadedUsers, new TimeBasedPricing(Money.of(0.5)));
+        SnapshotReader.load(file, loadedVehicles, loadedUsers, loadedTrips);
+
+        assertEquals(VehicleState.AVAILABLE, loadedVehicles.findById("sc1").getState());
+        assertNull(loadedTrips.getReservation(held.getId()));
+        assertEquals(1, loadedVehicles.findAvailable().size());
+    }
+}
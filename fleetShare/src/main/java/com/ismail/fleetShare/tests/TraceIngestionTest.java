@@ -0,0 +1,162 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.application.telemetry.PositionBatch;
+import com.ismail.fleetShare.application.telemetry.TraceIngestor;
+import com.ismail.fleetShare.application.telemetry.TripTrace;
+import com.ismail.fleetShare.domain.common.Distance;
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.DistanceBasedPricing;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for GPS trace ingestion and the distance it gives ending trips.
+ */
+public class TraceIngestionTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    // about 11.1 m of latitude
+    private static final double STEP = 0.0001;
+
+    private final User user = new User("u1", "Ada", MembershipTier.STANDARD);
+    private InMemoryVehicleRepository vehicleRepo;
+    private TripService tripService;
+    private TraceIngestor ingestor;
+    private int riders;
+
+    @BeforeMethod
+    public void setUp() {
+        vehicleRepo = new InMemoryVehicleRepository();
+        tripService = new TripService(vehicleRepo, new InMemoryUserRepository(), new DistanceBasedPricing(Money.of(2.0)));
+        ingestor = new TraceIngestor(tripService);
+    }
+
+    @Test
+    public void testDistanceAccumulatesAndPricesTheTrip() {
+        tripService.setTraceIngestor(ingestor);
+        Vehicle scooter = new Scooter("s1", "Xiaomi", "150 KG", Money.of(0.3));
+        vehicleRepo.save(scooter);
+        Trip trip = tripService.startTrip(user, scooter);
+        long id = trip.getId().asLong();
+
+        // 100 fixes 2 s apart heading north, about 1.1 km
+        PositionBatch batch = new PositionBatch(8);
+        double expected = 0;
+        for (int i = 0; i < 100; i++) {
+            batch.add(id, 52.0 + i * STEP, 13.0, T0 + i * 2_000L);
+            if (i > 0) {
+                expected += GeoPoint.distanceMeters(52.0 + (i - 1) * STEP, 13.0, 52.0 + i * STEP, 13.0);
+            }
+        }
+        assertEquals(100, ingestor.ingest(batch));
+        TripTrace trace = ingestor.getTrace(id);
+        assertEquals(expected, trace.getDistanceMeters(), 1e-6);
+
+        Money price = tripService.endTrip(id);
+        assertEquals(expected / 1_000.0, trip.getDistance().getValue(), 1e-9);
+        assertEquals(Money.of(2.0).multiply(expected / 1_000.0), price);
+        assertEquals(GeoPoint.of(52.0 + 99 * STEP, 13.0), scooter.getLocation());
+        assertEquals(1, vehicleRepo.findNearestAvailable(Scooter.class, GeoPoint.of(52.0099, 13.0), 1, 50).size());
+        assertNull(ingestor.getTrace(id));
+        assertEquals(0, ingestor.getTraceCount());
+    }
+
+    @Test
+    public void testJitterAndOutliersAreDropped() {
+        Trip trip = start("s1");
+        long id = trip.getId().asLong();
+        PositionBatch batch = new PositionBatch(16)
+                .add(id, 52.0, 13.0, T0)
+                .add(id, 52.00001, 13.0, T0 + 1_000)          // 1.1 m: jitter
+                .add(id, 52.0001, 13.0, T0 + 2_000)           // 11 m: accepted
+                .add(id, 52.1, 13.0, T0 + 3_000)              // 11 km in 1 s: outlier
+                .add(id, 52.0002, 13.0, T0 + 2_000)           // not newer: outlier
+                .add(id, Double.NaN, 13.0, T0 + 4_000)        // invalid: outlier
+                .add(id, 52.0002, 13.0, T0 + 4_000);          // accepted
+        assertEquals(3, ingestor.ingest(batch));
+
+        TripTrace trace = ingestor.getTrace(id);
+        assertEquals(1, trace.getJitterFixes());
+        assertEquals(3, trace.getOutlierFixes());
+        assertEquals(GeoPoint.distanceMeters(52.0, 13.0, 52.0002, 13.0), trace.getDistanceMeters(), 1e-6);
+
+        // a bad anchor is abandoned after repeated outliers, without billing the jump
+        batch.clear();
+        for (int i = 1; i <= 6; i++) {
+            batch.add(id, 48.0 + i * STEP, 2.0, T0 + 4_000 + i * 1_000L);
+        }
+        ingestor.ingest(batch);
+        assertEquals(GeoPoint.distanceMeters(52.0, 13.0, 52.0002, 13.0)
+                + GeoPoint.distanceMeters(48.0 + 5 * STEP, 2.0, 48.0 + 6 * STEP, 2.0), trace.getDistanceMeters(), 1e-6);
+    }
+
+    @Test
+    public void testPathIsDownsampledAndBounded() {
+        ingestor.setPathSpacing(50).setMaxPathPoints(16);
+        Trip trip = start("s1");
+        long id = trip.getId().asLong();
+        PositionBatch batch = new PositionBatch(1024);
+        for (int i = 0; i < 1_000; i++) {
+            batch.add(id, 40.0 + i * STEP, -3.0, T0 + i * 1_000L);
+        }
+        ingestor.ingest(batch);
+        TripTrace trace = ingestor.getTrace(id);
+        List<GeoPoint> path = trace.getPath();
+        assertTrue(path.size() <= 16, "path size " + path.size());
+        assertTrue(path.size() >= 8, "path size " + path.size());
+        assertEquals(GeoPoint.of(40.0, -3.0), path.get(0));
+        long[] times = trace.getPathTimesMillis();
+        for (int i = 1; i < times.length; i++) {
+            assertTrue(times[i] > times[i - 1]);
+        }
+
+        tripService.setTraceIngestor(ingestor);
+        tripService.endTrip(id);
+        List<GeoPoint> finished = trace.getPath();
+        assertTrue(finished.get(finished.size() - 1).distanceTo(GeoPoint.of(40.0 + 999 * STEP, -3.0)) < 1.0);
+    }
+
+    @Test
+    public void testFixesOfUnknownOrEndedTripsAreIgnored() {
+        tripService.setTraceIngestor(ingestor);
+        Trip trip = start("s1");
+        long id = trip.getId().asLong();
+        trip.setDistance(Distance.of(3.0));
+        assertEquals(0, ingestor.ingest(new PositionBatch(1).add(id + 1, 52.0, 13.0, T0)));
+        assertEquals(0, ingestor.getTraceCount());
+
+        // no fixes: the distance set on the trip is kept
+        tripService.endTrip(id);
+        assertEquals(3.0, trip.getDistance().getValue());
+        assertEquals(0, ingestor.ingest(new PositionBatch(1).add(id, 52.0, 13.0, T0)));
+
+        Trip canceled = start("s2");
+        ingestor.ingest(new PositionBatch(1).add(canceled.getId().asLong(), 52.0, 13.0, T0));
+        assertEquals(1, ingestor.getTraceCount());
+        tripService.cancelTrip(canceled.getId().asLong());
+        assertEquals(0, ingestor.getTraceCount());
+    }
+
+    private Trip start(String vehicleId) {
+        Vehicle scooter = new Scooter(vehicleId, "Xiaomi", "150 KG", Money.of(0.3));
+        vehicleRepo.save(scooter);
+        // a rider per trip, as some tests leave their trip running
+        User rider = new User("rider-" + riders++, "Rider", MembershipTier.STANDARD);
+        return tripService.startTrip(rider, scooter);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.infrastructure.archive.Dimension;
+import com.ismail.fleetShare.infrastructure.archive.TripArchive;
+import com.ismail.fleetShare.infrastructure.archive.TripGroup;
+import com.ismail.fleetShare.infrastructure.archive.TripQuery;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the group-by queries of {@link TripArchive} against a direct computation.
+ */
+public class TripArchiveTest {
+
+    private static final List<Class<? extends Vehicle>> TYPES = List.of(Car.class, EBike.class, Scooter.class);
+
+    @Test
+    public void testGroupByMatchesDirectComputation() {
+        ZoneId zone = ZoneId.of("Europe/Paris");
+        TripArchive archive = new TripArchive(zone);
+        Map<List<Object>, long[]> byHourAndType = new HashMap<>();
+        Map<List<Object>, long[]> byHourOfDay = new HashMap<>();
+
+        // 40 days across the March DST change, enough rows for several chunks
+        long origin = Instant.parse("2025-03-10T00:00:00Z").toEpochMilli();
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 300_000; i++) {
+            long end = origin + random.nextLong(40L * 86_400_000L);
+            long start = end - random.nextLong(60_000, 3_600_000);
+            long price = random.nextLong(1, 500_000);
+            String currency = random.nextInt(20) == 0 ? "EUR" : "USD";
+            Class<? extends Vehicle> type = TYPES.get(random.nextInt(TYPES.size()));
+            MembershipTier tier = MembershipTier.values()[random.nextInt(MembershipTier.values().length)];
+            archive.append(i, start, end, price, currency, 1.5f, type, "v" + random.nextInt(1000),
+                    "u" + random.nextInt(5000), tier);
+
+            if (tier == MembershipTier.PREMIUM) {
+                long[] totals = byHourAndType.computeIfAbsent(
+                        List.of(Instant.ofEpochMilli(end / 3_600_000L * 3_600_000L), type, currency),
+                        k -> new long[2]);
+                totals[0]++;
+                totals[1] += price;
+            }
+            if (currency.equals("USD")) {
+                int hour = Instant.ofEpochMilli(end).atZone(zone).getHour();
+                long[] totals = byHourOfDay.computeIfAbsent(List.of(hour), k -> new long[2]);
+                totals[0]++;
+                totals[1] += end - start;
+            }
+        }
+
+        List<TripGroup> groups = archive.query(new TripQuery()
+                .tier(MembershipTier.PREMIUM)
+                .groupBy(Dimension.HOUR, Dimension.VEHICLE_TYPE));
+        assertEquals(byHourAndType.size(), groups.size());
+        for (TripGroup group : groups) {
+            long[] expected = byHourAndType.get(List.of(group.get(Dimension.HOUR),
+                    group.get(Dimension.VEHICLE_TYPE), group.getCurrency()));
+            assertEquals(expected[0], group.getTripCount());
+            assertEquals(expected[1], group.getRevenue().getMinorUnits());
+        }
+
+        List<TripGroup> hours = archive.query(new TripQuery().currency("USD").groupBy(Dimension.HOUR_OF_DAY));
+        assertEquals(24, hours.size());
+        for (TripGroup group : hours) {
+            long[] expected = byHourOfDay.get(List.of(group.get(Dimension.HOUR_OF_DAY)));
+            assertEquals(expected[0], group.getTripCount());
+            assertEquals(expected[1], group.getTotalDuration().toMillis());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress test: many threads race to start a trip on the same hot vehicle.
+ */
+public class TripConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 200;
+
+    @Test
+    public void testHotVehicleIsClaimedOncePerRound() throws Exception {
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        TripService tripService = new TripService(vehicleRepo, new InMemoryUserRepository(),
+                new TimeBasedPricing(Money.of(0.5)));
+        Vehicle scooter = new Scooter("hot", "Xiaomi", "150 KG", Money.of(0.3));
+        vehicleRepo.save(scooter);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                CountDownLatch done = new CountDownLatch(THREADS);
+                AtomicInteger started = new AtomicInteger();
+                Trip[] winner = new Trip[1];
+
+                for (int t = 0; t < THREADS; t++) {
+                    User user = new User("u" + t, "Rider " + t, MembershipTier.STANDARD);
+                    pool.execute(() -> {
+                        try {
+                            start.await();
+                            winner[0] = tripService.startTrip(user, scooter);
+                            started.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            // lost the race
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                start.countDown();
+                assertTrue(done.await(10, TimeUnit.SECONDS));
+
+                assertEquals(1, started.get());
+                assertEquals(VehicleState.IN_USE, scooter.getState());
+                assertEquals(1, vehicleRepo.countByState(VehicleState.IN_USE));
+
+                tripService.endTrip(winner[0].getId().getValue());
+                assertEquals(VehicleState.AVAILABLE, scooter.getState());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, vehicleRepo.findAvailable().size());
+    }
+}
@@ -0,0 +1,141 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.infrastructure.archive.ExportReader;
+import com.ismail.fleetShare.infrastructure.archive.TripArchive;
+import com.ismail.fleetShare.infrastructure.archive.TripExporter;
+import com.ismail.fleetShare.infrastructure.archive.TripQuery;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that CSV and columnar exports of a {@link TripArchive} hold exactly the archived trips.
+ */
+public class TripExportTest {
+
+    private static final List<Class<? extends Vehicle>> TYPES = List.of(Car.class, EBike.class, Scooter.class);
+
+    @Test
+    public void testExportsMatchArchive() throws IOException {
+        TripArchive archive = new TripArchive(ZoneOffset.UTC);
+        List<Object[]> expected = new ArrayList<>();
+        long origin = Instant.parse("2025-03-01T00:00:00Z").toEpochMilli();
+        SplittableRandom random = new SplittableRandom(9);
+        // enough rows for several chunks and a partial last unit
+        for (int i = 0; i < 150_001; i++) {
+            long end = origin + random.nextLong(90L * 86_400_000L);
+            long start = end - random.nextLong(60_000, 3_600_000);
+            long price = random.nextLong(1, 500_000);
+            String currency = random.nextInt(10) == 0 ? "EUR" : "USD";
+            Class<? extends Vehicle> type = TYPES.get(random.nextInt(TYPES.size()));
+            String vehicle = i % 1000 == 0 ? "v,\"é\"" : "v" + random.nextInt(2000);
+            String user = i % 7 == 0 ? null : "u" + random.nextInt(10_000);
+            MembershipTier tier = user == null ? null : MembershipTier.values()[random.nextInt(3)];
+            float km = random.nextInt(20_000) / 1000f;
+            archive.append(1_000_000L + i, start, end, price, currency, km, type, vehicle, user, tier);
+            expected.add(new Object[]{1_000_000L + i, user, vehicle, type.getSimpleName(), start, end,
+                    km, price, currency, tier});
+        }
+
+        Path dir = Files.createTempDirectory("fleetshare-export");
+        for (boolean compress : new boolean[]{false, true}) {
+            TripExporter exporter = new TripExporter(archive).compress(compress);
+
+            Path csv = dir.resolve(compress ? "trips.csv.gz" : "trips.csv");
+            assertEquals(expected.size(), exporter.writeCsv(csv));
+            assertRowsEqual(expected, readCsv(csv, compress));
+
+            Path columns = dir.resolve("trips.col");
+            assertEquals(expected.size(), exporter.writeColumnar(columns));
+            List<Object[]> read = new ArrayList<>();
+            ExportReader.read(columns, (id, user, vehicle, type, start, end, km, price, currency, tier) ->
+                    read.add(new Object[]{id, user, vehicle, type, start, end, km, price, currency, tier}));
+            assertRowsEqual(expected, read);
+        }
+
+        // filters apply to exports as they do to queries
+        Path eur = dir.resolve("eur.col");
+        long eurTrips = expected.stream().filter(row -> row[8].equals("EUR")).count();
+        assertEquals(eurTrips, new TripExporter(archive).filter(new TripQuery().currency("EUR")).writeColumnar(eur));
+        long[] count = new long[1];
+        ExportReader.read(eur, (id, user, vehicle, type, start, end, km, price, currency, tier) -> {
+            assertEquals("EUR", currency);
+            count[0]++;
+        });
+        assertEquals(eurTrips, count[0]);
+    }
+
+    private static void assertRowsEqual(List<Object[]> expected, List<Object[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(Arrays.asList(expected.get(i)), Arrays.asList(actual.get(i)));
+        }
+    }
+
+    private static List<Object[]> readCsv(Path file, boolean compressed) throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        try (InputStream in = compressed ? new GZIPInputStream(Files.newInputStream(file)) : Files.newInputStream(file);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            assertEquals("trip_id,user_id,vehicle_id,vehicle_type,start,end,distance_km,price,currency,tier",
+                    reader.readLine());
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> f = split(line);
+                rows.add(new Object[]{Long.parseLong(f.get(0)), f.get(1).isEmpty() ? null : f.get(1), f.get(2),
+                        f.get(3), Instant.parse(f.get(4)).toEpochMilli(), Instant.parse(f.get(5)).toEpochMilli(),
+                        new BigDecimal(f.get(6)).floatValue(), new BigDecimal(f.get(7)).movePointRight(4).longValueExact(),
+                        f.get(8), f.get(9).isEmpty() ? null : MembershipTier.valueOf(f.get(9))});
+            }
+        }
+        return rows;
+    }
+
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
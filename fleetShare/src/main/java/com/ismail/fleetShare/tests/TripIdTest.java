@@ -0,0 +1,75 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.domain.trip.TripId;
+import com.ismail.fleetShare.domain.trip.TripIdGenerator;
+import com.ismail.fleetShare.infrastructure.collection.ConcurrentLongMap;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link TripIdGenerator} and the primitive-keyed map holding active trips.
+ */
+public class TripIdTest {
+
+    @Test
+    public void testIdsAreUniqueAndOrderedAcrossThreads() throws Exception {
+        TripIdGenerator generator = new TripIdGenerator(7);
+        int threads = 4;
+        int perThread = 200_000;
+        long[][] ids = new long[threads][perThread];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long[] out = ids[t];
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    out[i] = generator.nextId();
+                }
+            });
+            workers[t].start();
+        }
+        Set<Long> seen = new HashSet<>();
+        for (int t = 0; t < threads; t++) {
+            workers[t].join();
+            for (int i = 0; i < perThread; i++) {
+                assertTrue(seen.add(ids[t][i]));
+                assertEquals(7, TripIdGenerator.nodeOf(ids[t][i]));
+                if (i > 0) {
+                    assertTrue(ids[t][i] > ids[t][i - 1]);
+                }
+            }
+        }
+        long first = ids[0][0];
+        assertTrue(Math.abs(TripIdGenerator.timestampOf(first) - System.currentTimeMillis()) < 60_000);
+        assertEquals(new TripId(first), new TripId(new TripId(first).getValue()));
+    }
+
+    @Test
+    public void testLongMapMatchesHashMap() {
+        ConcurrentLongMap<String> map = new ConcurrentLongMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 300_000; i++) {
+            // a small key range forces collisions, removals inside probe chains and resizes
+            long key = random.nextInt(20_000) - 10_000;
+            int op = random.nextInt(4);
+            if (op == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else if (op == 1) {
+                assertEquals(expected.get(key), map.get(key));
+            } else {
+                String value = "v" + i;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+    }
+}
@@ -0,0 +1,163 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.trip.Reservation;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripId;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import org.testng.annotations.Test;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the rider and vehicle indexes of the trip service and the rider history.
+ */
+public class TripIndexTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 200;
+
+    private final InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+    private final TripService tripService = new TripService(vehicleRepo, new InMemoryUserRepository(),
+            new TimeBasedPricing(Money.of(0.5)));
+
+    @Test
+    public void testActiveTripIsIndexedByRiderAndVehicle() {
+        User rider = new User("ada", "Ada", MembershipTier.STANDARD);
+        Vehicle first = scooter("s1");
+        Vehicle second = scooter("s2");
+        assertNull(tripService.getActiveTrip("ada"));
+
+        Trip trip = tripService.startTrip(rider, first);
+        assertEquals(trip, tripService.getActiveTrip("ada"));
+        assertEquals(trip, tripService.getTripByVehicle("s1"));
+        assertNull(tripService.getTripByVehicle("s2"));
+
+        // a second trip is refused and the vehicle it claimed is released
+        assertThrows(IllegalStateException.class, () -> tripService.startTrip(rider, second));
+        assertEquals(VehicleState.AVAILABLE, second.getState());
+        assertEquals(1, tripService.getActiveTrips().size());
+
+        Reservation held = tripService.reserve(rider, second);
+        assertThrows(IllegalStateException.class, () -> tripService.unlock(held.getId()));
+        assertEquals(VehicleState.AVAILABLE, second.getState());
+
+        tripService.endTrip(trip.getId().asLong());
+        assertNull(tripService.getActiveTrip("ada"));
+        assertNull(tripService.getTripByVehicle("s1"));
+        Trip next = tripService.startTrip(rider, second);
+        assertEquals(next, tripService.getTripByVehicle("s2"));
+        tripService.cancelTrip(next.getId().asLong());
+        assertNull(tripService.getActiveTrip("ada"));
+        long[] recent = tripService.getRecentTripIds("ada");
+        assertEquals(2, recent.length);
+        assertEquals(next.getId().asLong(), recent[0]);
+        assertEquals(trip.getId().asLong(), recent[1]);
+    }
+
+    @Test
+    public void testHistoryKeepsTheMostRecentTrips() {
+        User rider = new User("bo", "Bo", MembershipTier.PREMIUM);
+        Vehicle scooter = scooter("s3");
+        assertEquals(0, tripService.getRecentTripIds("bo").length);
+
+        int trips = TripService.HISTORY_SIZE * 2 + 3;
+        long[] ids = new long[trips];
+        for (int i = 0; i < trips; i++) {
+            ids[i] = tripService.startTrip(rider, scooter).getId().asLong();
+            tripService.endTrip(ids[i]);
+
+            long[] recent = tripService.getRecentTripIds("bo");
+            assertEquals(Math.min(i + 1, TripService.HISTORY_SIZE), recent.length);
+            for (int j = 0; j < recent.length; j++) {
+                assertEquals(ids[i - j], recent[j]);
+            }
+        }
+    }
+
+    @Test
+    public void testRestoredTripIsIndexed() {
+        User rider = new User("cy", "Cy", MembershipTier.VIP);
+        Vehicle scooter = scooter("s4");
+        scooter.setState(VehicleState.IN_USE);
+        Trip trip = tripService.restoreTrip(new TripId(), rider, scooter, LocalDateTime.now());
+        assertEquals(trip, tripService.getActiveTrip("cy"));
+        assertEquals(trip, tripService.getTripByVehicle("s4"));
+        tripService.endTrip(trip.getId().asLong());
+        assertEquals(trip.getId().asLong(), tripService.getRecentTripIds("cy")[0]);
+
+        Trip orphan = tripService.restoreTrip(new TripId(), null, scooter("s5"), LocalDateTime.now());
+        tripService.endTrip(orphan.getId().asLong());
+        assertNull(tripService.getTripByVehicle("s5"));
+    }
+
+    @Test
+    public void testRiderRacingForManyVehiclesGetsOne() throws Exception {
+        User rider = new User("dee", "Dee", MembershipTier.STANDARD);
+        Vehicle[] fleet = new Vehicle[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            fleet[t] = scooter("race" + t);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                CountDownLatch done = new CountDownLatch(THREADS);
+                AtomicInteger started = new AtomicInteger();
+
+                for (int t = 0; t < THREADS; t++) {
+                    Vehicle vehicle = fleet[t];
+                    pool.execute(() -> {
+                        try {
+                            start.await();
+                            tripService.startTrip(rider, vehicle);
+                            started.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            // the rider is already riding
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                start.countDown();
+                assertTrue(done.await(10, TimeUnit.SECONDS));
+
+                assertEquals(1, started.get());
+                assertEquals(1, vehicleRepo.countByState(VehicleState.IN_USE));
+                Trip trip = tripService.getActiveTrip("dee");
+                assertEquals(trip, tripService.getTripByVehicle(trip.getVehicle().getId()));
+                tripService.endTrip(trip.getId().asLong());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(TripService.HISTORY_SIZE, tripService.getRecentTripIds("dee").length);
+    }
+
+    private Vehicle scooter(String id) {
+        Vehicle scooter = new Scooter(id, "Xiaomi", "150 KG", Money.of(0.3));
+        vehicleRepo.save(scooter);
+        return scooter;
+    }
+}
@@ -0,0 +1,212 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.journal.JournalRecovery;
+import com.ismail.fleetShare.infrastructure.journal.TripJournal;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a journal written by the services rebuilds the same state on recovery.
+ */
+public class TripJournalTest {
+
+    @Test
+    public void testRecoveryRestoresRepositoriesAndActiveTrips() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        InMemoryUserRepository userRepo = new InMemoryUserRepository();
+        TripService tripService = new TripService(vehicleRepo, userRepo, new TimeBasedPricing(Money.of(0.5)));
+        String openTripId;
+        try (TripJournal journal = new TripJournal(dir, 4096, Duration.ofMillis(1))) {
+            vehicleRepo.setJournal(journal);
+            userRepo.setJournal(journal);
+            tripService.setJournal(journal);
+
+            User user = new User("u1", "Ismail", MembershipTier.PREMIUM);
+            userRepo.save(user);
+            vehicleRepo.save(new Car("car1", "Tesla", "Diecel", Money.of(1.0)));
+            vehicleRepo.save(new EBike("bike1", "EbikeX", "100%", Money.of(0.5)));
+            Scooter scooter = new Scooter("sc1", "Xiaomi", "150 KG", Money.of(0.3));
+            scooter.setLocation(GeoPoint.of(33.57, -7.59));
+            vehicleRepo.save(scooter);
+            vehicleRepo.findById("car1").setLocation(GeoPoint.of(33.58, -7.60));
+            vehicleRepo.findById("car1").setLocation(GeoPoint.of(33.59, -7.61));
+
+            // enough trips to roll over several small segments
+            for (int i = 0; i < 200; i++) {
+                Trip trip = tripService.startTrip(user, vehicleRepo.findById("car1"));
+                if (i % 2 == 0) {
+                    tripService.endTrip(trip.getId().getValue());
+                } else {
+                    tripService.cancelTrip(trip.getId().getValue());
+                }
+            }
+            vehicleRepo.findById("sc1").setState(VehicleState.MAINTENANCE);
+            openTripId = tripService.startTrip(user, vehicleRepo.findById("bike1")).getId().getValue();
+            journal.sync();
+        }
+
+        InMemoryVehicleRepository recoveredVehicles = new InMemoryVehicleRepository();
+        InMemoryUserRepository recoveredUsers = new InMemoryUserRepository();
+        TripService recoveredTrips = new TripService(recoveredVehicles, recoveredUsers, new TimeBasedPricing(Money.of(0.5)));
+        JournalRecovery.recover(dir, recoveredVehicles, recoveredUsers, recoveredTrips);
+
+        assertEquals(MembershipTier.PREMIUM, recoveredUsers.findById("u1").getMembershipTier());
+        assertEquals(VehicleState.AVAILABLE, recoveredVehicles.findById("car1").getState());
+        assertEquals(VehicleState.IN_USE, recoveredVehicles.findById("bike1").getState());
+        assertEquals(VehicleState.MAINTENANCE, recoveredVehicles.findById("sc1").getState());
+        assertEquals("Xiaomi", recoveredVehicles.findById("sc1").getModel());
+        assertEquals(GeoPoint.of(33.57, -7.59), recoveredVehicles.findById("sc1").getLocation());
+        assertEquals(GeoPoint.of(33.59, -7.61), recoveredVehicles.findById("car1").getLocation());
+        assertEquals(List.of(recoveredVehicles.findById("car1")),
+                recoveredVehicles.findNearestAvailable(Car.class, GeoPoint.of(33.59, -7.61), 1, 100));
+        assertNull(recoveredVehicles.findById("bike1").getLocation());
+        assertNotNull(recoveredTrips.getTrip(openTripId));
+
+        // trips restored from the journal can be ended normally
+        recoveredTrips.endTrip(openTripId);
+        assertEquals(VehicleState.AVAILABLE, recoveredVehicles.findById("bike1").getState());
+    }
+
+    @Test
+    public void testTornTailIsIgnoredAndAppendingContinues() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        try (TripJournal journal = new TripJournal(dir, 1 << 16, Duration.ofMillis(1))) {
+            journal.userSaved(new User("u1", "Ismail", MembershipTier.STANDARD));
+        }
+        // simulate a crash in the middle of the next record
+        Path segment = Files.list(dir).findFirst().orElseThrow();
+        byte[] bytes = Files.readAllBytes(segment);
+        int end = 4 + 1 + ByteBuffer.wrap(bytes).getInt(0) + 4;
+        bytes[end + 3] = 40;
+        bytes[end + 4] = 1;
+        Files.write(segment, bytes);
+
+        try (TripJournal journal = new TripJournal(dir, 1 << 16, Duration.ofMillis(1))) {
+            journal.userSaved(new User("u2", "Ahmad", MembershipTier.VIP));
+        }
+
+        InMemoryUserRepository users = new InMemoryUserRepository();
+        long records = JournalRecovery.recover(dir, new InMemoryVehicleRepository(), users,
+                new TripService(new InMemoryVehicleRepository(), users, new TimeBasedPricing(Money.of(0.5))));
+        assertEquals(2, records);
+        assertEquals(MembershipTier.VIP, users.findById("u2").getMembershipTier());
+    }
+
+    @Test
+    public void testVehicleInUseWithoutTripIsReleased() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        InMemoryUserRepository userRepo = new InMemoryUserRepository();
+        TripService tripService = new TripService(vehicleRepo, userRepo, new TimeBasedPricing(Money.of(0.5)));
+        try (TripJournal journal = new TripJournal(dir, 1 << 16, Duration.ofMillis(1))) {
+            vehicleRepo.setJournal(journal);
+            userRepo.setJournal(journal);
+            tripService.setJournal(journal);
+            User user = new User("u1", "Ismail", MembershipTier.STANDARD);
+            userRepo.save(user);
+            vehicleRepo.save(new Scooter("sc1", "Xiaomi", "150 KG", Money.of(0.3)));
+            tripService.startTrip(user, vehicleRepo.findById("sc1"));
+        }
+        // simulate a crash right after the IN_USE record, before the trip start was written
+        Path segment = Files.list(dir).findFirst().orElseThrow();
+        byte[] bytes = Files.readAllBytes(segment);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int last = 0;
+        int end = 0;
+        while (buffer.getInt(end) != 0) {
+            last = end;
+            end += 4 + 1 + buffer.getInt(end) + 4;
+        }
+        Arrays.fill(bytes, last, end, (byte) 0);
+        Files.write(segment, bytes);
+
+        InMemoryVehicleRepository recoveredVehicles = new InMemoryVehicleRepository();
+        InMemoryUserRepository recoveredUsers = new InMemoryUserRepository();
+        TripService recoveredTrips = new TripService(recoveredVehicles, recoveredUsers, new TimeBasedPricing(Money.of(0.5)));
+        JournalRecovery.recover(dir, recoveredVehicles, recoveredUsers, recoveredTrips);
+
+        assertEquals(VehicleState.AVAILABLE, recoveredVehicles.findById("sc1").getState());
+        assertTrue(recoveredTrips.getActiveTrips().isEmpty());
+    }
+
+    @Test
+    public void testPricesBeyondMinorUnitsAreJournaled() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        Money huge = new Money(new BigDecimal("1e30"), "EUR");
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        InMemoryUserRepository userRepo = new InMemoryUserRepository();
+        TripService tripService = new TripService(vehicleRepo, userRepo, trip -> huge);
+        try (TripJournal journal = new TripJournal(dir, 1 << 16, Duration.ofMillis(1))) {
+            vehicleRepo.setJournal(journal);
+            userRepo.setJournal(journal);
+            tripService.setJournal(journal);
+            User user = new User("u1", "Ismail", MembershipTier.STANDARD);
+            userRepo.save(user);
+            vehicleRepo.save(new Car("car1", "Tesla", "Electric", huge));
+            Trip trip = tripService.startTrip(user, vehicleRepo.findById("car1"));
+            assertEquals(huge, tripService.endTrip(trip.getId().getValue()));
+        }
+
+        InMemoryVehicleRepository vehicles = new InMemoryVehicleRepository();
+        InMemoryUserRepository users = new InMemoryUserRepository();
+        long records = JournalRecovery.recover(dir, vehicles, users,
+                new TripService(vehicles, users, new TimeBasedPricing(Money.of(0.5))));
+        assertEquals(6, records);
+        assertEquals(huge, vehicles.findById("car1").getPricePerMinute());
+        assertEquals(VehicleState.AVAILABLE, vehicles.findById("car1").getState());
+    }
+
+    @Test
+    public void testRecordsLargerThanTheScratchBufferAreWritten() throws Exception {
+        Path dir = Files.createTempDirectory("journal");
+        String name = "n".repeat(60_000);
+        String model = "m".repeat(60_000);
+        try (TripJournal journal = new TripJournal(dir, 1 << 20, Duration.ofMillis(1))) {
+            journal.userSaved(new User("u1", name, MembershipTier.STANDARD));
+            journal.vehicleSaved(new Car("car1", model, "\u00e9lectrique".repeat(5_000), Money.of(1.0)));
+        }
+
+        InMemoryVehicleRepository vehicles = new InMemoryVehicleRepository();
+        InMemoryUserRepository users = new InMemoryUserRepository();
+        JournalRecovery.recover(dir, vehicles, users,
+                new TripService(vehicles, users, new TimeBasedPricing(Money.of(0.5))));
+        assertEquals(name, users.findById("u1").getName());
+        assertEquals(model, vehicles.findById("car1").getModel());
+
+        try (TripJournal journal = new TripJournal(Files.createTempDirectory("journal"), 4096,
+                Duration.ofMillis(1))) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> journal.userSaved(new User("u2", name, MembershipTier.STANDARD)));
+            assertThrows(IllegalArgumentException.class,
+                    () -> journal.userSaved(new User("u3", "x".repeat(70_000), MembershipTier.STANDARD)));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.application.analytics.Resolution;
+import com.ismail.fleetShare.application.analytics.RollupWindow;
+import com.ismail.fleetShare.application.analytics.TripRollups;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.trip.TripId;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the windowed counts and percentiles of {@link TripRollups}.
+ */
+public class TripRollupsTest {
+
+    @Test
+    public void testWindowsAndPercentiles() {
+        Instant start = Instant.parse("2025-03-01T00:00:00Z");
+        TripRollups rollups = new TripRollups(ZoneOffset.UTC, "USD");
+        User user = new User("u1", "Ismail", MembershipTier.STANDARD);
+        Scooter scooter = new Scooter("sc1", "Xiaomi", "150 KG", Money.of(0.3));
+
+        // one trip ending every 30 seconds over three hours, durations of 1 to 60 minutes
+        SplittableRandom random = new SplittableRandom(11);
+        List<Long> lastHourDurations = new ArrayList<>();
+        Instant now = start;
+        for (int i = 0; i < 360; i++) {
+            long seconds = random.nextLong(60, 3600);
+            Instant end = start.plusSeconds(3600 + 30L * i);
+            Trip trip = new Trip(new TripId(), user, scooter);
+            trip.setStartTime(LocalDateTime.ofInstant(end.minusSeconds(seconds), ZoneOffset.UTC));
+            trip.setEndTime(LocalDateTime.ofInstant(end, ZoneOffset.UTC));
+            trip.setPrice(Money.of(seconds / 60 * 0.25));
+            rollups.onTripCompleted(trip);
+            if (!end.isBefore(start.plusSeconds(3 * 3600))) {
+                lastHourDurations.add(seconds);
+            }
+            now = end;
+        }
+
+        RollupWindow minute = rollups.getWindow(Resolution.MINUTE, now);
+        assertEquals(2, minute.getTripCount());
+        RollupWindow day = rollups.getWindow(Resolution.DAY, now);
+        assertEquals(360, day.getTripCount());
+        assertEquals(rollups.getWindows(Resolution.HOUR, now, 3).getRevenue(), day.getRevenue());
+
+        RollupWindow hour = rollups.getWindow(Resolution.HOUR, now);
+        assertEquals(lastHourDurations.size(), hour.getTripCount());
+        Collections.sort(lastHourDurations);
+        for (double p : new double[]{0.5, 0.95, 0.99}) {
+            long exact = lastHourDurations.get((int) Math.ceil(p * lastHourDurations.size()) - 1);
+            long estimate = hour.getDurationPercentile(p).getSeconds();
+            assertTrue(Math.abs(estimate - exact) <= exact * 0.035, p + ": " + estimate + " vs " + exact);
+        }
+        // the first hour has rotated out of the two-hour minute ring
+        assertEquals(0, rollups.getWindow(Resolution.MINUTE, start.plusSeconds(3600)).getTripCount());
+    }
+}
@@ -0,0 +1,113 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.domain.common.GeoPoint;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the state, type and spatial indexes of {@link InMemoryVehicleRepository}.
+ */
+public class VehicleRepositoryTest {
+
+    @Test
+    public void testIndexFollowsStateChanges() {
+        InMemoryVehicleRepository repo = new InMemoryVehicleRepository();
+        Car car = new Car("car1", "Tesla", "Diecel", Money.of(1.0));
+        Scooter scooter = new Scooter("sc1", "Xiaomi", "150 KG", Money.of(0.3));
+        repo.save(car);
+        repo.save(scooter);
+        assertEquals(2, repo.findAvailable().size());
+
+        scooter.setState(VehicleState.IN_USE);
+        assertEquals(List.of(car), repo.findAvailable());
+        assertEquals(1, repo.countByState(VehicleState.IN_USE));
+        assertTrue(repo.findAvailable(Scooter.class).isEmpty());
+
+        scooter.setState(VehicleState.AVAILABLE);
+        assertEquals(List.of(scooter), repo.findAvailable(Scooter.class));
+        assertEquals(0, repo.countByState(VehicleState.IN_USE));
+    }
+
+    @Test
+    public void testReplacingVehicleDropsOldIndexEntry() {
+        InMemoryVehicleRepository repo = new InMemoryVehicleRepository();
+        EBike first = new EBike("b1", "EbikeX", "100%", Money.of(0.5));
+        EBike second = new EBike("b1", "EbikeY", "80%", Money.of(0.5));
+        repo.save(first);
+        repo.save(second);
+
+        first.setState(VehicleState.MAINTENANCE);
+        assertEquals(0, repo.countByState(VehicleState.MAINTENANCE));
+        assertEquals(1, repo.viewByState(VehicleState.AVAILABLE).size());
+        Vehicle found = repo.viewByState(EBike.class, VehicleState.AVAILABLE).iterator().next();
+        assertEquals("EbikeY", found.getModel());
+    }
+
+    @Test
+    public void testNearestAvailableMatchesLinearScan() {
+        InMemoryVehicleRepository repo = new InMemoryVehicleRepository();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            Vehicle v = i % 3 == 0
+                    ? new EBike("b" + i, "EbikeX", "100%", Money.of(0.5))
+                    : new Scooter("s" + i, "Xiaomi", "150 KG", Money.of(0.3));
+            v.setLocation(GeoPoint.of(33.55 + random.nextDouble() * 0.1, -7.65 + random.nextDouble() * 0.1));
+            repo.save(v);
+            if (i % 5 == 0) {
+                v.setState(VehicleState.IN_USE);
+            }
+        }
+        // vehicles moved after being indexed must be found at their new place
+        for (Scooter s : repo.findAvailable(Scooter.class).subList(0, 500)) {
+            s.setLocation(GeoPoint.of(33.55 + random.nextDouble() * 0.1, -7.65 + random.nextDouble() * 0.1));
+        }
+
+        for (int q = 0; q < 200; q++) {
+            GeoPoint point = GeoPoint.of(33.55 + random.nextDouble() * 0.1, -7.65 + random.nextDouble() * 0.1);
+            List<Scooter> expected = new ArrayList<>();
+            for (Scooter s : repo.findAvailable(Scooter.class)) {
+                if (point.distanceTo(s.getLocation()) <= 600) {
+                    expected.add(s);
+                }
+            }
+            expected.sort(Comparator.comparingDouble(s -> point.distanceTo(s.getLocation())));
+
+            List<Scooter> within = repo.findAvailableWithin(Scooter.class, point, 600);
+            assertEquals(expected.size(), within.size());
+            assertTrue(within.containsAll(expected));
+            assertEquals(expected.subList(0, Math.min(5, expected.size())),
+                    repo.findNearestAvailable(Scooter.class, point, 5, 600));
+        }
+    }
+
+    @Test
+    public void testWideRadiusStopsAtOccupiedCells() {
+        InMemoryVehicleRepository repo = new InMemoryVehicleRepository();
+        Scooter near = new Scooter("s1", "Xiaomi", "150 KG", Money.of(0.3));
+        Scooter far = new Scooter("s2", "Xiaomi", "150 KG", Money.of(0.3));
+        near.setLocation(GeoPoint.of(33.57, -7.59));
+        far.setLocation(GeoPoint.of(33.60, -7.62));
+        repo.save(near);
+        repo.save(far);
+
+        // a 20,000 km radius is millions of rings; only the few around the two cells are walked
+        GeoPoint point = GeoPoint.of(33.571, -7.591);
+        assertEquals(List.of(near, far), repo.findNearestAvailable(Scooter.class, point, 5, 2e7));
+        assertEquals(2, repo.findAvailableWithin(Scooter.class, point, 2e7).size());
+        assertTrue(repo.findAvailableWithin(Scooter.class, GeoPoint.of(48.85, 2.35), 1000).isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package com.ismail.fleetShare.tests;
+
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.telemetry.TelemetryBatch;
+import com.ismail.fleetShare.infrastructure.telemetry.VehicleTelemetryStore;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the vehicle telemetry store and its low-level index.
+ */
+public class VehicleTelemetryStoreTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    private InMemoryVehicleRepository vehicleRepo;
+    private VehicleTelemetryStore store;
+
+    @BeforeMethod
+    public void setUp() {
+        vehicleRepo = new InMemoryVehicleRepository();
+        store = new VehicleTelemetryStore(vehicleRepo);
+    }
+
+    @Test
+    public void testFindsLowAvailableEBikesLowestFirst() {
+        for (int i = 0; i < 5; i++) {
+            vehicleRepo.save(new EBike("b" + i, "Cowboy", "100%", Money.of(0.2)));
+        }
+        vehicleRepo.save(new Car("c1", "Tesla", "Electric", Money.of(1.0)));
+        vehicleRepo.findById("b3").setState(VehicleState.IN_USE);
+
+        int applied = store.apply(new TelemetryBatch(8)
+                .add("b0", 19.5, T0)
+                .add("b1", 4, T0)
+                .add("b2", 20, T0)
+                .add("b3", 2, T0)
+                .add("b4", 19.9, T0)
+                .add("c1", 5, T0));
+        assertEquals(6, applied);
+
+        List<EBike> low = store.findBelow(EBike.class, 20, VehicleState.AVAILABLE, 10);
+        assertEquals(List.of("b1", "b0", "b4"), low.stream().map(EBike::getId).toList());
+        assertEquals(List.of("b3", "b1"),
+                store.findBelow(EBike.class, 19.5, null, 2).stream().map(EBike::getId).toList());
+        assertEquals(4, store.countBelow(EBike.class, 20));
+        assertEquals(1, store.countBelow(Car.class, 20));
+        assertEquals(List.of("c1"), store.findBelow(Car.class, 6, null, 10).stream().map(Car::getId).toList());
+    }
+
+    @Test
+    public void testReadingsMoveVehiclesBetweenLevels() {
+        vehicleRepo.save(new EBike("b1", "Cowboy", "100%", Money.of(0.2)));
+        store.apply(new TelemetryBatch(8).add("b1", 10, T0));
+        assertEquals(1, store.countBelow(EBike.class, 20));
+
+        store.apply(new TelemetryBatch(8).add("b1", 85, T0 + 1000).add("b1", 150, T0 + 2000));
+        assertEquals(0, store.countBelow(EBike.class, 20));
+        assertEquals(100.0, store.getLevel("b1"));
+        assertEquals(T0 + 2000, store.getTimeMillis("b1"));
+        assertTrue(store.findBelow(EBike.class, 20, null, 10).isEmpty());
+    }
+
+    @Test
+    public void testSkipsStaleUnknownAndInvalidReadings() {
+        vehicleRepo.save(new EBike("b1", "Cowboy", "100%", Money.of(0.2)));
+        store.apply(new TelemetryBatch(8).add("b1", 50, T0));
+
+        int applied = store.apply(new TelemetryBatch(8)
+                .add("b1", 10, T0 - 1)
+                .add("nope", 10, T0)
+                .add("b1", Double.NaN, T0 + 1));
+        assertEquals(0, applied);
+        assertEquals(50.0, store.getLevel("b1"));
+        assertEquals(1, store.size());
+        assertTrue(Double.isNaN(store.getLevel("nope")));
+    }
+
+    @Test
+    public void testRegisteredEBikeStartsAtItsBatteryLevel() {
+        VehicleTelemetryStore standalone = new VehicleTelemetryStore(null);
+        standalone.register(new EBike("b1", "Cowboy", "15%", Money.of(0.2)));
+        standalone.register(new EBike("b2", "Cowboy", "full", Money.of(0.2)));
+
+        assertEquals(15.0, standalone.getLevel("b1"));
+        assertTrue(Double.isNaN(standalone.getLevel("b2")));
+        assertEquals(1, standalone.countBelow(EBike.class, 20));
+        assertEquals(1, standalone.apply(new TelemetryBatch(8).add("b1", 12, T0)));
+        assertEquals(0, standalone.apply(new TelemetryBatch(8).add("b3", 12, T0)));
+    }
+}
@@ -42,7 +42,6 @@ public class ConsoleApp {
 
         TripService tripService = new TripService(vehicleRepo, userRepo, pricingStrategy);
 
-        Map<String, Trip> ongoingTrips = new HashMap<>();
         boolean running = true;
 
 
@@ -127,10 +126,12 @@ public class ConsoleApp {
 
                     User u = userRepo.findById(userId);
                     Vehicle v = vehicleRepo.findById(vehicleId);
+                    Trip ongoing = u == null ? null : tripService.getActiveTrip(u.getId());
 
-                    if (u != null && v != null && v.getState() == VehicleState.AVAILABLE) {
+                    if (ongoing != null) {
+                        System.out.println("User already has an ongoing trip: " + ongoing.getId().getValue());
+                    } else if (u != null && v != null && v.getState() == VehicleState.AVAILABLE) {
                         Trip trip = tripService.startTrip(u, v);
-                        ongoingTrips.put(trip.getId().getValue(), trip);
                         System.out.println("Trip started! Trip ID: " + trip.getId().getValue());
                     } else {
                         System.out.println("User or Vehicle not found / Vehicle not available.");
@@ -141,15 +142,13 @@ public class ConsoleApp {
                 case 5:
                     System.out.print("Enter Trip ID: ");
                     String tripId = scanner.nextLine();
-                    Trip tripToEnd = ongoingTrips.get(tripId);
+                    Trip tripToEnd = tripService.getTrip(tripId);
 
                     if (tripToEnd != null) {
                         Money price = tripService.endTrip(tripId);
 
                         java.time.Duration duration = tripToEnd.getDuration();
 
-                        ongoingTrips.remove(tripId);
-
                         System.out.println("Trip ended successfully!");
                         System.out.println("Duration: " + duration.toMinutes() + " minutes");
                         System.out.println("Price: $" + price);
@@ -0,0 +1,31 @@
+package com.ismail.fleetShare.ui;
+
+import com.ismail.fleetShare.simulation.FleetSimulation;
+import com.ismail.fleetShare.simulation.SimulationConfig;
+import com.ismail.fleetShare.simulation.SimulationResult;
+
+import java.time.Duration;
+
+/**
+ * Headless entry point that runs a fleet simulation and prints a summary.
+ *
+ * Usage: {@code SimulationApp [seed] [days] [vehicles] [tripsPerHour]}
+ */
+public class SimulationApp {
+
+    public static void main(String[] args) {
+        SimulationConfig config = new SimulationConfig()
+                .setSeed(args.length > 0 ? Long.parseLong(args[0]) : 1L)
+                .setDuration(Duration.ofDays(args.length > 1 ? Long.parseLong(args[1]) : 1L))
+                .setVehicles(args.length > 2 ? Integer.parseInt(args[2]) : 10_000)
+                .setTripsPerHour(args.length > 3 ? Double.parseDouble(args[3]) : 20_000);
+
+        long startNanos = System.nanoTime();
+        SimulationResult result = new FleetSimulation(config).run();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+
+        System.out.println(result);
+        System.out.printf("Simulated %s in %.2f s (%.0f trips/min wall clock)%n",
+                result.getSimulatedTime(), seconds, result.getTripsCompleted() / seconds * 60);
+    }
+}
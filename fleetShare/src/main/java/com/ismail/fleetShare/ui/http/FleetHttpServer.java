@@ -0,0 +1,363 @@
+package com.ismail.fleetShare.ui.http;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.trip.Trip;
+import com.ismail.fleetShare.domain.user.MembershipTier;
+import com.ismail.fleetShare.domain.user.User;
+import com.ismail.fleetShare.domain.vehicle.Car;
+import com.ismail.fleetShare.domain.vehicle.EBike;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.domain.vehicle.Vehicle;
+import com.ismail.fleetShare.domain.vehicle.VehicleState;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP front end for the trip engine, built on the JDK's {@link HttpServer}.
+ * Endpoints, with parameters in the query string or a form-encoded body:
+ * - POST /users?id=&amp;name=&amp;tier= registers a new user
+ * - GET /vehicles/available?type=&amp;limit= lists available vehicles
+ * - POST /trips?user=&amp;vehicle= starts a trip
+ * - POST /trips/{id}/end ends a trip and returns its price
+ * Responses are small JSON documents. Unknown users, vehicles and trips give 404,
+ * a user id that is taken or a vehicle that is not available gives 409, and missing
+ * or invalid parameters 400.
+ *
+ * Connections are multiplexed by the server's selector thread and each request is
+ * handled on its own virtual thread when the runtime has them (Java 21 and later).
+ * On older runtimes requests run on a small fixed pool instead: handlers never block
+ * on I/O, so a thread per core is enough to keep up.
+ */
+public class FleetHttpServer implements AutoCloseable {
+
+    private static final int BACKLOG = 4096;
+    private static final int DEFAULT_LIMIT = 100;
+
+    static {
+        // the JDK server writes the headers and the body of a response separately; without
+        // TCP_NODELAY the body waits for the client's delayed ACK, about 40 ms per request
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final TripService tripService;
+    private final InMemoryVehicleRepository vehicleRepo;
+    private final InMemoryUserRepository userRepo;
+    private HttpServer server;
+    private ExecutorService executor;
+    private boolean virtualThreads;
+
+    /**
+     * Creates a server for the given services. Call {@link #start} to accept requests.
+     *
+     * @param tripService the service starting and ending trips
+     * @param vehicleRepo the repository of vehicles
+     * @param userRepo    the repository of users
+     */
+    public FleetHttpServer(TripService tripService,
+                           InMemoryVehicleRepository vehicleRepo,
+                           InMemoryUserRepository userRepo) {
+        this.tripService = tripService;
+        this.vehicleRepo = vehicleRepo;
+        this.userRepo = userRepo;
+    }
+
+    /**
+     * Binds the server and starts accepting requests.
+     *
+     * @param address the address to listen on; port 0 picks a free port
+     * @return this server
+     * @throws IOException if the address cannot be bound
+     * @throws IllegalStateException if the server was already started
+     */
+    public synchronized FleetHttpServer start(InetSocketAddress address) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Server already started!");
+        }
+        server = HttpServer.create(address, BACKLOG);
+        server.createContext("/users", exchange -> handle(exchange, this::registerUser));
+        server.createContext("/vehicles/available", exchange -> handle(exchange, this::listAvailable));
+        server.createContext("/trips", exchange -> handle(exchange, this::trips));
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.start();
+        return this;
+    }
+
+    /**
+     * Returns the port the server listens on.
+     *
+     * @return the bound port
+     * @throws IllegalStateException if the server is not started
+     */
+    public synchronized int getPort() {
+        if (server == null) {
+            throw new IllegalStateException("Server not started!");
+        }
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns whether requests are handled on virtual threads.
+     *
+     * @return true on runtimes with virtual threads
+     */
+    public synchronized boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Stops accepting requests and waits up to a second for the running ones.
+     */
+    @Override
+    public synchronized void close() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdown();
+            server = null;
+        }
+    }
+
+    private void registerUser(HttpExchange exchange, Map<String, String> params) throws IOException {
+        requireMethod(exchange, "POST");
+        String id = required(params, "id");
+        MembershipTier tier;
+        try {
+            tier = MembershipTier.valueOf(params.getOrDefault("tier", "STANDARD").trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid tier: " + params.get("tier"));
+        }
+        if (!userRepo.saveIfAbsent(new User(id, params.getOrDefault("name", id), tier))) {
+            respond(exchange, 409, error("User already exists: " + id));
+            return;
+        }
+        respond(exchange, 201, "{\"id\":" + quote(id) + ",\"tier\":\"" + tier + "\"}");
+    }
+
+    /**
+     * Lists from the live index without copying it, stopping at the limit.
+     */
+    private void listAvailable(HttpExchange exchange, Map<String, String> params) throws IOException {
+        requireMethod(exchange, "GET");
+        int limit = params.containsKey("limit") ? parseLimit(params.get("limit")) : DEFAULT_LIMIT;
+        String type = params.get("type");
+        Collection<Vehicle> available = type == null
+                ? vehicleRepo.viewByState(VehicleState.AVAILABLE)
+                : vehicleRepo.viewByState(vehicleType(type), VehicleState.AVAILABLE);
+        StringBuilder json = new StringBuilder(64 + Math.min(limit, 1024) * 64).append("{\"vehicles\":[");
+        int count = 0;
+        for (Vehicle vehicle : available) {
+            if (count == limit) {
+                break;
+            }
+            if (count++ > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(quote(vehicle.getId()))
+                    .append(",\"type\":\"").append(vehicle.getClass().getSimpleName())
+                    .append("\",\"model\":").append(quote(vehicle.getModel()))
+                    .append(",\"pricePerMinute\":\"").append(vehicle.getPricePerMinute().getAmount().toPlainString())
+                    .append("\"}");
+        }
+        respond(exchange, 200, json.append("]}").toString());
+    }
+
+    private void trips(HttpExchange exchange, Map<String, String> params) throws IOException {
+        requireMethod(exchange, "POST");
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals("/trips") || path.equals("/trips/")) {
+            startTrip(exchange, params);
+        } else if (path.startsWith("/trips/") && path.endsWith("/end")) {
+            endTrip(exchange, path.substring("/trips/".length(), path.length() - "/end".length()));
+        } else {
+            respond(exchange, 404, error("Not found: " + path));
+        }
+    }
+
+    private void startTrip(HttpExchange exchange, Map<String, String> params) throws IOException {
+        String userId = required(params, "user");
+        String vehicleId = required(params, "vehicle");
+        User user = userRepo.findById(userId);
+        if (user == null) {
+            respond(exchange, 404, error("User not found: " + userId));
+            return;
+        }
+        Vehicle vehicle = vehicleRepo.findById(vehicleId);
+        if (vehicle == null) {
+            respond(exchange, 404, error("Vehicle not found: " + vehicleId));
+            return;
+        }
+        Trip trip = tripService.startTrip(user, vehicle);
+        respond(exchange, 201, "{\"tripId\":\"" + trip.getId().getValue()
+                + "\",\"vehicle\":" + quote(vehicleId)
+                + ",\"startTime\":\"" + trip.getStartTime() + "\"}");
+    }
+
+    private void endTrip(HttpExchange exchange, String tripId) throws IOException {
+        Money price;
+        try {
+            price = tripService.endTrip(tripId);
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 404, error(e.getMessage()));
+            return;
+        }
+        respond(exchange, 200, "{\"tripId\":" + quote(tripId)
+                + ",\"price\":\"" + price.getAmount().toPlainString()
+                + "\",\"currency\":\"" + price.getCurrency() + "\"}");
+    }
+
+    /**
+     * Runs a handler and turns the engine's exceptions into status codes, so every
+     * exchange is answered and closed.
+     */
+    private static void handle(HttpExchange exchange, Endpoint endpoint) {
+        try {
+            try {
+                endpoint.handle(exchange, parameters(exchange));
+            } catch (IllegalStateException e) {
+                respond(exchange, 409, error(e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                respond(exchange, 500, error("Internal error"));
+            }
+        } catch (IOException e) {
+            // the client went away; nothing left to answer
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        if (body.length > 0) {
+            parseForm(new String(body, StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) {
+        if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+            throw new IllegalArgumentException("Use " + method + " for " + exchange.getRequestURI().getPath());
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static int parseLimit(String value) {
+        try {
+            int limit = Integer.parseInt(value);
+            if (limit < 0) {
+                throw new IllegalArgumentException("Invalid limit: " + value);
+            }
+            return limit;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit: " + value);
+        }
+    }
+
+    private static Class<? extends Vehicle> vehicleType(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "car":
+                return Car.class;
+            case "ebike":
+                return EBike.class;
+            case "scooter":
+                return Scooter.class;
+            default:
+                throw new IllegalArgumentException("Invalid vehicle type: " + name);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    private static String quote(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    /**
+     * Returns a virtual-thread-per-task executor when the runtime has one, looked up
+     * reflectively since the code is compiled for older releases.
+     */
+    private ExecutorService newRequestExecutor() {
+        try {
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            virtualThreads = true;
+            return virtual;
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory factory = task -> {
+                Thread thread = new Thread(task, "fleet-http-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), factory);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Endpoint {
+        void handle(HttpExchange exchange, Map<String, String> params) throws IOException;
+    }
+}
@@ -0,0 +1,410 @@
+package com.ismail.fleetShare.ui.http;
+
+import com.ismail.fleetShare.application.TripService;
+import com.ismail.fleetShare.application.analytics.LogHistogram;
+import com.ismail.fleetShare.domain.common.Money;
+import com.ismail.fleetShare.domain.price.DistanceBasedPricing;
+import com.ismail.fleetShare.domain.price.HybridPricing;
+import com.ismail.fleetShare.domain.price.TimeBasedPricing;
+import com.ismail.fleetShare.domain.vehicle.Scooter;
+import com.ismail.fleetShare.infrastructure.InMemoryUserRepository;
+import com.ismail.fleetShare.infrastructure.InMemoryVehicleRepository;
+import com.ismail.fleetShare.infrastructure.metrics.MetricsRegistry;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loopback load generator for {@link FleetHttpServer}.
+ * Simulates riders that register, look at the available vehicles, start a trip on a
+ * random vehicle and end it, thinking for an exponentially distributed time between
+ * requests. A fixed number of keep-alive connections serves all riders, so many more
+ * riders than sockets can be simulated. The client speaks just enough HTTP/1.1 to send
+ * these requests, which keeps its own cost per request well below the server's.
+ *
+ * Latency is measured from the moment a rider wanted to send a request, not from when
+ * a connection became free, so queueing in an overloaded client counts against the
+ * server instead of hiding behind it. The first fifth of the run is a warm-up and is
+ * not counted.
+ *
+ * Run with {@code riders connections seconds thinkMillis}, e.g. {@code 20000 256 30 1000}.
+ */
+public final class LoadGenerator {
+
+    private final InetSocketAddress address;
+    private final List<String> vehicleIds;
+    private final DelayQueue<Rider> queue = new DelayQueue<>();
+    private final LogHistogram latencyMicros = new LogHistogram(5, TimeUnit.MINUTES.toMicros(1));
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final long thinkNanos;
+    private volatile long measureFrom;
+    private volatile boolean stopped;
+
+    private LoadGenerator(URI base, List<String> vehicleIds, long thinkMillis) {
+        this.address = new InetSocketAddress(base.getHost(), base.getPort());
+        this.vehicleIds = vehicleIds;
+        this.thinkNanos = TimeUnit.MILLISECONDS.toNanos(thinkMillis);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int riders = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        long thinkMillis = args.length > 3 ? Long.parseLong(args[3]) : 1_000;
+
+        InMemoryVehicleRepository vehicleRepo = new InMemoryVehicleRepository();
+        InMemoryUserRepository userRepo = new InMemoryUserRepository();
+        TripService tripService = new TripService(vehicleRepo, userRepo, new HybridPricing(
+                new TimeBasedPricing(Money.of(0.5)), new DistanceBasedPricing(Money.of(0.2))));
+        List<String> vehicleIds = new ArrayList<>();
+        for (int i = 0; i < riders * 2; i++) {
+            String id = "scooter-" + i;
+            vehicleRepo.save(new Scooter(id, "Xiaomi", "150 KG", Money.of(0.3)));
+            vehicleIds.add(id);
+        }
+        MetricsRegistry metrics = new MetricsRegistry();
+        tripService.setMetrics(metrics);
+        vehicleRepo.setMetrics(metrics);
+        metrics.registerMBeans(ManagementFactory.getPlatformMBeanServer());
+
+        try (FleetHttpServer server = new FleetHttpServer(tripService, vehicleRepo, userRepo)
+                .start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            System.out.printf("Server on port %d, %s; %d riders over %d connections for %d s%n",
+                    server.getPort(), server.usesVirtualThreads() ? "virtual threads" : "platform thread pool",
+                    riders, connections, seconds);
+            Report report = run(URI.create("http://127.0.0.1:" + server.getPort()),
+                    vehicleIds, riders, connections, Duration.ofSeconds(seconds), thinkMillis);
+            System.out.println(report);
+            System.out.println();
+            System.out.print(metrics.report());
+        }
+    }
+
+    /**
+     * Runs riders against a server until the duration has passed.
+     *
+     * @param base        the server address, e.g. {@code http://127.0.0.1:8080}
+     * @param vehicleIds  the ids of the vehicles riders pick from
+     * @param riders      the number of simulated riders
+     * @param connections the number of concurrent client connections
+     * @param duration    how long to run, including the warm-up
+     * @param thinkMillis the mean time a rider waits between requests
+     * @return the measured throughput and latency
+     * @throws InterruptedException if interrupted while waiting for the run to end
+     */
+    public static Report run(URI base, List<String> vehicleIds, int riders, int connections,
+                             Duration duration, long thinkMillis) throws InterruptedException {
+        LoadGenerator generator = new LoadGenerator(base, vehicleIds, thinkMillis);
+        long start = System.nanoTime();
+        for (int i = 0; i < riders; i++) {
+            generator.queue.add(new Rider("rider-" + i, start + generator.think()));
+        }
+        generator.measureFrom = start + duration.toNanos() / 5;
+
+        List<Thread> lanes = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            Thread lane = new Thread(generator::lane, "load-" + i);
+            lane.setDaemon(true);
+            lane.start();
+            lanes.add(lane);
+        }
+        Thread.sleep(duration.toMillis());
+        generator.stopped = true;
+        long elapsed = System.nanoTime() - generator.measureFrom;
+        for (Thread lane : lanes) {
+            lane.join();
+        }
+        return new Report(generator.latencyMicros, generator.succeeded.get(), generator.conflicts.get(),
+                generator.failed.get(), elapsed);
+    }
+
+    private void lane() {
+        Random random = ThreadLocalRandom.current();
+        Connection connection = new Connection(address);
+        try {
+            drive(connection, random);
+        } finally {
+            connection.close();
+        }
+    }
+
+    private void drive(Connection connection, Random random) {
+        while (!stopped) {
+            Rider rider;
+            try {
+                rider = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (rider == null) {
+                continue;
+            }
+            int status;
+            try {
+                status = connection.send(rider.nextRequest(this, random));
+            } catch (IOException e) {
+                connection.close();
+                status = -1;
+            }
+            long now = System.nanoTime();
+            if (rider.due >= measureFrom && !stopped) {
+                latencyMicros.record((now - rider.due) / 1_000);
+                if (status >= 200 && status < 300) {
+                    succeeded.incrementAndGet();
+                } else if (status == 409) {
+                    conflicts.incrementAndGet();
+                } else {
+                    failed.incrementAndGet();
+                }
+            }
+            rider.onResponse(status, status == -1 ? "" : connection.body());
+            rider.due = now + think();
+            queue.add(rider);
+        }
+    }
+
+    private long think() {
+        return (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * thinkNanos);
+    }
+
+    private static String post(String target) {
+        return "POST " + target + " HTTP/1.1\r\nHost: fleet\r\nContent-Length: 0\r\n\r\n";
+    }
+
+    private static String get(String target) {
+        return "GET " + target + " HTTP/1.1\r\nHost: fleet\r\n\r\n";
+    }
+
+    /**
+     * A simulated rider: registers once, then alternates between starting and ending
+     * trips, sometimes listing the vehicles nearby first.
+     */
+    private static final class Rider implements Delayed {
+
+        private final String id;
+        private long due;
+        private boolean registered;
+        private String tripId;
+
+        Rider(String id, long due) {
+            this.id = id;
+            this.due = due;
+        }
+
+        String nextRequest(LoadGenerator generator, Random random) {
+            if (!registered) {
+                return post("/users?id=" + id + "&name=" + id + "&tier=STANDARD");
+            }
+            if (tripId != null) {
+                return post("/trips/" + tripId + "/end");
+            }
+            if (random.nextInt(10) == 0) {
+                return get("/vehicles/available?type=scooter&limit=10");
+            }
+            String vehicle = generator.vehicleIds.get(random.nextInt(generator.vehicleIds.size()));
+            return post("/trips?user=" + id + "&vehicle=" + vehicle);
+        }
+
+        void onResponse(int status, String body) {
+            if (!registered) {
+                // 409: the rider was registered by an earlier run against the same server
+                registered = status == 201 || status == 409;
+            } else if (tripId != null) {
+                if (status != -1) {
+                    tripId = null;
+                }
+            } else if (status == 201) {
+                int start = body.indexOf("\"tripId\":\"") + "\"tripId\":\"".length();
+                tripId = body.substring(start, body.indexOf('"', start));
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(due - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(due, ((Rider) other).due);
+        }
+    }
+
+    /**
+     * A keep-alive client connection, reopened after an error. Reads responses with a
+     * Content-Length, which is all the server sends.
+     */
+    private static final class Connection {
+
+        private final InetSocketAddress address;
+        private final byte[] line = new byte[1024];
+        private Socket socket;
+        private InputStream in;
+        private OutputStream out;
+        private byte[] body = new byte[4096];
+        private int bodyLength;
+
+        Connection(InetSocketAddress address) {
+            this.address = address;
+        }
+
+        /**
+         * Sends a request and reads the response; returns its status.
+         */
+        int send(String request) throws IOException {
+            if (socket == null) {
+                socket = new Socket(address.getAddress(), address.getPort());
+                socket.setTcpNoDelay(true);
+                in = new BufferedInputStream(socket.getInputStream());
+                out = socket.getOutputStream();
+            }
+            out.write(request.getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+
+            String statusLine = readLine();
+            int status = Integer.parseInt(statusLine.substring(9, 12));
+            int length = 0;
+            String header;
+            while (!(header = readLine()).isEmpty()) {
+                if (header.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    length = Integer.parseInt(header.substring(15).trim());
+                }
+            }
+            if (length > body.length) {
+                body = new byte[Math.max(length, body.length * 2)];
+            }
+            int read = 0;
+            while (read < length) {
+                int n = in.read(body, read, length - read);
+                if (n < 0) {
+                    throw new EOFException("Connection closed in the middle of a response");
+                }
+                read += n;
+            }
+            bodyLength = length;
+            return status;
+        }
+
+        String body() {
+            return new String(body, 0, bodyLength, StandardCharsets.UTF_8);
+        }
+
+        void close() {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // already broken
+                }
+                socket = null;
+            }
+        }
+
+        private String readLine() throws IOException {
+            int length = 0;
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c < 0) {
+                    throw new EOFException("Connection closed by the server");
+                }
+                if (c != '\r' && length < line.length) {
+                    line[length++] = (byte) c;
+                }
+            }
+            return new String(line, 0, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * Throughput and latency of a load run.
+     */
+    public static final class Report {
+
+        private final LogHistogram latencyMicros;
+        private final long succeeded;
+        private final long conflicts;
+        private final long failed;
+        private final long elapsedNanos;
+
+        Report(LogHistogram latencyMicros, long succeeded, long conflicts, long failed, long elapsedNanos) {
+            this.latencyMicros = latencyMicros;
+            this.succeeded = succeeded;
+            this.conflicts = conflicts;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Returns the completed requests per second, whatever their status.
+         *
+         * @return the throughput
+         */
+        public double getThroughput() {
+            return (succeeded + conflicts + failed) / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * Returns the latency at a percentile, e.g. 0.99 for p99.
+         *
+         * @param percentile the percentile, between 0 and 1
+         * @return the latency in microseconds
+         */
+        public long getLatencyMicros(double percentile) {
+            return latencyMicros.getValueAtPercentile(percentile);
+        }
+
+        /**
+         * Returns the number of requests answered with a 2xx status.
+         *
+         * @return the successful request count
+         */
+        public long getSucceeded() {
+            return succeeded;
+        }
+
+        /**
+         * Returns the number of trips refused because the vehicle was taken.
+         *
+         * @return the 409 count
+         */
+        public long getConflicts() {
+            return conflicts;
+        }
+
+        /**
+         * Returns the number of requests that failed with another status or an I/O error.
+         *
+         * @return the failed request count
+         */
+        public long getFailed() {
+            return failed;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s (ok %d, taken %d, failed %d), latency p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms",
+                    getThroughput(), succeeded, conflicts, failed,
+                    getLatencyMicros(0.5) / 1e3, getLatencyMicros(0.99) / 1e3, getLatencyMicros(0.999) / 1e3);
+        }
+    }
+}